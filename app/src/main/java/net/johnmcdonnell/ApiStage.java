@@ -0,0 +1,104 @@
+package net.johnmcdonnell;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.services.apigateway.CfnRestApi;
+import software.amazon.awscdk.services.apigateway.MethodDeploymentOptions;
+import software.amazon.awscdk.services.apigateway.MethodOptions;
+import software.amazon.awscdk.services.apigateway.RestApi;
+import software.amazon.awscdk.services.apigateway.StageOptions;
+
+/**
+ * Deploy options for the stage of each service's API, and the response
+ * compression every API shares. Every stage is throttled by the table's
+ * {@link ThrottleProfile}, and every stage publishes
+ * detailed CloudWatch metrics, which include {@code CacheHitCount} and
+ * {@code CacheMissCount} per method when the table's
+ * {@link PerformanceProfile} asks for a {@link CacheProfile}.
+ *
+ * @author John McDonnell
+ */
+public final class ApiStage {
+
+    /**
+     * Fixed rather than taken from the deployed stage, so functions can be
+     * told their API's address without depending on its deployment.
+     */
+    public static final String STAGE_NAME = "prod";
+
+    /**
+     * Responses at least this many bytes long are gzipped for clients that
+     * send {@code Accept-Encoding: gzip}; smaller ones are not worth it.
+     */
+    public static final int MINIMUM_COMPRESSION_SIZE = 1024;
+
+    private ApiStage() {
+    }
+
+    public static StageOptions options(final DatabaseTables databaseTable) {
+        final ThrottleProfile throttle = databaseTable.getPerformanceProfile().getThrottle();
+        final Optional<CacheProfile> cache = databaseTable.getPerformanceProfile().getCache();
+        final StageOptions.Builder options = StageOptions.builder()
+                .stageName(STAGE_NAME)
+                .metricsEnabled(Boolean.TRUE)
+                .throttlingRateLimit(throttle.getRateLimit())
+                .throttlingBurstLimit(throttle.getBurstLimit());
+        // Settings of a method replace the stage's, so a cached method repeats the stage's limits.
+        final Map<String, MethodDeploymentOptions> methodOptions = new HashMap<>();
+        for (CrudOperation operation : CrudOperation.values()) {
+            final boolean cached = cache.isPresent() && cache.get().ttlFor(operation) != null;
+            if (cached || throttle.getLimitedOperations().contains(operation)) {
+                methodOptions.put(methodPath(operation), MethodDeploymentOptions.builder()
+                        .cachingEnabled(cached ? Boolean.TRUE : null)
+                        .cacheTtl(cached ? cache.get().ttlFor(operation) : null)
+                        .requireAuthorizationForCacheControl(cached ? Boolean.TRUE : null)
+                        .metricsEnabled(Boolean.TRUE)
+                        .throttlingRateLimit(throttle.rateLimitFor(operation))
+                        .throttlingBurstLimit(throttle.burstLimitFor(operation))
+                        .build());
+            }
+        }
+        cache.ifPresent(profile -> options.cacheClusterEnabled(Boolean.TRUE)
+                .cacheClusterSize(profile.getClusterSize()));
+        if (!methodOptions.isEmpty()) {
+            options.methodOptions(methodOptions);
+        }
+        return options.build();
+    }
+
+    /**
+     * @return the operation's key in {@link StageOptions#getMethodOptions()}, e.g. {@code /{id}/GET}
+     */
+    static String methodPath(final CrudOperation operation) {
+        return operation.getResource() + "/" + operation.getHttpMethod();
+    }
+
+    /**
+     * @return a REST API deployed to the {@value #STAGE_NAME} stage with the
+     * table's options and compression, whose methods require an API key once
+     * any {@link ClientTier} clients are configured
+     */
+    public static RestApi restApi(final Construct scope, final String id, final String restApiName,
+            final DatabaseTables databaseTable) {
+        final RestApi restApi = RestApi.Builder.create(scope, id)
+                .restApiName(restApiName)
+                .deployOptions(options(databaseTable))
+                .defaultMethodOptions(ClientTier.clientsFromContext(scope).isEmpty()
+                        ? null
+                        : MethodOptions.builder().apiKeyRequired(Boolean.TRUE).build())
+                .build();
+        compress(restApi);
+        return restApi;
+    }
+
+    /**
+     * Turns on response compression for the whole API.
+     */
+    public static void compress(final RestApi restApi) {
+        // Not modelled by RestApi in this CDK version.
+        ((CfnRestApi) restApi.getNode().getDefaultChild())
+                .addPropertyOverride("MinimumCompressionSize", MINIMUM_COMPRESSION_SIZE);
+    }
+}
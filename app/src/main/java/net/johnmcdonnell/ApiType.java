@@ -0,0 +1,42 @@
+package net.johnmcdonnell;
+
+import software.amazon.awscdk.core.Construct;
+
+/**
+ * Which kind of API Gateway API fronts each service. Chosen with the
+ * {@code apiType} context value, e.g. {@code cdk deploy -c apiType=both}.
+ *
+ * @author John McDonnell
+ */
+public enum ApiType {
+    /**
+     * A REST API, which validates request bodies against {@link Schemas}
+     * models and can cache responses at its stage.
+     */
+    REST,
+    /**
+     * An {@link HttpApi}, cheaper and quicker per request; the handlers
+     * validate request bodies themselves.
+     */
+    HTTP,
+    /**
+     * Both, in front of the same functions and tables, for comparing the two
+     * with the same load.
+     */
+    BOTH;
+
+    public static final String CONTEXT_KEY = "apiType";
+
+    public static ApiType fromContext(Construct scope) {
+        final Object value = scope.getNode().tryGetContext(CONTEXT_KEY);
+        return value == null ? REST : valueOf(value.toString().toUpperCase());
+    }
+
+    public boolean hasRestApi() {
+        return this != HTTP;
+    }
+
+    public boolean hasHttpApi() {
+        return this != REST;
+    }
+}
@@ -0,0 +1,142 @@
+package net.johnmcdonnell;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SHA-256 over a Lambda asset's files, used to publish a new function version
+ * whenever the code behind it changes. Computed at most once per path per synth,
+ * and kept across synths in {@value #CACHE_FILE} together with a stamp of every
+ * file's name, size and modification time, so an unchanged asset is only
+ * listed, not read.
+ *
+ * @author John McDonnell
+ */
+public final class AssetFingerprint {
+
+    static final String CACHE_FILE = "target/asset-fingerprints.properties";
+
+    private static final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+    private static Properties cache;
+
+    private AssetFingerprint() {
+    }
+
+    public static String of(String assetPath) {
+        return fingerprints.computeIfAbsent(assetPath, AssetFingerprint::lookup);
+    }
+
+    /**
+     * @return the SHA-256 of text that is not an asset, such as a function's resolved configuration
+     */
+    public static String ofText(String text) {
+        return hex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static synchronized String lookup(String assetPath) {
+        final List<Path> files = files(assetPath);
+        final String stamp = stamp(assetPath, files);
+        final Properties cached = cache();
+        if (stamp.equals(cached.getProperty(assetPath + ".stamp"))) {
+            return cached.getProperty(assetPath);
+        }
+
+        final String fingerprint = compute(assetPath, files);
+        cached.setProperty(assetPath + ".stamp", stamp);
+        cached.setProperty(assetPath, fingerprint);
+        final Path cacheFile = Paths.get(CACHE_FILE);
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            try (OutputStream out = Files.newOutputStream(cacheFile)) {
+                cached.store(out, "Lambda asset fingerprints");
+            }
+        } catch (IOException e) {
+            // Only costs the next synth a full read.
+        }
+        return fingerprint;
+    }
+
+    private static Properties cache() {
+        if (cache == null) {
+            cache = new Properties();
+            final Path cacheFile = Paths.get(CACHE_FILE);
+            if (Files.isRegularFile(cacheFile)) {
+                try (InputStream in = Files.newInputStream(cacheFile)) {
+                    cache.load(in);
+                } catch (IOException e) {
+                    cache.clear();
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @return the regular files of the asset, which may be a directory or a single file, in a stable order
+     */
+    private static List<Path> files(String assetPath) {
+        try (Stream<Path> paths = Files.walk(Paths.get(assetPath))) {
+            return paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String stamp(String assetPath, List<Path> files) {
+        final Path root = Paths.get(assetPath);
+        final MessageDigest digest = sha256();
+        try {
+            for (Path file : files) {
+                digest.update((root.relativize(file) + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hex(digest.digest());
+    }
+
+    private static String compute(String assetPath, List<Path> files) {
+        final Path root = Paths.get(assetPath);
+        final MessageDigest digest = sha256();
+        try {
+            for (Path file : files) {
+                digest.update(root.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(file));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        final StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
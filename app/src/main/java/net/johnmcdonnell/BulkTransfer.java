@@ -0,0 +1,171 @@
+package net.johnmcdonnell;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Duration;
+import software.amazon.awscdk.core.Fn;
+import software.amazon.awscdk.services.apigateway.LambdaIntegration;
+import software.amazon.awscdk.services.apigateway.RestApi;
+import software.amazon.awscdk.services.dynamodb.Table;
+import software.amazon.awscdk.services.iam.PolicyStatement;
+import software.amazon.awscdk.services.lambda.Function;
+import software.amazon.awscdk.services.s3.BlockPublicAccess;
+import software.amazon.awscdk.services.s3.Bucket;
+import software.amazon.awscdk.services.s3.BucketEncryption;
+import software.amazon.awscdk.services.s3.EventType;
+import software.amazon.awscdk.services.s3.LifecycleRule;
+import software.amazon.awscdk.services.s3.NotificationKeyFilter;
+import software.amazon.awscdk.services.s3.notifications.LambdaDestination;
+
+/**
+ * {@code POST /export} and {@code POST /import} for one of the
+ * {@link DatabaseTables} with a {@link BulkTransferProfile}. An export starts
+ * a parallel segmented scan of the table into a gzipped NDJSON object and
+ * answers at once with a pre-signed URL that serves the object once it is
+ * complete. An import answers with a pre-signed URL to upload an NDJSON
+ * object to, which is then written to the table at the profile's rate by a
+ * single function at a time. The work runs in Node functions of its own,
+ * whatever the {@link HandlerImplementation}, like the stream consumers.
+ *
+ * @author John McDonnell
+ */
+public class BulkTransfer extends Construct {
+
+    private static final Duration WORKER_TIMEOUT = Duration.minutes(15);
+
+    private final Bucket bucket;
+
+    protected BulkTransfer(final Construct scope, final String id, final Builder builder) {
+        super(scope, id);
+
+        final BulkTransferProfile profile = builder.databaseTable.getPerformanceProfile().getBulkTransfer()
+                .orElseThrow(() -> new IllegalArgumentException(builder.databaseTable + " has no bulk transfer profile"));
+        final Table table = DatabaseStack.getTable(builder.databaseTable);
+
+        bucket = Bucket.Builder.create(this, "Bucket")
+                .encryption(BucketEncryption.S3_MANAGED)
+                .blockPublicAccess(BlockPublicAccess.BLOCK_ALL)
+                .lifecycleRules(Collections.singletonList(LifecycleRule.builder()
+                        .expiration(profile.getRetention())
+                        .build()))
+                .build();
+
+        final Map<String, String> environment = new HashMap<>(DatabaseStack.getDynamoEnvironmentParams(builder.databaseTable));
+        environment.put("METRICS_NAMESPACE", ServiceDashboard.NAMESPACE);
+        environment.put("BULK_BUCKET", bucket.getBucketName());
+        environment.put("URL_TTL_SECONDS", String.valueOf(profile.getUrlTtl().toSeconds()));
+        environment.put("IMPORT_WRITES_PER_SECOND", String.valueOf(profile.getImportWritesPerSecond()));
+
+        // Scans the table's segments in parallel into one object; one at a time, so exports cannot pile up on the table.
+        final Function exportFunction = createFunction("Export" + builder.entityName + "ItemsFunction", "exportItems",
+                1024, WORKER_TIMEOUT, 1, environment);
+        table.grantReadData(exportFunction);
+        bucket.grantPut(exportFunction);
+
+        // Uploads are imported one at a time, so the rate limit holds for the table; S3 retries
+        // the notifications of uploads that arrive while another is being written.
+        final Function importFunction = createFunction("Import" + builder.entityName + "ItemsFunction", "importItems",
+                512, WORKER_TIMEOUT, 1, environment);
+        table.grantWriteData(importFunction);
+        bucket.grantReadWrite(importFunction);
+        bucket.addEventNotification(EventType.OBJECT_CREATED, new LambdaDestination(importFunction),
+                NotificationKeyFilter.builder().prefix("imports/").build());
+        // An import that runs short of time hands the rest of its object to a fresh invocation.
+        allowSelfInvoke(importFunction, "Import" + builder.entityName + "ItemsFunction");
+
+        final Map<String, String> apiEnvironment = new HashMap<>(environment);
+        apiEnvironment.put("EXPORT_FUNCTION_NAME", exportFunction.getFunctionName());
+        final Function apiFunction = createFunction("Bulk" + builder.entityName + "ItemsFunction", "bulkItems",
+                256, Duration.seconds(6), null, apiEnvironment);
+        exportFunction.grantInvoke(apiFunction);
+        // Signs the URLs, which S3 checks against the signer's permissions.
+        bucket.grantReadWrite(apiFunction);
+
+        if (builder.restApi != null) {
+            final LambdaIntegration integration = LambdaIntegration.Builder.create(apiFunction).build();
+            builder.restApi.getRoot().addResource("export").addMethod("POST", integration);
+            builder.restApi.getRoot().addResource("import").addMethod("POST", integration);
+        }
+        if (builder.httpApi != null) {
+            builder.httpApi.addRoute("POST", "/export", apiFunction);
+            builder.httpApi.addRoute("POST", "/import", apiFunction);
+        }
+    }
+
+    private Function createFunction(final String functionName, final String handlerName, final Number memorySize,
+            final Duration timeout, final Number reservedConcurrency, final Map<String, String> environment) {
+        return Function.Builder.create(this, functionName)
+                .functionName(functionName)
+                .runtime(HandlerImplementation.NODEJS.getRuntime())
+                .code(HandlerImplementation.NODEJS.getCode(this, handlerName))
+                .handler(HandlerImplementation.NODEJS.getHandler(handlerName))
+                .memorySize(memorySize)
+                .timeout(timeout)
+                .reservedConcurrentExecutions(reservedConcurrency)
+                .environment(environment)
+                .build();
+    }
+
+    /**
+     * Granted by name, since a grant on the function itself would make its role depend on it.
+     */
+    private static void allowSelfInvoke(final Function function, final String functionName) {
+        function.addToRolePolicy(PolicyStatement.Builder.create()
+                .actions(Collections.singletonList("lambda:InvokeFunction"))
+                .resources(Collections.singletonList(Fn.sub(
+                        "arn:${AWS::Partition}:lambda:${AWS::Region}:${AWS::AccountId}:function:" + functionName)))
+                .build());
+    }
+
+    public Bucket getBucket() {
+        return bucket;
+    }
+
+    public static final class Builder {
+
+        private final Construct scope;
+        private final String id;
+        private DatabaseTables databaseTable;
+        private String entityName;
+        private RestApi restApi;
+        private HttpApi httpApi;
+
+        private Builder(final Construct scope, final String id) {
+            this.scope = scope;
+            this.id = id;
+        }
+
+        public static Builder create(final Construct scope, final String id) {
+            return new Builder(scope, id);
+        }
+
+        /**
+         * @param databaseTable the table to move, which must have a {@link BulkTransferProfile}
+         */
+        public Builder databaseTable(final DatabaseTables databaseTable) {
+            this.databaseTable = databaseTable;
+            return this;
+        }
+
+        public Builder entityName(final String entityName) {
+            this.entityName = entityName;
+            return this;
+        }
+
+        public Builder restApi(final RestApi restApi) {
+            this.restApi = restApi;
+            return this;
+        }
+
+        public Builder httpApi(final HttpApi httpApi) {
+            this.httpApi = httpApi;
+            return this;
+        }
+
+        public BulkTransfer build() {
+            return new BulkTransfer(scope, id, this);
+        }
+    }
+}
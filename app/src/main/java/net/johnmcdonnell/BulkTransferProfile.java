@@ -0,0 +1,77 @@
+package net.johnmcdonnell;
+
+import software.amazon.awscdk.core.Duration;
+
+/**
+ * Bulk export and import of a table's items as NDJSON objects in S3, for
+ * consumers that want the whole table, such as analytics and reindexing jobs,
+ * rather than paging through {@code GET /}. Imports are written no faster
+ * than the given rate, so they leave the table's capacity to the API. Export
+ * links stay valid for the URL TTL, and snapshots and uploads are deleted
+ * after the retention.
+ *
+ * @author John McDonnell
+ */
+public final class BulkTransferProfile {
+
+    private final Number importWritesPerSecond;
+    private final Duration urlTtl;
+    private final Duration retention;
+
+    private BulkTransferProfile(Builder builder) {
+        this.importWritesPerSecond = builder.importWritesPerSecond;
+        this.urlTtl = builder.urlTtl;
+        this.retention = builder.retention;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return items an import writes per second at most
+     */
+    public Number getImportWritesPerSecond() {
+        return importWritesPerSecond;
+    }
+
+    /**
+     * @return how long the pre-signed download and upload URLs are valid
+     */
+    public Duration getUrlTtl() {
+        return urlTtl;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public static final class Builder {
+
+        private Number importWritesPerSecond = 100;
+        private Duration urlTtl = Duration.hours(1);
+        private Duration retention = Duration.days(7);
+
+        private Builder() {
+        }
+
+        public Builder importWritesPerSecond(final Number importWritesPerSecond) {
+            this.importWritesPerSecond = importWritesPerSecond;
+            return this;
+        }
+
+        public Builder urlTtl(final Duration urlTtl) {
+            this.urlTtl = urlTtl;
+            return this;
+        }
+
+        public Builder retention(final Duration retention) {
+            this.retention = retention;
+            return this;
+        }
+
+        public BulkTransferProfile build() {
+            return new BulkTransferProfile(this);
+        }
+    }
+}
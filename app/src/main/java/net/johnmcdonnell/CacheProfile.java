@@ -0,0 +1,80 @@
+package net.johnmcdonnell;
+
+import software.amazon.awscdk.core.Duration;
+
+/**
+ * API Gateway response caching for a table's read routes: the size of the
+ * stage's cache cluster and how long {@code GET /{id}} and {@code GET /}
+ * responses are kept. An item's response is refreshed when it is updated or
+ * deleted through {@code PUT} or {@code DELETE} on {@code /{id}}, or deleted
+ * by a batch write. Other writes, such as stream-maintained attributes, and
+ * all list pages only expire, so the TTLs bound how stale those reads can be.
+ *
+ * @author John McDonnell
+ */
+public final class CacheProfile {
+
+    private final String clusterSize;
+    private final Duration itemTtl;
+    private final Duration listTtl;
+
+    private CacheProfile(Builder builder) {
+        this.clusterSize = builder.clusterSize;
+        this.itemTtl = builder.itemTtl;
+        this.listTtl = builder.listTtl;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the cache cluster size in GB, one of the sizes API Gateway offers, e.g. {@code 0.5}
+     */
+    public String getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * @return how long responses of the operation are cached, or null when it is not cached
+     */
+    public Duration ttlFor(CrudOperation operation) {
+        switch (operation) {
+            case GET_ITEM:
+                return itemTtl;
+            case GET_ITEMS:
+                return listTtl;
+            default:
+                return null;
+        }
+    }
+
+    public static final class Builder {
+
+        private String clusterSize = "0.5";
+        private Duration itemTtl = Duration.minutes(5);
+        private Duration listTtl = Duration.seconds(30);
+
+        private Builder() {
+        }
+
+        public Builder clusterSize(final String clusterSize) {
+            this.clusterSize = clusterSize;
+            return this;
+        }
+
+        public Builder itemTtl(final Duration itemTtl) {
+            this.itemTtl = itemTtl;
+            return this;
+        }
+
+        public Builder listTtl(final Duration listTtl) {
+            this.listTtl = listTtl;
+            return this;
+        }
+
+        public CacheProfile build() {
+            return new CacheProfile(this);
+        }
+    }
+}
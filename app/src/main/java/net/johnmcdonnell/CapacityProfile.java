@@ -0,0 +1,126 @@
+package net.johnmcdonnell;
+
+import software.amazon.awscdk.services.dynamodb.BillingMode;
+
+/**
+ * How a table, and each of its secondary indexes, is billed for throughput.
+ * On-demand is the default; provisioned tables start at their minimum read and
+ * write capacity and are scaled to track the target utilization.
+ *
+ * @author John McDonnell
+ */
+public final class CapacityProfile {
+
+    public static final CapacityProfile ON_DEMAND = builder().build();
+
+    private final BillingMode billingMode;
+    private final Number minReadCapacity;
+    private final Number maxReadCapacity;
+    private final Number minWriteCapacity;
+    private final Number maxWriteCapacity;
+    private final Number targetUtilizationPercent;
+    private final boolean contributorInsights;
+
+    private CapacityProfile(Builder builder) {
+        this.billingMode = builder.billingMode;
+        this.minReadCapacity = builder.minReadCapacity;
+        this.maxReadCapacity = builder.maxReadCapacity;
+        this.minWriteCapacity = builder.minWriteCapacity;
+        this.maxWriteCapacity = builder.maxWriteCapacity;
+        this.targetUtilizationPercent = builder.targetUtilizationPercent;
+        this.contributorInsights = builder.contributorInsights;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static CapacityProfile provisioned(Number minReadCapacity, Number maxReadCapacity,
+            Number minWriteCapacity, Number maxWriteCapacity) {
+        return builder()
+                .billingMode(BillingMode.PROVISIONED)
+                .readCapacity(minReadCapacity, maxReadCapacity)
+                .writeCapacity(minWriteCapacity, maxWriteCapacity)
+                .build();
+    }
+
+    public BillingMode getBillingMode() {
+        return billingMode;
+    }
+
+    public boolean isProvisioned() {
+        return billingMode == BillingMode.PROVISIONED;
+    }
+
+    public Number getMinReadCapacity() {
+        return minReadCapacity;
+    }
+
+    public Number getMaxReadCapacity() {
+        return maxReadCapacity;
+    }
+
+    public Number getMinWriteCapacity() {
+        return minWriteCapacity;
+    }
+
+    public Number getMaxWriteCapacity() {
+        return maxWriteCapacity;
+    }
+
+    public Number getTargetUtilizationPercent() {
+        return targetUtilizationPercent;
+    }
+
+    /**
+     * @return whether CloudWatch Contributor Insights reports the table's most accessed and throttled keys
+     */
+    public boolean isContributorInsights() {
+        return contributorInsights;
+    }
+
+    public static final class Builder {
+
+        private BillingMode billingMode = BillingMode.PAY_PER_REQUEST;
+        private Number minReadCapacity = 5;
+        private Number maxReadCapacity = 5;
+        private Number minWriteCapacity = 5;
+        private Number maxWriteCapacity = 5;
+        private Number targetUtilizationPercent = 70;
+        private boolean contributorInsights = true;
+
+        private Builder() {
+        }
+
+        public Builder billingMode(final BillingMode billingMode) {
+            this.billingMode = billingMode;
+            return this;
+        }
+
+        public Builder readCapacity(final Number min, final Number max) {
+            this.minReadCapacity = min;
+            this.maxReadCapacity = max;
+            return this;
+        }
+
+        public Builder writeCapacity(final Number min, final Number max) {
+            this.minWriteCapacity = min;
+            this.maxWriteCapacity = max;
+            return this;
+        }
+
+        public Builder targetUtilizationPercent(final Number targetUtilizationPercent) {
+            this.targetUtilizationPercent = targetUtilizationPercent;
+            return this;
+        }
+
+        public Builder contributorInsights(final boolean contributorInsights) {
+            this.contributorInsights = contributorInsights;
+            return this;
+        }
+
+        public CapacityProfile build() {
+            return new CapacityProfile(this);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package net.johnmcdonnell;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import software.amazon.awscdk.core.Construct;
+
+/**
+ * The usage plans every REST API offers its clients: a steady rate, a burst
+ * and a daily quota for each API key, and a far lower rate for the
+ * operations its {@link ThrottleProfile} limits, so one client's list scans
+ * cannot spend the table's capacity for everyone. Clients are given keys with
+ * the {@code apiClients} context value, e.g.
+ * {@code cdk deploy -c apiClients=acme=partner,webshop=standard}; once any
+ * are, every method requires a key.
+ *
+ * @author John McDonnell
+ */
+public enum ClientTier {
+    /** Trials and internal tools. */
+    BASIC(10, 20, 10_000, 1, 2),
+    /** Storefronts and apps serving shoppers. */
+    STANDARD(100, 200, 500_000, 5, 10),
+    /** Partners syncing the catalog and orders in bulk. */
+    PARTNER(300, 600, 5_000_000, 20, 40);
+
+    public static final String CONTEXT_KEY = "apiClients";
+
+    private final Number rateLimit;
+    private final Number burstLimit;
+    private final Number dailyQuota;
+    private final Number limitedRateLimit;
+    private final Number limitedBurstLimit;
+
+    ClientTier(Number rateLimit, Number burstLimit, Number dailyQuota, Number limitedRateLimit, Number limitedBurstLimit) {
+        this.rateLimit = rateLimit;
+        this.burstLimit = burstLimit;
+        this.dailyQuota = dailyQuota;
+        this.limitedRateLimit = limitedRateLimit;
+        this.limitedBurstLimit = limitedBurstLimit;
+    }
+
+    /**
+     * @return the tier of each client named in the context value, by client name; empty when there are none
+     */
+    public static Map<String, ClientTier> clientsFromContext(Construct scope) {
+        final Object value = scope.getNode().tryGetContext(CONTEXT_KEY);
+        if (value == null || value.toString().isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<String, ClientTier> clients = new LinkedHashMap<>();
+        for (String entry : value.toString().split(",")) {
+            final String[] client = entry.trim().split("=");
+            if (client.length != 2 || !client[0].matches("[A-Za-z0-9-]+")) {
+                throw new IllegalArgumentException(CONTEXT_KEY + " must be a list of name=tier, e.g. acme=partner");
+            }
+            clients.put(client[0], valueOf(client[1].toUpperCase()));
+        }
+        return clients;
+    }
+
+    /**
+     * @return e.g. {@code Partner}, as used in plan names
+     */
+    public String getName() {
+        return name().charAt(0) + name().substring(1).toLowerCase();
+    }
+
+    public Number getRateLimit() {
+        return rateLimit;
+    }
+
+    public Number getBurstLimit() {
+        return burstLimit;
+    }
+
+    /**
+     * @return requests each key may make per day across the API
+     */
+    public Number getDailyQuota() {
+        return dailyQuota;
+    }
+
+    /**
+     * @return requests per second each key may make to an operation its service limits more tightly
+     */
+    public Number getLimitedRateLimit() {
+        return limitedRateLimit;
+    }
+
+    public Number getLimitedBurstLimit() {
+        return limitedBurstLimit;
+    }
+}
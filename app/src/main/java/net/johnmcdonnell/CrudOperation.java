@@ -0,0 +1,61 @@
+package net.johnmcdonnell;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The operations a CRUD service can expose, and the name of the handler that
+ * implements each one by default: a Node script under {@code lambda/}, or the
+ * Java class of the same name in the {@code handlers} module. Services expose
+ * the {@link #STANDARD} operations unless they choose otherwise.
+ *
+ * @author John McDonnell
+ */
+public enum CrudOperation {
+    GET_ITEM("getItem", "GET", "/{id}", "Get%sItemFunction"),
+    GET_ITEMS("getItems", "GET", "/", "Get%sItemsFunction"),
+    CREATE_ITEM("createItem", "POST", "/", "Create%sItemFunction"),
+    UPDATE_ITEM("updateItem", "PUT", "/{id}", "Update%sItemFunction"),
+    DELETE_ITEM("deleteItem", "DELETE", "/{id}", "Delete%sItemFunction"),
+    BATCH_GET_ITEMS("batchGetItems", "POST", "/batch-get", "BatchGet%sItemsFunction"),
+    BATCH_WRITE_ITEMS("batchWriteItems", "POST", "/batch-write", "BatchWrite%sItemsFunction"),
+    SEARCH_ITEMS("searchItems", "GET", "/search", "Search%sItemsFunction");
+
+    public static final Set<CrudOperation> STANDARD = Collections.unmodifiableSet(EnumSet.range(GET_ITEM, DELETE_ITEM));
+
+    private final String handlerName;
+    private final String httpMethod;
+    private final String resource;
+    private final String functionNameFormat;
+
+    CrudOperation(String handlerName, String httpMethod, String resource, String functionNameFormat) {
+        this.handlerName = handlerName;
+        this.httpMethod = httpMethod;
+        this.resource = resource;
+        this.functionNameFormat = functionNameFormat;
+    }
+
+    public String getHandlerName() {
+        return handlerName;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    /**
+     * @return the API resource the operation is served on, e.g. the root or {@code /{id}}
+     */
+    public String getResource() {
+        return resource;
+    }
+
+    /**
+     * @param entityName the singular entity a service manages, e.g. {@code Product}
+     * @return the function name used when the operation has a function of its own
+     */
+    public String getFunctionName(String entityName) {
+        return String.format(functionNameFormat, entityName);
+    }
+}
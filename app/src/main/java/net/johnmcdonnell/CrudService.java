@@ -0,0 +1,655 @@
+package net.johnmcdonnell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.awscdk.core.Aws;
+import software.amazon.awscdk.core.CfnOutput;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Duration;
+import software.amazon.awscdk.core.Fn;
+import software.amazon.awscdk.core.Stack;
+import software.amazon.awscdk.services.apigateway.ApiKey;
+import software.amazon.awscdk.services.apigateway.IResource;
+import software.amazon.awscdk.services.apigateway.JsonSchema;
+import software.amazon.awscdk.services.apigateway.LambdaIntegration;
+import software.amazon.awscdk.services.apigateway.Method;
+import software.amazon.awscdk.services.apigateway.MethodOptions;
+import software.amazon.awscdk.services.apigateway.Model;
+import software.amazon.awscdk.services.apigateway.Period;
+import software.amazon.awscdk.services.apigateway.QuotaSettings;
+import software.amazon.awscdk.services.apigateway.RequestValidator;
+import software.amazon.awscdk.services.apigateway.RestApi;
+import software.amazon.awscdk.services.apigateway.ThrottleSettings;
+import software.amazon.awscdk.services.apigateway.ThrottlingPerMethod;
+import software.amazon.awscdk.services.apigateway.UsagePlan;
+import software.amazon.awscdk.services.apigateway.UsagePlanPerApiStage;
+import software.amazon.awscdk.services.apigateway.UsagePlanProps;
+import software.amazon.awscdk.services.applicationautoscaling.CfnScalableTarget;
+import software.amazon.awscdk.services.applicationautoscaling.CfnScalingPolicy;
+import software.amazon.awscdk.services.dynamodb.Table;
+import software.amazon.awscdk.services.iam.PolicyStatement;
+import software.amazon.awscdk.services.lambda.Alias;
+import software.amazon.awscdk.services.lambda.Function;
+import software.amazon.awscdk.services.lambda.IFunction;
+import software.amazon.awscdk.services.lambda.Version;
+import software.amazon.awscdk.services.s3.BlockPublicAccess;
+import software.amazon.awscdk.services.s3.Bucket;
+import software.amazon.awscdk.services.s3.BucketEncryption;
+
+/**
+ * The Lambda functions and API methods that serve CRUD operations on one of
+ * the {@link DatabaseTables}. In {@link ServiceMode#PER_METHOD} every operation
+ * gets its own function; in {@link ServiceMode#ROUTER} a single function serves
+ * them all behind an {@code ANY} method on each resource, keeping explicit
+ * methods only where a request model or parameters are declared. Functions
+ * are sized from the table's {@link PerformanceProfile} and monitored by a
+ * {@link ServiceDashboard}. Items that expire from a table with a
+ * {@link TimeToLive} are archived from its stream. The service is
+ * served by a REST API, an {@link HttpApi} or both, see {@link ApiType},
+ * throttled by the table's {@link ThrottleProfile}; a REST API also offers a
+ * usage plan per {@link ClientTier}.
+ *
+ * @author John McDonnell
+ */
+public class CrudService extends Construct {
+
+    public static final String LIVE_ALIAS = "live";
+
+    private final Map<CrudOperation, Function> functions = new EnumMap<>(CrudOperation.class);
+    private final Map<Function, IFunction> targets = new HashMap<>();
+    private final Map<CrudOperation, Method> methods = new EnumMap<>(CrudOperation.class);
+    private RequestValidator bodyValidator;
+    private ApiKey cacheRefreshKey;
+
+    protected CrudService(final Construct scope, final String id, final Builder builder) {
+        super(scope, id);
+
+        final Map<String, String> dynamoDbEnvironmentParams = new HashMap<>(DatabaseStack.getDynamoEnvironmentParams(builder.databaseTable));
+        dynamoDbEnvironmentParams.put("METRICS_NAMESPACE", ServiceDashboard.NAMESPACE);
+        dynamoDbEnvironmentParams.putAll(builder.environment);
+        final HandlerImplementation handlers = HandlerImplementation.fromContext(this);
+
+        final PerformanceProfile performanceProfile = builder.databaseTable.getPerformanceProfile();
+        final Optional<CacheProfile> cache = performanceProfile.getCache();
+        final Optional<ItemCacheProfile> itemCache = performanceProfile.getItemCache();
+        if (!builder.readableFields.isEmpty()) {
+            final Set<String> readableFields = new LinkedHashSet<>();
+            readableFields.add(builder.databaseTable.getPrimaryKey());
+            readableFields.add("createdAt");
+            readableFields.add("updatedAt");
+            readableFields.addAll(builder.readableFields);
+            dynamoDbEnvironmentParams.put("FIELDS", String.join(",", readableFields));
+        }
+        if (!builder.requestSchemas.isEmpty() && builder.httpApi != null) {
+            // An HTTP API cannot validate bodies, so the handlers do.
+            dynamoDbEnvironmentParams.put("REQUEST_SCHEMAS", builder.requestSchemas.entrySet().stream()
+                    .map(schema -> "\"" + schema.getKey().getHandlerName() + "\":" + Schemas.toJson(schema.getValue()))
+                    .collect(Collectors.joining(",", "{", "}")));
+        }
+        if (cache.isPresent() && builder.restApi != null) {
+            // Lets writes refresh the cached GET /{id} response of the item they change.
+            dynamoDbEnvironmentParams.put("API_ID", builder.restApi.getRestApiId());
+            dynamoDbEnvironmentParams.put("API_STAGE", ApiStage.STAGE_NAME);
+            if (!ClientTier.clientsFromContext(this).isEmpty()) {
+                // Once clients are named every method requires a key, so the refresh has one of its own.
+                cacheRefreshKey = ApiKey.Builder.create(this, "CacheRefreshApiKey")
+                        .apiKeyName(builder.entityName + "-cache-refresh")
+                        .build();
+                dynamoDbEnvironmentParams.put("API_KEY_ID", cacheRefreshKey.getKeyId());
+            }
+            // Lets reads tell when the stage may cache their response, which must then not be a 304.
+            dynamoDbEnvironmentParams.put("STAGE_CACHED_ROUTES", builder.operations.stream()
+                    .filter(operation -> cache.get().ttlFor(operation) != null)
+                    .map(operation -> operation.getHttpMethod() + " " + operation.getResource())
+                    .collect(Collectors.joining(",")));
+        }
+        if (builder.mode == ServiceMode.ROUTER) {
+            final Map<String, String> routerEnvironmentParams = new HashMap<>(dynamoDbEnvironmentParams);
+            routerEnvironmentParams.put("OPERATIONS", builder.operations.stream()
+                    .map(operation -> builder.handlerName(operation).equals(operation.getHandlerName())
+                            ? operation.getHandlerName()
+                            : operation.getHandlerName() + "=" + builder.handlerName(operation))
+                    .collect(Collectors.joining(",")));
+
+            final Function routerFunction = createFunction(builder.entityName + "RouterFunction",
+                    handlers, HandlerImplementation.ROUTER, routerEnvironmentParams, performanceProfile.forRouter());
+            DatabaseStack.getTable(builder.databaseTable).grantReadWriteData(routerFunction);
+            builder.operations.forEach(operation -> functions.put(operation, routerFunction));
+        } else {
+            for (CrudOperation operation : builder.operations) {
+                final Function function = createFunction(operation.getFunctionName(builder.entityName),
+                        handlers, builder.handlerName(operation), dynamoDbEnvironmentParams, performanceProfile.forOperation(operation));
+                DatabaseStack.getTable(builder.databaseTable).grantReadWriteData(function);
+                functions.put(operation, function);
+            }
+        }
+
+        final ServiceDashboard.Builder dashboard = ServiceDashboard.Builder.create(this, "Monitoring")
+                .databaseTable(builder.databaseTable)
+                .entityName(builder.entityName);
+        builder.operations.forEach(operation -> dashboard.function(builder.handlerName(operation), functions.get(operation)));
+        dashboard.build();
+
+        final ThrottleProfile throttle = performanceProfile.getThrottle();
+        if (builder.restApi != null) {
+            addRestMethods(builder, cache, itemCache, throttle);
+            addUsagePlans(builder, throttle);
+        }
+        if (builder.httpApi != null) {
+            builder.httpApi.throttle(throttle.getRateLimit(), throttle.getBurstLimit());
+            for (CrudOperation operation : builder.operations) {
+                builder.httpApi.addRoute(operation.getHttpMethod(), operation.getResource(), targets.get(functions.get(operation)));
+                if (throttle.getLimitedOperations().contains(operation)) {
+                    builder.httpApi.throttleRoute(operation.getHttpMethod(), operation.getResource(),
+                            throttle.rateLimitFor(operation), throttle.burstLimitFor(operation));
+                }
+            }
+        }
+
+        if (itemCache.isPresent() && functions.containsKey(CrudOperation.GET_ITEM)) {
+            final Table generations = DatabaseStack.getTable(DatabaseTables.CACHE_GENERATIONS);
+            generations.grantReadData(functions.get(CrudOperation.GET_ITEM));
+            final StreamConsumer generationConsumer = StreamConsumer.Builder.create(this, "ItemCacheGeneration")
+                    .databaseTable(builder.databaseTable)
+                    .functionName(builder.entityName + "CacheGenerationFunction")
+                    .handler("bumpCacheGeneration")
+                    .batchingWindow(Duration.seconds(1))
+                    .build();
+            generations.grantReadWriteData(generationConsumer.getFunction());
+        }
+
+        builder.databaseTable.getTimeToLive()
+                .filter(timeToLive -> timeToLive.getArchive() != TimeToLive.Archive.NONE)
+                .ifPresent(timeToLive -> addArchive(builder, timeToLive));
+
+        if (performanceProfile.getBulkTransfer().isPresent()) {
+            BulkTransfer.Builder.create(this, "BulkTransfer")
+                    .databaseTable(builder.databaseTable)
+                    .entityName(builder.entityName)
+                    .restApi(builder.restApi)
+                    .httpApi(builder.httpApi)
+                    .build();
+        }
+
+        if (cache.isPresent() && builder.restApi != null) {
+            final PolicyStatement invalidateCache = PolicyStatement.Builder.create()
+                    .actions(Collections.singletonList("execute-api:InvalidateCache"))
+                    .resources(Collections.singletonList(builder.restApi.arnForExecuteApi("GET", "/*", ApiStage.STAGE_NAME)))
+                    .build();
+            // The writers read the value of the refresh key with the API Gateway API, as it is not in the template.
+            final Optional<PolicyStatement> readRefreshKey = Optional.ofNullable(cacheRefreshKey)
+                    .map(key -> PolicyStatement.Builder.create()
+                            .actions(Collections.singletonList("apigateway:GET"))
+                            .resources(Collections.singletonList("arn:" + Aws.PARTITION + ":apigateway:" + Aws.REGION
+                                    + "::/apikeys/" + key.getKeyId()))
+                            .build());
+            Stream.of(CrudOperation.UPDATE_ITEM, CrudOperation.DELETE_ITEM, CrudOperation.BATCH_WRITE_ITEMS)
+                    .filter(functions::containsKey)
+                    .map(functions::get)
+                    .distinct()
+                    .forEach(function -> {
+                        function.addToRolePolicy(invalidateCache);
+                        readRefreshKey.ifPresent(function::addToRolePolicy);
+                    });
+        }
+    }
+
+    /**
+     * Copies the items that expire from the table to its archive from the
+     * table's stream. An archive table also serves {@code GET /{id}} for
+     * items no longer in the table; a bucket is only for bulk reads.
+     */
+    private void addArchive(final Builder builder, final TimeToLive timeToLive) {
+        final StreamConsumer.Builder consumer = StreamConsumer.Builder.create(this, "ExpiredItemArchive")
+                .databaseTable(builder.databaseTable)
+                .functionName(builder.entityName + "ArchiveFunction")
+                .handler("archiveExpired")
+                .environment("METRICS_NAMESPACE", ServiceDashboard.NAMESPACE)
+                .batchingWindow(Duration.seconds(30));
+        if (timeToLive.getArchive() == TimeToLive.Archive.TABLE) {
+            final Table archiveTable = DatabaseStack.getTable(timeToLive.getArchiveTable().get());
+            archiveTable.grantWriteData(consumer.build().getFunction());
+            if (functions.containsKey(CrudOperation.GET_ITEM)) {
+                archiveTable.grantReadData(functions.get(CrudOperation.GET_ITEM));
+            }
+        } else {
+            final Bucket bucket = Bucket.Builder.create(this, "ArchiveBucket")
+                    .encryption(BucketEncryption.S3_MANAGED)
+                    .blockPublicAccess(BlockPublicAccess.BLOCK_ALL)
+                    .build();
+            bucket.grantPut(consumer.environment("ARCHIVE_BUCKET", bucket.getBucketName()).build().getFunction());
+        }
+    }
+
+    /**
+     * Adds a method to the REST API for each operation, validating request
+     * bodies against a model of the operation's schema where one is given.
+     */
+    private void addRestMethods(final Builder builder, final Optional<CacheProfile> cache, final Optional<ItemCacheProfile> itemCache,
+            final ThrottleProfile throttle) {
+        final IResource apiRoot = builder.restApi.getRoot();
+        final Map<String, IResource> resources = new HashMap<>();
+        resources.put("/", apiRoot);
+        for (CrudOperation operation : builder.operations) {
+            resources.computeIfAbsent(operation.getResource(), resource -> apiRoot.addResource(resource.substring(1)));
+        }
+
+        // Cached reads always get a method of their own, since stage cache settings are per method,
+        // keyed on the path id and every parameter the method declares: the fields selected of a
+        // list, and the consistent flag that bypasses the item cache, whose entry a write refreshes
+        // too. A write cannot refresh every projection of an item, so a cached GET /{id} takes no
+        // fields and answers with the whole item. If-None-Match is left out as well; the handlers
+        // answer a request the stage may cache with the full response, never a 304.
+        final Set<String> proxiedResources = new LinkedHashSet<>();
+        for (CrudOperation operation : builder.operations) {
+            final boolean cached = cache.isPresent() && cache.get().ttlFor(operation) != null;
+            final Map<String, Boolean> addedParameters = new HashMap<>();
+            if (cached && operation.getResource().contains("{id}")) {
+                addedParameters.put("method.request.path.id", Boolean.TRUE);
+            }
+            if (!builder.readableFields.isEmpty() && (operation == CrudOperation.GET_ITEMS
+                    || operation == CrudOperation.GET_ITEM && !cached)) {
+                addedParameters.put("method.request.querystring.fields", Boolean.FALSE);
+            }
+            if (itemCache.isPresent() && operation == CrudOperation.GET_ITEM) {
+                addedParameters.put("method.request.querystring.consistent", Boolean.FALSE);
+            }
+            MethodOptions methodOptions = addedParameters.isEmpty()
+                    ? builder.methodOptions.get(operation)
+                    : withRequestParameters(builder.methodOptions.get(operation), addedParameters);
+            if (builder.requestSchemas.containsKey(operation)) {
+                if (bodyValidator == null) {
+                    bodyValidator = RequestValidator.Builder.create(this, "BodyValidator")
+                            .requestValidatorName(builder.entityName + "BodyValidator")
+                            .validateRequestBody(Boolean.TRUE)
+                            .validateRequestParameters(Boolean.FALSE)
+                            .restApi(builder.restApi)
+                            .build();
+                }
+                final String handlerName = operation.getHandlerName();
+                final Model model = Schemas.model(this, builder.restApi, builder.entityName
+                        + Character.toUpperCase(handlerName.charAt(0)) + handlerName.substring(1) + "Model",
+                        builder.requestSchemas.get(operation));
+                methodOptions = withRequestModel(methodOptions, bodyValidator, model);
+            }
+            // Stage throttling settings are per method too, so a more tightly limited operation is never proxied.
+            if (methodOptions == null && throttle.getLimitedOperations().contains(operation)) {
+                methodOptions = MethodOptions.builder().build();
+            }
+            if (builder.mode == ServiceMode.ROUTER && methodOptions == null) {
+                proxiedResources.add(operation.getResource());
+                continue;
+            }
+            methods.put(operation, resources.get(operation.getResource()).addMethod(operation.getHttpMethod(),
+                    LambdaIntegration.Builder.create(targets.get(functions.get(operation)))
+                            .cacheKeyParameters(cached && !methodOptions.getRequestParameters().isEmpty()
+                                    ? new ArrayList<>(methodOptions.getRequestParameters().keySet())
+                                    : null)
+                            .build(),
+                    methodOptions));
+        }
+        for (String resource : proxiedResources) {
+            resources.get(resource).addMethod("ANY",
+                    LambdaIntegration.Builder.create(targets.get(functions.values().iterator().next())).build());
+        }
+
+    }
+
+    /**
+     * Adds a usage plan per {@link ClientTier}, holding the API key of each
+     * client of that tier, which limits each key on its own and tighter still
+     * on the operations the table's {@link ThrottleProfile} limits. A client
+     * over its limits or its quota gets 429s while other clients are served.
+     * Once any clients are named, an internal plan holds the key the writers
+     * refresh the stage cache with.
+     */
+    private void addUsagePlans(final Builder builder, final ThrottleProfile throttle) {
+        final Map<String, ClientTier> clients = ClientTier.clientsFromContext(this);
+        for (ClientTier tier : ClientTier.values()) {
+            final List<ThrottlingPerMethod> limitedMethods = throttle.getLimitedOperations().stream()
+                    .filter(methods::containsKey)
+                    .map(operation -> ThrottlingPerMethod.builder()
+                            .method(methods.get(operation))
+                            .throttle(ThrottleSettings.builder()
+                                    .rateLimit(tier.getLimitedRateLimit())
+                                    .burstLimit(tier.getLimitedBurstLimit())
+                                    .build())
+                            .build())
+                    .collect(Collectors.toList());
+            final UsagePlan plan = builder.restApi.addUsagePlan(tier.getName() + "UsagePlan", UsagePlanProps.builder()
+                    .name(builder.entityName + tier.getName())
+                    .throttle(ThrottleSettings.builder()
+                            .rateLimit(tier.getRateLimit())
+                            .burstLimit(tier.getBurstLimit())
+                            .build())
+                    .quota(QuotaSettings.builder()
+                            .limit(tier.getDailyQuota())
+                            .period(Period.DAY)
+                            .build())
+                    .apiStages(Collections.singletonList(UsagePlanPerApiStage.builder()
+                            .api(builder.restApi)
+                            .stage(builder.restApi.getDeploymentStage())
+                            .throttle(limitedMethods.isEmpty() ? null : limitedMethods)
+                            .build()))
+                    .build());
+            clients.forEach((client, clientTier) -> {
+                if (clientTier == tier) {
+                    final ApiKey apiKey = ApiKey.Builder.create(this, client + "ApiKey")
+                            .apiKeyName(builder.entityName + "-" + client)
+                            .build();
+                    plan.addApiKey(apiKey);
+                    // The key's value is read with aws apigateway get-api-key --include-value.
+                    CfnOutput.Builder.create(this, client + "ApiKeyId")
+                            .value(apiKey.getKeyId())
+                            .build();
+                }
+            });
+        }
+        if (cacheRefreshKey != null) {
+            // Refreshes come from writes, so they are bounded by the write limits rather than a quota of their own.
+            builder.restApi.addUsagePlan("CacheRefreshUsagePlan", UsagePlanProps.builder()
+                    .name(builder.entityName + "CacheRefresh")
+                    .apiStages(Collections.singletonList(UsagePlanPerApiStage.builder()
+                            .api(builder.restApi)
+                            .stage(builder.restApi.getDeploymentStage())
+                            .build()))
+                    .build())
+                    .addApiKey(cacheRefreshKey);
+        }
+    }
+
+    /**
+     * @return the options with more request parameters declared; a path
+     * parameter must be declared before it can be part of a cache key
+     */
+    private static MethodOptions withRequestParameters(final MethodOptions options, final Map<String, Boolean> added) {
+        final Map<String, Boolean> requestParameters = new HashMap<>();
+        if (options != null && options.getRequestParameters() != null) {
+            requestParameters.putAll(options.getRequestParameters());
+        }
+        requestParameters.putAll(added);
+        if (options == null) {
+            return MethodOptions.builder().requestParameters(requestParameters).build();
+        }
+        return MethodOptions.builder()
+                .apiKeyRequired(options.getApiKeyRequired())
+                .authorizationType(options.getAuthorizationType())
+                .authorizer(options.getAuthorizer())
+                .methodResponses(options.getMethodResponses())
+                .operationName(options.getOperationName())
+                .requestModels(options.getRequestModels())
+                .requestValidator(options.getRequestValidator())
+                .requestParameters(requestParameters)
+                .build();
+    }
+
+    /**
+     * @return the options with the request body validated against the model
+     */
+    private static MethodOptions withRequestModel(final MethodOptions options, final RequestValidator validator, final Model model) {
+        final Map<String, Model> requestModels = Collections.singletonMap("application/json", model);
+        if (options == null) {
+            return MethodOptions.builder().requestValidator(validator).requestModels(requestModels).build();
+        }
+        return MethodOptions.builder()
+                .apiKeyRequired(options.getApiKeyRequired())
+                .authorizationType(options.getAuthorizationType())
+                .authorizer(options.getAuthorizer())
+                .methodResponses(options.getMethodResponses())
+                .operationName(options.getOperationName())
+                .requestModels(requestModels)
+                .requestValidator(validator)
+                .requestParameters(options.getRequestParameters())
+                .build();
+    }
+
+    /**
+     * Creates a function sized by its profile. When the profile provisions
+     * concurrency, the current code is published as a version behind a
+     * {@value #LIVE_ALIAS} alias whose provisioned concurrency is scaled on
+     * utilization, and the API invokes the alias instead of $LATEST.
+     */
+    private Function createFunction(final String functionName, final HandlerImplementation handlers,
+            final String handlerName, final Map<String, String> environment, final FunctionProfile profile) {
+        final Number memorySize = atLeast(profile.getMemorySize(), handlers.getMemorySize());
+        final Duration timeout = atLeast(profile.getTimeout(), handlers.getTimeout());
+        final Function function = Function.Builder.create(this, functionName)
+                .functionName(functionName)
+                .runtime(handlers.getRuntime())
+                .code(handlers.getCode(this, handlerName))
+                .handler(handlers.getHandler(handlerName))
+                .memorySize(memorySize)
+                .timeout(timeout)
+                .reservedConcurrentExecutions(profile.getReservedConcurrency())
+                .environment(environment)
+                .build();
+        if (!profile.isProvisioned()) {
+            targets.put(function, function);
+            return function;
+        }
+
+        final Version version = Version.Builder.create(this, functionName + "Version")
+                .lambda(function)
+                .description("Code " + AssetFingerprint.of(handlers.getAssetPath(handlerName))
+                        + " configuration " + configurationFingerprint(handlers, handlerName, memorySize, timeout,
+                                profile.getReservedConcurrency(), environment))
+                .build();
+        final Alias alias = Alias.Builder.create(this, functionName + "LiveAlias")
+                .aliasName(LIVE_ALIAS)
+                .version(version)
+                .provisionedConcurrentExecutions(profile.getMinProvisionedConcurrency())
+                .build();
+
+        final CfnScalableTarget scalableTarget = CfnScalableTarget.Builder.create(this, functionName + "ScalableTarget")
+                .serviceNamespace("lambda")
+                .scalableDimension("lambda:function:ProvisionedConcurrency")
+                .resourceId("function:" + functionName + ":" + LIVE_ALIAS)
+                .roleArn(Fn.sub("arn:${AWS::Partition}:iam::${AWS::AccountId}:role/aws-service-role/lambda.application-autoscaling.amazonaws.com/AWSServiceRoleForApplicationAutoScaling_LambdaConcurrency"))
+                .minCapacity(profile.getMinProvisionedConcurrency())
+                .maxCapacity(profile.getMaxProvisionedConcurrency())
+                .build();
+        scalableTarget.getNode().addDependency(alias);
+
+        CfnScalingPolicy.Builder.create(this, functionName + "UtilizationScaling")
+                .policyName(functionName + "Utilization")
+                .policyType("TargetTrackingScaling")
+                .scalingTargetId(scalableTarget.getRef())
+                .targetTrackingScalingPolicyConfiguration(CfnScalingPolicy.TargetTrackingScalingPolicyConfigurationProperty.builder()
+                        .targetValue(profile.getUtilizationTarget())
+                        .predefinedMetricSpecification(CfnScalingPolicy.PredefinedMetricSpecificationProperty.builder()
+                                .predefinedMetricType("LambdaProvisionedConcurrencyUtilization")
+                                .build())
+                        .build())
+                .build();
+
+        targets.put(function, alias);
+        return function;
+    }
+
+    /**
+     * A new version is only published when its description changes, so the
+     * description carries a hash of everything a version snapshots besides the
+     * code. Tokens in the environment, such as table names, are hashed as
+     * their resolved references, which are the same from one synth to the next.
+     */
+    private String configurationFingerprint(final HandlerImplementation handlers, final String handlerName,
+            final Number memorySize, final Duration timeout, final Number reservedConcurrency,
+            final Map<String, String> environment) {
+        final Map<String, Object> configuration = new TreeMap<>();
+        configuration.put("runtime", handlers.getRuntime().getName());
+        configuration.put("handler", handlers.getHandler(handlerName));
+        configuration.put("memorySize", memorySize);
+        configuration.put("timeout", timeout == null ? null : timeout.toSeconds());
+        configuration.put("reservedConcurrency", reservedConcurrency);
+        configuration.put("environment", new TreeMap<>(environment));
+        return AssetFingerprint.ofText(String.valueOf(Stack.of(this).resolve(configuration)));
+    }
+
+    private static Number atLeast(final Number value, final Number minimum) {
+        if (value == null || minimum == null) {
+            return value == null ? minimum : value;
+        }
+        return Math.max(value.intValue(), minimum.intValue());
+    }
+
+    private static Duration atLeast(final Duration value, final Duration minimum) {
+        if (value == null || minimum == null) {
+            return value == null ? minimum : value;
+        }
+        return value.toSeconds().intValue() >= minimum.toSeconds().intValue() ? value : minimum;
+    }
+
+    /**
+     * @param operation one of the operations the service was built with
+     * @return the function serving it, which in router mode is shared by every operation
+     */
+    public Function getFunction(CrudOperation operation) {
+        return functions.get(operation);
+    }
+
+    /**
+     * @param operation one of the operations the service was built with
+     * @return what the API invokes for it: the function's live alias when it has provisioned concurrency,
+     * otherwise the function itself
+     */
+    public IFunction getTarget(CrudOperation operation) {
+        return targets.get(functions.get(operation));
+    }
+
+    public Set<Function> getFunctions() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(functions.values()));
+    }
+
+    public static final class Builder {
+
+        private final Construct scope;
+        private final String id;
+        private DatabaseTables databaseTable;
+        private String entityName;
+        private RestApi restApi;
+        private HttpApi httpApi;
+        private ServiceMode mode;
+        private Set<CrudOperation> operations = EnumSet.copyOf(CrudOperation.STANDARD);
+        private final Map<CrudOperation, MethodOptions> methodOptions = new EnumMap<>(CrudOperation.class);
+        private final Map<CrudOperation, String> handlerNames = new EnumMap<>(CrudOperation.class);
+        private final Map<String, String> environment = new HashMap<>();
+        private final Set<String> readableFields = new LinkedHashSet<>();
+        private final Map<CrudOperation, JsonSchema> requestSchemas = new EnumMap<>(CrudOperation.class);
+
+        private Builder(final Construct scope, final String id) {
+            this.scope = scope;
+            this.id = id;
+            this.mode = ServiceMode.fromContext(scope);
+        }
+
+        public static Builder create(final Construct scope, final String id) {
+            return new Builder(scope, id);
+        }
+
+        public Builder databaseTable(final DatabaseTables databaseTable) {
+            this.databaseTable = databaseTable;
+            return this;
+        }
+
+        /**
+         * @param entityName the singular entity name used in function names, e.g. {@code Product}
+         */
+        public Builder entityName(final String entityName) {
+            this.entityName = entityName;
+            return this;
+        }
+
+        public Builder restApi(final RestApi restApi) {
+            this.restApi = restApi;
+            return this;
+        }
+
+        public Builder httpApi(final HttpApi httpApi) {
+            this.httpApi = httpApi;
+            return this;
+        }
+
+        public Builder mode(final ServiceMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        public Builder operations(final Set<CrudOperation> operations) {
+            this.operations = EnumSet.copyOf(operations);
+            return this;
+        }
+
+        /**
+         * Adds an operation to those the service exposes, e.g. {@link CrudOperation#BATCH_GET_ITEMS}.
+         */
+        public Builder operation(final CrudOperation operation) {
+            this.operations.add(operation);
+            return this;
+        }
+
+        public Builder methodOptions(final CrudOperation operation, final MethodOptions options) {
+            this.methodOptions.put(operation, options);
+            return this;
+        }
+
+        /**
+         * Serves an operation with a handler other than its default, e.g.
+         * {@code updateInventory} for {@link CrudOperation#UPDATE_ITEM}.
+         */
+        public Builder handler(final CrudOperation operation, final String handlerName) {
+            this.handlerNames.put(operation, handlerName);
+            return this;
+        }
+
+        public Builder environment(final String name, final String value) {
+            this.environment.put(name, value);
+            return this;
+        }
+
+        public Builder environment(final Map<String, String> environment) {
+            this.environment.putAll(environment);
+            return this;
+        }
+
+        /**
+         * Lets {@code GET /} and {@code GET /{id}} return only the attributes
+         * named in {@code ?fields=}, which may be the schema's properties, the
+         * primary key, the timestamps and any attributes the service derives.
+         */
+        public Builder readableFields(final JsonSchema itemSchema, final String... derivedFields) {
+            this.readableFields.addAll(itemSchema.getProperties().keySet());
+            this.readableFields.addAll(Arrays.asList(derivedFields));
+            return this;
+        }
+
+        /**
+         * Rejects requests to the operation whose body does not match the
+         * schema with a 400: at a REST API by request validation, and behind
+         * an HTTP API by the handler.
+         */
+        public Builder requestSchema(final CrudOperation operation, final JsonSchema schema) {
+            this.requestSchemas.put(operation, schema);
+            return this;
+        }
+
+        private String handlerName(final CrudOperation operation) {
+            return handlerNames.getOrDefault(operation, operation.getHandlerName());
+        }
+
+        public CrudService build() {
+            return new CrudService(scope, id, this);
+        }
+    }
+}
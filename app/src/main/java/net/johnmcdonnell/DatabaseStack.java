@@ -0,0 +1,191 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package net.johnmcdonnell;
+
+import java.util.AbstractMap;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.RemovalPolicy;
+import software.amazon.awscdk.core.Stack;
+import software.amazon.awscdk.core.StackProps;
+import software.amazon.awscdk.services.dynamodb.Attribute;
+import software.amazon.awscdk.services.dynamodb.AttributeType;
+import software.amazon.awscdk.services.dynamodb.CfnTable;
+import software.amazon.awscdk.services.dynamodb.EnableScalingProps;
+import software.amazon.awscdk.services.dynamodb.GlobalSecondaryIndexProps;
+import software.amazon.awscdk.services.dynamodb.ProjectionType;
+import software.amazon.awscdk.services.dynamodb.Table;
+import software.amazon.awscdk.services.dynamodb.UtilizationScalingProps;
+
+/**
+ *
+ * @author John McDonnell
+ */
+public class DatabaseStack extends Stack {
+
+    private static Table productTable;
+    private static Table orderTable;
+    private static Table reviewTable;
+    private static Table inventoryTable;
+    private static final Map<DatabaseTables, Table> tables = new EnumMap<>(DatabaseTables.class);
+    
+    public DatabaseStack(final Construct parent, final String id) {
+        this(parent, id, null);
+    }
+
+    public DatabaseStack(final Construct parent, final String id, final StackProps props) {
+        super(parent, id, props);
+
+        initConstructs();
+    }
+
+    public static Table getProductTable() {
+        return productTable;
+    }
+
+    public static Table getOrderTable() {
+        return orderTable;
+    }
+
+    public static Table getReviewTable() {
+        return reviewTable;
+    }
+    
+    public static Table getInventoryTable() {
+        return inventoryTable;
+    }
+
+    public static Table getTable(DatabaseTables databaseTable) {
+        return tables.get(databaseTable);
+    }
+
+    private void initConstructs() {
+        productTable = createTable(DatabaseTables.PRODUCTS);
+        orderTable = createTable(DatabaseTables.ORDERS);
+        reviewTable = createTable(DatabaseTables.REVIEWS);
+        inventoryTable = createTable(DatabaseTables.INVENTORY);
+
+        // Orders past their retention expire from the hot table; their stream copies them here.
+        createTable(DatabaseTables.ORDERS_ARCHIVE);
+
+        // Stream consumers record each event they apply here so a retried batch is not applied twice.
+        // Markers only need to outlive the stream's 24 hour retention, so they expire.
+        createTable(DatabaseTables.PROCESSED_EVENTS);
+
+        // One counter per table with an item cache, bumped from the table's stream on every write.
+        createTable(DatabaseTables.CACHE_GENERATIONS);
+
+        // Product search postings, kept in step from the products stream.
+        createTable(DatabaseTables.PRODUCT_SEARCH);
+    }
+
+    private Table createTable(DatabaseTables databaseTable) {
+        final CapacityProfile capacity = databaseTable.getCapacityProfile();
+        final Table table = Table.Builder.create(this, databaseTable.getTableName())
+                .tableName(databaseTable.getTableName())
+                .partitionKey(Attribute.builder().name(databaseTable.getPrimaryKey()).type(AttributeType.STRING).build())
+                .sortKey(databaseTable.getSortKey()
+                        .map(sortKey -> Attribute.builder().name(sortKey).type(AttributeType.STRING).build())
+                        .orElse(null))
+                .removalPolicy(RemovalPolicy.DESTROY)
+                .billingMode(capacity.getBillingMode())
+                .readCapacity(capacity.isProvisioned() ? capacity.getMinReadCapacity() : null)
+                .writeCapacity(capacity.isProvisioned() ? capacity.getMinWriteCapacity() : null)
+                .stream(databaseTable.getStreamViewType().orElse(null))
+                .build();
+
+        for (TableIndex index : databaseTable.getIndexes()) {
+            table.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+                    .indexName(index.getIndexName())
+                    .partitionKey(Attribute.builder().name(index.getPartitionKey()).type(AttributeType.STRING).build())
+                    .sortKey(index.getSortKey()
+                            .map(sortKey -> Attribute.builder().name(sortKey).type(AttributeType.STRING).build())
+                            .orElse(null))
+                    .projectionType(ProjectionType.ALL)
+                    .readCapacity(capacity.isProvisioned() ? capacity.getMinReadCapacity() : null)
+                    .writeCapacity(capacity.isProvisioned() ? capacity.getMinWriteCapacity() : null)
+                    .build());
+        }
+
+        if (capacity.isProvisioned()) {
+            final UtilizationScalingProps utilization = UtilizationScalingProps.builder()
+                    .targetUtilizationPercent(capacity.getTargetUtilizationPercent())
+                    .build();
+            final EnableScalingProps readScaling = EnableScalingProps.builder()
+                    .minCapacity(capacity.getMinReadCapacity())
+                    .maxCapacity(capacity.getMaxReadCapacity())
+                    .build();
+            final EnableScalingProps writeScaling = EnableScalingProps.builder()
+                    .minCapacity(capacity.getMinWriteCapacity())
+                    .maxCapacity(capacity.getMaxWriteCapacity())
+                    .build();
+
+            table.autoScaleReadCapacity(readScaling).scaleOnUtilization(utilization);
+            table.autoScaleWriteCapacity(writeScaling).scaleOnUtilization(utilization);
+            for (TableIndex index : databaseTable.getIndexes()) {
+                table.autoScaleGlobalSecondaryIndexReadCapacity(index.getIndexName(), readScaling).scaleOnUtilization(utilization);
+                table.autoScaleGlobalSecondaryIndexWriteCapacity(index.getIndexName(), writeScaling).scaleOnUtilization(utilization);
+            }
+        }
+
+        databaseTable.getTimeToLive().ifPresent(timeToLive -> {
+            // Not modelled by the Table construct in this CDK version.
+            final CfnTable cfnTable = (CfnTable) table.getNode().getDefaultChild();
+            cfnTable.addPropertyOverride("TimeToLiveSpecification.AttributeName", timeToLive.getAttributeName());
+            cfnTable.addPropertyOverride("TimeToLiveSpecification.Enabled", Boolean.TRUE);
+        });
+
+        if (capacity.isContributorInsights()) {
+            // Not modelled by the Table construct in this CDK version.
+            ((CfnTable) table.getNode().getDefaultChild())
+                    .addPropertyOverride("ContributorInsightsSpecification.Enabled", Boolean.TRUE);
+        }
+
+        tables.put(databaseTable, table);
+        return table;
+    }
+
+    /**
+     * The environment a function working against the table is configured
+     * with, which the Java handlers read as their {@code TableConfig}; the
+     * load test configures the handlers from it too.
+     */
+    public static Map<String, String> getDynamoEnvironmentParams(DatabaseTables databaseTable) {
+        return getDynamoEnvironmentParams(databaseTable, "");
+    }
+
+    /**
+     * The same parameters with every name prefixed, for a function that also
+     * works against a table other than its own, e.g. {@code INVENTORY_TABLE_NAME}.
+     */
+    public static Map<String, String> getDynamoEnvironmentParams(DatabaseTables databaseTable, String prefix) {
+        final Map<String, String> params = Stream.of(
+                new AbstractMap.SimpleEntry<>("TABLE_NAME", databaseTable.getTableName()),
+                new AbstractMap.SimpleEntry<>("PRIMARY_KEY", databaseTable.getPrimaryKey()),
+                new AbstractMap.SimpleEntry<>("SCAN_SEGMENTS", String.valueOf(databaseTable.getScanSegments())),
+                new AbstractMap.SimpleEntry<>("QUERY_INDEXES", databaseTable.getIndexes().stream()
+                        .map(index -> index.getPartitionKey() + "=" + index.getIndexName())
+                        .collect(Collectors.joining(","))))
+                .collect(Collectors.toMap(entry -> prefix + entry.getKey(), Map.Entry::getValue));
+        databaseTable.getSortKey().ifPresent(sortKey -> params.put(prefix + "SORT_KEY", sortKey));
+        databaseTable.getPerformanceProfile().getItemCache().ifPresent(itemCache -> {
+            params.put(prefix + "ITEM_CACHE_SIZE", String.valueOf(itemCache.getMaxItems()));
+            params.put(prefix + "ITEM_CACHE_TTL_SECONDS", String.valueOf(itemCache.getTtl().toSeconds()));
+            params.put(prefix + "ITEM_CACHE_CHECK_SECONDS", String.valueOf(itemCache.getCheckInterval().toSeconds()));
+            params.put(prefix + "ITEM_CACHE_GENERATIONS_TABLE", DatabaseTables.CACHE_GENERATIONS.getTableName());
+        });
+        databaseTable.getTimeToLive().ifPresent(timeToLive -> {
+            params.put(prefix + "TTL_ATTRIBUTE", timeToLive.getAttributeName());
+            params.put(prefix + "TTL_SECONDS", String.valueOf(timeToLive.getRetention().toSeconds()));
+            timeToLive.getArchiveTable().ifPresent(archive ->
+                    params.put(prefix + "ARCHIVE_TABLE_NAME", archive.getTableName()));
+        });
+        return params;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package net.johnmcdonnell;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import software.amazon.awscdk.core.Duration;
+import software.amazon.awscdk.services.dynamodb.StreamViewType;
+
+/**
+ *
+ * @author John
+ */
+public enum DatabaseTables {
+    PRODUCTS("products","id", 4, CapacityProfile.ON_DEMAND, StreamViewType.NEW_AND_OLD_IMAGES,
+            PerformanceProfile.builder()
+                    .operation(CrudOperation.GET_ITEM, FunctionProfile.builder()
+                            .memorySize(1024).timeout(Duration.seconds(6))
+                            .reservedConcurrency(200).provisionedConcurrency(2, 20)
+                            .build())
+                    .operation(CrudOperation.GET_ITEMS, FunctionProfile.builder()
+                            .memorySize(1024).timeout(Duration.seconds(10))
+                            .reservedConcurrency(50)
+                            .build())
+                    .router(FunctionProfile.builder()
+                            .memorySize(1024).timeout(Duration.seconds(10))
+                            .reservedConcurrency(250).provisionedConcurrency(2, 20)
+                            .build())
+                    .cache(CacheProfile.builder()
+                            .clusterSize("0.5")
+                            .itemTtl(Duration.minutes(5)).listTtl(Duration.seconds(30))
+                            .build())
+                    .itemCache(ItemCacheProfile.builder()
+                            .maxItems(2000).ttl(Duration.minutes(1)).checkInterval(Duration.seconds(5))
+                            .build())
+                    .latencyObjective(Duration.millis(500))
+                    .throttle(ThrottleProfile.builder()
+                            .rateLimit(1000).burstLimit(2000)
+                            .operation(CrudOperation.GET_ITEMS, 50, 100)
+                            .operation(CrudOperation.BATCH_GET_ITEMS, 100, 200)
+                            .operation(CrudOperation.BATCH_WRITE_ITEMS, 20, 40)
+                            .operation(CrudOperation.SEARCH_ITEMS, 200, 400)
+                            .build())
+                    .bulkTransfer(BulkTransferProfile.builder().importWritesPerSecond(500).build())
+                    .build()),
+    REVIEWS("reviews","id", 4, CapacityProfile.ON_DEMAND, StreamViewType.NEW_AND_OLD_IMAGES,
+            PerformanceProfile.builder()
+                    .operation(CrudOperation.GET_ITEMS, FunctionProfile.builder()
+                            .memorySize(512).timeout(Duration.seconds(10))
+                            .build())
+                    .cache(CacheProfile.builder()
+                            .clusterSize("0.5")
+                            .itemTtl(Duration.minutes(10)).listTtl(Duration.minutes(1))
+                            .build())
+                    .throttle(ThrottleProfile.builder()
+                            .operation(CrudOperation.GET_ITEMS, 100, 200)
+                            .build())
+                    .bulkTransfer(BulkTransferProfile.builder().importWritesPerSecond(200).build())
+                    .build(),
+            TableIndex.of("productId-createdAt-index", "productId", "createdAt")),
+    // Declared ahead of ORDERS, whose time to live refers to it.
+    ORDERS_ARCHIVE("ordersArchive", "id", 8, CapacityProfile.ON_DEMAND, null,
+            PerformanceProfile.builder().build()),
+    ORDERS("orders","id", 8, CapacityProfile.provisioned(5, 100, 5, 100), StreamViewType.OLD_IMAGE,
+            PerformanceProfile.builder()
+                    .operation(CrudOperation.GET_ITEMS, FunctionProfile.builder()
+                            .memorySize(1024).timeout(Duration.seconds(10))
+                            .reservedConcurrency(20)
+                            .build())
+                    .throttle(ThrottleProfile.builder()
+                            .operation(CrudOperation.GET_ITEMS, 50, 100)
+                            .operation(CrudOperation.BATCH_GET_ITEMS, 50, 100)
+                            .operation(CrudOperation.BATCH_WRITE_ITEMS, 20, 40)
+                            .build())
+                    // Well inside the table's provisioned writes, which scale from 5 to 100 a second.
+                    .bulkTransfer(BulkTransferProfile.builder().importWritesPerSecond(25).build())
+                    .build(),
+            TimeToLive.archivedToTable("expiresAt", Duration.days(365), ORDERS_ARCHIVE),
+            TableIndex.of("userId-createdAt-index", "userId", "createdAt")),
+    INVENTORY("inventory","productId", 1, CapacityProfile.provisioned(5, 50, 5, 50), null,
+            PerformanceProfile.builder()
+                    .operation(CrudOperation.GET_ITEM, FunctionProfile.builder()
+                            .memorySize(512).timeout(Duration.seconds(6))
+                            .provisionedConcurrency(1, 10)
+                            .build())
+                    .bulkTransfer(BulkTransferProfile.builder().importWritesPerSecond(10).build())
+                    .build()),
+    PROCESSED_EVENTS("processedEvents", "eventId", 1, CapacityProfile.ON_DEMAND, null,
+            PerformanceProfile.builder().build(),
+            TimeToLive.of("expiresAt", Duration.days(2))),
+    CACHE_GENERATIONS("cacheGenerations", "tableName", 1, CapacityProfile.ON_DEMAND, null,
+            PerformanceProfile.builder().build()),
+    // One posting per token of a product's name and description, sorted by product so the
+    // postings of several tokens can be intersected by seeking through them in step.
+    PRODUCT_SEARCH("productSearch", "token", "productId", 4, CapacityProfile.ON_DEMAND, null,
+            PerformanceProfile.builder().build(), null);
+    
+    private final String tableName;
+    private final String primaryKey;
+    private final String sortKey;
+    private final int scanSegments;
+    private final CapacityProfile capacityProfile;
+    private final StreamViewType streamViewType;
+    private final PerformanceProfile performanceProfile;
+    private final TimeToLive timeToLive;
+    private final List<TableIndex> indexes;
+    
+    DatabaseTables(String tableName, String primaryKey, int scanSegments, CapacityProfile capacityProfile,
+            StreamViewType streamViewType, PerformanceProfile performanceProfile, TableIndex... indexes) {
+        this(tableName, primaryKey, scanSegments, capacityProfile, streamViewType, performanceProfile, null, indexes);
+    }
+
+    DatabaseTables(String tableName, String primaryKey, int scanSegments, CapacityProfile capacityProfile,
+            StreamViewType streamViewType, PerformanceProfile performanceProfile, TimeToLive timeToLive,
+            TableIndex... indexes) {
+        this(tableName, primaryKey, null, scanSegments, capacityProfile, streamViewType, performanceProfile,
+                timeToLive, indexes);
+    }
+
+    DatabaseTables(String tableName, String primaryKey, String sortKey, int scanSegments,
+            CapacityProfile capacityProfile, StreamViewType streamViewType, PerformanceProfile performanceProfile,
+            TimeToLive timeToLive, TableIndex... indexes) {
+        this.tableName = tableName;
+        this.primaryKey = primaryKey;
+        this.sortKey = sortKey;
+        this.scanSegments = scanSegments;
+        this.capacityProfile = capacityProfile;
+        this.streamViewType = streamViewType;
+        this.performanceProfile = performanceProfile;
+        this.timeToLive = timeToLive;
+        this.indexes = Collections.unmodifiableList(Arrays.asList(indexes));
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getPrimaryKey() {
+        return primaryKey;
+    }
+
+    /**
+     * @return the table's sort key, if items share a partition key
+     */
+    public Optional<String> getSortKey() {
+        return Optional.ofNullable(sortKey);
+    }
+
+    /**
+     * Number of segments a parallel scan of this table is split into.
+     * 
+     * @return the TotalSegments used when a list request opts in to parallel mode
+     */
+    public int getScanSegments() {
+        return scanSegments;
+    }
+
+    public CapacityProfile getCapacityProfile() {
+        return capacityProfile;
+    }
+
+    /**
+     * @return what the table's DynamoDB stream records, if it has one
+     */
+    public Optional<StreamViewType> getStreamViewType() {
+        return Optional.ofNullable(streamViewType);
+    }
+
+    public PerformanceProfile getPerformanceProfile() {
+        return performanceProfile;
+    }
+
+    /**
+     * @return when the table's items expire, if they do
+     */
+    public Optional<TimeToLive> getTimeToLive() {
+        return Optional.ofNullable(timeToLive);
+    }
+
+    public List<TableIndex> getIndexes() {
+        return indexes;
+    }
+    
+    
+}
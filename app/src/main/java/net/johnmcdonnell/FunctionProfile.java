@@ -0,0 +1,110 @@
+package net.johnmcdonnell;
+
+import software.amazon.awscdk.core.Duration;
+
+/**
+ * Sizing and concurrency for one Lambda function. Any value left unset falls
+ * back to the Lambda default; a function with provisioned concurrency is
+ * published behind an alias that Application Auto Scaling keeps near the
+ * utilization target.
+ *
+ * @author John McDonnell
+ */
+public final class FunctionProfile {
+
+    public static final FunctionProfile DEFAULT = builder().build();
+
+    private final Number memorySize;
+    private final Duration timeout;
+    private final Number reservedConcurrency;
+    private final Number minProvisionedConcurrency;
+    private final Number maxProvisionedConcurrency;
+    private final Number utilizationTarget;
+
+    private FunctionProfile(Builder builder) {
+        this.memorySize = builder.memorySize;
+        this.timeout = builder.timeout;
+        this.reservedConcurrency = builder.reservedConcurrency;
+        this.minProvisionedConcurrency = builder.minProvisionedConcurrency;
+        this.maxProvisionedConcurrency = builder.maxProvisionedConcurrency;
+        this.utilizationTarget = builder.utilizationTarget;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Number getMemorySize() {
+        return memorySize;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public Number getReservedConcurrency() {
+        return reservedConcurrency;
+    }
+
+    public boolean isProvisioned() {
+        return minProvisionedConcurrency != null && minProvisionedConcurrency.intValue() > 0;
+    }
+
+    public Number getMinProvisionedConcurrency() {
+        return minProvisionedConcurrency;
+    }
+
+    public Number getMaxProvisionedConcurrency() {
+        return maxProvisionedConcurrency;
+    }
+
+    /**
+     * @return the provisioned concurrency utilization, between 0 and 1, that auto scaling tracks
+     */
+    public Number getUtilizationTarget() {
+        return utilizationTarget;
+    }
+
+    public static final class Builder {
+
+        private Number memorySize;
+        private Duration timeout;
+        private Number reservedConcurrency;
+        private Number minProvisionedConcurrency;
+        private Number maxProvisionedConcurrency;
+        private Number utilizationTarget = 0.7;
+
+        private Builder() {
+        }
+
+        public Builder memorySize(final Number memorySize) {
+            this.memorySize = memorySize;
+            return this;
+        }
+
+        public Builder timeout(final Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder reservedConcurrency(final Number reservedConcurrency) {
+            this.reservedConcurrency = reservedConcurrency;
+            return this;
+        }
+
+        public Builder provisionedConcurrency(final Number min, final Number max) {
+            this.minProvisionedConcurrency = min;
+            this.maxProvisionedConcurrency = max;
+            return this;
+        }
+
+        public Builder utilizationTarget(final Number utilizationTarget) {
+            this.utilizationTarget = utilizationTarget;
+            return this;
+        }
+
+        public FunctionProfile build() {
+            return new FunctionProfile(this);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.johnmcdonnell;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Duration;
+import software.amazon.awscdk.services.lambda.Code;
+import software.amazon.awscdk.services.lambda.Runtime;
+
+/**
+ * Which implementation of the CRUD handlers the service stacks deploy: the
+ * Node scripts under {@code lambda/}, each function shipping a minified bundle
+ * of just its own handler, or the Java handlers built by the {@code handlers}
+ * module. Chosen with the {@code handlerImplementation}
+ * context value, e.g. {@code cdk deploy -c handlerImplementation=java11}.
+ *
+ * @author John McDonnell
+ */
+public enum HandlerImplementation {
+    NODEJS(Runtime.NODEJS_12_X, null, null),
+    JAVA8(Runtime.JAVA_8, 512, Duration.seconds(15)),
+    JAVA11(Runtime.JAVA_11, 512, Duration.seconds(15));
+
+    public static final String CONTEXT_KEY = "handlerImplementation";
+    public static final String ROUTER = "router";
+
+    private static final String NODE_BUNDLES = "lambda/dist/";
+    private static final String JAVA_ASSET = "handlers/target/handlers.jar";
+    private static final String JAVA_PACKAGE = "net.johnmcdonnell.handlers.";
+
+    private final Runtime runtime;
+    private final Number memorySize;
+    private final Duration timeout;
+
+    HandlerImplementation(Runtime runtime, Number memorySize, Duration timeout) {
+        this.runtime = runtime;
+        this.memorySize = memorySize;
+        this.timeout = timeout;
+    }
+
+    public static HandlerImplementation fromContext(Construct scope) {
+        final Object value = scope.getNode().tryGetContext(CONTEXT_KEY);
+        return value == null ? NODEJS : valueOf(value.toString().toUpperCase());
+    }
+
+    public Runtime getRuntime() {
+        return runtime;
+    }
+
+    /**
+     * @param handlerName a handler name such as {@code getItem}
+     * @return the Node handler's own bundle, built into {@code lambda/dist/} by
+     * {@code mvn package}, or the Java handlers' jar, which holds every handler
+     */
+    public String getAssetPath(String handlerName) {
+        return this == NODEJS ? NODE_BUNDLES + handlerName : JAVA_ASSET;
+    }
+
+    /**
+     * @param scope a construct in the stack that deploys the code
+     * @param handlerName a handler name such as {@code getItem}
+     * @return the code asset shared by every function of the stack with the same handler, see {@link LambdaAssets}
+     */
+    public Code getCode(Construct scope, String handlerName) {
+        final String assetPath = getAssetPath(handlerName);
+        if (!Files.exists(Paths.get(assetPath))) {
+            throw new IllegalStateException(assetPath + " is missing, build it with mvn package");
+        }
+        return LambdaAssets.code(scope, assetPath);
+    }
+
+    /**
+     * @param handlerName a handler name such as {@code getItem}, implemented by
+     * {@code lambda/getItem.js} and {@code net.johnmcdonnell.handlers.GetItemHandler}
+     * @return the Lambda handler string for this runtime
+     */
+    public String getHandler(String handlerName) {
+        return this == NODEJS
+                ? handlerName + ".handler"
+                : JAVA_PACKAGE + Character.toUpperCase(handlerName.charAt(0)) + handlerName.substring(1) + "Handler::handleRequest";
+    }
+
+    /**
+     * @return the least memory the runtime needs to start in reasonable time, or null for no minimum
+     */
+    public Number getMemorySize() {
+        return memorySize;
+    }
+
+    /**
+     * @return the shortest timeout that covers the runtime's cold start, or null for no minimum
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,143 @@
+package net.johnmcdonnell;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.awscdk.core.CfnOutput;
+import software.amazon.awscdk.core.CfnResource;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Fn;
+import software.amazon.awscdk.core.Token;
+import software.amazon.awscdk.services.iam.ServicePrincipal;
+import software.amazon.awscdk.services.lambda.IFunction;
+import software.amazon.awscdk.services.lambda.Permission;
+
+/**
+ * An API Gateway HTTP API with a {@code $default} stage that deploys every
+ * change. Routes proxy to Lambda with the 1.0 payload format, which is the
+ * event the REST API sends, so the same handlers serve both. The stage can be
+ * throttled as a whole and per route; HTTP APIs have no API keys or usage
+ * plans, so clients are not limited one by one. This CDK version
+ * has no constructs for HTTP APIs, so the resources are declared directly.
+ *
+ * @author John McDonnell
+ */
+public class HttpApi extends Construct {
+
+    private final CfnResource api;
+    private final CfnResource stage;
+    private final Map<String, CfnResource> routes = new HashMap<>();
+    private final Map<IFunction, CfnResource> integrations = new HashMap<>();
+
+    protected HttpApi(final Construct scope, final String id, final Builder builder) {
+        super(scope, id);
+
+        api = CfnResource.Builder.create(this, "Api")
+                .type("AWS::ApiGatewayV2::Api")
+                .properties(Stream.of(
+                        new AbstractMap.SimpleEntry<String, Object>("Name", builder.apiName),
+                        new AbstractMap.SimpleEntry<String, Object>("ProtocolType", "HTTP"))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                .build();
+        stage = CfnResource.Builder.create(this, "DefaultStage")
+                .type("AWS::ApiGatewayV2::Stage")
+                .properties(Stream.of(
+                        new AbstractMap.SimpleEntry<String, Object>("ApiId", getApiId()),
+                        new AbstractMap.SimpleEntry<String, Object>("StageName", "$default"),
+                        new AbstractMap.SimpleEntry<String, Object>("AutoDeploy", Boolean.TRUE))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                .build();
+        CfnOutput.Builder.create(this, "Endpoint")
+                .value(getApiEndpoint())
+                .build();
+    }
+
+    public String getApiId() {
+        return api.getRef();
+    }
+
+    public String getApiEndpoint() {
+        return Token.asString(api.getAtt("ApiEndpoint"));
+    }
+
+    /**
+     * Routes requests such as {@code GET /{id}} to the function, sharing one
+     * integration among all the routes a function serves.
+     */
+    public void addRoute(final String httpMethod, final String path, final IFunction target) {
+        final CfnResource integration = integrations.computeIfAbsent(target, function -> {
+            final String integrationId = "Integration" + integrations.size();
+            function.addPermission(getNode().getId() + integrationId + "Permission", Permission.builder()
+                    .principal(new ServicePrincipal("apigateway.amazonaws.com"))
+                    .sourceArn(Fn.sub("arn:${AWS::Partition}:execute-api:${AWS::Region}:${AWS::AccountId}:${ApiId}/*/*",
+                            Collections.singletonMap("ApiId", getApiId())))
+                    .build());
+            return CfnResource.Builder.create(this, integrationId)
+                    .type("AWS::ApiGatewayV2::Integration")
+                    .properties(Stream.of(
+                            new AbstractMap.SimpleEntry<String, Object>("ApiId", getApiId()),
+                            new AbstractMap.SimpleEntry<String, Object>("IntegrationType", "AWS_PROXY"),
+                            new AbstractMap.SimpleEntry<String, Object>("IntegrationUri", function.getFunctionArn()),
+                            new AbstractMap.SimpleEntry<String, Object>("PayloadFormatVersion", "1.0"))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                    .build();
+        });
+        final String routeKey = httpMethod + " " + path;
+        routes.put(routeKey, CfnResource.Builder.create(this, "Route" + routeKey.replaceAll("[^A-Za-z0-9]", ""))
+                .type("AWS::ApiGatewayV2::Route")
+                .properties(Stream.of(
+                        new AbstractMap.SimpleEntry<String, Object>("ApiId", getApiId()),
+                        new AbstractMap.SimpleEntry<String, Object>("RouteKey", routeKey),
+                        new AbstractMap.SimpleEntry<String, Object>("Target", Fn.join("/", Arrays.asList("integrations", integration.getRef()))))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                .build());
+    }
+
+    /**
+     * Limits the requests every route lets through, in requests per second.
+     */
+    public void throttle(final Number rateLimit, final Number burstLimit) {
+        stage.addPropertyOverride("DefaultRouteSettings.ThrottlingRateLimit", rateLimit);
+        stage.addPropertyOverride("DefaultRouteSettings.ThrottlingBurstLimit", burstLimit);
+    }
+
+    /**
+     * Limits one route, already added, more tightly than the stage.
+     */
+    public void throttleRoute(final String httpMethod, final String path, final Number rateLimit, final Number burstLimit) {
+        final String routeKey = httpMethod + " " + path;
+        stage.addPropertyOverride("RouteSettings." + routeKey + ".ThrottlingRateLimit", rateLimit);
+        stage.addPropertyOverride("RouteSettings." + routeKey + ".ThrottlingBurstLimit", burstLimit);
+        // Settings for a route that does not exist yet are rejected.
+        stage.addDependsOn(routes.get(routeKey));
+    }
+
+    public static final class Builder {
+
+        private final Construct scope;
+        private final String id;
+        private String apiName;
+
+        private Builder(final Construct scope, final String id) {
+            this.scope = scope;
+            this.id = id;
+        }
+
+        public static Builder create(final Construct scope, final String id) {
+            return new Builder(scope, id);
+        }
+
+        public Builder apiName(final String apiName) {
+            this.apiName = apiName;
+            return this;
+        }
+
+        public HttpApi build() {
+            return new HttpApi(scope, id, this);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package net.johnmcdonnell;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Stack;
+import software.amazon.awscdk.core.StackProps;
+import software.amazon.awscdk.services.apigateway.RestApi;
+
+/**
+ *
+ * @author John McDonnell
+ */
+public class InventoryStack extends Stack {
+
+    /**
+     * Context value that spreads each product's stock over this many counter
+     * items, e.g. {@code cdk deploy -c inventoryShards=8}, so a hot SKU does not
+     * concentrate its writes on one partition. Removals across shards are applied
+     * in a single transaction, which bounds the shard count. Raising it from 1
+     * is safe: stock left on the unsharded counter is still read and drawn down.
+     * Lowering it strands whatever the dropped shards hold.
+     */
+    public static final String COUNTER_SHARDS_CONTEXT_KEY = "inventoryShards";
+
+    private static final int MAX_COUNTER_SHARDS = 25;
+
+    /**
+     * The counter shard count for this app, shared with any stack that moves stock.
+     */
+    public static int getCounterShards(final Construct scope) {
+        final int counterShards = Integer.parseInt(String.valueOf(
+                Optional.ofNullable(scope.getNode().tryGetContext(COUNTER_SHARDS_CONTEXT_KEY)).orElse("1")));
+        if (counterShards < 1 || counterShards > MAX_COUNTER_SHARDS) {
+            throw new IllegalArgumentException(COUNTER_SHARDS_CONTEXT_KEY + " must be between 1 and " + MAX_COUNTER_SHARDS);
+        }
+        return counterShards;
+    }
+
+    public InventoryStack(final Construct parent, final String id) {
+        this(parent, id, null);
+    }
+
+    public InventoryStack(final Construct parent, final String id, final StackProps props) {
+        super(parent, id, props);
+
+        ApiType apiType = ApiType.fromContext(this);
+        RestApi inventoryApi = apiType.hasRestApi()
+                ? ApiStage.restApi(this, "inventoryApi", "Inventory Service", DatabaseTables.INVENTORY)
+                : null;
+        HttpApi inventoryHttpApi = apiType.hasHttpApi()
+                ? HttpApi.Builder.create(this, "inventoryHttpApi").apiName("Inventory Service").build()
+                : null;
+
+        CrudService.Builder.create(this, "InventoryService")
+                .databaseTable(DatabaseTables.INVENTORY)
+                .entityName("Inventory")
+                .restApi(inventoryApi)
+                .httpApi(inventoryHttpApi)
+                .operations(EnumSet.of(CrudOperation.GET_ITEM, CrudOperation.UPDATE_ITEM))
+                .handler(CrudOperation.GET_ITEM, "getInventory")
+                .handler(CrudOperation.UPDATE_ITEM, "updateInventory")
+                .environment("COUNTER_SHARDS", String.valueOf(getCounterShards(this)))
+                .requestSchema(CrudOperation.UPDATE_ITEM, Schemas.INVENTORY_ADJUSTMENT)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package net.johnmcdonnell;
+
+import software.amazon.awscdk.core.Duration;
+
+/**
+ * A bounded LRU cache of items kept inside each warm {@code getItem}
+ * container. Entries live for at most the TTL. Writes reach the cache through
+ * the table's stream, which bumps a generation counter per bucket of keys that
+ * containers check every check interval, dropping the items of any bucket that
+ * has moved, so a write is visible within roughly the check interval plus the
+ * stream's lag while the rest of the cache stays warm.
+ *
+ * @author John McDonnell
+ */
+public final class ItemCacheProfile {
+
+    private final int maxItems;
+    private final Duration ttl;
+    private final Duration checkInterval;
+
+    private ItemCacheProfile(Builder builder) {
+        this.maxItems = builder.maxItems;
+        this.ttl = builder.ttl;
+        this.checkInterval = builder.checkInterval;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public static final class Builder {
+
+        private int maxItems = 1000;
+        private Duration ttl = Duration.minutes(1);
+        private Duration checkInterval = Duration.seconds(5);
+
+        private Builder() {
+        }
+
+        public Builder maxItems(final int maxItems) {
+            this.maxItems = maxItems;
+            return this;
+        }
+
+        public Builder ttl(final Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        public Builder checkInterval(final Duration checkInterval) {
+            this.checkInterval = checkInterval;
+            return this;
+        }
+
+        public ItemCacheProfile build() {
+            return new ItemCacheProfile(this);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package net.johnmcdonnell;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Stack;
+import software.amazon.awscdk.services.lambda.Code;
+
+/**
+ * The code assets the functions of a stack share, one per path. A directory
+ * asset is packed once into a zip named after its {@link AssetFingerprint}
+ * under {@value #PACKAGE_DIR}, so the CDK hashes and stages one file instead
+ * of walking the directory for every function; the zip is only rebuilt when
+ * the directory changes. Each stack gets its own {@link Code}, since an asset
+ * belongs to the stack it is first bound in.
+ *
+ * @author John McDonnell
+ */
+public final class LambdaAssets {
+
+    static final String PACKAGE_DIR = "target/lambda-assets";
+
+    /**
+     * Entries carry a fixed time so the zip, and the asset hash the CDK takes
+     * of it, only change with the contents.
+     */
+    private static final long ENTRY_TIME = 315532800000L;
+
+    private static final Map<Stack, Map<String, Code>> codes = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Map<String, String> packages = new ConcurrentHashMap<>();
+
+    private LambdaAssets() {
+    }
+
+    /**
+     * @param scope a construct in the stack that deploys the code
+     * @param assetPath a directory or an archive, relative to the project root
+     */
+    public static Code code(final Construct scope, final String assetPath) {
+        return codes.computeIfAbsent(Stack.of(scope), stack -> new HashMap<>())
+                .computeIfAbsent(assetPath, path -> Code.fromAsset(packages.computeIfAbsent(path, LambdaAssets::pack)));
+    }
+
+    private static String pack(final String assetPath) {
+        final Path root = Paths.get(assetPath);
+        if (!Files.isDirectory(root)) {
+            return assetPath;
+        }
+        final String name = root.getFileName().toString();
+        final Path packageDir = Paths.get(PACKAGE_DIR);
+        final Path zip = packageDir.resolve(name + "-" + AssetFingerprint.of(assetPath) + ".zip");
+        if (Files.isRegularFile(zip)) {
+            return zip.toString();
+        }
+
+        try {
+            Files.createDirectories(packageDir);
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(packageDir, name + "-*.zip")) {
+                for (Path old : stale) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            final Path partial = Files.createTempFile(packageDir, name, ".partial");
+            final List<Path> files;
+            try (Stream<Path> paths = Files.walk(root)) {
+                files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(partial))) {
+                for (Path file : files) {
+                    final ZipEntry entry = new ZipEntry(root.relativize(file).toString().replace('\\', '/'));
+                    entry.setTime(ENTRY_TIME);
+                    out.putNextEntry(entry);
+                    Files.copy(file, out);
+                    out.closeEntry();
+                }
+            }
+            Files.move(partial, zip, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return zip.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package net.johnmcdonnell;
+
+import software.amazon.awscdk.core.Construct;
+
+/**
+ * How {@link OrderStack} takes new orders on {@code POST /}. Chosen with the
+ * {@code orderIngestion} context value, e.g.
+ * {@code cdk deploy -c orderIngestion=async}.
+ *
+ * @author John McDonnell
+ */
+public enum OrderIngestion {
+    /** A function places the order while the client waits, answering 201 or 409. */
+    SYNC,
+    /**
+     * The API queues the validated order and answers 202 with its id; a
+     * {@link QueueIngestion} consumer places it later.
+     */
+    ASYNC;
+
+    public static final String CONTEXT_KEY = "orderIngestion";
+
+    public static OrderIngestion fromContext(Construct scope) {
+        final Object value = scope.getNode().tryGetContext(CONTEXT_KEY);
+        return value == null ? SYNC : valueOf(value.toString().toUpperCase());
+    }
+}
@@ -0,0 +1,142 @@
+package net.johnmcdonnell;
+
+import java.util.AbstractMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Stack;
+import software.amazon.awscdk.core.StackProps;
+import software.amazon.awscdk.services.apigateway.MethodOptions;
+import software.amazon.awscdk.services.apigateway.RequestValidator;
+import software.amazon.awscdk.services.apigateway.RestApi;
+
+/**
+ *
+ * @author John McDonnell
+ */
+public class OrderStack extends Stack {
+
+    /**
+     * Context values that shape how queued orders reach the table when
+     * {@link OrderIngestion#ASYNC} is chosen, e.g.
+     * {@code cdk deploy -c orderIngestion=async -c orderBatchSize=25 -c orderMaxConcurrency=4}.
+     * At most size times concurrency orders are being placed at once.
+     */
+    public static final String BATCH_SIZE_CONTEXT_KEY = "orderBatchSize";
+    public static final String MAX_CONCURRENCY_CONTEXT_KEY = "orderMaxConcurrency";
+
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_CONCURRENCY = 1000;
+
+    static int getBatchSize(final Construct scope) {
+        return contextValue(scope, BATCH_SIZE_CONTEXT_KEY, 10, 1, MAX_BATCH_SIZE);
+    }
+
+    static int getMaxConcurrency(final Construct scope) {
+        return contextValue(scope, MAX_CONCURRENCY_CONTEXT_KEY, 5, 2, MAX_CONCURRENCY);
+    }
+
+    private static int contextValue(final Construct scope, final String key, final int defaultValue,
+            final int min, final int max) {
+        final int value = Integer.parseInt(String.valueOf(
+                Optional.ofNullable(scope.getNode().tryGetContext(key)).orElse(defaultValue)));
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(key + " must be between " + min + " and " + max);
+        }
+        return value;
+    }
+
+    public OrderStack(final Construct parent, final String id) {
+        this(parent, id, null);
+    }
+
+    public OrderStack(final Construct parent, final String id, final StackProps props) {
+        super(parent, id, props);
+
+        ApiType apiType = ApiType.fromContext(this);
+        RestApi orderApi = apiType.hasRestApi()
+                ? ApiStage.restApi(this, "orderApi", "Order Service", DatabaseTables.ORDERS)
+                : null;
+        HttpApi orderHttpApi = apiType.hasHttpApi()
+                ? HttpApi.Builder.create(this, "orderHttpApi").apiName("Order Service").build()
+                : null;
+
+        // Orders are placed with createOrder, which reserves stock for every product
+        // in the same transaction that writes the order. Batch writes store orders as
+        // given without reserving stock, for importing orders already fulfilled.
+        // Taken asynchronously, POST / queues the order instead and ingestOrders
+        // places it with the same transaction, recording whether it was placed.
+        // Only a REST API can send to the queue, so an HTTP API has no POST / then.
+        final OrderIngestion ingestion = OrderIngestion.fromContext(this);
+        if (ingestion == OrderIngestion.ASYNC && !apiType.hasRestApi()) {
+            throw new IllegalArgumentException(OrderIngestion.CONTEXT_KEY + "=async needs a REST API, set "
+                    + ApiType.CONTEXT_KEY + " to rest or both");
+        }
+        final Set<CrudOperation> orderOperations = EnumSet.copyOf(CrudOperation.STANDARD);
+        if (ingestion == OrderIngestion.ASYNC) {
+            orderOperations.remove(CrudOperation.CREATE_ITEM);
+        }
+        final Map<String, String> inventoryEnvironment = new HashMap<>(
+                DatabaseStack.getDynamoEnvironmentParams(DatabaseTables.INVENTORY, "INVENTORY_"));
+        inventoryEnvironment.put("INVENTORY_COUNTER_SHARDS", String.valueOf(InventoryStack.getCounterShards(this)));
+        // GET /{id}?expand=products embeds the products an order lists, read in one batch and
+        // projected to the fields an order page shows.
+        final Map<String, String> productEnvironment = new HashMap<>(
+                DatabaseStack.getDynamoEnvironmentParams(DatabaseTables.PRODUCTS, "PRODUCTS_"));
+        productEnvironment.put("PRODUCTS_FIELDS", String.join(",", Schemas.PRODUCT.getProperties().keySet()) + ",ratingAvg");
+
+        CrudService orderService = CrudService.Builder.create(this, "OrderService")
+                .databaseTable(DatabaseTables.ORDERS)
+                .entityName("Order")
+                .restApi(orderApi)
+                .httpApi(orderHttpApi)
+                .operations(orderOperations)
+                .readableFields(Schemas.ORDER, "status", "reason", "shortProductIds")
+                .handler(CrudOperation.CREATE_ITEM, "createOrder")
+                .environment(inventoryEnvironment)
+                .environment(productEnvironment)
+                .methodOptions(CrudOperation.GET_ITEMS, MethodOptions.builder()
+                        .requestParameters(Stream.of(
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.limit", Boolean.FALSE),
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.cursor", Boolean.FALSE),
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.parallel", Boolean.FALSE),
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.userId", Boolean.FALSE))
+                                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                        .build())
+                .requestSchema(CrudOperation.CREATE_ITEM, Schemas.ORDER)
+                .operation(CrudOperation.BATCH_GET_ITEMS)
+                .requestSchema(CrudOperation.BATCH_GET_ITEMS, Schemas.batchGet("Order"))
+                .operation(CrudOperation.BATCH_WRITE_ITEMS)
+                .requestSchema(CrudOperation.BATCH_WRITE_ITEMS, Schemas.batchWrite("Order", Schemas.ORDER))
+                .build();
+        DatabaseStack.getProductTable().grantReadData(orderService.getFunction(CrudOperation.GET_ITEM));
+
+        if (ingestion == OrderIngestion.ASYNC) {
+            final QueueIngestion orderQueue = QueueIngestion.Builder.create(this, "OrderIngestion")
+                    .databaseTable(DatabaseTables.ORDERS)
+                    .resource(orderApi.getRoot())
+                    .requestValidator(RequestValidator.Builder.create(this, "OrderPostValidator")
+                            .requestValidatorName("orderBodyValidator")
+                            .validateRequestBody(Boolean.TRUE)
+                            .validateRequestParameters(Boolean.FALSE)
+                            .restApi(orderApi)
+                            .build())
+                    .requestModel(Schemas.model(this, orderApi, "OrderModel", Schemas.ORDER))
+                    .functionName("IngestOrdersFunction")
+                    .handler("ingestOrders")
+                    .batchSize(getBatchSize(this))
+                    .maxConcurrency(getMaxConcurrency(this))
+                    .environment(inventoryEnvironment)
+                    .build();
+            DatabaseStack.getTable(DatabaseTables.INVENTORY).grantReadWriteData(orderQueue.getFunction());
+        } else {
+            DatabaseStack.getTable(DatabaseTables.INVENTORY).grantReadWriteData(orderService.getFunction(CrudOperation.CREATE_ITEM));
+        }
+    }
+
+}
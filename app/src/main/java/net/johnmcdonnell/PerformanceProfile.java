@@ -0,0 +1,141 @@
+package net.johnmcdonnell;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import software.amazon.awscdk.core.Duration;
+
+/**
+ * The {@link FunctionProfile} for each operation of a table's CRUD service,
+ * and for its router function when the service runs in
+ * {@link ServiceMode#ROUTER}. Operations without a profile of their own use the
+ * defaults. A {@link CacheProfile} turns on API Gateway caching for the reads,
+ * and an {@link ItemCacheProfile} an item cache inside {@code getItem}. The
+ * latency objective is the p99 each operation is alarmed on, see
+ * {@link ServiceDashboard}. The {@link ThrottleProfile} caps the rate of
+ * requests the API lets through to the functions, and a
+ * {@link BulkTransferProfile} moves whole tables through S3 instead.
+ *
+ * @author John McDonnell
+ */
+public final class PerformanceProfile {
+
+    public static final PerformanceProfile DEFAULT = builder().build();
+
+    private final FunctionProfile defaults;
+    private final FunctionProfile router;
+    private final Map<CrudOperation, FunctionProfile> operations;
+    private final CacheProfile cache;
+    private final ItemCacheProfile itemCache;
+    private final Duration latencyObjective;
+    private final ThrottleProfile throttle;
+    private final BulkTransferProfile bulkTransfer;
+
+    private PerformanceProfile(Builder builder) {
+        this.defaults = builder.defaults;
+        this.router = builder.router == null ? builder.defaults : builder.router;
+        this.operations = new EnumMap<>(builder.operations);
+        this.cache = builder.cache;
+        this.itemCache = builder.itemCache;
+        this.latencyObjective = builder.latencyObjective;
+        this.throttle = builder.throttle;
+        this.bulkTransfer = builder.bulkTransfer;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public FunctionProfile forOperation(CrudOperation operation) {
+        return operations.getOrDefault(operation, defaults);
+    }
+
+    public FunctionProfile forRouter() {
+        return router;
+    }
+
+    public Optional<CacheProfile> getCache() {
+        return Optional.ofNullable(cache);
+    }
+
+    public Optional<ItemCacheProfile> getItemCache() {
+        return Optional.ofNullable(itemCache);
+    }
+
+    public Duration getLatencyObjective() {
+        return latencyObjective;
+    }
+
+    public ThrottleProfile getThrottle() {
+        return throttle;
+    }
+
+    public Optional<BulkTransferProfile> getBulkTransfer() {
+        return Optional.ofNullable(bulkTransfer);
+    }
+
+    public static final class Builder {
+
+        private FunctionProfile defaults = FunctionProfile.builder()
+                .memorySize(256)
+                .timeout(Duration.seconds(6))
+                .build();
+        private FunctionProfile router;
+        private final Map<CrudOperation, FunctionProfile> operations = new EnumMap<>(CrudOperation.class);
+        private CacheProfile cache;
+        private ItemCacheProfile itemCache;
+        private Duration latencyObjective = Duration.seconds(1);
+        private ThrottleProfile throttle = ThrottleProfile.DEFAULT;
+        private BulkTransferProfile bulkTransfer;
+
+        private Builder() {
+        }
+
+        public Builder defaults(final FunctionProfile defaults) {
+            this.defaults = defaults;
+            return this;
+        }
+
+        public Builder router(final FunctionProfile router) {
+            this.router = router;
+            return this;
+        }
+
+        public Builder operation(final CrudOperation operation, final FunctionProfile profile) {
+            this.operations.put(operation, profile);
+            return this;
+        }
+
+        public Builder cache(final CacheProfile cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public Builder itemCache(final ItemCacheProfile itemCache) {
+            this.itemCache = itemCache;
+            return this;
+        }
+
+        /**
+         * @param latencyObjective the p99 latency above which an operation alarms
+         */
+        public Builder latencyObjective(final Duration latencyObjective) {
+            this.latencyObjective = latencyObjective;
+            return this;
+        }
+
+        public Builder throttle(final ThrottleProfile throttle) {
+            this.throttle = throttle;
+            return this;
+        }
+
+        public Builder bulkTransfer(final BulkTransferProfile bulkTransfer) {
+            this.bulkTransfer = bulkTransfer;
+            return this;
+        }
+
+        public PerformanceProfile build() {
+            return new PerformanceProfile(this);
+        }
+    }
+}
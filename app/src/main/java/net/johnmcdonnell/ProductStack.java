@@ -0,0 +1,76 @@
+package net.johnmcdonnell;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Stack;
+import software.amazon.awscdk.core.StackProps;
+import software.amazon.awscdk.services.apigateway.MethodOptions;
+import software.amazon.awscdk.services.apigateway.RestApi;
+import software.amazon.awscdk.services.dynamodb.Table;
+
+/**
+ *
+ * @author John McDonnell
+ */
+public class ProductStack extends Stack {
+
+    public ProductStack(final Construct parent, final String id) {
+        this(parent, id, null);
+    }
+
+    public ProductStack(final Construct parent, final String id, final StackProps props) {
+        super(parent, id, props);
+
+        ApiType apiType = ApiType.fromContext(this);
+        RestApi productApi = apiType.hasRestApi()
+                ? ApiStage.restApi(this, "productApi", "Product Service", DatabaseTables.PRODUCTS)
+                : null;
+        HttpApi productHttpApi = apiType.hasHttpApi()
+                ? HttpApi.Builder.create(this, "productHttpApi").apiName("Product Service").build()
+                : null;
+
+        final Map<String, String> searchEnvironment = DatabaseStack.getDynamoEnvironmentParams(DatabaseTables.PRODUCT_SEARCH, "SEARCH_");
+        CrudService productService = CrudService.Builder.create(this, "ProductService")
+                .databaseTable(DatabaseTables.PRODUCTS)
+                .entityName("Product")
+                .restApi(productApi)
+                .httpApi(productHttpApi)
+                .readableFields(Schemas.PRODUCT, "ratingCount", "ratingSum", "ratingAvg")
+                .methodOptions(CrudOperation.GET_ITEMS, MethodOptions.builder()
+                        .requestParameters(Stream.of(
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.limit", Boolean.FALSE),
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.cursor", Boolean.FALSE),
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.parallel", Boolean.FALSE))
+                                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                        .build())
+                .requestSchema(CrudOperation.CREATE_ITEM, Schemas.PRODUCT)
+                .operation(CrudOperation.BATCH_GET_ITEMS)
+                .requestSchema(CrudOperation.BATCH_GET_ITEMS, Schemas.batchGet("Product"))
+                .operation(CrudOperation.BATCH_WRITE_ITEMS)
+                .requestSchema(CrudOperation.BATCH_WRITE_ITEMS, Schemas.batchWrite("Product", Schemas.PRODUCT))
+                .operation(CrudOperation.SEARCH_ITEMS)
+                .methodOptions(CrudOperation.SEARCH_ITEMS, MethodOptions.builder()
+                        .requestParameters(Stream.of(
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.q", Boolean.FALSE),
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.limit", Boolean.FALSE))
+                                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                        .build())
+                .environment(searchEnvironment)
+                .build();
+        final Table searchTable = DatabaseStack.getTable(DatabaseTables.PRODUCT_SEARCH);
+        searchTable.grantReadData(productService.getFunction(CrudOperation.SEARCH_ITEMS));
+
+        // Keeps a posting per token of each product's name and description, so GET /search
+        // reads the postings of the query's tokens instead of scanning the catalog.
+        StreamConsumer searchIndexer = StreamConsumer.Builder.create(this, "ProductSearchIndex")
+                .databaseTable(DatabaseTables.PRODUCTS)
+                .functionName("IndexProductSearchFunction")
+                .handler("indexProducts")
+                .environment(searchEnvironment)
+                .build();
+        searchTable.grantReadWriteData(searchIndexer.getFunction());
+    }
+}
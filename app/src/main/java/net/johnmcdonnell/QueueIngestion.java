@@ -0,0 +1,253 @@
+package net.johnmcdonnell;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Duration;
+import software.amazon.awscdk.core.Stack;
+import software.amazon.awscdk.services.apigateway.AwsIntegration;
+import software.amazon.awscdk.services.apigateway.IResource;
+import software.amazon.awscdk.services.apigateway.IntegrationOptions;
+import software.amazon.awscdk.services.apigateway.IntegrationResponse;
+import software.amazon.awscdk.services.apigateway.MethodOptions;
+import software.amazon.awscdk.services.apigateway.MethodResponse;
+import software.amazon.awscdk.services.apigateway.Model;
+import software.amazon.awscdk.services.apigateway.PassthroughBehavior;
+import software.amazon.awscdk.services.apigateway.RequestValidator;
+import software.amazon.awscdk.services.iam.Role;
+import software.amazon.awscdk.services.iam.ServicePrincipal;
+import software.amazon.awscdk.services.lambda.CfnEventSourceMapping;
+import software.amazon.awscdk.services.lambda.EventSourceMapping;
+import software.amazon.awscdk.services.lambda.Function;
+import software.amazon.awscdk.services.sqs.DeadLetterQueue;
+import software.amazon.awscdk.services.sqs.Queue;
+
+/**
+ * A {@code POST} method that sends the validated request body straight to an
+ * SQS queue, with no function on the request path, and answers 202 with the
+ * id the item will be stored under. A Node function drains the queue in
+ * batches of at most {@code batchSize}, with at most {@code maxConcurrency}
+ * batches in flight, so the table sees a bounded write rate however fast
+ * requests arrive. The function reports failed messages individually, and a
+ * message that keeps failing moves to a dead-letter queue.
+ *
+ * @author John McDonnell
+ */
+public class QueueIngestion extends Construct {
+
+    /** The message attribute that carries the item's id to the function. */
+    public static final String ID_ATTRIBUTE = "itemId";
+
+    /** The most messages SQS hands a function at once without a batching window. */
+    private static final int UNBATCHED_MAX_BATCH_SIZE = 10;
+
+    private static final int MAX_RECEIVE_COUNT = 5;
+
+    private final Queue queue;
+    private final Queue deadLetterQueue;
+    private final Function function;
+
+    protected QueueIngestion(final Construct scope, final String id, final Builder builder) {
+        super(scope, id);
+
+        deadLetterQueue = Queue.Builder.create(this, "DeadLetterQueue")
+                .retentionPeriod(Duration.days(14))
+                .build();
+        // SQS hides a received message for six times the function timeout, so
+        // a batch throttled on its first invocation is not redelivered meanwhile.
+        queue = Queue.Builder.create(this, "Queue")
+                .visibilityTimeout(Duration.seconds(builder.timeout.toSeconds().intValue() * 6))
+                .deadLetterQueue(DeadLetterQueue.builder()
+                        .queue(deadLetterQueue)
+                        .maxReceiveCount(MAX_RECEIVE_COUNT)
+                        .build())
+                .build();
+
+        final Role apiRole = Role.Builder.create(this, "ApiRole")
+                .assumedBy(new ServicePrincipal("apigateway.amazonaws.com"))
+                .build();
+        queue.grantSendMessages(apiRole);
+
+        // The request id is the item's id, passed as a message attribute so
+        // the body is queued exactly as validated.
+        final String primaryKey = builder.databaseTable.getPrimaryKey();
+        builder.resource.addMethod("POST", AwsIntegration.Builder.create()
+                .service("sqs")
+                .path(Stack.of(this).getAccount() + "/" + queue.getQueueName())
+                .integrationHttpMethod("POST")
+                .options(IntegrationOptions.builder()
+                        .credentialsRole(apiRole)
+                        .passthroughBehavior(PassthroughBehavior.NEVER)
+                        .requestParameters(Collections.singletonMap(
+                                "integration.request.header.Content-Type", "'application/x-www-form-urlencoded'"))
+                        .requestTemplates(Collections.singletonMap("application/json",
+                                "Action=SendMessage&MessageBody=$util.urlEncode($input.body)"
+                                + "&MessageAttribute.1.Name=" + ID_ATTRIBUTE
+                                + "&MessageAttribute.1.Value.DataType=String"
+                                + "&MessageAttribute.1.Value.StringValue=$context.requestId"))
+                        .integrationResponses(Arrays.asList(
+                                IntegrationResponse.builder()
+                                        .statusCode("202")
+                                        .responseTemplates(Collections.singletonMap("application/json",
+                                                "{\"" + primaryKey + "\": \"$context.requestId\"}"))
+                                        .build(),
+                                IntegrationResponse.builder()
+                                        .selectionPattern("[45]\\d{2}")
+                                        .statusCode("500")
+                                        .responseTemplates(Collections.singletonMap("application/json",
+                                                "{\"message\": \"Error: the request could not be queued\"}"))
+                                        .build()))
+                        .build())
+                .build(),
+                MethodOptions.builder()
+                        .requestValidator(builder.requestValidator)
+                        .requestModels(Collections.singletonMap("application/json", builder.requestModel))
+                        .methodResponses(Arrays.asList(
+                                MethodResponse.builder().statusCode("202").build(),
+                                MethodResponse.builder().statusCode("500").build()))
+                        .build());
+
+        final Map<String, String> environment = new HashMap<>(DatabaseStack.getDynamoEnvironmentParams(builder.databaseTable));
+        environment.putAll(builder.environment);
+        function = Function.Builder.create(this, builder.functionName)
+                .functionName(builder.functionName)
+                .runtime(HandlerImplementation.NODEJS.getRuntime())
+                .code(HandlerImplementation.NODEJS.getCode(this, builder.handlerName))
+                .handler(HandlerImplementation.NODEJS.getHandler(builder.handlerName))
+                .memorySize(builder.memorySize)
+                .timeout(builder.timeout)
+                .environment(environment)
+                .build();
+        DatabaseStack.getTable(builder.databaseTable).grantReadWriteData(function);
+        queue.grantConsumeMessages(function);
+
+        final EventSourceMapping mapping = EventSourceMapping.Builder.create(this, builder.functionName + "QueueMapping")
+                .target(function)
+                .eventSourceArn(queue.getQueueArn())
+                .batchSize(builder.batchSize)
+                .build();
+        // Not modelled by EventSourceMapping in this CDK version.
+        final CfnEventSourceMapping cfnMapping = (CfnEventSourceMapping) mapping.getNode().getDefaultChild();
+        cfnMapping.addPropertyOverride("FunctionResponseTypes", Collections.singletonList("ReportBatchItemFailures"));
+        cfnMapping.addPropertyOverride("ScalingConfig.MaximumConcurrency", builder.maxConcurrency);
+        if (builder.batchSize > UNBATCHED_MAX_BATCH_SIZE) {
+            cfnMapping.addPropertyOverride("MaximumBatchingWindowInSeconds", 1);
+        }
+    }
+
+    public Queue getQueue() {
+        return queue;
+    }
+
+    public Queue getDeadLetterQueue() {
+        return deadLetterQueue;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public static final class Builder {
+
+        private final Construct scope;
+        private final String id;
+        private DatabaseTables databaseTable;
+        private IResource resource;
+        private RequestValidator requestValidator;
+        private Model requestModel;
+        private String functionName;
+        private String handlerName;
+        private Number memorySize = 256;
+        private Duration timeout = Duration.seconds(30);
+        private int batchSize = 10;
+        private int maxConcurrency = 5;
+        private final Map<String, String> environment = new HashMap<>();
+
+        private Builder(final Construct scope, final String id) {
+            this.scope = scope;
+            this.id = id;
+        }
+
+        public static Builder create(final Construct scope, final String id) {
+            return new Builder(scope, id);
+        }
+
+        public Builder databaseTable(final DatabaseTables databaseTable) {
+            this.databaseTable = databaseTable;
+            return this;
+        }
+
+        /**
+         * @param resource the API resource that gets the {@code POST} method
+         */
+        public Builder resource(final IResource resource) {
+            this.resource = resource;
+            return this;
+        }
+
+        public Builder requestValidator(final RequestValidator requestValidator) {
+            this.requestValidator = requestValidator;
+            return this;
+        }
+
+        public Builder requestModel(final Model requestModel) {
+            this.requestModel = requestModel;
+            return this;
+        }
+
+        public Builder functionName(final String functionName) {
+            this.functionName = functionName;
+            return this;
+        }
+
+        /**
+         * @param handlerName the script under {@code lambda/} that handles each batch
+         */
+        public Builder handler(final String handlerName) {
+            this.handlerName = handlerName;
+            return this;
+        }
+
+        public Builder memorySize(final Number memorySize) {
+            this.memorySize = memorySize;
+            return this;
+        }
+
+        public Builder timeout(final Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * @param batchSize messages per invocation; above 10 SQS waits up to a second to fill a batch
+         */
+        public Builder batchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrency the most invocations SQS keeps in flight, at least 2
+         */
+        public Builder maxConcurrency(final int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public Builder environment(final String name, final String value) {
+            this.environment.put(name, value);
+            return this;
+        }
+
+        public Builder environment(final Map<String, String> environment) {
+            this.environment.putAll(environment);
+            return this;
+        }
+
+        public QueueIngestion build() {
+            return new QueueIngestion(scope, id, this);
+        }
+    }
+}
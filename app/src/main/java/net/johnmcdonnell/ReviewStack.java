@@ -0,0 +1,62 @@
+package net.johnmcdonnell;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Stack;
+import software.amazon.awscdk.core.StackProps;
+import software.amazon.awscdk.services.apigateway.MethodOptions;
+import software.amazon.awscdk.services.apigateway.RestApi;
+
+/**
+ *
+ * @author John McDonnell
+ */
+public class ReviewStack extends Stack {
+
+    public ReviewStack(final Construct parent, final String id) {
+        this(parent, id, null);
+    }
+
+    public ReviewStack(final Construct parent, final String id, final StackProps props) {
+        super(parent, id, props);
+
+        ApiType apiType = ApiType.fromContext(this);
+        RestApi reviewApi = apiType.hasRestApi()
+                ? ApiStage.restApi(this, "reviewApi", "Review Service", DatabaseTables.REVIEWS)
+                : null;
+        HttpApi reviewHttpApi = apiType.hasHttpApi()
+                ? HttpApi.Builder.create(this, "reviewHttpApi").apiName("Review Service").build()
+                : null;
+
+        CrudService.Builder.create(this, "ReviewService")
+                .databaseTable(DatabaseTables.REVIEWS)
+                .entityName("Review")
+                .restApi(reviewApi)
+                .httpApi(reviewHttpApi)
+                .readableFields(Schemas.REVIEW)
+                .methodOptions(CrudOperation.GET_ITEMS, MethodOptions.builder()
+                        .requestParameters(Stream.of(
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.limit", Boolean.FALSE),
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.cursor", Boolean.FALSE),
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.parallel", Boolean.FALSE),
+                                new AbstractMap.SimpleEntry<>("method.request.querystring.productId", Boolean.FALSE))
+                                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                        .build())
+                .requestSchema(CrudOperation.CREATE_ITEM, Schemas.REVIEW)
+                .build();
+
+        // Keeps ratingCount, ratingSum and ratingAvg on each product in step with its reviews,
+        // so product reads carry their rating without listing the reviews.
+        StreamConsumer ratingAggregator = StreamConsumer.Builder.create(this, "ReviewRatings")
+                .databaseTable(DatabaseTables.REVIEWS)
+                .functionName("AggregateReviewRatingsFunction")
+                .handler("aggregateRatings")
+                .environment(DatabaseStack.getDynamoEnvironmentParams(DatabaseTables.PRODUCTS, "PRODUCTS_"))
+                .build();
+        DatabaseStack.getTable(DatabaseTables.PRODUCTS).grantReadWriteData(ratingAggregator.getFunction());
+    }
+
+}
@@ -0,0 +1,193 @@
+package net.johnmcdonnell;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.services.apigateway.JsonSchema;
+import software.amazon.awscdk.services.apigateway.JsonSchemaType;
+import software.amazon.awscdk.services.apigateway.JsonSchemaVersion;
+import software.amazon.awscdk.services.apigateway.Model;
+import software.amazon.awscdk.services.apigateway.RestApi;
+
+/**
+ * The request body schemas of every service, defined once. A REST API gets
+ * them as {@link Model}s that API Gateway validates against; an HTTP API,
+ * which cannot validate bodies, hands them to the functions as JSON, see
+ * {@link #toJson(JsonSchema)}, and the handlers validate against them.
+ * The batch limits match those the batch handlers enforce; requests above
+ * DynamoDB's 100 and 25 item limits are split by the handlers.
+ *
+ * @author John McDonnell
+ */
+public final class Schemas {
+
+    public static final int MAX_GET_IDS = 500;
+    public static final int MAX_WRITES = 200;
+
+    public static final JsonSchema PRODUCT = JsonSchema.builder()
+            .schema(JsonSchemaVersion.DRAFT7)
+            .description("Model for Products")
+            .type(JsonSchemaType.OBJECT)
+            .properties(Stream.of(
+                    new AbstractMap.SimpleEntry<>("name", JsonSchema.builder().type(JsonSchemaType.STRING).build()),
+                    new AbstractMap.SimpleEntry<>("description", JsonSchema.builder().type(JsonSchemaType.STRING).build()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+            .required(Stream.of("name", "description").collect(Collectors.toList()))
+            .build();
+
+    public static final JsonSchema ORDER = JsonSchema.builder()
+            .schema(JsonSchemaVersion.DRAFT7)
+            .description("Model for Orders")
+            .type(JsonSchemaType.OBJECT)
+            .properties(Stream.of(
+                    new AbstractMap.SimpleEntry<>("userId", JsonSchema.builder().type(JsonSchemaType.STRING).build()),
+                    new AbstractMap.SimpleEntry<>("productIds", JsonSchema.builder().type(JsonSchemaType.ARRAY).items(JsonSchema.builder().type(JsonSchemaType.STRING).build()).build()),
+                    new AbstractMap.SimpleEntry<>("price", JsonSchema.builder().type(JsonSchemaType.NUMBER).build()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+            .required(Stream.of("userId", "productIds", "price").collect(Collectors.toList()))
+            .build();
+
+    public static final JsonSchema REVIEW = JsonSchema.builder()
+            .schema(JsonSchemaVersion.DRAFT7)
+            .description("Model for Reviews")
+            .type(JsonSchemaType.OBJECT)
+            .properties(Stream.of(
+                    new AbstractMap.SimpleEntry<>("userId", JsonSchema.builder().type(JsonSchemaType.STRING).build()),
+                    new AbstractMap.SimpleEntry<>("productId", JsonSchema.builder().type(JsonSchemaType.STRING).build()),
+                    new AbstractMap.SimpleEntry<>("rating", JsonSchema.builder().type(JsonSchemaType.INTEGER)
+                            .maximum(10).build()),
+                    new AbstractMap.SimpleEntry<>("review", JsonSchema.builder().type(JsonSchemaType.STRING).build()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+            .required(Stream.of("userId", "productId", "rating").collect(Collectors.toList()))
+            .build();
+
+    public static final JsonSchema INVENTORY_ADJUSTMENT = JsonSchema.builder()
+            .schema(JsonSchemaVersion.DRAFT7)
+            .description("Model for Inventory Update")
+            .type(JsonSchemaType.OBJECT)
+            .properties(Stream.of(
+                    new AbstractMap.SimpleEntry<>("action", JsonSchema.builder().type(JsonSchemaType.STRING).enumValue(Stream.of("add", "remove").collect(Collectors.toList())).build()),
+                    new AbstractMap.SimpleEntry<>("quantity", JsonSchema.builder().type(JsonSchemaType.INTEGER).minimum(1).build()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+            .required(Stream.of("action", "quantity").collect(Collectors.toList()))
+            .build();
+
+    private Schemas() {
+    }
+
+    /**
+     * @return a schema for {@code {"ids": [...]}}
+     */
+    public static JsonSchema batchGet(final String entityName) {
+        return JsonSchema.builder()
+                .schema(JsonSchemaVersion.DRAFT7)
+                .description("Model for " + entityName + " Batch Gets")
+                .type(JsonSchemaType.OBJECT)
+                .properties(Stream.of(
+                        new AbstractMap.SimpleEntry<>("ids", idList(1, MAX_GET_IDS)))
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                .required(Stream.of("ids").collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * @param itemSchema the schema each created item must match, usually the one behind the create model
+     * @return a schema for {@code {"put": [item...], "delete": [id...]}} with at least one of the two
+     */
+    public static JsonSchema batchWrite(final String entityName, final JsonSchema itemSchema) {
+        return JsonSchema.builder()
+                .schema(JsonSchemaVersion.DRAFT7)
+                .description("Model for " + entityName + " Batch Writes")
+                .type(JsonSchemaType.OBJECT)
+                .properties(Stream.of(
+                        new AbstractMap.SimpleEntry<>("put", JsonSchema.builder().type(JsonSchemaType.ARRAY)
+                                .items(itemSchema).maxItems(MAX_WRITES).build()),
+                        new AbstractMap.SimpleEntry<>("delete", idList(0, MAX_WRITES)))
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                .minProperties(1)
+                .build();
+    }
+
+    public static Model model(final Construct scope, final RestApi restApi, final String modelName, final JsonSchema schema) {
+        return Model.Builder.create(scope, modelName)
+                .modelName(modelName)
+                .restApi(restApi)
+                .contentType("application/json")
+                .schema(schema)
+                .build();
+    }
+
+    /**
+     * Renders the keywords the handlers' validators understand: {@code type},
+     * {@code properties}, {@code required}, {@code items}, {@code enum},
+     * {@code minimum}, {@code maximum}, {@code minLength}, {@code maxLength},
+     * {@code minItems}, {@code maxItems} and {@code minProperties}.
+     */
+    public static String toJson(final JsonSchema schema) {
+        final List<String> members = new ArrayList<>();
+        if (schema.getType() != null) {
+            members.add(member("type", schema.getType() instanceof List
+                    ? array(((List<?>) schema.getType()).stream().map(Schemas::typeName).collect(Collectors.toList()))
+                    : typeName(schema.getType())));
+        }
+        if (schema.getProperties() != null) {
+            members.add(member("properties", "{" + schema.getProperties().entrySet().stream()
+                    .map(property -> member(property.getKey(), toJson(property.getValue())))
+                    .collect(Collectors.joining(",")) + "}"));
+        }
+        if (schema.getRequired() != null) {
+            members.add(member("required", array(schema.getRequired().stream().map(Schemas::quote).collect(Collectors.toList()))));
+        }
+        if (schema.getItems() instanceof JsonSchema) {
+            members.add(member("items", toJson((JsonSchema) schema.getItems())));
+        }
+        if (schema.getEnumValue() != null) {
+            members.add(member("enum", array(schema.getEnumValue().stream()
+                    .map(value -> value instanceof Number || value instanceof Boolean ? value.toString() : quote(value.toString()))
+                    .collect(Collectors.toList()))));
+        }
+        addNumber(members, "minimum", schema.getMinimum());
+        addNumber(members, "maximum", schema.getMaximum());
+        addNumber(members, "minLength", schema.getMinLength());
+        addNumber(members, "maxLength", schema.getMaxLength());
+        addNumber(members, "minItems", schema.getMinItems());
+        addNumber(members, "maxItems", schema.getMaxItems());
+        addNumber(members, "minProperties", schema.getMinProperties());
+        return "{" + String.join(",", members) + "}";
+    }
+
+    private static JsonSchema idList(final int minItems, final int maxItems) {
+        return JsonSchema.builder()
+                .type(JsonSchemaType.ARRAY)
+                .items(JsonSchema.builder().type(JsonSchemaType.STRING).minLength(1).build())
+                .minItems(minItems)
+                .maxItems(maxItems)
+                .build();
+    }
+
+    private static String typeName(final Object type) {
+        return quote(type.toString().toLowerCase());
+    }
+
+    private static void addNumber(final List<String> members, final String name, final Number value) {
+        if (value != null) {
+            members.add(member(name, value.toString()));
+        }
+    }
+
+    private static String member(final String name, final String json) {
+        return quote(name) + ":" + json;
+    }
+
+    private static String array(final List<String> elements) {
+        return "[" + String.join(",", elements) + "]";
+    }
+
+    private static String quote(final String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,193 @@
+package net.johnmcdonnell;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Duration;
+import software.amazon.awscdk.services.cloudwatch.Alarm;
+import software.amazon.awscdk.services.cloudwatch.ComparisonOperator;
+import software.amazon.awscdk.services.cloudwatch.Dashboard;
+import software.amazon.awscdk.services.cloudwatch.GraphWidget;
+import software.amazon.awscdk.services.cloudwatch.IMetric;
+import software.amazon.awscdk.services.cloudwatch.Metric;
+import software.amazon.awscdk.services.cloudwatch.MetricOptions;
+import software.amazon.awscdk.services.cloudwatch.TreatMissingData;
+import software.amazon.awscdk.services.lambda.IFunction;
+
+/**
+ * A dashboard for one of the {@link DatabaseTables} and the functions that
+ * serve it, built from the embedded metric format records every handler
+ * writes, keyed by {@code Service} (the table name) and {@code Operation}
+ * (the handler name): latency against DynamoDB latency, consumed capacity,
+ * items and bytes returned, and cold starts, next to the functions' own
+ * errors, throttles and durations. Each operation alarms when its p99
+ * latency stays above the table's
+ * {@link PerformanceProfile#getLatencyObjective()}.
+ *
+ * @author John McDonnell
+ */
+public class ServiceDashboard extends Construct {
+
+    /**
+     * The namespace the handlers write their records to, set on every
+     * function as {@code METRICS_NAMESPACE}.
+     */
+    public static final String NAMESPACE = "CdkExperiment";
+
+    private static final Duration PERIOD = Duration.minutes(1);
+    private static final int ALARM_PERIODS = 3;
+
+    private final Dashboard dashboard;
+    private final Map<String, Alarm> latencyAlarms = new LinkedHashMap<>();
+
+    protected ServiceDashboard(final Construct scope, final String id, final Builder builder) {
+        super(scope, id);
+
+        final String service = builder.databaseTable.getTableName();
+        final Set<String> operations = builder.functions.keySet();
+        final Set<IFunction> functions = new LinkedHashSet<>(builder.functions.values());
+
+        dashboard = Dashboard.Builder.create(this, "Dashboard")
+                .dashboardName(builder.entityName + "Service")
+                .build();
+        dashboard.addWidgets(
+                graph("Latency p99 (ms)", operationMetrics(service, operations, "Latency", "p99"),
+                        operationMetrics(service, operations, "Latency", "p50")),
+                graph("DynamoDB time per invocation p99 (ms)", operationMetrics(service, operations, "DynamoDbLatency", "p99"),
+                        operationMetrics(service, operations, "DynamoDbCalls", "Average")));
+        dashboard.addWidgets(
+                graph("Consumed capacity", operationMetrics(service, operations, "ConsumedCapacity", "Sum"),
+                        Stream.of("ConsumedReadCapacityUnits", "ConsumedWriteCapacityUnits", "ReadThrottleEvents", "WriteThrottleEvents")
+                                .map(metricName -> tableMetric(service, metricName))
+                                .collect(Collectors.toList())),
+                graph("Items and response bytes p99", operationMetrics(service, operations, "ItemCount", "Sum"),
+                        operationMetrics(service, operations, "ResponseBytes", "p99")));
+        dashboard.addWidgets(
+                graph("Cold starts", operationMetrics(service, operations, "ColdStart", "Sum"),
+                        functions.stream()
+                                .map(function -> function.metricDuration(MetricOptions.builder().statistic("p99").period(PERIOD).build()))
+                                .collect(Collectors.toList())),
+                graph("Function errors and throttles", functions.stream()
+                                .map(function -> function.metricErrors(MetricOptions.builder().statistic("Sum").period(PERIOD).build()))
+                                .collect(Collectors.toList()),
+                        functions.stream()
+                                .map(function -> function.metricThrottles(MetricOptions.builder().statistic("Sum").period(PERIOD).build()))
+                                .collect(Collectors.toList())));
+
+        final Number objectiveMillis = builder.databaseTable.getPerformanceProfile().getLatencyObjective().toMilliseconds();
+        for (String operation : operations) {
+            latencyAlarms.put(operation, Alarm.Builder.create(this, operation + "LatencyAlarm")
+                    .alarmName(builder.entityName + "-" + operation + "-p99-latency")
+                    .alarmDescription("p99 latency of " + operation + " on " + service + " above " + objectiveMillis + " ms")
+                    .metric(operationMetric(service, operation, "Latency", "p99"))
+                    .threshold(objectiveMillis)
+                    .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
+                    .evaluationPeriods(ALARM_PERIODS)
+                    .treatMissingData(TreatMissingData.NOT_BREACHING)
+                    .build());
+        }
+    }
+
+    public Dashboard getDashboard() {
+        return dashboard;
+    }
+
+    /**
+     * @return the p99 latency alarm of each operation, by handler name
+     */
+    public Map<String, Alarm> getLatencyAlarms() {
+        return Collections.unmodifiableMap(latencyAlarms);
+    }
+
+    private static GraphWidget graph(final String title, final List<? extends IMetric> left, final List<? extends IMetric> right) {
+        return GraphWidget.Builder.create()
+                .title(title)
+                .left(new ArrayList<>(left))
+                .right(new ArrayList<>(right))
+                .width(12)
+                .build();
+    }
+
+    private static List<Metric> operationMetrics(final String service, final Set<String> operations,
+            final String metricName, final String statistic) {
+        return operations.stream()
+                .map(operation -> operationMetric(service, operation, metricName, statistic))
+                .collect(Collectors.toList());
+    }
+
+    private static Metric operationMetric(final String service, final String operation, final String metricName, final String statistic) {
+        return Metric.Builder.create()
+                .namespace(NAMESPACE)
+                .metricName(metricName)
+                .dimensions(Stream.of(
+                        new AbstractMap.SimpleEntry<String, Object>("Service", service),
+                        new AbstractMap.SimpleEntry<String, Object>("Operation", operation))
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                .statistic(statistic)
+                .period(PERIOD)
+                .label(operation + " " + statistic)
+                .build();
+    }
+
+    private static Metric tableMetric(final String tableName, final String metricName) {
+        return Metric.Builder.create()
+                .namespace("AWS/DynamoDB")
+                .metricName(metricName)
+                .dimensions(Collections.singletonMap("TableName", tableName))
+                .statistic("Sum")
+                .period(PERIOD)
+                .build();
+    }
+
+    public static final class Builder {
+
+        private final Construct scope;
+        private final String id;
+        private DatabaseTables databaseTable;
+        private String entityName;
+        private final Map<String, IFunction> functions = new LinkedHashMap<>();
+
+        private Builder(final Construct scope, final String id) {
+            this.scope = scope;
+            this.id = id;
+        }
+
+        public static Builder create(final Construct scope, final String id) {
+            return new Builder(scope, id);
+        }
+
+        public Builder databaseTable(final DatabaseTables databaseTable) {
+            this.databaseTable = databaseTable;
+            return this;
+        }
+
+        /**
+         * @param entityName the singular entity name used in the dashboard and alarm names, e.g. {@code Product}
+         */
+        public Builder entityName(final String entityName) {
+            this.entityName = entityName;
+            return this;
+        }
+
+        /**
+         * @param operation the handler name the function records the operation under, e.g. {@code getInventory}
+         * @param function the function serving it, which may serve other operations too
+         */
+        public Builder function(final String operation, final IFunction function) {
+            this.functions.put(operation, function);
+            return this;
+        }
+
+        public ServiceDashboard build() {
+            return new ServiceDashboard(scope, id, this);
+        }
+    }
+}
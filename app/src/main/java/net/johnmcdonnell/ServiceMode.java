@@ -0,0 +1,24 @@
+package net.johnmcdonnell;
+
+import software.amazon.awscdk.core.Construct;
+
+/**
+ * How a {@link CrudService} maps its operations onto Lambda functions. Chosen
+ * with the {@code serviceMode} context value, e.g.
+ * {@code cdk deploy -c serviceMode=router}.
+ *
+ * @author John McDonnell
+ */
+public enum ServiceMode {
+    /** One function per operation, each with its own warm pool. */
+    PER_METHOD,
+    /** One function per table that dispatches on the request's method and resource. */
+    ROUTER;
+
+    public static final String CONTEXT_KEY = "serviceMode";
+
+    public static ServiceMode fromContext(Construct scope) {
+        final Object value = scope.getNode().tryGetContext(CONTEXT_KEY);
+        return value == null ? PER_METHOD : valueOf(value.toString().toUpperCase().replace('-', '_'));
+    }
+}
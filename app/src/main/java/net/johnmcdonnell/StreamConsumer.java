@@ -0,0 +1,150 @@
+package net.johnmcdonnell;
+
+import java.util.HashMap;
+import java.util.Map;
+import software.amazon.awscdk.core.Construct;
+import software.amazon.awscdk.core.Duration;
+import software.amazon.awscdk.services.dynamodb.Table;
+import software.amazon.awscdk.services.lambda.CfnEventSourceMapping;
+import software.amazon.awscdk.services.lambda.EventSourceMapping;
+import software.amazon.awscdk.services.lambda.Function;
+import software.amazon.awscdk.services.lambda.StartingPosition;
+
+/**
+ * A Node function fed in batches from the DynamoDB stream of one of the
+ * {@link DatabaseTables}. A failing batch is split in half and retried a
+ * bounded number of times, so one bad record cannot stall its shard, and the
+ * function gets {@link DatabaseTables#PROCESSED_EVENTS} to make its writes
+ * idempotent across those retries.
+ *
+ * @author John McDonnell
+ */
+public class StreamConsumer extends Construct {
+
+    private final Function function;
+
+    protected StreamConsumer(final Construct scope, final String id, final Builder builder) {
+        super(scope, id);
+
+        final Table sourceTable = DatabaseStack.getTable(builder.databaseTable);
+        if (!builder.databaseTable.getStreamViewType().isPresent()) {
+            throw new IllegalArgumentException(builder.databaseTable + " has no stream");
+        }
+
+        final Map<String, String> environment = new HashMap<>(DatabaseStack.getDynamoEnvironmentParams(builder.databaseTable));
+        environment.putAll(DatabaseStack.getDynamoEnvironmentParams(DatabaseTables.PROCESSED_EVENTS, "EVENTS_"));
+        environment.putAll(builder.environment);
+
+        function = Function.Builder.create(this, builder.functionName)
+                .functionName(builder.functionName)
+                .runtime(HandlerImplementation.NODEJS.getRuntime())
+                .code(HandlerImplementation.NODEJS.getCode(this, builder.handlerName))
+                .handler(HandlerImplementation.NODEJS.getHandler(builder.handlerName))
+                .memorySize(builder.memorySize)
+                .timeout(builder.timeout)
+                .environment(environment)
+                .build();
+        sourceTable.grantStreamRead(function);
+        DatabaseStack.getTable(DatabaseTables.PROCESSED_EVENTS).grantReadWriteData(function);
+
+        final EventSourceMapping mapping = EventSourceMapping.Builder.create(this, builder.functionName + "StreamMapping")
+                .target(function)
+                .eventSourceArn(sourceTable.getTableStreamArn())
+                .startingPosition(StartingPosition.TRIM_HORIZON)
+                .batchSize(builder.batchSize)
+                .build();
+        // Not modelled by EventSourceMapping in this CDK version.
+        final CfnEventSourceMapping cfnMapping = (CfnEventSourceMapping) mapping.getNode().getDefaultChild();
+        cfnMapping.addPropertyOverride("MaximumBatchingWindowInSeconds", builder.batchingWindow.toSeconds());
+        cfnMapping.addPropertyOverride("BisectBatchOnFunctionError", Boolean.TRUE);
+        cfnMapping.addPropertyOverride("MaximumRetryAttempts", builder.retryAttempts);
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public static final class Builder {
+
+        private final Construct scope;
+        private final String id;
+        private DatabaseTables databaseTable;
+        private String functionName;
+        private String handlerName;
+        private Number memorySize = 256;
+        private Duration timeout = Duration.seconds(30);
+        private Number batchSize = 100;
+        private Duration batchingWindow = Duration.seconds(1);
+        private Number retryAttempts = 10;
+        private final Map<String, String> environment = new HashMap<>();
+
+        private Builder(final Construct scope, final String id) {
+            this.scope = scope;
+            this.id = id;
+        }
+
+        public static Builder create(final Construct scope, final String id) {
+            return new Builder(scope, id);
+        }
+
+        /**
+         * @param databaseTable the table whose stream feeds the function; it must declare a stream view type
+         */
+        public Builder databaseTable(final DatabaseTables databaseTable) {
+            this.databaseTable = databaseTable;
+            return this;
+        }
+
+        public Builder functionName(final String functionName) {
+            this.functionName = functionName;
+            return this;
+        }
+
+        /**
+         * @param handlerName the script under {@code lambda/} that handles each batch
+         */
+        public Builder handler(final String handlerName) {
+            this.handlerName = handlerName;
+            return this;
+        }
+
+        public Builder memorySize(final Number memorySize) {
+            this.memorySize = memorySize;
+            return this;
+        }
+
+        public Builder timeout(final Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder batchSize(final Number batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder batchingWindow(final Duration batchingWindow) {
+            this.batchingWindow = batchingWindow;
+            return this;
+        }
+
+        public Builder retryAttempts(final Number retryAttempts) {
+            this.retryAttempts = retryAttempts;
+            return this;
+        }
+
+        public Builder environment(final String name, final String value) {
+            this.environment.put(name, value);
+            return this;
+        }
+
+        public Builder environment(final Map<String, String> environment) {
+            this.environment.putAll(environment);
+            return this;
+        }
+
+        public StreamConsumer build() {
+            return new StreamConsumer(scope, id, this);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package net.johnmcdonnell;
+
+import java.util.Optional;
+
+/**
+ * A global secondary index declared on a {@link DatabaseTables} entry.
+ *
+ * @author John McDonnell
+ */
+public final class TableIndex {
+
+    private final String indexName;
+    private final String partitionKey;
+    private final String sortKey;
+
+    private TableIndex(String indexName, String partitionKey, String sortKey) {
+        this.indexName = indexName;
+        this.partitionKey = partitionKey;
+        this.sortKey = sortKey;
+    }
+
+    public static TableIndex of(String indexName, String partitionKey) {
+        return new TableIndex(indexName, partitionKey, null);
+    }
+
+    public static TableIndex of(String indexName, String partitionKey, String sortKey) {
+        return new TableIndex(indexName, partitionKey, sortKey);
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public Optional<String> getSortKey() {
+        return Optional.ofNullable(sortKey);
+    }
+}
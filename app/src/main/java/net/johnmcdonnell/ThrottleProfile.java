@@ -0,0 +1,97 @@
+package net.johnmcdonnell;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request rate limits for a table's API: a steady rate and a burst for the
+ * whole stage, shared by every caller, and tighter limits for the operations
+ * that cost the table most, such as list scans. Requests past a limit get a
+ * 429 from API Gateway before they reach a function. Each client is also
+ * limited on its own by its {@link ClientTier}.
+ *
+ * @author John McDonnell
+ */
+public final class ThrottleProfile {
+
+    public static final ThrottleProfile DEFAULT = builder().build();
+
+    private final Number rateLimit;
+    private final Number burstLimit;
+    private final Map<CrudOperation, Number> operationRateLimits;
+    private final Map<CrudOperation, Number> operationBurstLimits;
+
+    private ThrottleProfile(Builder builder) {
+        this.rateLimit = builder.rateLimit;
+        this.burstLimit = builder.burstLimit;
+        this.operationRateLimits = new EnumMap<>(builder.operationRateLimits);
+        this.operationBurstLimits = new EnumMap<>(builder.operationBurstLimits);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return requests per second across the stage
+     */
+    public Number getRateLimit() {
+        return rateLimit;
+    }
+
+    public Number getBurstLimit() {
+        return burstLimit;
+    }
+
+    /**
+     * @return the operations limited more tightly than the stage
+     */
+    public Set<CrudOperation> getLimitedOperations() {
+        return Collections.unmodifiableSet(operationRateLimits.keySet());
+    }
+
+    public Number rateLimitFor(CrudOperation operation) {
+        return operationRateLimits.getOrDefault(operation, rateLimit);
+    }
+
+    public Number burstLimitFor(CrudOperation operation) {
+        return operationBurstLimits.getOrDefault(operation, burstLimit);
+    }
+
+    public static final class Builder {
+
+        private Number rateLimit = 500;
+        private Number burstLimit = 1000;
+        private final Map<CrudOperation, Number> operationRateLimits = new EnumMap<>(CrudOperation.class);
+        private final Map<CrudOperation, Number> operationBurstLimits = new EnumMap<>(CrudOperation.class);
+
+        private Builder() {
+        }
+
+        public Builder rateLimit(final Number rateLimit) {
+            this.rateLimit = rateLimit;
+            return this;
+        }
+
+        public Builder burstLimit(final Number burstLimit) {
+            this.burstLimit = burstLimit;
+            return this;
+        }
+
+        /**
+         * Limits one operation more tightly than the stage. The service must
+         * expose the operation, since its API needs a method to apply it to.
+         */
+        public Builder operation(final CrudOperation operation, final Number rateLimit, final Number burstLimit) {
+            this.operationRateLimits.put(operation, rateLimit);
+            this.operationBurstLimits.put(operation, burstLimit);
+            return this;
+        }
+
+        public ThrottleProfile build() {
+            return new ThrottleProfile(this);
+        }
+    }
+}
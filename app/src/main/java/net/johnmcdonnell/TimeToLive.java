@@ -0,0 +1,84 @@
+package net.johnmcdonnell;
+
+import java.util.Optional;
+import software.amazon.awscdk.core.Duration;
+
+/**
+ * Expiry of the items of a {@link DatabaseTables} entry: DynamoDB deletes an
+ * item once the epoch second in its TTL attribute has passed. Handlers that
+ * write items stamp them with the retention from their creation, and items
+ * that expire can be archived to a table or a bucket by a stream consumer.
+ *
+ * @author John McDonnell
+ */
+public final class TimeToLive {
+
+    /**
+     * Where expired items are kept once DynamoDB deletes them from the table.
+     */
+    public enum Archive {
+        /**
+         * Expired items are gone; for short-lived items such as markers.
+         */
+        NONE,
+        /**
+         * Another {@link DatabaseTables} entry keyed the same way, which
+         * reads fall back to when an item is no longer in its table.
+         */
+        TABLE,
+        /**
+         * Gzipped NDJSON objects in a bucket, one per stream batch, for
+         * bulk analysis; not read by the API.
+         */
+        BUCKET
+    }
+
+    private final String attributeName;
+    private final Duration retention;
+    private final Archive archive;
+    private final DatabaseTables archiveTable;
+
+    private TimeToLive(String attributeName, Duration retention, Archive archive, DatabaseTables archiveTable) {
+        this.attributeName = attributeName;
+        this.retention = retention;
+        this.archive = archive;
+        this.archiveTable = archiveTable;
+    }
+
+    /**
+     * Items that expire without being archived, their expiry set by whoever writes them.
+     */
+    public static TimeToLive of(String attributeName, Duration retention) {
+        return new TimeToLive(attributeName, retention, Archive.NONE, null);
+    }
+
+    public static TimeToLive archivedToTable(String attributeName, Duration retention, DatabaseTables archiveTable) {
+        return new TimeToLive(attributeName, retention, Archive.TABLE, archiveTable);
+    }
+
+    public static TimeToLive archivedToBucket(String attributeName, Duration retention) {
+        return new TimeToLive(attributeName, retention, Archive.BUCKET, null);
+    }
+
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    /**
+     * @return how long after it is created an item expires
+     */
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    /**
+     * @return the table expired items are copied to, when they are archived to a table
+     */
+    public Optional<DatabaseTables> getArchiveTable() {
+        return Optional.ofNullable(archiveTable);
+    }
+}
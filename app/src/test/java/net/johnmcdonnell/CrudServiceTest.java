@@ -0,0 +1,113 @@
+package net.johnmcdonnell;
+
+import static net.johnmcdonnell.Templates.at;
+import static net.johnmcdonnell.Templates.having;
+import static net.johnmcdonnell.Templates.intAt;
+import static net.johnmcdonnell.Templates.resource;
+import static net.johnmcdonnell.Templates.resources;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Synthesizes the product service and checks each function is deployed as
+ * its {@link FunctionProfile} asks.
+ *
+ * @author John McDonnell
+ */
+public class CrudServiceTest {
+
+    private static final String ALIAS = "AWS::Lambda::Alias";
+    private static final String FUNCTION = "AWS::Lambda::Function";
+    private static final String SCALABLE_TARGET = "AWS::ApplicationAutoScaling::ScalableTarget";
+    private static final String SCALING_POLICY = "AWS::ApplicationAutoScaling::ScalingPolicy";
+    private static final String VERSION = "AWS::Lambda::Version";
+
+    private static Map<String, Object> productStack(final Map<String, String> context) {
+        return Templates.synth("ProductStack", context, app -> new ProductStack(app, "ProductStack"));
+    }
+
+    private static String versionDescription(final Map<String, Object> template) {
+        return (String) resource(template, VERSION, properties -> true).get("Description");
+    }
+
+    @Test
+    public void sizesEachFunctionByItsProfile() {
+        final Map<String, Object> template = productStack(Collections.emptyMap());
+
+        final Map<String, Object> getItem = resource(template, FUNCTION, having("FunctionName", "GetProductItemFunction"));
+        assertEquals(1024, intAt(getItem, "MemorySize"));
+        assertEquals(6, intAt(getItem, "Timeout"));
+        assertEquals(200, intAt(getItem, "ReservedConcurrentExecutions"));
+
+        final Map<String, Object> getItems = resource(template, FUNCTION, having("FunctionName", "GetProductItemsFunction"));
+        assertEquals(1024, intAt(getItems, "MemorySize"));
+        assertEquals(10, intAt(getItems, "Timeout"));
+        assertEquals(50, intAt(getItems, "ReservedConcurrentExecutions"));
+    }
+
+    @Test
+    public void provisionsConcurrencyOnTheLiveAliasAndScalesIt() {
+        final Map<String, Object> template = productStack(Collections.emptyMap());
+
+        // Only GET /{id} has provisioned concurrency in the product profile.
+        assertEquals(1, resources(template, VERSION).size());
+        final Map<String, Object> alias = resource(template, ALIAS, having("Name", CrudService.LIVE_ALIAS));
+        assertEquals(2, intAt(alias, "ProvisionedConcurrencyConfig", "ProvisionedConcurrentExecutions"));
+
+        final Map<String, Object> target = resource(template, SCALABLE_TARGET,
+                having("ResourceId", "function:GetProductItemFunction:" + CrudService.LIVE_ALIAS));
+        assertEquals("lambda", target.get("ServiceNamespace"));
+        assertEquals("lambda:function:ProvisionedConcurrency", target.get("ScalableDimension"));
+        assertEquals(2, intAt(target, "MinCapacity"));
+        assertEquals(20, intAt(target, "MaxCapacity"));
+
+        final Map<String, Object> policy = resource(template, SCALING_POLICY,
+                having("PolicyName", "GetProductItemFunctionUtilization"));
+        assertEquals("TargetTrackingScaling", policy.get("PolicyType"));
+        assertEquals(0.7, ((Number) at(policy, "TargetTrackingScalingPolicyConfiguration", "TargetValue")).doubleValue(), 0.0);
+        assertEquals("LambdaProvisionedConcurrencyUtilization",
+                at(policy, "TargetTrackingScalingPolicyConfiguration", "PredefinedMetricSpecification", "PredefinedMetricType"));
+    }
+
+    @Test
+    public void publishesANewVersionWhenOnlyTheConfigurationChanges() {
+        // Behind an HTTP API the functions get no API_ID to refresh the REST stage cache with, and the code is the same.
+        final String restVersion = versionDescription(productStack(Collections.emptyMap()));
+        final String httpVersion = versionDescription(productStack(Collections.singletonMap(ApiType.CONTEXT_KEY, "http")));
+
+        assertTrue(restVersion.contains(" configuration "));
+        assertNotEquals(restVersion, httpVersion);
+        assertEquals(restVersion, versionDescription(productStack(Collections.emptyMap())));
+    }
+
+    @Test
+    public void givesTheWritersAKeyToRefreshTheCacheWithOnceKeysAreRequired() {
+        final Map<String, Object> template = productStack(Collections.singletonMap(ClientTier.CONTEXT_KEY, "acme=partner"));
+
+        resource(template, "AWS::ApiGateway::ApiKey", having("Name", "Product-cache-refresh"));
+        resource(template, "AWS::ApiGateway::UsagePlan", having("UsagePlanName", "ProductCacheRefresh"));
+        for (String functionName : new String[]{"UpdateProductItemFunction", "DeleteProductItemFunction", "BatchWriteProductItemsFunction"}) {
+            assertNotNull(at(resource(template, FUNCTION, having("FunctionName", functionName)),
+                    "Environment", "Variables", "API_KEY_ID"));
+        }
+        assertTrue(resources(productStack(Collections.emptyMap()), "AWS::ApiGateway::ApiKey").isEmpty());
+    }
+
+    @Test
+    public void sizesTheRouterByItsProfile() {
+        final Map<String, Object> template = productStack(Collections.singletonMap(ServiceMode.CONTEXT_KEY, "router"));
+
+        final Map<String, Object> router = resource(template, FUNCTION, having("FunctionName", "ProductRouterFunction"));
+        assertEquals(1024, intAt(router, "MemorySize"));
+        assertEquals(10, intAt(router, "Timeout"));
+        assertEquals(250, intAt(router, "ReservedConcurrentExecutions"));
+        assertEquals("function:ProductRouterFunction:" + CrudService.LIVE_ALIAS,
+                resource(template, SCALABLE_TARGET, properties -> true).get("ResourceId"));
+    }
+}
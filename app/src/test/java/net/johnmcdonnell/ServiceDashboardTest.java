@@ -0,0 +1,73 @@
+package net.johnmcdonnell;
+
+import static net.johnmcdonnell.Templates.having;
+import static net.johnmcdonnell.Templates.intAt;
+import static net.johnmcdonnell.Templates.resource;
+import static net.johnmcdonnell.Templates.resources;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Synthesizes the product service and checks its dashboard and the p99
+ * latency alarm of each operation.
+ *
+ * @author John McDonnell
+ */
+public class ServiceDashboardTest {
+
+    private static final String ALARM = "AWS::CloudWatch::Alarm";
+    private static final String DASHBOARD = "AWS::CloudWatch::Dashboard";
+
+    private static Map<String, Object> productStack() {
+        return Templates.synth("ProductStack", Collections.emptyMap(), app -> new ProductStack(app, "ProductStack"));
+    }
+
+    @Test
+    public void buildsADashboardPerService() {
+        final Map<String, Object> dashboard = resource(productStack(), DASHBOARD, having("DashboardName", "ProductService"));
+        // The body is joined from tokens, such as the function names, so only its presence is checked.
+        assertTrue(dashboard.containsKey("DashboardBody"));
+    }
+
+    @Test
+    public void alarmsOnEachOperationsLatencyObjective() {
+        final Map<String, Object> template = productStack();
+
+        // The product service serves every operation, each from a handler of the same name.
+        for (CrudOperation crudOperation : CrudOperation.values()) {
+            final String operation = crudOperation.getHandlerName();
+            final Map<String, Object> alarm = resource(template, ALARM, having("AlarmName", "Product-" + operation + "-p99-latency"));
+            assertEquals(ServiceDashboard.NAMESPACE, alarm.get("Namespace"));
+            assertEquals("Latency", alarm.get("MetricName"));
+            assertEquals("p99", alarm.get("ExtendedStatistic"));
+            assertEquals(60, intAt(alarm, "Period"));
+            assertEquals(500, intAt(alarm, "Threshold"));
+            assertEquals(3, intAt(alarm, "EvaluationPeriods"));
+            assertEquals("GreaterThanThreshold", alarm.get("ComparisonOperator"));
+            assertEquals("notBreaching", alarm.get("TreatMissingData"));
+
+            final Map<String, Object> dimensions = new HashMap<>();
+            dimensions.put("Service", DatabaseTables.PRODUCTS.getTableName());
+            dimensions.put("Operation", operation);
+            assertEquals(dimensions, dimensionsOf(alarm));
+        }
+        assertEquals(CrudOperation.values().length, resources(template, ALARM).stream()
+                .filter(alarm -> String.valueOf(alarm.get("AlarmName")).endsWith("-p99-latency"))
+                .count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> dimensionsOf(final Map<String, Object> alarm) {
+        final Map<String, Object> dimensions = new HashMap<>();
+        for (Map<String, Object> dimension : (List<Map<String, Object>>) alarm.get("Dimensions")) {
+            dimensions.put((String) dimension.get("Name"), dimension.get("Value"));
+        }
+        return dimensions;
+    }
+}
@@ -0,0 +1,92 @@
+package net.johnmcdonnell;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import software.amazon.awscdk.core.App;
+import software.amazon.awscdk.core.AppProps;
+
+/**
+ * Synthesizes stacks for tests and reads their CloudFormation templates.
+ *
+ * @author John McDonnell
+ */
+final class Templates {
+
+    private Templates() {
+    }
+
+    /**
+     * @param context context values, as {@code cdk -c} would set them, applied before the stacks are built
+     * @param stacks builds the stacks under test next to a {@link DatabaseStack}
+     * @return the template of the stack named {@code stackName}
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> synth(final String stackName, final Map<String, String> context, final Consumer<App> stacks) {
+        final App app;
+        try {
+            app = new App(AppProps.builder().outdir(Files.createTempDirectory("cdk.out").toString()).build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        context.forEach((key, value) -> app.getNode().setContext(key, value));
+        new DatabaseStack(app, "DatabaseStack");
+        stacks.accept(app);
+        return (Map<String, Object>) app.synth().getStack(stackName).getTemplate();
+    }
+
+    /**
+     * @return the properties of every resource of the type, such as {@code AWS::Lambda::Function}
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> resources(final Map<String, Object> template, final String type) {
+        final Map<String, Map<String, Object>> resources = (Map<String, Map<String, Object>>) template.get("Resources");
+        return resources.values().stream()
+                .filter(resource -> type.equals(resource.get("Type")))
+                .map(resource -> (Map<String, Object>) resource.get("Properties"))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the properties of the only resource of the type that matches
+     */
+    static Map<String, Object> resource(final Map<String, Object> template, final String type,
+            final Predicate<Map<String, Object>> matching) {
+        final List<Map<String, Object>> found = resources(template, type).stream().filter(matching).collect(Collectors.toList());
+        if (found.size() != 1) {
+            throw new AssertionError("Expected one matching " + type + " but found " + found.size());
+        }
+        return found.get(0);
+    }
+
+    static Predicate<Map<String, Object>> having(final String property, final Object value) {
+        return properties -> value.equals(properties.get(property));
+    }
+
+    /**
+     * @return the value at the path of property names, or null when any of it is missing
+     */
+    @SuppressWarnings("unchecked")
+    static Object at(final Map<String, Object> properties, final String... path) {
+        Object value = properties;
+        for (String name : path) {
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            value = ((Map<String, Object>) value).get(name);
+        }
+        return value;
+    }
+
+    /**
+     * @return the number at the path, as an int, since numbers come back from jsii as any {@link Number}
+     */
+    static int intAt(final Map<String, Object> properties, final String... path) {
+        return ((Number) at(properties, path)).intValue();
+    }
+}
@@ -0,0 +1,85 @@
+package net.johnmcdonnell.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import net.johnmcdonnell.ApiStage;
+import net.johnmcdonnell.CrudService;
+import net.johnmcdonnell.DatabaseStack;
+import net.johnmcdonnell.DatabaseTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awscdk.core.App;
+import software.amazon.awscdk.core.AppProps;
+import software.amazon.awscdk.core.Stack;
+import software.amazon.awscdk.cxapi.CloudAssembly;
+
+/**
+ * Wall time of building and synthesizing an app with a growing number of CRUD
+ * services, each in its own stack over one of the {@link DatabaseTables} in
+ * turn. Building is included because the CDK stages assets as functions are
+ * created, not at synth. Run from the project root, where {@code lambda/}
+ * is, and add {@code -prof gc} for allocation per synth:
+ * {@code java -jar benchmarks/target/benchmarks.jar -prof gc}.
+ *
+ * @author John McDonnell
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SynthBenchmark {
+
+    private static final DatabaseTables[] SERVICE_TABLES = {
+        DatabaseTables.PRODUCTS, DatabaseTables.REVIEWS, DatabaseTables.ORDERS, DatabaseTables.INVENTORY
+    };
+
+    @Param({"1", "4", "8", "16"})
+    public int services;
+
+    private Path outdir;
+
+    @Setup(Level.Invocation)
+    public void createOutdir() throws IOException {
+        outdir = Files.createTempDirectory("cdk.out");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteOutdir() throws IOException {
+        try (Stream<Path> paths = Files.walk(outdir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public CloudAssembly synth() {
+        final App app = new App(AppProps.builder().outdir(outdir.toString()).build());
+        new DatabaseStack(app, "DatabaseStack");
+        for (int i = 0; i < services; i++) {
+            final Stack stack = new Stack(app, "Service" + i + "Stack");
+            final DatabaseTables table = SERVICE_TABLES[i % SERVICE_TABLES.length];
+            CrudService.Builder.create(stack, "Service" + i)
+                    .databaseTable(table)
+                    .entityName("Service" + i)
+                    .restApi(ApiStage.restApi(stack, "service" + i + "Api", "Service " + i, table))
+                    .build();
+        }
+        return app.synth();
+    }
+}
@@ -0,0 +1,194 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.auth.signer.Aws4Signer;
+import software.amazon.awssdk.auth.signer.params.Aws4SignerParams;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.utils.IoUtils;
+import software.amazon.awssdk.utils.http.SdkHttpUtils;
+
+/**
+ * Refreshes the API Gateway cache entry of an item after it is written, the
+ * same way {@code apiCache.js} does. The function's environment names the API
+ * only when its stage caches responses; otherwise this does nothing.
+ *
+ * @author John McDonnell
+ */
+final class ApiCache {
+
+    static final ApiCache ENVIRONMENT = new ApiCache(System.getenv("API_ID"), System.getenv("API_STAGE"),
+            System.getenv("AWS_REGION"), System.getenv("STAGE_CACHED_ROUTES"),
+            Integer.parseInt(Optional.ofNullable(System.getenv("ITEM_CACHE_SIZE")).orElse("0")) > 0,
+            System.getenv("API_KEY_ID"));
+
+    /**
+     * Marks a refresh, so {@code GET /{id}} reads the item consistently and
+     * past its item cache rather than store a stale item for the whole TTL.
+     * It is left out of the stage's cache key, so the refreshed entry is the
+     * one every reader gets, and it grants nothing {@code ?consistent=true}
+     * does not.
+     */
+    static final String REFRESH_HEADER = "X-Cache-Refresh";
+
+    private static final int TIMEOUT_MILLIS = 2000;
+
+    private final String apiId;
+    private final String stage;
+    private final String region;
+    private final Set<String> cachedRoutes;
+    private final List<String> variants;
+    private final String apiKeyId;
+    private volatile String apiKey;
+
+    /**
+     * @param cachedRoutes the routes whose responses the stage caches, comma separated, e.g. {@code GET /{id},GET /}
+     * @param itemCache whether the table has an item cache, making {@code ?consistent=true} part of the cache key
+     * @param apiKeyId the id of the internal API key to refresh with, when the API requires keys
+     */
+    ApiCache(String apiId, String stage, String region, String cachedRoutes, boolean itemCache, String apiKeyId) {
+        this.apiId = apiId;
+        this.stage = stage;
+        this.region = region;
+        this.cachedRoutes = cachedRoutes == null || cachedRoutes.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(Arrays.asList(cachedRoutes.split(",")));
+        this.variants = itemCache ? Arrays.asList("", "consistent=true") : Collections.singletonList("");
+        this.apiKeyId = apiKeyId;
+    }
+
+    /**
+     * @return whether the stage may cache the response to the request: it came
+     * through the caching REST API, on a route whose responses are cached. Such
+     * a response must not depend on headers left out of the cache key, such as
+     * {@code If-None-Match}.
+     */
+    boolean cachesResponse(APIGatewayProxyRequestEvent request) {
+        return apiId != null && !apiId.isEmpty()
+                && request.getRequestContext() != null && apiId.equals(request.getRequestContext().getApiId())
+                && cachedRoutes.contains(request.getHttpMethod() + " " + request.getResource());
+    }
+
+    /**
+     * @return whether the request is a refresh sent by {@link #refreshItem}
+     */
+    static boolean isRefresh(APIGatewayProxyRequestEvent request) {
+        final Map<String, String> headers = request.getHeaders();
+        return headers != null && headers.entrySet().stream()
+                .anyMatch(header -> REFRESH_HEADER.equalsIgnoreCase(header.getKey()) && "true".equals(header.getValue()));
+    }
+
+    /**
+     * Re-fetches {@code GET /{id}} with {@code Cache-Control: max-age=0}, which
+     * makes API Gateway replace the cached response, and {@link #REFRESH_HEADER}
+     * so the item is read fresh. The request is signed, since only callers
+     * allowed {@code execute-api:InvalidateCache} may bypass the cache, and
+     * carries the internal API key once the API requires keys.
+     * With an item cache the {@code ?consistent=true} entry is refreshed too. A
+     * failure is logged rather than failing the write; the entry then expires
+     * with its TTL.
+     */
+    void refreshItem(String id) {
+        if (apiId == null || apiId.isEmpty()) {
+            return;
+        }
+        variants.forEach(query -> refresh(id, query));
+    }
+
+    private void refresh(String id, String query) {
+        final String entry = id + (query.isEmpty() ? "" : "?" + query);
+        try {
+            final SdkHttpFullRequest.Builder refresh = SdkHttpFullRequest.builder()
+                    .method(SdkHttpMethod.GET)
+                    .protocol("https")
+                    .host(apiId + ".execute-api." + region + ".amazonaws.com")
+                    .encodedPath("/" + stage + "/" + SdkHttpUtils.urlEncode(id))
+                    .putHeader("Cache-Control", "max-age=0")
+                    .putHeader(REFRESH_HEADER, "true");
+            if (!query.isEmpty()) {
+                final String[] parameter = query.split("=", 2);
+                refresh.putRawQueryParameter(parameter[0], parameter[1]);
+            }
+            final String key = apiKey();
+            if (key != null) {
+                refresh.putHeader("x-api-key", key);
+            }
+            final Response response = send(refresh, "execute-api");
+            // A deleted item refreshes to its 404, which is as good as any other response.
+            if (response.status != 200 && response.status != 404) {
+                System.err.println("Could not refresh cached item " + entry + ": status " + response.status);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not refresh cached item " + entry + ": " + e);
+        }
+    }
+
+    /**
+     * @return the value of the internal API key, read once per container, or
+     * null when the API does not require keys
+     */
+    private String apiKey() throws IOException {
+        if (apiKeyId == null || apiKeyId.isEmpty()) {
+            return null;
+        }
+        if (apiKey == null) {
+            final Response response = send(SdkHttpFullRequest.builder()
+                    .method(SdkHttpMethod.GET)
+                    .protocol("https")
+                    .host("apigateway." + region + ".amazonaws.com")
+                    .encodedPath("/apikeys/" + SdkHttpUtils.urlEncode(apiKeyId))
+                    .putRawQueryParameter("includeValue", "true"), "apigateway");
+            if (response.status != 200) {
+                throw new IOException("API key " + apiKeyId + " could not be read: status " + response.status);
+            }
+            apiKey = Items.MAPPER.readTree(response.body).path("value").asText(null);
+        }
+        return apiKey;
+    }
+
+    private Response send(SdkHttpFullRequest.Builder unsigned, String signingName) throws IOException {
+        final SdkHttpFullRequest signed = Aws4Signer.create().sign(unsigned.build(), Aws4SignerParams.builder()
+                .awsCredentials(EnvironmentVariableCredentialsProvider.create().resolveCredentials())
+                .signingName(signingName)
+                .signingRegion(Region.of(region))
+                .build());
+
+        final HttpURLConnection connection = (HttpURLConnection) signed.getUri().toURL().openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        // The connection sets Host itself, to the same value that was signed.
+        signed.headers().forEach((name, values) -> {
+            if (!"Host".equalsIgnoreCase(name)) {
+                values.forEach(value -> connection.addRequestProperty(name, value));
+            }
+        });
+        final int status = connection.getResponseCode();
+        // Read in full, so the connection can be reused.
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, body == null ? "" : IoUtils.toUtf8String(body));
+        }
+    }
+
+    private static final class Response {
+
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+/**
+ * {@code POST /batch-get}. Reads {@code {"ids": [...]}} in batches of 100 keys
+ * and answers with one result per requested id, in request order: the item
+ * with status 200, 404 when there is none, or 503 when DynamoDB left the key
+ * unprocessed through every retry.
+ *
+ * @author John McDonnell
+ */
+public class BatchGetItemsHandler extends ItemHandler {
+
+    static final int BATCH_GET_LIMIT = 100;
+    static final int MAX_IDS = 500;
+
+    static final String INVALID_REQUEST = "invalid request, ids must be a list of between 1 and " + MAX_IDS + " ids";
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    public BatchGetItemsHandler() {
+        super();
+    }
+
+    public BatchGetItemsHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        super(dynamoDb, table);
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        if (request.getBody() == null || request.getBody().isEmpty()) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        final List<String> requested = new ArrayList<>();
+        try {
+            final JsonNode body = Items.parse(request.getBody());
+            final Optional<APIGatewayProxyResponseEvent> invalidBody = RequestSchemas.ENVIRONMENT.check("batchGetItems", body);
+            if (invalidBody.isPresent()) {
+                return invalidBody.get();
+            }
+            final JsonNode ids = body.path("ids");
+            if (!ids.isArray() || ids.size() == 0 || ids.size() > MAX_IDS) {
+                return Responses.of(400, INVALID_REQUEST);
+            }
+            for (JsonNode id : ids) {
+                if (!id.isTextual() || id.textValue().isEmpty()) {
+                    return Responses.of(400, INVALID_REQUEST);
+                }
+                requested.add(id.textValue());
+            }
+        } catch (IOException e) {
+            return Responses.of(400, INVALID_REQUEST);
+        }
+
+        // DynamoDB rejects a batch that names a key twice.
+        final List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(requested)) {
+            keys.add(key(id));
+        }
+        final Map<String, Map<String, AttributeValue>> found = new HashMap<>();
+        final Set<String> unprocessed = new HashSet<>();
+        for (List<Map<String, AttributeValue>> chunk : Batches.chunk(keys, BATCH_GET_LIMIT)) {
+            final List<Map<String, AttributeValue>> remaining = Batches.untilProcessed(chunk, pending -> {
+                final BatchGetItemResponse response = dynamoDb.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(Collections.singletonMap(table.getTableName(), KeysAndAttributes.builder()
+                                .keys(pending)
+                                .build()))
+                        .build());
+                final List<Map<String, AttributeValue>> items = response.responses().get(table.getTableName());
+                if (items != null) {
+                    items.forEach(item -> found.put(item.get(table.getPrimaryKey()).s(), item));
+                }
+                final KeysAndAttributes unprocessedKeys = response.unprocessedKeys().get(table.getTableName());
+                return unprocessedKeys == null ? Collections.emptyList() : unprocessedKeys.keys();
+            });
+            remaining.forEach(key -> unprocessed.add(key.get(table.getPrimaryKey()).s()));
+        }
+
+        final ObjectNode body = NODES.objectNode();
+        final ArrayNode results = body.putArray("items");
+        for (String id : requested) {
+            final ObjectNode result = results.addObject().put("id", id);
+            if (found.containsKey(id)) {
+                result.put("status", 200).set("item", Items.toJson(found.get(id)));
+            } else {
+                result.put("status", unprocessed.contains(id) ? 503 : 404);
+            }
+        }
+        return Responses.of(200, Items.write(body));
+    }
+}
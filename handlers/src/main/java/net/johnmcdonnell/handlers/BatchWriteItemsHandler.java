@@ -0,0 +1,141 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * {@code POST /batch-write}. Creates every item in {@code put}, each under a
+ * new id as {@code POST /} does, and deletes every id in {@code delete}, in
+ * batches of 25 writes. Answers with one result per requested write, in
+ * request order: 201 or 204, or 503 when DynamoDB left the write unprocessed
+ * through every retry.
+ *
+ * @author John McDonnell
+ */
+public class BatchWriteItemsHandler extends ItemHandler {
+
+    static final int BATCH_WRITE_LIMIT = 25;
+    static final int MAX_WRITES = 200;
+
+    static final String INVALID_REQUEST = "invalid request, put must be a list of at most " + MAX_WRITES
+            + " items and delete a list of at most " + MAX_WRITES + " ids";
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    public BatchWriteItemsHandler() {
+        super();
+    }
+
+    public BatchWriteItemsHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        super(dynamoDb, table);
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        if (request.getBody() == null || request.getBody().isEmpty()) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        final JsonNode body;
+        try {
+            body = Items.parse(request.getBody());
+        } catch (IOException e) {
+            return Responses.of(400, INVALID_REQUEST);
+        }
+        final Optional<APIGatewayProxyResponseEvent> invalidBody = RequestSchemas.ENVIRONMENT.check("batchWriteItems", body);
+        if (invalidBody.isPresent()) {
+            return invalidBody.get();
+        }
+        final JsonNode puts = body.path("put");
+        final JsonNode deletes = body.path("delete");
+        if (!isListOf(puts, true) || !isListOf(deletes, false)) {
+            return Responses.of(400, INVALID_REQUEST);
+        }
+        if (puts.size() == 0 && deletes.size() == 0) {
+            return Responses.of(400, Responses.NO_ARGUMENTS);
+        }
+
+        final String now = Items.timestamp();
+        final List<String> putIds = new ArrayList<>();
+        final List<String> deleteIds = new ArrayList<>();
+        final List<WriteRequest> writes = new ArrayList<>();
+        for (JsonNode put : puts) {
+            final String id = UUID.randomUUID().toString();
+            final Map<String, AttributeValue> item = Items.toItem(put);
+            item.put(table.getPrimaryKey(), AttributeValue.builder().s(id).build());
+            item.put("createdAt", AttributeValue.builder().s(now).build());
+            item.put("updatedAt", AttributeValue.builder().s(now).build());
+            Items.stampExpiry(table, item);
+            writes.add(WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build());
+            putIds.add(id);
+        }
+        deletes.forEach(id -> deleteIds.add(id.textValue()));
+        // DynamoDB rejects a batch that names a key twice.
+        for (String id : new LinkedHashSet<>(deleteIds)) {
+            writes.add(WriteRequest.builder().deleteRequest(DeleteRequest.builder().key(key(id)).build()).build());
+        }
+
+        final Set<String> unprocessed = new HashSet<>();
+        for (List<WriteRequest> chunk : Batches.chunk(writes, BATCH_WRITE_LIMIT)) {
+            final List<WriteRequest> remaining = Batches.untilProcessed(chunk, pending -> {
+                final List<WriteRequest> unprocessedItems = dynamoDb.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(Collections.singletonMap(table.getTableName(), pending))
+                        .build()).unprocessedItems().get(table.getTableName());
+                return unprocessedItems == null ? Collections.emptyList() : unprocessedItems;
+            });
+            remaining.forEach(write -> unprocessed.add(write.putRequest() != null
+                    ? write.putRequest().item().get(table.getPrimaryKey()).s()
+                    : write.deleteRequest().key().get(table.getPrimaryKey()).s()));
+        }
+
+        // Puts create new ids, so only deleted items can have a cached GET /{id} to refresh, as DeleteItemHandler does.
+        new LinkedHashSet<>(deleteIds).parallelStream()
+                .filter(id -> !unprocessed.contains(id))
+                .forEach(ApiCache.ENVIRONMENT::refreshItem);
+
+        final ObjectNode results = NODES.objectNode();
+        final ArrayNode putResults = results.putArray("put");
+        putIds.forEach(id -> putResults.addObject().put("id", id).put("status", unprocessed.contains(id) ? 503 : 201));
+        final ArrayNode deleteResults = results.putArray("delete");
+        deleteIds.forEach(id -> deleteResults.addObject().put("id", id).put("status", unprocessed.contains(id) ? 503 : 204));
+        return Responses.of(200, Items.write(results));
+    }
+
+    /**
+     * @return whether the node is absent or a list of at most {@value #MAX_WRITES}
+     * objects, or of ids when {@code objects} is false
+     */
+    private static boolean isListOf(JsonNode list, boolean objects) {
+        if (list.isMissingNode()) {
+            return true;
+        }
+        if (!list.isArray() || list.size() > MAX_WRITES) {
+            return false;
+        }
+        for (JsonNode entry : list) {
+            if (objects ? !entry.isObject() : !entry.isTextual() || entry.textValue().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
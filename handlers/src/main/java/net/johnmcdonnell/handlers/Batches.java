@@ -0,0 +1,59 @@
+package net.johnmcdonnell.handlers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Splitting of requests to DynamoDB's batch limits and retrying of whatever
+ * DynamoDB hands back unprocessed, shared by the batch handlers and
+ * {@code batch.js}.
+ *
+ * @author John McDonnell
+ */
+final class Batches {
+
+    private static final int MAX_ATTEMPTS = 6;
+    private static final long BASE_DELAY_MILLIS = 50;
+    private static final long MAX_DELAY_MILLIS = 1000;
+
+    private Batches() {
+    }
+
+    static <T> List<List<T>> chunk(List<T> items, int size) {
+        final List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += size) {
+            chunks.add(items.subList(start, Math.min(start + size, items.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Sends the pending requests until none come back unprocessed or the
+     * attempts run out, backing off exponentially with full jitter between
+     * attempts.
+     *
+     * @param send sends some requests and returns those left unprocessed
+     * @return the requests still unprocessed
+     */
+    static <T> List<T> untilProcessed(List<T> requests, Function<List<T>, List<T>> send) {
+        List<T> pending = requests;
+        for (int attempt = 0; !pending.isEmpty() && attempt < MAX_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+            pending = send.apply(pending);
+        }
+        return pending;
+    }
+
+    private static void backoff(int attempt) {
+        final long ceiling = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << attempt);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
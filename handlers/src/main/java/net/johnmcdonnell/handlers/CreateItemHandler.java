@@ -0,0 +1,61 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+/**
+ * {@code POST /}.
+ *
+ * @author John McDonnell
+ */
+public class CreateItemHandler extends ItemHandler {
+
+    public CreateItemHandler() {
+        super();
+    }
+
+    public CreateItemHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        super(dynamoDb, table);
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        if (request.getBody() == null || request.getBody().isEmpty()) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        final JsonNode body;
+        try {
+            body = Items.parse(request.getBody());
+        } catch (IOException e) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        final Optional<APIGatewayProxyResponseEvent> invalidBody = RequestSchemas.ENVIRONMENT.check("createItem", body);
+        if (invalidBody.isPresent()) {
+            return invalidBody.get();
+        }
+        if (!body.isObject()) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+
+        final String now = Items.timestamp();
+        final Map<String, AttributeValue> item = Items.toItem(body);
+        item.put(table.getPrimaryKey(), AttributeValue.builder().s(UUID.randomUUID().toString()).build());
+        item.put("createdAt", AttributeValue.builder().s(now).build());
+        item.put("updatedAt", AttributeValue.builder().s(now).build());
+        Items.stampExpiry(table, item);
+
+        dynamoDb.putItem(PutItemRequest.builder()
+                .tableName(table.getTableName())
+                .item(item)
+                .build());
+        return Responses.of(201, "");
+    }
+}
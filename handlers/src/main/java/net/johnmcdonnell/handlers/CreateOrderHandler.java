@@ -0,0 +1,184 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+/**
+ * {@code POST /} on the orders table. Writes the order and reserves one unit of
+ * stock per entry in its {@code productIds} in a single transaction, so an
+ * order is never stored without its stock or stock taken without an order. When
+ * any product is short the whole order is refused with a 409 naming those
+ * products, and when the transaction keeps losing races for the stock with a
+ * retryable 503.
+ *
+ * @author John McDonnell
+ */
+public class CreateOrderHandler extends ItemHandler {
+
+    /**
+     * A transaction holds at most this many writes, one of which is the order itself.
+     */
+    private static final int MAX_TRANSACTION_ITEMS = 100;
+
+    static final String INVALID_ORDER = "invalid request, productIds must be a non-empty list of product ids";
+    static final String TOO_MANY_PRODUCTS = "invalid request, an order can reserve at most "
+            + (MAX_TRANSACTION_ITEMS - 1) + " stock counters";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final TableConfig ENVIRONMENT_INVENTORY = TableConfig.fromEnvironment("INVENTORY_");
+
+    private final TableConfig inventory;
+
+    public CreateOrderHandler() {
+        super();
+        this.inventory = ENVIRONMENT_INVENTORY;
+    }
+
+    public CreateOrderHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        this(dynamoDb, table, ENVIRONMENT_INVENTORY);
+    }
+
+    public CreateOrderHandler(DynamoDbClient dynamoDb, TableConfig table, TableConfig inventory) {
+        super(dynamoDb, table);
+        this.inventory = inventory;
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        if (request.getBody() == null || request.getBody().isEmpty()) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        final JsonNode body;
+        try {
+            body = Items.parse(request.getBody());
+        } catch (IOException e) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        final Optional<APIGatewayProxyResponseEvent> invalidBody = RequestSchemas.ENVIRONMENT.check("createItem", body);
+        if (invalidBody.isPresent()) {
+            return invalidBody.get();
+        }
+        if (!body.isObject()) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        final Map<String, Long> quantities = quantitiesOf(body.path("productIds"));
+        if (quantities == null) {
+            return Responses.of(400, INVALID_ORDER);
+        }
+        if (quantities.size() * InventoryCounters.countersPerProduct(inventory) > MAX_TRANSACTION_ITEMS - 1) {
+            return Responses.of(400, TOO_MANY_PRODUCTS);
+        }
+
+        final String id = UUID.randomUUID().toString();
+        final String now = Items.timestamp();
+        final Map<String, AttributeValue> item = Items.toItem(body);
+        item.put(table.getPrimaryKey(), AttributeValue.builder().s(id).build());
+        item.put("createdAt", AttributeValue.builder().s(now).build());
+        item.put("updatedAt", AttributeValue.builder().s(now).build());
+        Items.stampExpiry(table, item);
+        final TransactWriteItem put = TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(table.getTableName())
+                        .item(item)
+                        .conditionExpression("attribute_not_exists(#pk)")
+                        .expressionAttributeNames(Collections.singletonMap("#pk", table.getPrimaryKey()))
+                        .build())
+                .build();
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final List<TransactWriteItem> writes = new ArrayList<>();
+            writes.add(put);
+            if (inventory.getCounterShards() <= 1) {
+                quantities.forEach((productId, quantity) ->
+                        writes.add(InventoryCounters.drawUpdate(inventory, productId, quantity, now)));
+            } else {
+                final Map<String, List<Map<String, AttributeValue>>> counters =
+                        InventoryCounters.readCounters(dynamoDb, inventory, quantities.keySet(), true);
+                final List<String> unavailable = new ArrayList<>();
+                quantities.forEach((productId, quantity) -> {
+                    final List<TransactWriteItem> draws =
+                            InventoryCounters.planDraws(inventory, counters.get(productId), quantity);
+                    if (draws == null) {
+                        unavailable.add(productId);
+                    } else {
+                        writes.addAll(draws);
+                    }
+                });
+                if (!unavailable.isEmpty()) {
+                    return insufficient(unavailable);
+                }
+            }
+
+            try {
+                dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(writes).build());
+                final ObjectNode created = JsonNodeFactory.instance.objectNode();
+                created.put(table.getPrimaryKey(), id);
+                return Responses.of(201, Items.write(created));
+            } catch (TransactionCanceledException e) {
+                // The cancellation does not say which condition failed, so the stock is read back to
+                // name the products; if every product still covers its quantity the transaction lost a race.
+                final List<String> unavailable = shortProducts(quantities);
+                if (!unavailable.isEmpty()) {
+                    return insufficient(unavailable);
+                }
+            }
+        }
+        return Responses.of(503, Collections.singletonMap("Retry-After", "1"), UpdateInventoryHandler.STOCK_CONTENDED);
+    }
+
+    /**
+     * @return the units ordered of each distinct product, one per listing, or
+     * null when the list is missing, empty or holds anything but ids
+     */
+    private static Map<String, Long> quantitiesOf(JsonNode productIds) {
+        if (!productIds.isArray() || productIds.size() == 0) {
+            return null;
+        }
+        final Map<String, Long> quantities = new LinkedHashMap<>();
+        for (JsonNode productId : productIds) {
+            if (!productId.isTextual() || productId.textValue().isEmpty()) {
+                return null;
+            }
+            quantities.merge(productId.textValue(), 1L, Long::sum);
+        }
+        return quantities;
+    }
+
+    private List<String> shortProducts(Map<String, Long> quantities) {
+        final Map<String, List<Map<String, AttributeValue>>> counters =
+                InventoryCounters.readCounters(dynamoDb, inventory, quantities.keySet(), true);
+        final List<String> unavailable = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            if (InventoryCounters.stockOf(counters.get(productId)) < quantity) {
+                unavailable.add(productId);
+            }
+        });
+        return unavailable;
+    }
+
+    private static APIGatewayProxyResponseEvent insufficient(Collection<String> productIds) {
+        final ObjectNode body = JsonNodeFactory.instance.objectNode();
+        body.put("message", UpdateInventoryHandler.INSUFFICIENT_STOCK);
+        final ArrayNode products = body.putArray("productIds");
+        productIds.forEach(products::add);
+        return Responses.of(409, Items.write(body));
+    }
+}
@@ -0,0 +1,37 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+
+/**
+ * {@code DELETE /{id}}.
+ *
+ * @author John McDonnell
+ */
+public class DeleteItemHandler extends ItemHandler {
+
+    public DeleteItemHandler() {
+        super();
+    }
+
+    public DeleteItemHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        super(dynamoDb, table);
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        final String requestedItemId = pathId(request);
+        if (requestedItemId == null || requestedItemId.isEmpty()) {
+            return Responses.of(400, Responses.MISSING_ID);
+        }
+
+        dynamoDb.deleteItem(DeleteItemRequest.builder()
+                .tableName(table.getTableName())
+                .key(key(requestedItemId))
+                .build());
+        ApiCache.ENVIRONMENT.refreshItem(requestedItemId);
+        return Responses.of(200, "");
+    }
+}
@@ -0,0 +1,35 @@
+package net.johnmcdonnell.handlers;
+
+import java.time.Duration;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+/**
+ * Holds the single DynamoDB client shared by every handler in the container.
+ * It is built once per cold start, and its connection pool is reused by
+ * every warm invocation after that. Every call is counted towards the
+ * invocation's {@link Metrics}.
+ *
+ * @author John McDonnell
+ */
+public final class DynamoDb {
+
+    private static final DynamoDbClient CLIENT = DynamoDbClient.builder()
+            .region(Region.of(System.getenv().getOrDefault("AWS_REGION", "us-east-1")))
+            .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+            .httpClientBuilder(ApacheHttpClient.builder()
+                    .maxConnections(50)
+                    .connectionMaxIdleTime(Duration.ofMinutes(5))
+                    .useIdleConnectionReaper(false))
+            .overrideConfiguration(configuration -> configuration.addExecutionInterceptor(new Metrics.Interceptor()))
+            .build();
+
+    private DynamoDb() {
+    }
+
+    public static DynamoDbClient client() {
+        return CLIENT;
+    }
+}
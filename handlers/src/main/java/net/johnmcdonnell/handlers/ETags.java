@@ -0,0 +1,68 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Conditional GETs, the same as {@code etag.js}. The ETag is hashed from the
+ * response body rather than taken from {@code updatedAt}, which only has one
+ * second of precision and is not touched by the counters other functions keep
+ * on an item.
+ *
+ * @author John McDonnell
+ */
+public final class ETags {
+
+    public static final String ETAG_HEADER = "ETag";
+    public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    private ETags() {
+    }
+
+    public static String of(String body) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(body.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException missing) {
+            throw new IllegalStateException(missing);
+        }
+    }
+
+    /**
+     * @return a 200 carrying the body's ETag, or a 304 without the body when
+     * the request's {@code If-None-Match} already names it, unless the stage
+     * may cache the response and would replay the 304 to other clients
+     */
+    public static APIGatewayProxyResponseEvent ok(APIGatewayProxyRequestEvent request, Map<String, String> headers,
+            String body) {
+        final String etag = of(body);
+        final Map<String, String> responseHeaders = new HashMap<>(headers);
+        responseHeaders.put(ETAG_HEADER, etag);
+        final String ifNoneMatch = ifNoneMatch(request);
+        if (ifNoneMatch != null && !ApiCache.ENVIRONMENT.cachesResponse(request) && Arrays.stream(ifNoneMatch.split(","))
+                .map(candidate -> candidate.trim().replaceFirst("^W/", ""))
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag))) {
+            return Responses.of(304, responseHeaders, "");
+        }
+        return Responses.of(200, responseHeaders, body);
+    }
+
+    private static String ifNoneMatch(APIGatewayProxyRequestEvent request) {
+        final Map<String, String> headers = request.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        return headers.entrySet().stream()
+                .filter(header -> IF_NONE_MATCH_HEADER.equalsIgnoreCase(header.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,154 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.core.util.SdkAutoConstructList;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+/**
+ * What a read asked to embed with {@code ?expand=}, the same as
+ * {@code expand.js}: {@code products} replaces an order's round trip per line
+ * item with one deduplicated batch read of the products it lists, projected
+ * to the products table's readable fields.
+ *
+ * @author John McDonnell
+ */
+final class Expansion {
+
+    static final Expansion NONE = new Expansion(Collections.emptySet(), null);
+
+    private static final String PRODUCTS = "products";
+    private static final int BATCH_GET_LIMIT = 100;
+
+    private final Set<String> names;
+    /**
+     * The expansions asked for that cannot be made, or null when all can.
+     */
+    private final List<String> invalid;
+
+    private Expansion(Set<String> names, List<String> invalid) {
+        this.names = names;
+        this.invalid = invalid;
+    }
+
+    /**
+     * @param products the products table, whose name is empty when the function cannot read it
+     * @return {@link #NONE} when the request does not ask for an expansion
+     */
+    static Expansion parse(Map<String, String> query, TableConfig products) {
+        final String expand = query.get("expand");
+        if (expand == null) {
+            return NONE;
+        }
+        final Set<String> requested = Arrays.stream(expand.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        final List<String> unknown = requested.stream()
+                .filter(name -> !(PRODUCTS.equals(name) && !products.getTableName().isEmpty()))
+                .collect(Collectors.toList());
+        if (!unknown.isEmpty() || requested.isEmpty()) {
+            return new Expansion(Collections.emptySet(), unknown);
+        }
+        return new Expansion(Collections.unmodifiableSet(requested), null);
+    }
+
+    boolean isNone() {
+        return names.isEmpty();
+    }
+
+    boolean isInvalid() {
+        return invalid != null;
+    }
+
+    static APIGatewayProxyResponseEvent invalidResponse(Expansion expansion, TableConfig products) {
+        final ObjectNode body = Items.MAPPER.createObjectNode();
+        body.put("message", products.getTableName().isEmpty()
+                ? "Error: nothing can be expanded here" : "Error: expand must be " + PRODUCTS);
+        expansion.invalid.forEach(body.putArray("expand")::add);
+        return Responses.of(400, Items.write(body));
+    }
+
+    /**
+     * Merges what was asked for into the body: under {@code products}, one
+     * entry per line of the order's {@code productIds}, null where the
+     * product is gone.
+     */
+    ObjectNode apply(DynamoDbClient dynamoDb, TableConfig products, Map<String, AttributeValue> item, ObjectNode body) {
+        if (names.contains(PRODUCTS)) {
+            final AttributeValue productIds = item.get("productIds");
+            final List<String> lines = new ArrayList<>();
+            if (productIds != null && !(productIds.l() instanceof SdkAutoConstructList)) {
+                productIds.l().stream().filter(id -> id.s() != null).forEach(id -> lines.add(id.s()));
+            }
+            final Map<String, Map<String, AttributeValue>> found = readProducts(dynamoDb, products, lines);
+            final ArrayNode expanded = body.putArray(PRODUCTS);
+            for (String productId : lines) {
+                if (found.containsKey(productId)) {
+                    expanded.add(Items.toJson(found.get(productId)));
+                } else {
+                    expanded.addNull();
+                }
+            }
+        }
+        return body;
+    }
+
+    private static Map<String, Map<String, AttributeValue>> readProducts(DynamoDbClient dynamoDb, TableConfig products,
+            List<String> productIds) {
+        // Products are matched back to their lines by key, so a projection always includes it.
+        final Set<String> projection = new LinkedHashSet<>();
+        if (!products.getReadableFields().isEmpty()) {
+            projection.add(products.getPrimaryKey());
+            projection.addAll(products.getReadableFields());
+        }
+        final Map<String, String> attributeNames = new LinkedHashMap<>();
+        for (String field : projection) {
+            attributeNames.put("#p" + attributeNames.size(), field);
+        }
+
+        final List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (String productId : new LinkedHashSet<>(productIds)) {
+            keys.add(Collections.singletonMap(products.getPrimaryKey(), AttributeValue.builder().s(productId).build()));
+        }
+        final Map<String, Map<String, AttributeValue>> found = new HashMap<>();
+        for (List<Map<String, AttributeValue>> chunk : Batches.chunk(keys, BATCH_GET_LIMIT)) {
+            final List<Map<String, AttributeValue>> remaining = Batches.untilProcessed(chunk, pending -> {
+                final KeysAndAttributes.Builder read = KeysAndAttributes.builder().keys(pending);
+                if (!attributeNames.isEmpty()) {
+                    read.projectionExpression(String.join(", ", attributeNames.keySet()))
+                            .expressionAttributeNames(attributeNames);
+                }
+                final BatchGetItemResponse response = dynamoDb.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(Collections.singletonMap(products.getTableName(), read.build()))
+                        .build());
+                final List<Map<String, AttributeValue>> items = response.responses().get(products.getTableName());
+                if (items != null) {
+                    items.forEach(product -> found.put(product.get(products.getPrimaryKey()).s(), product));
+                }
+                final KeysAndAttributes unprocessedKeys = response.unprocessedKeys().get(products.getTableName());
+                return unprocessedKeys == null ? Collections.emptyList() : unprocessedKeys.keys();
+            });
+            if (!remaining.isEmpty()) {
+                throw DynamoDbException.builder().message(remaining.size() + " products were left unprocessed").build();
+            }
+        }
+        return found;
+    }
+}
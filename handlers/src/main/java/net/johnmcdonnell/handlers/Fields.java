@@ -0,0 +1,107 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * The attributes a read selected with {@code ?fields=}, the same as
+ * {@code fields.js}. The primary key is always selected so list entries can
+ * still be told apart.
+ *
+ * @author John McDonnell
+ */
+final class Fields {
+
+    static final Fields ALL = new Fields(Collections.emptyList(), null);
+
+    private final List<String> names;
+    /**
+     * The unknown attributes asked for, or null when the selection is valid.
+     */
+    private final List<String> invalid;
+
+    private Fields(List<String> names, List<String> invalid) {
+        this.names = names;
+        this.invalid = invalid;
+    }
+
+    /**
+     * @return {@link #ALL} when the request does not ask for a subset
+     */
+    static Fields parse(Map<String, String> query, TableConfig table) {
+        final String fields = query.get("fields");
+        if (fields == null) {
+            return ALL;
+        }
+        final Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        final List<String> unknown = requested.stream()
+                .filter(field -> !table.getReadableFields().contains(field))
+                .collect(Collectors.toList());
+        if (!unknown.isEmpty() || requested.isEmpty()) {
+            return new Fields(Collections.emptyList(), unknown);
+        }
+        final Set<String> selected = new LinkedHashSet<>();
+        selected.add(table.getPrimaryKey());
+        selected.addAll(requested);
+        return new Fields(Collections.unmodifiableList(selected.stream().collect(Collectors.toList())), null);
+    }
+
+    boolean isAll() {
+        return names.isEmpty();
+    }
+
+    boolean isInvalid() {
+        return invalid != null;
+    }
+
+    static APIGatewayProxyResponseEvent invalidResponse(Fields fields, TableConfig table) {
+        final ObjectNode body = Items.MAPPER.createObjectNode();
+        body.put("message", "Error: fields must be a comma separated list of "
+                + String.join(", ", table.getReadableFields()));
+        fields.invalid.forEach(body.putArray("fields")::add);
+        return Responses.of(400, Items.write(body));
+    }
+
+    String projectionExpression() {
+        final StringBuilder expression = new StringBuilder();
+        for (int position = 0; position < names.size(); position++) {
+            expression.append(position == 0 ? "" : ", ").append("#f").append(position);
+        }
+        return expression.toString();
+    }
+
+    /**
+     * @return the projection's attribute names, merged with those the request already uses
+     */
+    Map<String, String> attributeNames(Map<String, String> existing) {
+        final Map<String, String> attributeNames = new LinkedHashMap<>(existing);
+        for (int position = 0; position < names.size(); position++) {
+            attributeNames.put("#f" + position, names.get(position));
+        }
+        return attributeNames;
+    }
+
+    /**
+     * @return the selected attributes of an item that was read in full
+     */
+    Map<String, AttributeValue> pick(Map<String, AttributeValue> item) {
+        if (isAll()) {
+            return item;
+        }
+        final Map<String, AttributeValue> picked = new LinkedHashMap<>();
+        names.stream().filter(item::containsKey).forEach(name -> picked.put(name, item.get(name)));
+        return picked;
+    }
+}
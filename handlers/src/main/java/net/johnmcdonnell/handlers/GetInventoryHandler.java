@@ -0,0 +1,66 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+
+/**
+ * {@code GET /{id}} on the inventory table. With sharded counters the stock
+ * returned is the sum over the product's shards.
+ *
+ * @author John McDonnell
+ */
+public class GetInventoryHandler extends ItemHandler {
+
+    public GetInventoryHandler() {
+        super();
+    }
+
+    public GetInventoryHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        super(dynamoDb, table);
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        final String productId = pathId(request);
+        if (productId == null || productId.isEmpty()) {
+            return Responses.of(400, Responses.MISSING_ID);
+        }
+
+        if (table.getCounterShards() <= 1) {
+            final Map<String, AttributeValue> item = dynamoDb.getItem(GetItemRequest.builder()
+                    .tableName(table.getTableName())
+                    .key(key(productId))
+                    .build()).item();
+            if (item == null || item.isEmpty()) {
+                return Responses.of(404, Responses.NOT_FOUND);
+            }
+            return Responses.of(200, Items.write(Items.toJson(item)));
+        }
+
+        final List<Map<String, AttributeValue>> shards = InventoryCounters.readShards(dynamoDb, table, productId, false);
+        if (shards.isEmpty()) {
+            return Responses.of(404, Responses.NOT_FOUND);
+        }
+        long stock = 0;
+        String updatedAt = null;
+        for (Map<String, AttributeValue> shard : shards) {
+            stock += InventoryCounters.stockOf(shard);
+            final AttributeValue shardUpdatedAt = shard.get("updatedAt");
+            if (shardUpdatedAt != null && (updatedAt == null || shardUpdatedAt.s().compareTo(updatedAt) > 0)) {
+                updatedAt = shardUpdatedAt.s();
+            }
+        }
+        final ObjectNode item = JsonNodeFactory.instance.objectNode();
+        item.put(table.getPrimaryKey(), productId);
+        item.put(InventoryCounters.STOCK, stock);
+        item.put("updatedAt", updatedAt);
+        return Responses.of(200, Items.write(item));
+    }
+}
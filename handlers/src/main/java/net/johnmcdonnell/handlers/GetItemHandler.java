@@ -0,0 +1,157 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+
+/**
+ * {@code GET /{id}}. When the table has an item cache, items are served from a
+ * per-container LRU cache that drops an item whenever the generation of its
+ * key's bucket, bumped from the table's stream on every write, has moved since
+ * the last check;
+ * {@code ?consistent=true} skips the cache for a consistent read, as does a
+ * refresh of the stage's cached response, see {@link ApiCache}. When the
+ * table archives the items that expire from it, a miss is read through to the
+ * archive. {@code ?expand=products} embeds the products an order lists, see
+ * {@link Expansion}.
+ *
+ * @author John McDonnell
+ */
+public class GetItemHandler extends ItemHandler {
+
+    static final String CACHE_HEADER = "X-Item-Cache";
+    static final String ARCHIVED_HEADER = "X-Archived";
+
+    private static final TableConfig ENVIRONMENT_PRODUCTS = TableConfig.fromEnvironment("PRODUCTS_");
+
+    private final TableConfig products;
+    private final ItemCache<Map<String, AttributeValue>> cache;
+    private volatile Map<String, AttributeValue> generations;
+    private volatile long checkedAt;
+
+    public GetItemHandler() {
+        super();
+        this.products = ENVIRONMENT_PRODUCTS;
+        this.cache = cacheFor(table);
+    }
+
+    public GetItemHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        this(dynamoDb, table, ENVIRONMENT_PRODUCTS);
+    }
+
+    /**
+     * @param products the products table {@code ?expand=products} reads, with an empty name when there is none
+     */
+    public GetItemHandler(DynamoDbClient dynamoDb, TableConfig table, TableConfig products) {
+        super(dynamoDb, table);
+        this.products = products;
+        this.cache = cacheFor(table);
+    }
+
+    private static ItemCache<Map<String, AttributeValue>> cacheFor(TableConfig table) {
+        return table.getItemCacheSize() > 0
+                ? new ItemCache<>(table.getItemCacheSize(), table.getItemCacheTtlSeconds() * 1000L)
+                : null;
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        final String requestedItemId = pathId(request);
+        if (requestedItemId == null || requestedItemId.isEmpty()) {
+            return Responses.of(400, Responses.MISSING_ID);
+        }
+        final Map<String, String> query = queryParameters(request);
+        // The stage keeps one entry per item, the one a write refreshes, so a read it may cache is never projected.
+        final Fields fields = ApiCache.ENVIRONMENT.cachesResponse(request) ? Fields.ALL : Fields.parse(query, table);
+        if (fields.isInvalid()) {
+            return Fields.invalidResponse(fields, table);
+        }
+        final Expansion expansion = Expansion.parse(query, products);
+        if (expansion.isInvalid()) {
+            return Expansion.invalidResponse(expansion, products);
+        }
+        // An expansion reads attributes the selection may leave out, so the item is then read in full and picked.
+        final boolean projected = !fields.isAll() && expansion.isNone();
+        final boolean consistentRead = "true".equals(query.get("consistent")) || ApiCache.isRefresh(request);
+
+        Map<String, AttributeValue> item = null;
+        String cacheStatus = "BYPASS";
+        if (cache != null && !consistentRead) {
+            checkGenerations();
+            item = cache.get(requestedItemId);
+            cacheStatus = item == null ? "MISS" : "HIT";
+        }
+        if (item == null) {
+            final GetItemRequest.Builder get = GetItemRequest.builder()
+                    .tableName(table.getTableName())
+                    .key(key(requestedItemId))
+                    .consistentRead(consistentRead);
+            // Items are cached whole, so only project the read when there is no cache to fill.
+            if (cache == null && projected) {
+                get.projectionExpression(fields.projectionExpression())
+                        .expressionAttributeNames(fields.attributeNames(Collections.emptyMap()));
+            }
+            item = dynamoDb.getItem(get.build()).item();
+            if (cache != null && item != null && !item.isEmpty()) {
+                cache.put(requestedItemId, item);
+            }
+        }
+
+        final Map<String, String> headers = new HashMap<>();
+        if (cache != null) {
+            headers.put(CACHE_HEADER, cacheStatus);
+        }
+        if ((item == null || item.isEmpty()) && !table.getArchiveTableName().isEmpty()) {
+            // Never cached here, since the table's generation does not move with its archive.
+            final GetItemRequest.Builder get = GetItemRequest.builder()
+                    .tableName(table.getArchiveTableName())
+                    .key(key(requestedItemId));
+            if (projected) {
+                get.projectionExpression(fields.projectionExpression())
+                        .expressionAttributeNames(fields.attributeNames(Collections.emptyMap()));
+            }
+            item = dynamoDb.getItem(get.build()).item();
+            if (item != null && !item.isEmpty()) {
+                headers.put(ARCHIVED_HEADER, "true");
+            }
+        }
+        if (item == null || item.isEmpty()) {
+            return Responses.of(404, headers, Responses.NOT_FOUND);
+        }
+        return ETags.ok(request, headers, Items.write(expansion.apply(dynamoDb, products, item, Items.toJson(fields.pick(item)))));
+    }
+
+    /**
+     * Reads the table's generations at most once per check interval, dropping
+     * the cached items whose bucket has moved.
+     */
+    private void checkGenerations() {
+        if (System.currentTimeMillis() - checkedAt < table.getItemCacheCheckSeconds() * 1000L) {
+            return;
+        }
+        final Map<String, AttributeValue> item = dynamoDb.getItem(GetItemRequest.builder()
+                .tableName(table.getItemCacheGenerationsTable())
+                .key(Collections.singletonMap("tableName", AttributeValue.builder().s(table.getTableName()).build()))
+                .build()).item();
+        final Map<String, AttributeValue> current = item == null ? Collections.emptyMap() : item;
+        final Map<String, AttributeValue> previous = generations;
+        if (previous == null) {
+            cache.clear();
+        } else {
+            cache.evict(key -> !Objects.equals(generationOf(current, key), generationOf(previous, key)));
+        }
+        generations = current;
+        checkedAt = System.currentTimeMillis();
+    }
+
+    private static String generationOf(Map<String, AttributeValue> generations, String key) {
+        final AttributeValue generation = generations.get(ItemCache.generationAttribute(key));
+        return generation == null ? "0" : generation.n();
+    }
+}
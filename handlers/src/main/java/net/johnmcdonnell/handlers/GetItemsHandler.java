@@ -0,0 +1,256 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+/**
+ * {@code GET /}. Pages through the table with {@code limit} and an opaque
+ * {@code cursor}, optionally as a parallel segmented scan, or queries a
+ * secondary index when the request names one of its partition keys. Cursors
+ * are interchangeable with the ones issued by {@code getItems.js}.
+ *
+ * @author John McDonnell
+ */
+public class GetItemsHandler extends ItemHandler {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    static final String INVALID_LIMIT = "Error: limit must be an integer between 1 and " + MAX_LIMIT;
+    static final String INVALID_CURSOR = "Error: cursor is not valid";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final ExecutorService SEGMENT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "scan-segment");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    public GetItemsHandler() {
+        super();
+    }
+
+    public GetItemsHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        super(dynamoDb, table);
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        final Map<String, String> query = queryParameters(request);
+
+        final int limit;
+        try {
+            limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_LIMIT;
+        } catch (NumberFormatException e) {
+            return Responses.of(400, INVALID_LIMIT);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return Responses.of(400, INVALID_LIMIT);
+        }
+
+        JsonNode cursor = null;
+        if (query.get("cursor") != null && !query.get("cursor").isEmpty()) {
+            try {
+                cursor = Items.parse(new String(Base64.getDecoder().decode(query.get("cursor")), StandardCharsets.UTF_8));
+            } catch (IOException | IllegalArgumentException e) {
+                return Responses.of(400, INVALID_CURSOR);
+            }
+            if (cursor == null || (!cursor.path("k").isObject() && !cursor.path("s").isArray())) {
+                return Responses.of(400, INVALID_CURSOR);
+            }
+        }
+
+        final Fields fields = Fields.parse(query, table);
+        if (fields.isInvalid()) {
+            return Fields.invalidResponse(fields, table);
+        }
+
+        String partitionKey = null;
+        for (String candidate : table.getQueryIndexes().keySet()) {
+            if (query.get(candidate) != null && !query.get(candidate).isEmpty()) {
+                partitionKey = candidate;
+                break;
+            }
+        }
+        final String indexName = partitionKey == null ? null : table.getQueryIndexes().get(partitionKey);
+        if (cursor != null && !Objects.equals(indexName, cursor.path("i").textValue())) {
+            return Responses.of(400, INVALID_CURSOR);
+        }
+        final boolean parallel = indexName == null && (cursor != null
+                ? cursor.path("s").isArray()
+                : "true".equals(query.get("parallel")) && table.getScanSegments() > 1);
+
+        final Page page;
+        if (indexName != null) {
+            page = queryPage(indexName, partitionKey, query.get(partitionKey), limit, cursor, fields);
+        } else if (parallel) {
+            page = scanSegments(limit, cursor, fields);
+        } else {
+            page = scanPage(limit, cursor, fields);
+        }
+
+        final ArrayNode items = NODES.arrayNode(page.items.size());
+        page.items.forEach(item -> items.add(Items.toJson(item)));
+        return ETags.ok(request,
+                page.cursor == null ? Collections.emptyMap() : Collections.singletonMap(NEXT_CURSOR_HEADER, encode(page.cursor)),
+                Items.write(items));
+    }
+
+    private Page scanPage(int limit, JsonNode cursor, Fields fields) {
+        final ScanRequest.Builder scan = ScanRequest.builder()
+                .tableName(table.getTableName())
+                .limit(limit);
+        if (cursor != null) {
+            scan.exclusiveStartKey(Items.toItem(cursor.get("k")));
+        }
+        if (!fields.isAll()) {
+            scan.projectionExpression(fields.projectionExpression())
+                    .expressionAttributeNames(fields.attributeNames(Collections.emptyMap()));
+        }
+
+        final ScanResponse response = dynamoDb.scan(scan.build());
+        return new Page(response.items(), hasKey(response.lastEvaluatedKey())
+                ? cursorOf("k", Items.toJson(response.lastEvaluatedKey())) : null);
+    }
+
+    private Page queryPage(String indexName, String partitionKey, String value, int limit, JsonNode cursor,
+            Fields fields) {
+        final QueryRequest.Builder query = QueryRequest.builder()
+                .tableName(table.getTableName())
+                .indexName(indexName)
+                .keyConditionExpression("#pk = :pk")
+                .expressionAttributeNames(fields.attributeNames(Collections.singletonMap("#pk", partitionKey)))
+                .expressionAttributeValues(Collections.singletonMap(":pk", AttributeValue.builder().s(value).build()))
+                .limit(limit);
+        if (!fields.isAll()) {
+            query.projectionExpression(fields.projectionExpression());
+        }
+        if (cursor != null) {
+            query.exclusiveStartKey(Items.toItem(cursor.get("k")));
+        }
+
+        final QueryResponse response = dynamoDb.query(query.build());
+        if (!hasKey(response.lastEvaluatedKey())) {
+            return new Page(response.items(), null);
+        }
+        final ObjectNode next = NODES.objectNode();
+        next.put("i", indexName);
+        next.set("k", Items.toJson(response.lastEvaluatedKey()));
+        return new Page(response.items(), next);
+    }
+
+    /**
+     * Reads one page from every segment concurrently. A segment whose cursor
+     * entry is null has been read to the end and is skipped.
+     */
+    private Page scanSegments(int limit, JsonNode cursor, Fields fields) {
+        final int totalSegments = cursor == null ? table.getScanSegments() : cursor.get("s").size();
+        final int segmentLimit = (limit + totalSegments - 1) / totalSegments;
+
+        final List<CompletableFuture<ScanResponse>> scans = new ArrayList<>(totalSegments);
+        for (int segment = 0; segment < totalSegments; segment++) {
+            final JsonNode startKey = cursor == null ? null : cursor.get("s").get(segment);
+            if (startKey != null && startKey.isNull()) {
+                scans.add(CompletableFuture.completedFuture(null));
+                continue;
+            }
+            final ScanRequest.Builder scan = ScanRequest.builder()
+                    .tableName(table.getTableName())
+                    .limit(segmentLimit)
+                    .segment(segment)
+                    .totalSegments(totalSegments);
+            if (startKey != null) {
+                scan.exclusiveStartKey(Items.toItem(startKey));
+            }
+            if (!fields.isAll()) {
+                scan.projectionExpression(fields.projectionExpression())
+                        .expressionAttributeNames(fields.attributeNames(Collections.emptyMap()));
+            }
+            final ScanRequest scanRequest = scan.build();
+            scans.add(CompletableFuture.supplyAsync(Metrics.carryingInvocation(() -> dynamoDb.scan(scanRequest)), SEGMENT_EXECUTOR));
+        }
+
+        final List<Map<String, AttributeValue>> items = new ArrayList<>();
+        final ArrayNode nextKeys = NODES.arrayNode(totalSegments);
+        boolean more = false;
+        for (CompletableFuture<ScanResponse> scan : scans) {
+            final ScanResponse response = join(scan);
+            if (response == null) {
+                nextKeys.addNull();
+                continue;
+            }
+            items.addAll(response.items());
+            if (hasKey(response.lastEvaluatedKey())) {
+                nextKeys.add(Items.toJson(response.lastEvaluatedKey()));
+                more = true;
+            } else {
+                nextKeys.addNull();
+            }
+        }
+        return new Page(items, more ? cursorOf("s", nextKeys) : null);
+    }
+
+    /**
+     * Rethrows a failed segment's SDK exception as it is, so it is answered like any other failed call.
+     */
+    private static ScanResponse join(CompletableFuture<ScanResponse> scan) {
+        try {
+            return scan.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SdkException) {
+                throw (SdkException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static boolean hasKey(Map<String, AttributeValue> lastEvaluatedKey) {
+        return lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty();
+    }
+
+    private static JsonNode cursorOf(String field, JsonNode value) {
+        final ObjectNode cursor = NODES.objectNode();
+        cursor.set(field, value);
+        return cursor;
+    }
+
+    private static String encode(JsonNode cursor) {
+        return Base64.getEncoder().encodeToString(Items.write(cursor).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class Page {
+
+        private final List<Map<String, AttributeValue>> items;
+        private final JsonNode cursor;
+
+        private Page(List<Map<String, AttributeValue>> items, JsonNode cursor) {
+            this.items = items;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package net.johnmcdonnell.handlers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+/**
+ * Naming, reading and drawing down inventory counters. With sharded counters a
+ * product's stock is the sum of the {@code stock} attribute on items keyed
+ * {@code productId#shard}; otherwise it is the single item keyed by the product.
+ * Sharded reads also take in that unsharded item, so stock held before the
+ * table was sharded is still counted and drawn down.
+ *
+ * @author John McDonnell
+ */
+final class InventoryCounters {
+
+    static final String STOCK = "stock";
+    static final String ADJUST_EXPRESSION = "ADD #stock :delta SET #updatedAt = :updatedAt";
+    static final String SUFFICIENT_STOCK_CONDITION = "#stock >= :quantity";
+    static final Map<String, String> ADJUST_NAMES = new HashMap<>();
+
+    private static final int BATCH_GET_LIMIT = 100;
+
+    static {
+        ADJUST_NAMES.put("#stock", STOCK);
+        ADJUST_NAMES.put("#updatedAt", "updatedAt");
+    }
+
+    private InventoryCounters() {
+    }
+
+    static String shardKey(String productId, int shard) {
+        return productId + "#" + shard;
+    }
+
+    static List<String> counterKeys(TableConfig table, String productId) {
+        if (table.getCounterShards() <= 1) {
+            return Collections.singletonList(productId);
+        }
+        final List<String> keys = new ArrayList<>(table.getCounterShards());
+        for (int shard = 0; shard < table.getCounterShards(); shard++) {
+            keys.add(shardKey(productId, shard));
+        }
+        return keys;
+    }
+
+    /**
+     * @return the keys a product's stock is read from: its counters, plus its
+     * unsharded counter when they are sharded
+     */
+    static List<String> readKeys(TableConfig table, String productId) {
+        final List<String> keys = new ArrayList<>(counterKeys(table, productId));
+        if (table.getCounterShards() > 1) {
+            keys.add(productId);
+        }
+        return keys;
+    }
+
+    /**
+     * @return the most counters one product's removal can draw from
+     */
+    static int countersPerProduct(TableConfig table) {
+        return table.getCounterShards() > 1 ? table.getCounterShards() + 1 : 1;
+    }
+
+    static List<Map<String, AttributeValue>> readShards(DynamoDbClient dynamoDb, TableConfig table,
+            String productId, boolean consistentRead) {
+        return readCounters(dynamoDb, table, Collections.singleton(productId), consistentRead).get(productId);
+    }
+
+    /**
+     * Reads every counter of the products, retrying whatever DynamoDB leaves
+     * unprocessed.
+     *
+     * @return the counter items of every product, grouped by product id; a
+     * product with no counters maps to an empty list
+     * @throws ProvisionedThroughputExceededException when some counters are
+     * still unprocessed after the retries
+     */
+    static Map<String, List<Map<String, AttributeValue>>> readCounters(DynamoDbClient dynamoDb, TableConfig table,
+            Collection<String> productIds, boolean consistentRead) {
+        final Map<String, List<Map<String, AttributeValue>>> counters = new LinkedHashMap<>();
+        final Map<String, String> productOfKey = new HashMap<>();
+        final List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (String productId : productIds) {
+            counters.put(productId, new ArrayList<>());
+            for (String key : readKeys(table, productId)) {
+                productOfKey.put(key, productId);
+                keys.add(Collections.singletonMap(table.getPrimaryKey(), AttributeValue.builder().s(key).build()));
+            }
+        }
+        for (List<Map<String, AttributeValue>> chunk : Batches.chunk(keys, BATCH_GET_LIMIT)) {
+            final List<Map<String, AttributeValue>> remaining = Batches.untilProcessed(chunk, pending -> {
+                final BatchGetItemResponse response = dynamoDb.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(Collections.singletonMap(table.getTableName(), KeysAndAttributes.builder()
+                                .keys(pending)
+                                .consistentRead(consistentRead)
+                                .build()))
+                        .build());
+                final List<Map<String, AttributeValue>> items = response.responses().get(table.getTableName());
+                if (items != null) {
+                    for (Map<String, AttributeValue> item : items) {
+                        counters.get(productOfKey.get(item.get(table.getPrimaryKey()).s())).add(item);
+                    }
+                }
+                final KeysAndAttributes unprocessedKeys = response.unprocessedKeys().get(table.getTableName());
+                return unprocessedKeys == null ? Collections.emptyList() : unprocessedKeys.keys();
+            });
+            // A missing counter would read as stock the product does not have, so give up rather than undercount.
+            if (!remaining.isEmpty()) {
+                throw ProvisionedThroughputExceededException.builder()
+                        .message(remaining.size() + " inventory counters were left unprocessed")
+                        .build();
+            }
+        }
+        return counters;
+    }
+
+    static long stockOf(Map<String, AttributeValue> item) {
+        final AttributeValue stock = item.get(STOCK);
+        return stock == null || stock.n() == null ? 0 : Long.parseLong(stock.n());
+    }
+
+    static long stockOf(List<Map<String, AttributeValue>> counters) {
+        return counters.stream().mapToLong(InventoryCounters::stockOf).sum();
+    }
+
+    /**
+     * Plans a removal as transactional updates that each still require their
+     * counter to hold what they take. A random counter holding the whole
+     * quantity takes it alone, so concurrent removals spread over the shards;
+     * only a quantity no single counter covers is split, fullest first.
+     *
+     * @return the updates, or null when the counters hold less than the quantity
+     */
+    static List<TransactWriteItem> planDraws(TableConfig table, List<Map<String, AttributeValue>> counters,
+            long quantity) {
+        final String updatedAt = Items.timestamp();
+        final List<Map<String, AttributeValue>> covering = counters.stream()
+                .filter(counter -> stockOf(counter) >= quantity)
+                .collect(Collectors.toList());
+        if (!covering.isEmpty()) {
+            final Map<String, AttributeValue> counter = covering.get(ThreadLocalRandom.current().nextInt(covering.size()));
+            return Collections.singletonList(drawUpdate(table, counter.get(table.getPrimaryKey()).s(), quantity, updatedAt));
+        }
+
+        final List<Map<String, AttributeValue>> fullestFirst = new ArrayList<>(counters);
+        fullestFirst.sort(Comparator.comparingLong((Map<String, AttributeValue> counter) -> stockOf(counter)).reversed());
+        final List<TransactWriteItem> draws = new ArrayList<>();
+        long remaining = quantity;
+        for (Map<String, AttributeValue> counter : fullestFirst) {
+            final long take = Math.min(stockOf(counter), remaining);
+            if (take <= 0) {
+                continue;
+            }
+            draws.add(drawUpdate(table, counter.get(table.getPrimaryKey()).s(), take, updatedAt));
+            remaining -= take;
+        }
+        return remaining > 0 ? null : draws;
+    }
+
+    /**
+     * @return an update removing {@code take} from one counter, only if it still holds that much
+     */
+    static TransactWriteItem drawUpdate(TableConfig table, String key, long take, String updatedAt) {
+        return TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(table.getTableName())
+                        .key(Collections.singletonMap(table.getPrimaryKey(), AttributeValue.builder().s(key).build()))
+                        .updateExpression(ADJUST_EXPRESSION)
+                        .conditionExpression(SUFFICIENT_STOCK_CONDITION)
+                        .expressionAttributeNames(ADJUST_NAMES)
+                        .expressionAttributeValues(adjustValues(-take, updatedAt))
+                        .build())
+                .build();
+    }
+
+    static Map<String, AttributeValue> adjustValues(long delta, String updatedAt) {
+        final Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":delta", AttributeValue.builder().n(Long.toString(delta)).build());
+        values.put(":updatedAt", AttributeValue.builder().s(updatedAt).build());
+        if (delta < 0) {
+            values.put(":quantity", AttributeValue.builder().n(Long.toString(-delta)).build());
+        }
+        return values;
+    }
+}
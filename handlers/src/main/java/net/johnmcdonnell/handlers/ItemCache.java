@@ -0,0 +1,92 @@
+package net.johnmcdonnell.handlers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A bounded LRU cache with a TTL, kept for the life of the container, the
+ * same as {@code itemCache.js}. It logs its hit rate since the container
+ * started every {@value #REPORT_EVERY} lookups. Writes are counted per bucket
+ * of keys in the table's generations item, so a write only drops the cached
+ * items that share its bucket.
+ *
+ * @author John McDonnell
+ */
+final class ItemCache<V> {
+
+    private static final int REPORT_EVERY = 100;
+    private static final int GENERATION_BUCKETS = 64;
+
+    private final long ttlMillis;
+    private final Map<String, Entry<V>> entries;
+    private long hits;
+    private long misses;
+
+    ItemCache(int maxItems, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                return size() > maxItems;
+            }
+        };
+    }
+
+    /**
+     * @return the attribute of the generations item counting the writes to
+     * the key's bucket, the same as {@code itemCache.js}
+     */
+    static String generationAttribute(String key) {
+        return "generation" + Math.floorMod(key.hashCode(), GENERATION_BUCKETS);
+    }
+
+    synchronized V get(String key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            count(true);
+            return entry.value;
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        count(false);
+        return null;
+    }
+
+    synchronized void put(String key, V value) {
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized void evict(Predicate<String> test) {
+        entries.keySet().removeIf(test);
+    }
+
+    private void count(boolean hit) {
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+        }
+        final long lookups = hits + misses;
+        if (lookups % REPORT_EVERY == 0) {
+            System.out.println("{\"itemCache\":{\"hits\":" + hits + ",\"misses\":" + misses
+                    + ",\"hitRate\":" + ((double) hits / lookups) + ",\"size\":" + entries.size() + "}}");
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
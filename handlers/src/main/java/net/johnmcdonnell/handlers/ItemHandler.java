@@ -0,0 +1,80 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.util.Collections;
+import java.util.Map;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Base for the per-operation CRUD handlers. The no-argument constructor is the
+ * one Lambda uses and binds to the shared client and the function's
+ * environment; the other lets a handler run against any {@link DynamoDbClient},
+ * such as {@link net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient}.
+ *
+ * @author John McDonnell
+ */
+public abstract class ItemHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final TableConfig ENVIRONMENT_TABLE = TableConfig.fromEnvironment();
+
+    protected final DynamoDbClient dynamoDb;
+    protected final TableConfig table;
+
+    protected ItemHandler() {
+        this(DynamoDb.client(), ENVIRONMENT_TABLE);
+    }
+
+    protected ItemHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        this.dynamoDb = dynamoDb;
+        this.table = table;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        final Metrics.Invocation invocation = Metrics.start(operationName(request));
+        APIGatewayProxyResponseEvent response = null;
+        try {
+            response = handle(request);
+        } catch (SdkException dbError) {
+            // Client-side failures too, such as timeouts and an exhausted connection pool, so every
+            // failed call answers with the handler's 500 rather than an unhandled Lambda error.
+            System.err.println(operationName(request) + " failed: " + dbError);
+            final String message = dbError.getMessage();
+            response = Responses.of(500, message != null && message.contains("reserved keyword")
+                    ? Responses.RESERVED_RESPONSE : Responses.DYNAMODB_EXECUTION_ERROR);
+        } finally {
+            invocation.finish(response);
+        }
+        return response;
+    }
+
+    protected abstract APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request);
+
+    /**
+     * @return the name the invocation's metrics are recorded under, the
+     * handler's name as in {@code OPERATIONS}, e.g. {@code getInventory}
+     */
+    protected String operationName(APIGatewayProxyRequestEvent request) {
+        final String className = getClass().getSimpleName();
+        return Character.toLowerCase(className.charAt(0)) + className.substring(1, className.length() - "Handler".length());
+    }
+
+    protected Map<String, AttributeValue> key(String id) {
+        return Collections.singletonMap(table.getPrimaryKey(), AttributeValue.builder().s(id).build());
+    }
+
+    protected static String pathId(APIGatewayProxyRequestEvent request) {
+        final Map<String, String> pathParameters = request.getPathParameters();
+        return pathParameters == null ? null : pathParameters.get("id");
+    }
+
+    protected static Map<String, String> queryParameters(APIGatewayProxyRequestEvent request) {
+        final Map<String, String> query = request.getQueryStringParameters();
+        return query == null ? Collections.emptyMap() : query;
+    }
+}
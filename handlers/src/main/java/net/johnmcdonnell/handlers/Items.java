@@ -0,0 +1,135 @@
+package net.johnmcdonnell.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.core.util.SdkAutoConstructList;
+import software.amazon.awssdk.core.util.SdkAutoConstructMap;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Converts between the JSON bodies the API speaks and DynamoDB items, the way
+ * the Node handlers' DocumentClient does.
+ *
+ * @author John McDonnell
+ */
+public final class Items {
+
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    /** Same layout as moment's 'YYYY-MM-DD HH:mm:ss Z', so createdAt sorts alike from either runtime. */
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss xxx");
+
+    private Items() {
+    }
+
+    public static String timestamp() {
+        return TIMESTAMP.format(ZonedDateTime.now());
+    }
+
+    /**
+     * Sets the item to expire the table's retention from now, replacing any
+     * expiry the client sent; does nothing when the table's items do not expire.
+     */
+    public static Map<String, AttributeValue> stampExpiry(TableConfig table, Map<String, AttributeValue> item) {
+        if (!table.getTtlAttribute().isEmpty() && table.getTtlSeconds() > 0) {
+            item.put(table.getTtlAttribute(), AttributeValue.builder()
+                    .n(String.valueOf(System.currentTimeMillis() / 1000 + table.getTtlSeconds()))
+                    .build());
+        }
+        return item;
+    }
+
+    public static JsonNode parse(String json) throws IOException {
+        return MAPPER.readTree(json);
+    }
+
+    public static String write(JsonNode json) {
+        try {
+            return MAPPER.writeValueAsString(json);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static Map<String, AttributeValue> toItem(JsonNode json) {
+        final Map<String, AttributeValue> item = new LinkedHashMap<>();
+        final Iterator<Map.Entry<String, JsonNode>> fields = json.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            item.put(field.getKey(), toAttributeValue(field.getValue()));
+        }
+        return item;
+    }
+
+    public static AttributeValue toAttributeValue(JsonNode json) {
+        if (json.isTextual()) {
+            return AttributeValue.builder().s(json.textValue()).build();
+        }
+        if (json.isNumber()) {
+            return AttributeValue.builder().n(json.asText()).build();
+        }
+        if (json.isBoolean()) {
+            return AttributeValue.builder().bool(json.booleanValue()).build();
+        }
+        if (json.isArray()) {
+            final List<AttributeValue> values = new ArrayList<>(json.size());
+            json.forEach(element -> values.add(toAttributeValue(element)));
+            return AttributeValue.builder().l(values).build();
+        }
+        if (json.isObject()) {
+            return AttributeValue.builder().m(toItem(json)).build();
+        }
+        return AttributeValue.builder().nul(Boolean.TRUE).build();
+    }
+
+    public static ObjectNode toJson(Map<String, AttributeValue> item) {
+        final ObjectNode json = NODES.objectNode();
+        item.forEach((name, value) -> json.set(name, toJson(value)));
+        return json;
+    }
+
+    public static JsonNode toJson(AttributeValue value) {
+        if (value.s() != null) {
+            return NODES.textNode(value.s());
+        }
+        if (value.n() != null) {
+            return NODES.numberNode(new BigDecimal(value.n()));
+        }
+        if (value.bool() != null) {
+            return NODES.booleanNode(value.bool());
+        }
+        if (!(value.m() instanceof SdkAutoConstructMap)) {
+            return toJson(value.m());
+        }
+        if (!(value.l() instanceof SdkAutoConstructList)) {
+            final ArrayNode array = NODES.arrayNode(value.l().size());
+            value.l().forEach(element -> array.add(toJson(element)));
+            return array;
+        }
+        if (!(value.ss() instanceof SdkAutoConstructList)) {
+            final ArrayNode array = NODES.arrayNode(value.ss().size());
+            value.ss().forEach(array::add);
+            return array;
+        }
+        if (!(value.ns() instanceof SdkAutoConstructList)) {
+            final ArrayNode array = NODES.arrayNode(value.ns().size());
+            value.ns().forEach(number -> array.add(new BigDecimal(number)));
+            return array;
+        }
+        return NODES.nullNode();
+    }
+}
@@ -0,0 +1,259 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * One CloudWatch embedded metric format record per invocation, the same as
+ * {@code metrics.js}: the operation's latency, the time its DynamoDB calls
+ * took between them, the capacity they consumed, the items they returned,
+ * the response size and whether the container was cold. DynamoDB calls are
+ * counted by the {@link Interceptor} on the shared client; records are only
+ * written inside Lambda, so local runs stay quiet.
+ *
+ * @author John McDonnell
+ */
+public final class Metrics {
+
+    private static final String NAMESPACE = System.getenv().getOrDefault("METRICS_NAMESPACE", "CdkExperiment");
+    private static final String SERVICE = System.getenv().getOrDefault("TABLE_NAME", "");
+    private static final String FUNCTION_NAME = System.getenv("AWS_LAMBDA_FUNCTION_NAME");
+
+    private static final ThreadLocal<Invocation> CURRENT = new ThreadLocal<>();
+    private static boolean coldStart = true;
+
+    private Metrics() {
+    }
+
+    /**
+     * Starts the record of an invocation on this thread.
+     */
+    static synchronized Invocation start(String operation) {
+        final Invocation invocation = new Invocation(operation, coldStart);
+        coldStart = false;
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    /**
+     * @return the invocation open on this thread, or null outside one
+     */
+    static Invocation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the task, to run on another thread as part of the invocation
+     * open on this one, so the DynamoDB calls it makes count in its record
+     */
+    static <T> Supplier<T> carryingInvocation(Supplier<T> task) {
+        final Invocation invocation = CURRENT.get();
+        return () -> {
+            final Invocation previous = CURRENT.get();
+            CURRENT.set(invocation);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    public static final class Invocation {
+
+        private final String operation;
+        private final boolean cold;
+        private final long started = System.nanoTime();
+        private long dynamoDbNanos;
+        private int dynamoDbCalls;
+        private double consumedCapacity;
+        private int itemCount;
+
+        private Invocation(String operation, boolean cold) {
+            this.operation = operation;
+            this.cold = cold;
+        }
+
+        // Calls made on several threads at once, such as parallel scans, all add to the one record.
+        private synchronized void addCall(long nanos) {
+            dynamoDbNanos += nanos;
+            dynamoDbCalls++;
+        }
+
+        private synchronized void addResult(double capacity, int items) {
+            consumedCapacity += capacity;
+            itemCount += items;
+        }
+
+        /**
+         * Closes the record and writes it to the log.
+         *
+         * @param response the response returned, or null when the handler threw
+         */
+        synchronized void finish(APIGatewayProxyResponseEvent response) {
+            CURRENT.remove();
+            if (FUNCTION_NAME == null) {
+                return;
+            }
+            final ObjectNode record = Items.MAPPER.createObjectNode();
+            final ObjectNode directive = record.putObject("_aws")
+                    .put("Timestamp", System.currentTimeMillis())
+                    .putArray("CloudWatchMetrics")
+                    .addObject()
+                    .put("Namespace", NAMESPACE);
+            directive.putArray("Dimensions").addArray().add("Service").add("Operation");
+            final ArrayNode metrics = directive.putArray("Metrics");
+            metrics.addObject().put("Name", "Latency").put("Unit", "Milliseconds");
+            metrics.addObject().put("Name", "DynamoDbLatency").put("Unit", "Milliseconds");
+            metrics.addObject().put("Name", "DynamoDbCalls").put("Unit", "Count");
+            metrics.addObject().put("Name", "ConsumedCapacity").put("Unit", "Count");
+            metrics.addObject().put("Name", "ItemCount").put("Unit", "Count");
+            metrics.addObject().put("Name", "ColdStart").put("Unit", "Count");
+
+            record.put("Service", SERVICE)
+                    .put("Operation", operation)
+                    .put("FunctionName", FUNCTION_NAME)
+                    .put("Latency", (System.nanoTime() - started) / 1_000_000)
+                    .put("DynamoDbLatency", dynamoDbNanos / 1_000_000)
+                    .put("DynamoDbCalls", dynamoDbCalls)
+                    .put("ConsumedCapacity", consumedCapacity)
+                    .put("ItemCount", itemCount)
+                    .put("ColdStart", cold ? 1 : 0);
+            if (response != null && response.getBody() != null) {
+                metrics.addObject().put("Name", "ResponseBytes").put("Unit", "Bytes");
+                record.put("ResponseBytes", response.getBody().getBytes(StandardCharsets.UTF_8).length);
+            }
+            if (response != null && response.getStatusCode() != null) {
+                record.put("StatusCode", response.getStatusCode());
+            }
+            System.out.println(record.toString());
+        }
+    }
+
+    /**
+     * Asks DynamoDB for the capacity each call consumes, and adds the call's
+     * time, capacity and items to the invocation open on the calling thread,
+     * which is kept with the call in case it completes on another.
+     */
+    public static final class Interceptor implements ExecutionInterceptor {
+
+        private static final ExecutionAttribute<Long> STARTED = new ExecutionAttribute<>("MetricsStarted");
+        private static final ExecutionAttribute<Invocation> INVOCATION = new ExecutionAttribute<>("MetricsInvocation");
+
+        @Override
+        public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+            executionAttributes.putAttribute(STARTED, System.nanoTime());
+            final Invocation invocation = CURRENT.get();
+            if (invocation != null) {
+                executionAttributes.putAttribute(INVOCATION, invocation);
+            }
+        }
+
+        @Override
+        public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+            final SdkRequest request = context.request();
+            if (request instanceof GetItemRequest) {
+                return ((GetItemRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            } else if (request instanceof PutItemRequest) {
+                return ((PutItemRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            } else if (request instanceof UpdateItemRequest) {
+                return ((UpdateItemRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            } else if (request instanceof DeleteItemRequest) {
+                return ((DeleteItemRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            } else if (request instanceof QueryRequest) {
+                return ((QueryRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            } else if (request instanceof ScanRequest) {
+                return ((ScanRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            } else if (request instanceof BatchGetItemRequest) {
+                return ((BatchGetItemRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            } else if (request instanceof BatchWriteItemRequest) {
+                return ((BatchWriteItemRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            } else if (request instanceof TransactGetItemsRequest) {
+                return ((TransactGetItemsRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            } else if (request instanceof TransactWriteItemsRequest) {
+                return ((TransactWriteItemsRequest) request).toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            }
+            return request;
+        }
+
+        @Override
+        public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+            final Invocation invocation = record(executionAttributes);
+            if (invocation != null) {
+                final SdkResponse response = context.response();
+                invocation.addResult(capacityOf(response.getValueForField("ConsumedCapacity", Object.class).orElse(null)),
+                        itemsOf(response));
+            }
+        }
+
+        @Override
+        public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+            record(executionAttributes);
+        }
+
+        private static Invocation record(ExecutionAttributes executionAttributes) {
+            final Invocation invocation = executionAttributes.getAttribute(INVOCATION);
+            final Long started = executionAttributes.getAttribute(STARTED);
+            if (invocation != null && started != null) {
+                invocation.addCall(System.nanoTime() - started);
+            }
+            return invocation;
+        }
+
+        private static double capacityOf(Object consumed) {
+            if (consumed instanceof ConsumedCapacity) {
+                final Double units = ((ConsumedCapacity) consumed).capacityUnits();
+                return units == null ? 0 : units;
+            }
+            if (consumed instanceof Collection) {
+                return ((Collection<?>) consumed).stream().mapToDouble(Interceptor::capacityOf).sum();
+            }
+            return 0;
+        }
+
+        private static int itemsOf(SdkResponse response) {
+            final Object items = response.getValueForField("Items", Object.class).orElse(null);
+            if (items instanceof Collection) {
+                return ((Collection<?>) items).size();
+            }
+            final Object responses = response.getValueForField("Responses", Object.class).orElse(null);
+            if (responses instanceof Map) {
+                return ((Map<?, ?>) responses).values().stream()
+                        .mapToInt(tableItems -> tableItems instanceof Collection ? ((Collection<?>) tableItems).size() : 0)
+                        .sum();
+            }
+            if (responses instanceof Collection) {
+                return (int) ((Collection<?>) responses).stream().filter(entry -> entry != null).count();
+            }
+            final Object item = response.getValueForField("Item", Object.class).orElse(null);
+            return item instanceof Map && !((Map<?, ?>) item).isEmpty() ? 1 : 0;
+        }
+    }
+}
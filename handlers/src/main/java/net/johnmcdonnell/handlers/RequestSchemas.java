@@ -0,0 +1,231 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Validates request bodies against the JSON schemas the stacks hand the
+ * functions in {@code REQUEST_SCHEMAS}, keyed by operation, for APIs that do
+ * not validate bodies themselves; the same as {@code requestSchema.js}. Each
+ * schema is compiled once into a tree of checks. Only the keywords the stacks'
+ * schemas use are supported, and any other keyword is ignored.
+ *
+ * @author John McDonnell
+ */
+final class RequestSchemas {
+
+    static final RequestSchemas ENVIRONMENT = fromJson(System.getenv("REQUEST_SCHEMAS"));
+
+    static final String INVALID_BODY = "Invalid request body";
+
+    private final Map<String, Check> checks;
+
+    private RequestSchemas(Map<String, Check> checks) {
+        this.checks = checks;
+    }
+
+    static RequestSchemas fromJson(String schemas) {
+        if (schemas == null || schemas.isEmpty()) {
+            return new RequestSchemas(Collections.emptyMap());
+        }
+        final Map<String, Check> checks = new HashMap<>();
+        try {
+            Items.parse(schemas).fields().forEachRemaining(schema -> checks.put(schema.getKey(), compile(schema.getValue())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new RequestSchemas(checks);
+    }
+
+    /**
+     * @return a 400 listing what is wrong with the body, or empty when the
+     * operation has no schema or the body matches it
+     */
+    Optional<APIGatewayProxyResponseEvent> check(String operation, JsonNode body) {
+        final Check check = checks.get(operation);
+        if (check == null) {
+            return Optional.empty();
+        }
+        final List<String> errors = new ArrayList<>();
+        check.check(body, "$", errors);
+        if (errors.isEmpty()) {
+            return Optional.empty();
+        }
+        final ObjectNode response = Items.MAPPER.createObjectNode();
+        response.put("message", INVALID_BODY);
+        final ArrayNode list = response.putArray("errors");
+        errors.forEach(list::add);
+        return Optional.of(Responses.of(400, Items.write(response)));
+    }
+
+    @FunctionalInterface
+    private interface Check {
+
+        /**
+         * Appends an error for each violation under the path.
+         *
+         * @return whether the value matched
+         */
+        boolean check(JsonNode value, String path, List<String> errors);
+    }
+
+    private static Check compile(JsonNode schema) {
+        final List<String> types = new ArrayList<>();
+        if (schema.path("type").isArray()) {
+            schema.get("type").forEach(type -> types.add(type.asText()));
+        } else if (schema.has("type")) {
+            types.add(schema.get("type").asText());
+        }
+
+        final List<Check> checks = new ArrayList<>();
+        if (schema.has("enum")) {
+            final JsonNode values = schema.get("enum");
+            checks.add((value, path, errors) -> {
+                for (JsonNode allowed : values) {
+                    if (allowed.equals(value)) {
+                        return true;
+                    }
+                }
+                return fail(errors, path + " should be one of " + join(values));
+            });
+        }
+        if (schema.has("minimum")) {
+            final double minimum = schema.get("minimum").asDouble();
+            checks.add((value, path, errors) -> !value.isNumber() || value.asDouble() >= minimum
+                    || fail(errors, path + " should be at least " + schema.get("minimum")));
+        }
+        if (schema.has("maximum")) {
+            final double maximum = schema.get("maximum").asDouble();
+            checks.add((value, path, errors) -> !value.isNumber() || value.asDouble() <= maximum
+                    || fail(errors, path + " should be at most " + schema.get("maximum")));
+        }
+        if (schema.has("minLength")) {
+            final int minLength = schema.get("minLength").asInt();
+            checks.add((value, path, errors) -> !value.isTextual() || value.textValue().length() >= minLength
+                    || fail(errors, path + " should have at least " + minLength + " characters"));
+        }
+        if (schema.has("maxLength")) {
+            final int maxLength = schema.get("maxLength").asInt();
+            checks.add((value, path, errors) -> !value.isTextual() || value.textValue().length() <= maxLength
+                    || fail(errors, path + " should have at most " + maxLength + " characters"));
+        }
+        if (schema.has("minItems")) {
+            final int minItems = schema.get("minItems").asInt();
+            checks.add((value, path, errors) -> !value.isArray() || value.size() >= minItems
+                    || fail(errors, path + " should have at least " + minItems + " items"));
+        }
+        if (schema.has("maxItems")) {
+            final int maxItems = schema.get("maxItems").asInt();
+            checks.add((value, path, errors) -> !value.isArray() || value.size() <= maxItems
+                    || fail(errors, path + " should have at most " + maxItems + " items"));
+        }
+        if (schema.has("items")) {
+            final Check item = compile(schema.get("items"));
+            checks.add((value, path, errors) -> {
+                boolean valid = true;
+                for (int index = 0; value.isArray() && index < value.size(); index++) {
+                    valid &= item.check(value.get(index), path + "[" + index + "]", errors);
+                }
+                return valid;
+            });
+        }
+        if (schema.has("required")) {
+            final JsonNode required = schema.get("required");
+            checks.add((value, path, errors) -> {
+                boolean valid = true;
+                for (JsonNode name : required) {
+                    if (value.isObject() && !value.has(name.asText())) {
+                        valid = fail(errors, path + "." + name.asText() + " is required");
+                    }
+                }
+                return valid;
+            });
+        }
+        if (schema.has("minProperties")) {
+            final int minProperties = schema.get("minProperties").asInt();
+            checks.add((value, path, errors) -> !value.isObject() || value.size() >= minProperties
+                    || fail(errors, path + " should have at least " + minProperties + " properties"));
+        }
+        if (schema.has("properties")) {
+            final Map<String, Check> properties = new LinkedHashMap<>();
+            schema.get("properties").fields().forEachRemaining(property -> properties.put(property.getKey(), compile(property.getValue())));
+            checks.add((value, path, errors) -> {
+                boolean valid = true;
+                for (Map.Entry<String, Check> property : properties.entrySet()) {
+                    if (value.isObject() && value.has(property.getKey())) {
+                        valid &= property.getValue().check(value.get(property.getKey()), path + "." + property.getKey(), errors);
+                    }
+                }
+                return valid;
+            });
+        }
+
+        // A value of the wrong type skips the other checks, which would only repeat the error.
+        return (value, path, errors) -> {
+            if (!types.isEmpty() && types.stream().noneMatch(type -> isType(value, type))) {
+                return fail(errors, path + " should be " + String.join(" or ", types) + ", not " + typeOf(value));
+            }
+            boolean valid = true;
+            for (Check check : checks) {
+                valid &= check.check(value, path, errors);
+            }
+            return valid;
+        };
+    }
+
+    private static boolean isType(JsonNode value, String type) {
+        switch (type) {
+            case "string":
+                return value.isTextual();
+            case "number":
+                return value.isNumber();
+            case "integer":
+                return value.isIntegralNumber() || (value.isNumber() && value.asDouble() == Math.rint(value.asDouble()));
+            case "boolean":
+                return value.isBoolean();
+            case "object":
+                return value.isObject();
+            case "array":
+                return value.isArray();
+            case "null":
+                return value.isNull();
+            default:
+                return false;
+        }
+    }
+
+    private static String typeOf(JsonNode value) {
+        if (value.isTextual()) {
+            return "string";
+        }
+        if (value.isNumber()) {
+            return "number";
+        }
+        return value.getNodeType().name().toLowerCase();
+    }
+
+    private static String join(JsonNode values) {
+        final List<String> texts = new ArrayList<>();
+        for (Iterator<JsonNode> iterator = values.elements(); iterator.hasNext();) {
+            texts.add(iterator.next().asText());
+        }
+        return String.join(", ", texts);
+    }
+
+    private static boolean fail(List<String> errors, String error) {
+        errors.add(error);
+        return false;
+    }
+}
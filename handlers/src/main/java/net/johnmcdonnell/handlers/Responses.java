@@ -0,0 +1,34 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Response bodies and messages shared with the Node handlers.
+ *
+ * @author John McDonnell
+ */
+public final class Responses {
+
+    public static final String MISSING_BODY = "invalid request, you are missing the parameter body";
+    public static final String MISSING_ID = "Error: You are missing the path parameter id";
+    public static final String NO_ARGUMENTS = "invalid request, no arguments provided";
+    public static final String NOT_FOUND = "Error: Item not found";
+    public static final String RESERVED_RESPONSE = "Error: You're using AWS reserved keywords as attributes";
+    public static final String DYNAMODB_EXECUTION_ERROR = "Error: Execution update, caused a Dynamodb error, please take a look at your CloudWatch Logs.";
+
+    private Responses() {
+    }
+
+    public static APIGatewayProxyResponseEvent of(int statusCode, String body) {
+        return of(statusCode, Collections.emptyMap(), body);
+    }
+
+    public static APIGatewayProxyResponseEvent of(int statusCode, Map<String, String> headers, String body) {
+        return new APIGatewayProxyResponseEvent()
+                .withStatusCode(statusCode)
+                .withHeaders(headers)
+                .withBody(body);
+    }
+}
@@ -0,0 +1,100 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+/**
+ * Serves every CRUD route for a table from one function, dispatching on the
+ * request's {@code httpMethod} and {@code resource}. Only the operations named
+ * in {@code OPERATIONS} are served, each by its default handler or by the one
+ * named after it, e.g. {@code getItem=getInventory}; every route is served by
+ * its default handler when it is unset.
+ *
+ * @author John McDonnell
+ */
+public class RouterHandler extends ItemHandler {
+
+    static final String UNSUPPORTED_ROUTE = "Error: Unsupported route";
+    static final String ALL_OPERATIONS = "getItem,getItems,createItem,updateItem,deleteItem";
+
+    private static final Map<String, String> ROUTES = new LinkedHashMap<>();
+
+    static {
+        ROUTES.put("GET /", "getItems");
+        ROUTES.put("POST /", "createItem");
+        ROUTES.put("GET /{id}", "getItem");
+        ROUTES.put("PUT /{id}", "updateItem");
+        ROUTES.put("DELETE /{id}", "deleteItem");
+        ROUTES.put("POST /batch-get", "batchGetItems");
+        ROUTES.put("POST /batch-write", "batchWriteItems");
+        ROUTES.put("GET /search", "searchItems");
+    }
+
+    private final Map<String, ItemHandler> handlers;
+
+    public RouterHandler() {
+        super();
+        this.handlers = handlers(System.getenv("OPERATIONS"), null, null);
+    }
+
+    public RouterHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        this(dynamoDb, table, null);
+    }
+
+    /**
+     * @param operations the operations to serve, as in {@code OPERATIONS}, or null for all of them
+     */
+    public RouterHandler(DynamoDbClient dynamoDb, TableConfig table, String operations) {
+        super(dynamoDb, table);
+        this.handlers = handlers(operations, dynamoDb, table);
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        final ItemHandler route = handlers.get(request.getHttpMethod() + " " + request.getResource());
+        return route == null ? Responses.of(405, UNSUPPORTED_ROUTE) : route.handle(request);
+    }
+
+    @Override
+    protected String operationName(APIGatewayProxyRequestEvent request) {
+        final ItemHandler route = handlers.get(request.getHttpMethod() + " " + request.getResource());
+        return route == null ? super.operationName(request) : route.operationName(request);
+    }
+
+    /**
+     * Builds the handler for each enabled route once, when the container starts.
+     * With a null client each handler binds to the shared client and environment.
+     */
+    private static Map<String, ItemHandler> handlers(String operations, DynamoDbClient dynamoDb, TableConfig table) {
+        final Map<String, String> handlerNames = new HashMap<>();
+        for (String entry : (operations == null || operations.isEmpty() ? ALL_OPERATIONS : operations).split(",")) {
+            final String[] operation = entry.split("=");
+            handlerNames.put(operation[0], operation.length > 1 ? operation[1] : operation[0]);
+        }
+
+        final Map<String, ItemHandler> handlers = new HashMap<>();
+        ROUTES.forEach((route, operation) -> {
+            if (handlerNames.containsKey(operation)) {
+                handlers.put(route, instantiate(handlerNames.get(operation), dynamoDb, table));
+            }
+        });
+        return handlers;
+    }
+
+    private static ItemHandler instantiate(String handlerName, DynamoDbClient dynamoDb, TableConfig table) {
+        final String className = RouterHandler.class.getPackage().getName() + "."
+                + Character.toUpperCase(handlerName.charAt(0)) + handlerName.substring(1) + "Handler";
+        try {
+            final Class<? extends ItemHandler> handlerClass = Class.forName(className).asSubclass(ItemHandler.class);
+            return dynamoDb == null
+                    ? handlerClass.getConstructor().newInstance()
+                    : handlerClass.getConstructor(DynamoDbClient.class, TableConfig.class).newInstance(dynamoDb, table);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No handler " + className + " for " + handlerName, e);
+        }
+    }
+}
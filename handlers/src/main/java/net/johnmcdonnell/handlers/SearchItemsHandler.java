@@ -0,0 +1,275 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+/**
+ * {@code GET /search?q=}. Intersects the postings of the query's tokens in the
+ * search table, which {@code indexProducts.js} keeps in step from the products
+ * stream, and answers with the total number of matches and the best
+ * {@code limit} of them: each product with its score, the weight of the
+ * query's tokens in its name and description. Queries are tokenized as
+ * {@code search.js} tokenizes products.
+ *
+ * @author John McDonnell
+ */
+public class SearchItemsHandler extends ItemHandler {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+    static final int MAX_QUERY_TOKENS = 8;
+
+    static final String INVALID_QUERY = "Error: q must hold between 1 and " + MAX_QUERY_TOKENS + " words to search for";
+    static final String INVALID_LIMIT = "Error: limit must be an integer between 1 and " + MAX_LIMIT;
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final int POSTINGS_PAGE = 200;
+    private static final int BATCH_GET_LIMIT = 100;
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList("an", "and", "are", "as", "at", "be",
+            "by", "for", "from", "in", "is", "it", "of", "on", "or", "the", "to", "with"));
+
+    private static final TableConfig ENVIRONMENT_SEARCH = TableConfig.fromEnvironment("SEARCH_");
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private final TableConfig search;
+
+    public SearchItemsHandler() {
+        super();
+        this.search = ENVIRONMENT_SEARCH;
+    }
+
+    public SearchItemsHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        this(dynamoDb, table, ENVIRONMENT_SEARCH);
+    }
+
+    /**
+     * @param search the table of postings, keyed by token and sorted by product
+     */
+    public SearchItemsHandler(DynamoDbClient dynamoDb, TableConfig table, TableConfig search) {
+        super(dynamoDb, table);
+        this.search = search;
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        final Map<String, String> query = queryParameters(request);
+
+        final List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokens(query.get("q"))));
+        if (tokens.isEmpty() || tokens.size() > MAX_QUERY_TOKENS) {
+            return Responses.of(400, INVALID_QUERY);
+        }
+        final int limit;
+        try {
+            limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_LIMIT;
+        } catch (NumberFormatException e) {
+            return Responses.of(400, INVALID_LIMIT);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return Responses.of(400, INVALID_LIMIT);
+        }
+        final Fields fields = Fields.parse(query, table);
+        if (fields.isInvalid()) {
+            return Fields.invalidResponse(fields, table);
+        }
+
+        final List<Match> ranked = intersect(tokens);
+        ranked.sort(Comparator.comparingLong((Match match) -> match.score).reversed()
+                .thenComparing(match -> match.id));
+        final List<Match> top = ranked.subList(0, Math.min(limit, ranked.size()));
+        final Map<String, Map<String, AttributeValue>> products = readProducts(
+                top.stream().map(match -> match.id).collect(Collectors.toList()), fields);
+
+        // A product deleted since it was indexed is left out.
+        final ObjectNode body = NODES.objectNode().put("total", ranked.size());
+        final ArrayNode items = body.putArray("items");
+        for (Match match : top) {
+            if (products.containsKey(match.id)) {
+                items.addObject()
+                        .put("id", match.id)
+                        .put("score", match.score)
+                        .set("item", Items.toJson(products.get(match.id)));
+            }
+        }
+        return ETags.ok(request, new HashMap<>(), Items.write(body));
+    }
+
+    /**
+     * Lower case runs of letters and digits with their accents stripped, as
+     * {@code search.js} indexes them.
+     */
+    static List<String> tokens(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(Normalizer.normalize(text, Normalizer.Form.NFKD)
+                .replaceAll("[\\u0300-\\u036f]", "")
+                .toLowerCase(Locale.ROOT)
+                .split("[^a-z0-9]+"))
+                .filter(token -> token.length() >= MIN_TOKEN_LENGTH && token.length() <= MAX_TOKEN_LENGTH
+                        && !STOP_WORDS.contains(token))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The products holding every token, with the sum of their weights. The
+     * lists are walked in step, each seeking to the highest product any has
+     * reached, so the reads follow the products that match rather than the
+     * length of the longest list.
+     */
+    private List<Match> intersect(List<String> tokens) {
+        final List<Postings> lists = tokens.stream().map(Postings::new).collect(Collectors.toList());
+        final List<Match> matches = new ArrayList<>();
+        String target = null;
+        boolean inclusive = true;
+        while (true) {
+            long score = 0;
+            boolean agreed = true;
+            for (Postings postings : lists) {
+                final Map<String, AttributeValue> posting = postings.seek(target, inclusive);
+                if (posting == null) {
+                    return matches;
+                }
+                final String productId = posting.get(search.getSortKey()).s();
+                if (!productId.equals(target)) {
+                    target = productId;
+                    inclusive = true;
+                    agreed = false;
+                    break;
+                }
+                score += Long.parseLong(posting.get("weight").n());
+            }
+            if (agreed) {
+                matches.add(new Match(target, score));
+                inclusive = false;
+            }
+        }
+    }
+
+    private Map<String, Map<String, AttributeValue>> readProducts(List<String> productIds, Fields fields) {
+        final List<Map<String, AttributeValue>> keys = productIds.stream().map(this::key).collect(Collectors.toList());
+        final Map<String, Map<String, AttributeValue>> found = new HashMap<>();
+        for (List<Map<String, AttributeValue>> chunk : Batches.chunk(keys, BATCH_GET_LIMIT)) {
+            final List<Map<String, AttributeValue>> remaining = Batches.untilProcessed(chunk, pending -> {
+                final KeysAndAttributes.Builder read = KeysAndAttributes.builder().keys(pending);
+                if (!fields.isAll()) {
+                    read.projectionExpression(fields.projectionExpression())
+                            .expressionAttributeNames(fields.attributeNames(Collections.emptyMap()));
+                }
+                final BatchGetItemResponse response = dynamoDb.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(Collections.singletonMap(table.getTableName(), read.build()))
+                        .build());
+                final List<Map<String, AttributeValue>> items = response.responses().get(table.getTableName());
+                if (items != null) {
+                    items.forEach(item -> found.put(item.get(table.getPrimaryKey()).s(), item));
+                }
+                final KeysAndAttributes unprocessedKeys = response.unprocessedKeys().get(table.getTableName());
+                return unprocessedKeys == null ? Collections.emptyList() : unprocessedKeys.keys();
+            });
+            if (!remaining.isEmpty()) {
+                throw DynamoDbException.builder().message(remaining.size() + " products were left unprocessed").build();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * One token's postings in product order, read a page at a time, skipping
+     * ahead to the product asked for with a key condition rather than reading
+     * the postings in between.
+     */
+    private final class Postings {
+
+        private final String token;
+        private List<Map<String, AttributeValue>> page = Collections.emptyList();
+        private int position;
+        private boolean exhausted;
+
+        Postings(String token) {
+            this.token = token;
+        }
+
+        /**
+         * @param target a product id, or null for the first posting
+         * @return the first posting at or after the product, or just after it, or null when there is none
+         */
+        Map<String, AttributeValue> seek(String target, boolean inclusive) {
+            while (position < page.size() && !after(page.get(position), target, inclusive)) {
+                position++;
+            }
+            if (position == page.size() && !exhausted) {
+                read(target, inclusive);
+            }
+            return position < page.size() ? page.get(position) : null;
+        }
+
+        private boolean after(Map<String, AttributeValue> posting, String target, boolean inclusive) {
+            if (target == null) {
+                return true;
+            }
+            final int comparison = posting.get(search.getSortKey()).s().compareTo(target);
+            return inclusive ? comparison >= 0 : comparison > 0;
+        }
+
+        private void read(String target, boolean inclusive) {
+            final Map<String, String> attributeNames = new LinkedHashMap<>();
+            attributeNames.put("#token", search.getPrimaryKey());
+            attributeNames.put("#product", search.getSortKey());
+            attributeNames.put("#weight", "weight");
+            final Map<String, AttributeValue> attributeValues = new HashMap<>();
+            attributeValues.put(":token", AttributeValue.builder().s(token).build());
+            String keyCondition = "#token = :token";
+            if (target != null) {
+                keyCondition += " and #product " + (inclusive ? ">=" : ">") + " :target";
+                attributeValues.put(":target", AttributeValue.builder().s(target).build());
+            }
+            final QueryResponse response = dynamoDb.query(QueryRequest.builder()
+                    .tableName(search.getTableName())
+                    .keyConditionExpression(keyCondition)
+                    .projectionExpression("#product, #weight")
+                    .expressionAttributeNames(attributeNames)
+                    .expressionAttributeValues(attributeValues)
+                    .limit(POSTINGS_PAGE)
+                    .build());
+            page = response.items();
+            position = 0;
+            exhausted = response.lastEvaluatedKey() == null || response.lastEvaluatedKey().isEmpty();
+        }
+    }
+
+    private static final class Match {
+
+        private final String id;
+        private final long score;
+
+        Match(String id, long score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
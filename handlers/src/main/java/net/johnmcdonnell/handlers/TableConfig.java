@@ -0,0 +1,178 @@
+package net.johnmcdonnell.handlers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The table a handler works against, read from the environment that
+ * {@code DatabaseStack.getDynamoEnvironmentParams} sets on each function.
+ *
+ * @author John McDonnell
+ */
+public final class TableConfig {
+
+    private final String tableName;
+    private final String primaryKey;
+    private final String sortKey;
+    private final int scanSegments;
+    private final Map<String, String> queryIndexes;
+    private final int counterShards;
+    private final int itemCacheSize;
+    private final int itemCacheTtlSeconds;
+    private final int itemCacheCheckSeconds;
+    private final String itemCacheGenerationsTable;
+    private final List<String> readableFields;
+    private final String ttlAttribute;
+    private final long ttlSeconds;
+    private final String archiveTableName;
+
+    private TableConfig(String tableName, String primaryKey, String sortKey, int scanSegments, Map<String, String> queryIndexes,
+            int counterShards, int itemCacheSize, int itemCacheTtlSeconds, int itemCacheCheckSeconds,
+            String itemCacheGenerationsTable, List<String> readableFields, String ttlAttribute, long ttlSeconds,
+            String archiveTableName) {
+        this.tableName = tableName;
+        this.primaryKey = primaryKey;
+        this.sortKey = sortKey;
+        this.scanSegments = scanSegments;
+        this.queryIndexes = Collections.unmodifiableMap(queryIndexes);
+        this.counterShards = counterShards;
+        this.itemCacheSize = itemCacheSize;
+        this.itemCacheTtlSeconds = itemCacheTtlSeconds;
+        this.itemCacheCheckSeconds = itemCacheCheckSeconds;
+        this.itemCacheGenerationsTable = itemCacheGenerationsTable;
+        this.readableFields = Collections.unmodifiableList(readableFields);
+        this.ttlAttribute = ttlAttribute;
+        this.ttlSeconds = ttlSeconds;
+        this.archiveTableName = archiveTableName;
+    }
+
+    public static TableConfig fromEnvironment() {
+        return fromMap(System.getenv());
+    }
+
+    /**
+     * @param prefix prefix on every variable name, for a second table a function
+     * works against, e.g. {@code INVENTORY_} for {@code INVENTORY_TABLE_NAME}
+     */
+    public static TableConfig fromEnvironment(String prefix) {
+        return fromMap(System.getenv(), prefix);
+    }
+
+    public static TableConfig fromMap(Map<String, String> environment) {
+        return fromMap(environment, "");
+    }
+
+    public static TableConfig fromMap(Map<String, String> environment, String prefix) {
+        final Map<String, String> queryIndexes = new LinkedHashMap<>();
+        for (String entry : environment.getOrDefault(prefix + "QUERY_INDEXES", "").split(",")) {
+            final int separator = entry.indexOf('=');
+            if (separator > 0) {
+                queryIndexes.put(entry.substring(0, separator), entry.substring(separator + 1));
+            }
+        }
+        return new TableConfig(
+                environment.getOrDefault(prefix + "TABLE_NAME", ""),
+                environment.getOrDefault(prefix + "PRIMARY_KEY", ""),
+                environment.getOrDefault(prefix + "SORT_KEY", ""),
+                Integer.parseInt(environment.getOrDefault(prefix + "SCAN_SEGMENTS", "1")),
+                queryIndexes,
+                Integer.parseInt(environment.getOrDefault(prefix + "COUNTER_SHARDS", "1")),
+                Integer.parseInt(environment.getOrDefault(prefix + "ITEM_CACHE_SIZE", "0")),
+                Integer.parseInt(environment.getOrDefault(prefix + "ITEM_CACHE_TTL_SECONDS", "0")),
+                Integer.parseInt(environment.getOrDefault(prefix + "ITEM_CACHE_CHECK_SECONDS", "0")),
+                environment.getOrDefault(prefix + "ITEM_CACHE_GENERATIONS_TABLE", ""),
+                Arrays.stream(environment.getOrDefault(prefix + "FIELDS", "").split(","))
+                        .filter(field -> !field.isEmpty())
+                        .collect(Collectors.toList()),
+                environment.getOrDefault(prefix + "TTL_ATTRIBUTE", ""),
+                Long.parseLong(environment.getOrDefault(prefix + "TTL_SECONDS", "0")),
+                environment.getOrDefault(prefix + "ARCHIVE_TABLE_NAME", ""));
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getPrimaryKey() {
+        return primaryKey;
+    }
+
+    /**
+     * @return the table's sort key; empty when items are keyed by the primary key alone
+     */
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public int getScanSegments() {
+        return scanSegments;
+    }
+
+    /**
+     * @return index names keyed by the attribute that is their partition key
+     */
+    public Map<String, String> getQueryIndexes() {
+        return queryIndexes;
+    }
+
+    /**
+     * @return how many counter items each inventory entry is spread over; 1 when counters are not sharded
+     */
+    public int getCounterShards() {
+        return counterShards;
+    }
+
+    /**
+     * @return how many items {@code getItem} keeps in its container cache; 0 when it has none
+     */
+    public int getItemCacheSize() {
+        return itemCacheSize;
+    }
+
+    public int getItemCacheTtlSeconds() {
+        return itemCacheTtlSeconds;
+    }
+
+    /**
+     * @return how often the cache checks the table's generation for writes it has not seen
+     */
+    public int getItemCacheCheckSeconds() {
+        return itemCacheCheckSeconds;
+    }
+
+    public String getItemCacheGenerationsTable() {
+        return itemCacheGenerationsTable;
+    }
+
+    /**
+     * @return the attributes reads may select with {@code ?fields=}; empty when they cannot
+     */
+    public List<String> getReadableFields() {
+        return readableFields;
+    }
+
+    /**
+     * @return the attribute holding the epoch second an item expires at; empty when items do not expire
+     */
+    public String getTtlAttribute() {
+        return ttlAttribute;
+    }
+
+    /**
+     * @return how long after it is written an item expires
+     */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * @return the table expired items are archived to, which reads fall back to; empty when there is none
+     */
+    public String getArchiveTableName() {
+        return archiveTableName;
+    }
+}
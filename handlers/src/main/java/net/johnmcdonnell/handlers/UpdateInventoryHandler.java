@@ -0,0 +1,122 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * {@code PUT /{id}} on the inventory table. Applies an {@code add} or
+ * {@code remove} of a quantity as an atomic {@code ADD}, refusing any removal
+ * that would take stock below zero. With sharded counters, additions land on a
+ * random shard and removals draw from a random shard that holds enough, or
+ * else from the fullest shards, in one transaction.
+ * A removal that keeps losing races for its shards answers {@code 503} with a
+ * {@code Retry-After}, as the stock may well be there, rather than {@code 409}.
+ *
+ * @author John McDonnell
+ */
+public class UpdateInventoryHandler extends ItemHandler {
+
+    static final String INVALID_ADJUSTMENT = "invalid request, action must be 'add' or 'remove' with a positive integer quantity";
+    static final String INSUFFICIENT_STOCK = "Error: Insufficient stock";
+    static final String STOCK_CONTENDED = "Error: Stock is changing too quickly, please retry";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    public UpdateInventoryHandler() {
+        super();
+    }
+
+    public UpdateInventoryHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        super(dynamoDb, table);
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        if (request.getBody() == null || request.getBody().isEmpty()) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        final String productId = pathId(request);
+        if (productId == null || productId.isEmpty()) {
+            return Responses.of(400, Responses.MISSING_ID);
+        }
+        final JsonNode adjustment;
+        try {
+            adjustment = Items.parse(request.getBody());
+        } catch (IOException e) {
+            return Responses.of(400, INVALID_ADJUSTMENT);
+        }
+        final Optional<APIGatewayProxyResponseEvent> invalidBody = RequestSchemas.ENVIRONMENT.check("updateItem", adjustment);
+        if (invalidBody.isPresent()) {
+            return invalidBody.get();
+        }
+        final String action = adjustment.path("action").asText();
+        final JsonNode quantityNode = adjustment.path("quantity");
+        if (!("add".equals(action) || "remove".equals(action)) || !quantityNode.canConvertToLong()
+                || !quantityNode.isIntegralNumber() || quantityNode.longValue() < 1) {
+            return Responses.of(400, INVALID_ADJUSTMENT);
+        }
+        final long quantity = quantityNode.longValue();
+
+        try {
+            if (table.getCounterShards() <= 1) {
+                adjustCounter(productId, "add".equals(action) ? quantity : -quantity);
+            } else if ("add".equals(action)) {
+                adjustCounter(InventoryCounters.shardKey(productId,
+                        ThreadLocalRandom.current().nextInt(table.getCounterShards())), quantity);
+            } else {
+                return removeFromShards(productId, quantity);
+            }
+            return Responses.of(204, "");
+        } catch (ConditionalCheckFailedException e) {
+            return Responses.of(409, INSUFFICIENT_STOCK);
+        }
+    }
+
+    private void adjustCounter(String key, long delta) {
+        final UpdateItemRequest.Builder update = UpdateItemRequest.builder()
+                .tableName(table.getTableName())
+                .key(key(key))
+                .updateExpression(InventoryCounters.ADJUST_EXPRESSION)
+                .expressionAttributeNames(InventoryCounters.ADJUST_NAMES)
+                .expressionAttributeValues(InventoryCounters.adjustValues(delta, Items.timestamp()));
+        if (delta < 0) {
+            update.conditionExpression(InventoryCounters.SUFFICIENT_STOCK_CONDITION);
+        }
+        dynamoDb.updateItem(update.build());
+    }
+
+    /**
+     * @return 204 once the draws are written, 409 when the shards together hold
+     * less than the quantity, or 503 when they kept changing under us for
+     * {@value #MAX_ATTEMPTS} attempts
+     */
+    private APIGatewayProxyResponseEvent removeFromShards(String productId, long quantity) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final List<TransactWriteItem> draws = InventoryCounters.planDraws(table,
+                    InventoryCounters.readShards(dynamoDb, table, productId, true), quantity);
+            if (draws == null) {
+                return Responses.of(409, INSUFFICIENT_STOCK);
+            }
+
+            try {
+                dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(draws).build());
+                return Responses.of(204, "");
+            } catch (TransactionCanceledException e) {
+                // A shard moved between the read and the write; re-read and plan again.
+            }
+        }
+        return Responses.of(503, Collections.singletonMap("Retry-After", "1"), STOCK_CONTENDED);
+    }
+}
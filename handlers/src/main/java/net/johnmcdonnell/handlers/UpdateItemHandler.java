@@ -0,0 +1,78 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+/**
+ * {@code PUT /{id}}. Every attribute in the body is SET through an expression
+ * attribute name, so reserved words such as {@code name} are safe to update.
+ *
+ * @author John McDonnell
+ */
+public class UpdateItemHandler extends ItemHandler {
+
+    public UpdateItemHandler() {
+        super();
+    }
+
+    public UpdateItemHandler(DynamoDbClient dynamoDb, TableConfig table) {
+        super(dynamoDb, table);
+    }
+
+    @Override
+    protected APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent request) {
+        if (request.getBody() == null || request.getBody().isEmpty()) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        final String editedItemId = pathId(request);
+        if (editedItemId == null || editedItemId.isEmpty()) {
+            return Responses.of(400, Responses.MISSING_ID);
+        }
+        final JsonNode editedItem;
+        try {
+            editedItem = Items.parse(request.getBody());
+        } catch (IOException e) {
+            return Responses.of(400, Responses.MISSING_BODY);
+        }
+        if (!editedItem.isObject() || editedItem.size() < 1) {
+            return Responses.of(400, Responses.NO_ARGUMENTS);
+        }
+
+        final StringBuilder updateExpression = new StringBuilder("SET #updatedAt = :updatedAt");
+        final Map<String, String> names = new HashMap<>();
+        final Map<String, AttributeValue> values = new HashMap<>();
+        names.put("#updatedAt", "updatedAt");
+        values.put(":updatedAt", AttributeValue.builder().s(Items.timestamp()).build());
+
+        int attribute = 0;
+        final Iterator<Map.Entry<String, JsonNode>> fields = editedItem.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getKey().equals(table.getPrimaryKey()) || field.getKey().equals("updatedAt")) {
+                continue;
+            }
+            updateExpression.append(", #a").append(attribute).append(" = :a").append(attribute);
+            names.put("#a" + attribute, field.getKey());
+            values.put(":a" + attribute, Items.toAttributeValue(field.getValue()));
+            attribute++;
+        }
+
+        dynamoDb.updateItem(UpdateItemRequest.builder()
+                .tableName(table.getTableName())
+                .key(key(editedItemId))
+                .updateExpression(updateExpression.toString())
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .build());
+        ApiCache.ENVIRONMENT.refreshItem(editedItemId);
+        return Responses.of(204, "");
+    }
+}
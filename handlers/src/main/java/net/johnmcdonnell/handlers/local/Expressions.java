@@ -0,0 +1,211 @@
+package net.johnmcdonnell.handlers.local;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Evaluates the subset of DynamoDB update and condition expressions that the
+ * handlers use, on top-level attributes only: {@code SET} with plain values,
+ * {@code + / -} arithmetic and {@code if_not_exists}, {@code ADD},
+ * {@code REMOVE}, and {@code AND}-joined comparisons and
+ * {@code attribute_exists / attribute_not_exists} checks.
+ *
+ * @author John McDonnell
+ */
+final class Expressions {
+
+    private static final Pattern CLAUSE = Pattern.compile("(?i)\\b(SET|ADD|REMOVE)\\s+");
+    private static final Pattern COMPARISON = Pattern.compile("(.+?)\\s*(<=|>=|<>|=|<|>)\\s*(.+)");
+    private static final Pattern FUNCTION = Pattern.compile("(?i)(attribute_exists|attribute_not_exists|if_not_exists)\\s*\\((.*)\\)");
+    private static final Pattern ARITHMETIC = Pattern.compile("(.+?)\\s*([+-])\\s*(.+)");
+
+    private Expressions() {
+    }
+
+    static void apply(String expression, Map<String, AttributeValue> item,
+            Map<String, String> names, Map<String, AttributeValue> values) {
+        final List<String> actions = new ArrayList<>();
+        final List<Integer> clauseStarts = new ArrayList<>();
+        final List<Integer> bodyStarts = new ArrayList<>();
+        final Matcher clauses = CLAUSE.matcher(expression.trim());
+        while (clauses.find()) {
+            actions.add(clauses.group(1).toUpperCase());
+            clauseStarts.add(clauses.start());
+            bodyStarts.add(clauses.end());
+        }
+        if (actions.isEmpty() || clauseStarts.get(0) != 0) {
+            throw new UnsupportedOperationException("Unsupported update expression: " + expression);
+        }
+
+        for (int clause = 0; clause < actions.size(); clause++) {
+            final String body = expression.trim().substring(bodyStarts.get(clause),
+                    clause + 1 < actions.size() ? clauseStarts.get(clause + 1) : expression.trim().length());
+            for (String part : splitTopLevel(body)) {
+                switch (actions.get(clause)) {
+                    case "SET": {
+                        final int equals = part.indexOf('=');
+                        item.put(name(part.substring(0, equals).trim(), names),
+                                operand(part.substring(equals + 1).trim(), item, names, values));
+                        break;
+                    }
+                    case "ADD": {
+                        final String[] tokens = part.trim().split("\\s+");
+                        final String attribute = name(tokens[0], names);
+                        item.put(attribute, add(item.get(attribute), values.get(tokens[1])));
+                        break;
+                    }
+                    default:
+                        item.remove(name(part.trim(), names));
+                }
+            }
+        }
+    }
+
+    static boolean matches(String condition, Map<String, AttributeValue> item,
+            Map<String, String> names, Map<String, AttributeValue> values) {
+        if (condition == null || condition.trim().isEmpty()) {
+            return true;
+        }
+        final Map<String, AttributeValue> current = item == null ? Collections.emptyMap() : item;
+        for (String term : condition.trim().split("(?i)\\s+AND\\s+")) {
+            if (!matchesTerm(term.trim(), current, names, values)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesTerm(String term, Map<String, AttributeValue> item,
+            Map<String, String> names, Map<String, AttributeValue> values) {
+        final Matcher function = FUNCTION.matcher(term);
+        if (function.matches()) {
+            final boolean exists = item.containsKey(name(function.group(2).trim(), names));
+            return function.group(1).equalsIgnoreCase("attribute_exists") == exists;
+        }
+        final Matcher comparison = COMPARISON.matcher(term);
+        if (!comparison.matches()) {
+            throw new UnsupportedOperationException("Unsupported condition: " + term);
+        }
+        final AttributeValue left = operand(comparison.group(1).trim(), item, names, values);
+        final AttributeValue right = operand(comparison.group(3).trim(), item, names, values);
+        if (left == null || right == null) {
+            return "<>".equals(comparison.group(2)) && left != right;
+        }
+        final int order = compare(left, right);
+        switch (comparison.group(2)) {
+            case "=":
+                return order == 0;
+            case "<>":
+                return order != 0;
+            case "<":
+                return order < 0;
+            case "<=":
+                return order <= 0;
+            case ">":
+                return order > 0;
+            default:
+                return order >= 0;
+        }
+    }
+
+    private static AttributeValue operand(String token, Map<String, AttributeValue> item,
+            Map<String, String> names, Map<String, AttributeValue> values) {
+        final Matcher function = FUNCTION.matcher(token);
+        if (function.matches() && function.group(1).equalsIgnoreCase("if_not_exists")) {
+            final String[] arguments = function.group(2).split(",");
+            final AttributeValue existing = item.get(name(arguments[0].trim(), names));
+            return existing != null ? existing : operand(arguments[1].trim(), item, names, values);
+        }
+        final Matcher arithmetic = ARITHMETIC.matcher(token);
+        if (!token.startsWith(":") && arithmetic.matches()) {
+            final BigDecimal left = number(operand(arithmetic.group(1).trim(), item, names, values));
+            final BigDecimal right = number(operand(arithmetic.group(3).trim(), item, names, values));
+            return numberValue("+".equals(arithmetic.group(2)) ? left.add(right) : left.subtract(right));
+        }
+        return token.startsWith(":") ? values.get(token) : item.get(name(token, names));
+    }
+
+    private static AttributeValue add(AttributeValue existing, AttributeValue delta) {
+        if (delta.n() != null) {
+            return numberValue((existing == null ? BigDecimal.ZERO : number(existing)).add(number(delta)));
+        }
+        final Set<String> union = new LinkedHashSet<>();
+        if (existing != null) {
+            union.addAll(existing.ss());
+        }
+        union.addAll(delta.ss());
+        return AttributeValue.builder().ss(union).build();
+    }
+
+    private static int compare(AttributeValue left, AttributeValue right) {
+        if (left.n() != null && right.n() != null) {
+            return number(left).compareTo(number(right));
+        }
+        if (left.s() != null && right.s() != null) {
+            return left.s().compareTo(right.s());
+        }
+        return left.equals(right) ? 0 : 1;
+    }
+
+    private static BigDecimal number(AttributeValue value) {
+        if (value == null || value.n() == null) {
+            throw new IllegalArgumentException("An operand in a numeric expression is not a number");
+        }
+        return new BigDecimal(value.n());
+    }
+
+    private static AttributeValue numberValue(BigDecimal number) {
+        return AttributeValue.builder().n(number.toPlainString()).build();
+    }
+
+    /**
+     * Keeps the top-level attributes a projection expression names, e.g. {@code #f0, #f1}.
+     */
+    static Map<String, AttributeValue> project(String projection, Map<String, AttributeValue> item,
+            Map<String, String> names) {
+        if (projection == null || item == null) {
+            return item;
+        }
+        final Map<String, AttributeValue> projected = new LinkedHashMap<>();
+        for (String token : projection.split(",")) {
+            final String attribute = name(token.trim(), names);
+            if (item.containsKey(attribute)) {
+                projected.put(attribute, item.get(attribute));
+            }
+        }
+        return projected;
+    }
+
+    static String name(String token, Map<String, String> names) {
+        return token.startsWith("#") ? names.get(token) : token;
+    }
+
+    /** Splits on commas that are not inside a function call's parentheses. */
+    private static List<String> splitTopLevel(String body) {
+        final List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < body.length(); i++) {
+            final char c = body.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(body.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(body.substring(start));
+        return parts;
+    }
+}
@@ -0,0 +1,385 @@
+package net.johnmcdonnell.handlers.local;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * A DynamoDB stand-in that keeps tables in memory, for running the handlers
+ * without an AWS account. It covers the calls and expression forms the
+ * handlers in this module issue; anything else falls through to the
+ * interface's {@link UnsupportedOperationException}.
+ *
+ * @author John McDonnell
+ */
+public class InMemoryDynamoDbClient implements DynamoDbClient {
+
+    private final Map<String, MemoryTable> tables = new ConcurrentHashMap<>();
+
+    /** Single-item writes share this lock; a transaction holds it exclusively. */
+    private final ReadWriteLock writeLock = new ReentrantReadWriteLock();
+
+    public InMemoryDynamoDbClient createTable(String tableName, String primaryKey) {
+        tables.put(tableName, new MemoryTable(primaryKey));
+        return this;
+    }
+
+    public InMemoryDynamoDbClient createIndex(String tableName, String indexName, String partitionKey, String sortKey) {
+        table(tableName).indexes.put(indexName, new String[]{partitionKey, sortKey});
+        return this;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        tables.clear();
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        final MemoryTable table = table(request.tableName());
+        final Map<String, AttributeValue> item = table.items.get(table.keyOf(request.key()));
+        return GetItemResponse.builder()
+                .item(Expressions.project(request.projectionExpression(), item, request.expressionAttributeNames()))
+                .build();
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        writeLock.readLock().lock();
+        try {
+            put(request.tableName(), request.item(), request.conditionExpression(),
+                    request.expressionAttributeNames(), request.expressionAttributeValues());
+        } finally {
+            writeLock.readLock().unlock();
+        }
+        return PutItemResponse.builder().build();
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+        writeLock.readLock().lock();
+        try {
+            delete(request.tableName(), request.key(), request.conditionExpression(),
+                    request.expressionAttributeNames(), request.expressionAttributeValues());
+        } finally {
+            writeLock.readLock().unlock();
+        }
+        return DeleteItemResponse.builder().build();
+    }
+
+    /**
+     * Returns the whole updated item for any {@code ReturnValues} other than
+     * {@code NONE}, which is all the handlers ask for.
+     */
+    @Override
+    public UpdateItemResponse updateItem(UpdateItemRequest request) {
+        final Map<String, AttributeValue> updated;
+        writeLock.readLock().lock();
+        try {
+            updated = update(request.tableName(), request.key(), request.updateExpression(), request.conditionExpression(),
+                    request.expressionAttributeNames(), request.expressionAttributeValues());
+        } finally {
+            writeLock.readLock().unlock();
+        }
+        return UpdateItemResponse.builder()
+                .attributes(request.returnValues() == null || request.returnValues() == ReturnValue.NONE ? null : updated)
+                .build();
+    }
+
+    @Override
+    public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+        final Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+        request.requestItems().forEach((tableName, keysAndAttributes) -> {
+            final MemoryTable table = table(tableName);
+            final List<Map<String, AttributeValue>> items = new ArrayList<>();
+            for (Map<String, AttributeValue> key : keysAndAttributes.keys()) {
+                final Map<String, AttributeValue> item = table.items.get(table.keyOf(key));
+                if (item != null) {
+                    items.add(Expressions.project(keysAndAttributes.projectionExpression(), item,
+                            keysAndAttributes.expressionAttributeNames()));
+                }
+            }
+            responses.put(tableName, items);
+        });
+        return BatchGetItemResponse.builder().responses(responses).build();
+    }
+
+    /**
+     * Applies every write; nothing is ever left unprocessed.
+     */
+    @Override
+    public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+        writeLock.readLock().lock();
+        try {
+            request.requestItems().forEach((tableName, writes) -> {
+                for (WriteRequest write : writes) {
+                    if (write.putRequest() != null) {
+                        put(tableName, write.putRequest().item(), null, null, null);
+                    } else {
+                        delete(tableName, write.deleteRequest().key(), null, null, null);
+                    }
+                }
+            });
+        } finally {
+            writeLock.readLock().unlock();
+        }
+        return BatchWriteItemResponse.builder().build();
+    }
+
+    /**
+     * Checks every condition in the transaction before applying any write, while
+     * holding off all other writes.
+     */
+    @Override
+    public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+        writeLock.writeLock().lock();
+        try {
+            for (TransactWriteItem item : request.transactItems()) {
+                if (!transactConditionHolds(item)) {
+                    throw TransactionCanceledException.builder()
+                            .message("Transaction cancelled, please refer cancellation reasons for specific reasons")
+                            .build();
+                }
+            }
+            for (TransactWriteItem item : request.transactItems()) {
+                if (item.put() != null) {
+                    put(item.put().tableName(), item.put().item(), null, null, null);
+                } else if (item.update() != null) {
+                    update(item.update().tableName(), item.update().key(), item.update().updateExpression(), null,
+                            item.update().expressionAttributeNames(), item.update().expressionAttributeValues());
+                } else if (item.delete() != null) {
+                    delete(item.delete().tableName(), item.delete().key(), null, null, null);
+                }
+            }
+        } finally {
+            writeLock.writeLock().unlock();
+        }
+        return TransactWriteItemsResponse.builder().build();
+    }
+
+    private boolean transactConditionHolds(TransactWriteItem item) {
+        if (item.put() != null) {
+            final MemoryTable table = table(item.put().tableName());
+            return Expressions.matches(item.put().conditionExpression(), table.items.get(table.keyOf(item.put().item())),
+                    item.put().expressionAttributeNames(), item.put().expressionAttributeValues());
+        }
+        if (item.update() != null) {
+            final MemoryTable table = table(item.update().tableName());
+            return Expressions.matches(item.update().conditionExpression(), table.items.get(table.keyOf(item.update().key())),
+                    item.update().expressionAttributeNames(), item.update().expressionAttributeValues());
+        }
+        if (item.delete() != null) {
+            final MemoryTable table = table(item.delete().tableName());
+            return Expressions.matches(item.delete().conditionExpression(), table.items.get(table.keyOf(item.delete().key())),
+                    item.delete().expressionAttributeNames(), item.delete().expressionAttributeValues());
+        }
+        final MemoryTable table = table(item.conditionCheck().tableName());
+        return Expressions.matches(item.conditionCheck().conditionExpression(),
+                table.items.get(table.keyOf(item.conditionCheck().key())),
+                item.conditionCheck().expressionAttributeNames(), item.conditionCheck().expressionAttributeValues());
+    }
+
+    private void put(String tableName, Map<String, AttributeValue> newItem, String condition,
+            Map<String, String> names, Map<String, AttributeValue> values) {
+        final MemoryTable table = table(tableName);
+        table.items.compute(table.keyOf(newItem), (key, existing) -> {
+            checkCondition(condition, existing, names, values);
+            return new LinkedHashMap<>(newItem);
+        });
+    }
+
+    private void delete(String tableName, Map<String, AttributeValue> itemKey, String condition,
+            Map<String, String> names, Map<String, AttributeValue> values) {
+        final MemoryTable table = table(tableName);
+        table.items.compute(table.keyOf(itemKey), (key, existing) -> {
+            checkCondition(condition, existing, names, values);
+            return null;
+        });
+    }
+
+    private Map<String, AttributeValue> update(String tableName, Map<String, AttributeValue> itemKey, String expression,
+            String condition, Map<String, String> names, Map<String, AttributeValue> values) {
+        final MemoryTable table = table(tableName);
+        return table.items.compute(table.keyOf(itemKey), (key, existing) -> {
+            checkCondition(condition, existing, names, values);
+            final Map<String, AttributeValue> item = existing == null
+                    ? new LinkedHashMap<>(itemKey) : new LinkedHashMap<>(existing);
+            Expressions.apply(expression, item, names, values);
+            return item;
+        });
+    }
+
+    private static void checkCondition(String condition, Map<String, AttributeValue> existing,
+            Map<String, String> names, Map<String, AttributeValue> values) {
+        if (!Expressions.matches(condition, existing, names, values)) {
+            throw ConditionalCheckFailedException.builder().message("The conditional request failed").build();
+        }
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest request) {
+        final MemoryTable table = table(request.tableName());
+        NavigableMap<String, Map<String, AttributeValue>> items = table.items;
+        if (request.exclusiveStartKey() != null && !request.exclusiveStartKey().isEmpty()) {
+            items = items.tailMap(table.keyOf(request.exclusiveStartKey()), false);
+        }
+
+        final int limit = request.limit() == null ? Integer.MAX_VALUE : request.limit();
+        final List<Map<String, AttributeValue>> page = new ArrayList<>();
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        for (Map.Entry<String, Map<String, AttributeValue>> entry : items.entrySet()) {
+            if (request.totalSegments() != null
+                    && Math.floorMod(entry.getKey().hashCode(), request.totalSegments()) != request.segment()) {
+                continue;
+            }
+            if (page.size() == limit) {
+                lastEvaluatedKey = table.keyAttributes(page.get(page.size() - 1));
+                break;
+            }
+            page.add(entry.getValue());
+        }
+        return ScanResponse.builder()
+                .items(project(page, request.projectionExpression(), request.expressionAttributeNames()))
+                .count(page.size())
+                .lastEvaluatedKey(lastEvaluatedKey)
+                .build();
+    }
+
+    /**
+     * Supports a single equality key condition, {@code #pk = :pk}, against the
+     * table or one of its indexes; results come back in sort key order.
+     */
+    @Override
+    public QueryResponse query(QueryRequest request) {
+        final MemoryTable table = table(request.tableName());
+        final String[] index = request.indexName() == null
+                ? new String[]{table.primaryKey, null} : table.indexes.get(request.indexName());
+        if (index == null) {
+            throw ResourceNotFoundException.builder().message("Index not found: " + request.indexName()).build();
+        }
+        final String[] condition = request.keyConditionExpression().split("=");
+        final String attribute = Expressions.name(condition[0].trim(), request.expressionAttributeNames());
+        final AttributeValue value = request.expressionAttributeValues().get(condition[1].trim());
+        if (!index[0].equals(attribute)) {
+            throw new UnsupportedOperationException("Key condition must be on the partition key " + index[0]);
+        }
+
+        final List<Map<String, AttributeValue>> matches = new ArrayList<>();
+        table.items.values().stream()
+                .filter(item -> value.equals(item.get(attribute)))
+                .sorted(Comparator.comparing((Map<String, AttributeValue> item) -> index[1] == null || item.get(index[1]) == null
+                        ? "" : MemoryTable.keyValue(item.get(index[1])))
+                        .thenComparing(item -> MemoryTable.keyValue(item.get(table.primaryKey))))
+                .forEach(matches::add);
+
+        int start = 0;
+        if (request.exclusiveStartKey() != null && !request.exclusiveStartKey().isEmpty()) {
+            final String startKey = table.keyOf(request.exclusiveStartKey());
+            while (start < matches.size() && !table.keyOf(matches.get(start)).equals(startKey)) {
+                start++;
+            }
+            start++;
+        }
+        final int limit = request.limit() == null ? Integer.MAX_VALUE : request.limit();
+        final int end = (int) Math.min(matches.size(), (long) start + limit);
+        final List<Map<String, AttributeValue>> page = start >= matches.size()
+                ? new ArrayList<>() : new ArrayList<>(matches.subList(start, end));
+
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        if (end < matches.size() && !page.isEmpty()) {
+            final Map<String, AttributeValue> last = page.get(page.size() - 1);
+            lastEvaluatedKey = table.keyAttributes(last);
+            lastEvaluatedKey.put(index[0], last.get(index[0]));
+            if (index[1] != null && last.get(index[1]) != null) {
+                lastEvaluatedKey.put(index[1], last.get(index[1]));
+            }
+        }
+        return QueryResponse.builder()
+                .items(project(page, request.projectionExpression(), request.expressionAttributeNames()))
+                .count(page.size())
+                .lastEvaluatedKey(lastEvaluatedKey)
+                .build();
+    }
+
+    private static List<Map<String, AttributeValue>> project(List<Map<String, AttributeValue>> items, String projection,
+            Map<String, String> names) {
+        final List<Map<String, AttributeValue>> projected = new ArrayList<>(items.size());
+        items.forEach(item -> projected.add(Expressions.project(projection, item, names)));
+        return projected;
+    }
+
+    private MemoryTable table(String tableName) {
+        final MemoryTable table = tables.get(tableName);
+        if (table == null) {
+            throw ResourceNotFoundException.builder().message("Table not found: " + tableName).build();
+        }
+        return table;
+    }
+
+    private static final class MemoryTable {
+
+        private final String primaryKey;
+        private final ConcurrentSkipListMap<String, Map<String, AttributeValue>> items = new ConcurrentSkipListMap<>();
+        private final Map<String, String[]> indexes = new ConcurrentHashMap<>();
+
+        private MemoryTable(String primaryKey) {
+            this.primaryKey = primaryKey;
+        }
+
+        private String keyOf(Map<String, AttributeValue> item) {
+            return keyValue(item.get(primaryKey));
+        }
+
+        private Map<String, AttributeValue> keyAttributes(Map<String, AttributeValue> item) {
+            final Map<String, AttributeValue> key = new HashMap<>();
+            key.put(primaryKey, item.get(primaryKey));
+            return key;
+        }
+
+        private static String keyValue(AttributeValue value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Item is missing its key attribute");
+            }
+            return value.s() != null ? value.s() : value.n();
+        }
+    }
+}
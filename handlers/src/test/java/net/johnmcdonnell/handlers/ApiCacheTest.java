@@ -0,0 +1,35 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import org.junit.Test;
+
+public class ApiCacheTest {
+
+    private static final ApiCache CACHING = new ApiCache("rest123", "prod", "eu-west-1", "GET /{id},GET /", false, null);
+
+    @Test
+    public void cachesResponsesOfCachedRoutesThroughTheRestApi() {
+        assertTrue(CACHING.cachesResponse(request("rest123", "GET", "/{id}")));
+        assertTrue(CACHING.cachesResponse(request("rest123", "GET", "/")));
+    }
+
+    @Test
+    public void doesNotCacheOtherRoutesOrApis() {
+        assertFalse(CACHING.cachesResponse(request("rest123", "GET", "/search")));
+        assertFalse(CACHING.cachesResponse(request("rest123", "PUT", "/{id}")));
+        // The same function behind an HTTP API, which has no stage cache.
+        assertFalse(CACHING.cachesResponse(request("http456", "GET", "/{id}")));
+        assertFalse(CACHING.cachesResponse(Requests.withId("p1")));
+        assertFalse(new ApiCache(null, null, null, null, false, null).cachesResponse(request("rest123", "GET", "/{id}")));
+    }
+
+    private static APIGatewayProxyRequestEvent request(String apiId, String httpMethod, String resource) {
+        return new APIGatewayProxyRequestEvent()
+                .withRequestContext(new APIGatewayProxyRequestEvent.ProxyRequestContext().withApiId(apiId))
+                .withHttpMethod(httpMethod)
+                .withResource(resource);
+    }
+}
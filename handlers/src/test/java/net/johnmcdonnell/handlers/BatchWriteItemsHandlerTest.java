@@ -0,0 +1,60 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertEquals;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+public class BatchWriteItemsHandlerTest {
+
+    private InMemoryDynamoDbClient dynamoDb;
+    private BatchWriteItemsHandler handler;
+
+    @Before
+    public void createTable() {
+        dynamoDb = new InMemoryDynamoDbClient().createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY);
+        dynamoDb.putItem(PutItemRequest.builder().tableName(Requests.TABLE_NAME).item(Requests.item("old")).build());
+        handler = new BatchWriteItemsHandler(dynamoDb, Requests.table());
+    }
+
+    @Test
+    public void writesEveryPutAndDeleteAcrossBatches() {
+        final StringBuilder puts = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            puts.append(i == 0 ? "" : ", ").append("{\"name\": \"item ").append(i).append("\"}");
+        }
+
+        final APIGatewayProxyResponseEvent response = handler.handleRequest(Requests.request()
+                .withBody("{\"put\": [" + puts + "], \"delete\": [\"old\", \"old\"]}"), null);
+
+        assertEquals(200, (int) response.getStatusCode());
+        final JsonNode results = Requests.json(response.getBody());
+        assertEquals(30, results.get("put").size());
+        results.get("put").forEach(result -> assertEquals(201, result.get("status").intValue()));
+        assertEquals(2, results.get("delete").size());
+        results.get("delete").forEach(result -> assertEquals(204, result.get("status").intValue()));
+        assertEquals(30, dynamoDb.scan(ScanRequest.builder().tableName(Requests.TABLE_NAME).build()).items().size());
+        assertEquals(0, dynamoDb.getItem(GetItemRequest.builder()
+                .tableName(Requests.TABLE_NAME)
+                .key(Requests.item("old"))
+                .build()).item().size());
+    }
+
+    @Test
+    public void rejectsMalformedWrites() {
+        assertEquals(400, status("{}"));
+        assertEquals(400, status("{\"put\": [\"not an item\"]}"));
+        assertEquals(400, status("{\"delete\": [\"\"]}"));
+        assertEquals(400, status("{\"put\": {}}"));
+    }
+
+    private int status(String body) {
+        return handler.handleRequest(Requests.request().withBody(body), null).getStatusCode();
+    }
+}
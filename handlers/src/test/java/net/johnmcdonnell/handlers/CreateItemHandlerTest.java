@@ -0,0 +1,63 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.util.List;
+import java.util.Map;
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+public class CreateItemHandlerTest {
+
+    private InMemoryDynamoDbClient dynamoDb;
+
+    @Before
+    public void createTable() {
+        dynamoDb = new InMemoryDynamoDbClient().createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY);
+    }
+
+    @Test
+    public void storesTheItemUnderANewIdWithTimestamps() {
+        final APIGatewayProxyResponseEvent response = new CreateItemHandler(dynamoDb, Requests.table())
+                .handleRequest(Requests.request().withBody("{\"name\": \"Mug\", \"price\": 12.5}"), null);
+
+        assertEquals(201, (int) response.getStatusCode());
+        final List<Map<String, AttributeValue>> items = scan();
+        assertEquals(1, items.size());
+        final Map<String, AttributeValue> item = items.get(0);
+        assertNotNull(item.get(Requests.PRIMARY_KEY).s());
+        assertEquals("Mug", item.get("name").s());
+        assertEquals("12.5", item.get("price").n());
+        assertNotNull(item.get("createdAt").s());
+        assertEquals(item.get("createdAt"), item.get("updatedAt"));
+    }
+
+    @Test
+    public void stampsTheExpiryWhenTheTableHasATimeToLive() {
+        new CreateItemHandler(dynamoDb, Requests.table("TTL_ATTRIBUTE", "expiresAt", "TTL_SECONDS", "60"))
+                .handleRequest(Requests.request().withBody("{\"name\": \"Mug\", \"expiresAt\": 1}"), null);
+
+        final long expiresAt = Long.parseLong(scan().get(0).get("expiresAt").n());
+        final long now = System.currentTimeMillis() / 1000;
+        assertEquals(now + 60, expiresAt, 5);
+    }
+
+    @Test
+    public void rejectsAMissingOrMalformedBody() {
+        final CreateItemHandler handler = new CreateItemHandler(dynamoDb, Requests.table());
+
+        assertEquals(400, (int) handler.handleRequest(Requests.request(), null).getStatusCode());
+        assertEquals(400, (int) handler.handleRequest(Requests.request().withBody("{\"name\""), null).getStatusCode());
+        assertEquals(400, (int) handler.handleRequest(Requests.request().withBody("[1, 2]"), null).getStatusCode());
+        assertEquals(0, scan().size());
+    }
+
+    private List<Map<String, AttributeValue>> scan() {
+        return dynamoDb.scan(ScanRequest.builder().tableName(Requests.TABLE_NAME).build()).items();
+    }
+}
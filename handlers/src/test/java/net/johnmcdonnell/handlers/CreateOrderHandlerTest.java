@@ -0,0 +1,100 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertEquals;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+public class CreateOrderHandlerTest {
+
+    private static final String ORDERS = "orders";
+    private static final String INVENTORY = "inventory";
+
+    @Test
+    public void reservesStockForAnOrder() {
+        final InMemoryDynamoDbClient dynamoDb = tables(new InMemoryDynamoDbClient());
+        stock(dynamoDb, "p1", 2);
+
+        assertEquals(201, (int) order(dynamoDb).getStatusCode());
+        assertEquals(409, (int) order(dynamoDb).getStatusCode());
+    }
+
+    @Test
+    public void answersRetryableWhenTheStockKeepsChanging() {
+        final InMemoryDynamoDbClient dynamoDb = tables(new InMemoryDynamoDbClient() {
+            @Override
+            public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+                throw TransactionCanceledException.builder().message("Transaction cancelled").build();
+            }
+        });
+        stock(dynamoDb, "p1", 5);
+
+        final APIGatewayProxyResponseEvent response = order(dynamoDb);
+        assertEquals(503, (int) response.getStatusCode());
+        assertEquals("1", response.getHeaders().get("Retry-After"));
+    }
+
+    @Test
+    public void readsEveryShardBeforeCallingAnOrderShort() {
+        final InMemoryDynamoDbClient dynamoDb = tables(new InMemoryDynamoDbClient() {
+            @Override
+            public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+                // Answers only the first key of each read, leaving the rest unprocessed.
+                final KeysAndAttributes read = request.requestItems().get(INVENTORY);
+                final List<Map<String, AttributeValue>> keys = read.keys();
+                final BatchGetItemResponse response = super.batchGetItem(request.toBuilder()
+                        .requestItems(Collections.singletonMap(INVENTORY, read.toBuilder().keys(keys.subList(0, 1)).build()))
+                        .build());
+                return keys.size() < 2 ? response : response.toBuilder()
+                        .unprocessedKeys(Collections.singletonMap(INVENTORY,
+                                read.toBuilder().keys(keys.subList(1, keys.size())).build()))
+                        .build();
+            }
+        });
+        stock(dynamoDb, InventoryCounters.shardKey("p1", 0), 1);
+        stock(dynamoDb, InventoryCounters.shardKey("p1", 1), 1);
+
+        assertEquals(201, (int) order(dynamoDb, 2).getStatusCode());
+        assertEquals(409, (int) order(dynamoDb, 2).getStatusCode());
+    }
+
+    private static InMemoryDynamoDbClient tables(InMemoryDynamoDbClient dynamoDb) {
+        return dynamoDb.createTable(ORDERS, "id").createTable(INVENTORY, "productId");
+    }
+
+    private static void stock(InMemoryDynamoDbClient dynamoDb, String productId, long stock) {
+        final Map<String, AttributeValue> counter = new HashMap<>();
+        counter.put("productId", AttributeValue.builder().s(productId).build());
+        counter.put("stock", AttributeValue.builder().n(Long.toString(stock)).build());
+        dynamoDb.putItem(PutItemRequest.builder().tableName(INVENTORY).item(counter).build());
+    }
+
+    private static APIGatewayProxyResponseEvent order(InMemoryDynamoDbClient dynamoDb) {
+        return order(dynamoDb, 1);
+    }
+
+    private static APIGatewayProxyResponseEvent order(InMemoryDynamoDbClient dynamoDb, int counterShards) {
+        final Map<String, String> orders = new HashMap<>();
+        orders.put("TABLE_NAME", ORDERS);
+        orders.put("PRIMARY_KEY", "id");
+        final Map<String, String> inventory = new HashMap<>();
+        inventory.put("TABLE_NAME", INVENTORY);
+        inventory.put("PRIMARY_KEY", "productId");
+        inventory.put("COUNTER_SHARDS", Integer.toString(counterShards));
+        return new CreateOrderHandler(dynamoDb, TableConfig.fromMap(orders), TableConfig.fromMap(inventory))
+                .handleRequest(Requests.request().withBody("{\"productIds\": [\"p1\", \"p1\"]}"), null);
+    }
+}
@@ -0,0 +1,32 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertEquals;
+
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+public class DeleteItemHandlerTest {
+
+    @Test
+    public void deletesTheItem() {
+        final InMemoryDynamoDbClient dynamoDb = new InMemoryDynamoDbClient().createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY);
+        dynamoDb.putItem(PutItemRequest.builder().tableName(Requests.TABLE_NAME).item(Requests.item("p1")).build());
+
+        assertEquals(200, (int) new DeleteItemHandler(dynamoDb, Requests.table())
+                .handleRequest(Requests.withId("p1"), null).getStatusCode());
+        assertEquals(0, dynamoDb.getItem(GetItemRequest.builder()
+                .tableName(Requests.TABLE_NAME)
+                .key(Requests.item("p1"))
+                .build()).item().size());
+    }
+
+    @Test
+    public void requiresAnId() {
+        final InMemoryDynamoDbClient dynamoDb = new InMemoryDynamoDbClient().createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY);
+
+        assertEquals(400, (int) new DeleteItemHandler(dynamoDb, Requests.table())
+                .handleRequest(Requests.request(), null).getStatusCode());
+    }
+}
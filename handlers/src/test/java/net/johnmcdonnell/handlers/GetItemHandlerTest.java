@@ -0,0 +1,138 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+public class GetItemHandlerTest {
+
+    private InMemoryDynamoDbClient dynamoDb;
+    private GetItemHandler handler;
+
+    @Before
+    public void createTable() {
+        dynamoDb = new InMemoryDynamoDbClient().createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY);
+        dynamoDb.putItem(PutItemRequest.builder()
+                .tableName(Requests.TABLE_NAME)
+                .item(Requests.item("p1", "name", "Mug", "description", "A red mug"))
+                .build());
+        handler = new GetItemHandler(dynamoDb, Requests.table("FIELDS", "name,description"), Requests.table("TABLE_NAME", ""));
+    }
+
+    @Test
+    public void readsTheItem() {
+        final APIGatewayProxyResponseEvent response = handler.handleRequest(Requests.withId("p1"), null);
+
+        assertEquals(200, (int) response.getStatusCode());
+        final JsonNode body = Requests.json(response.getBody());
+        assertEquals("Mug", body.get("name").textValue());
+        assertEquals("A red mug", body.get("description").textValue());
+        assertTrue(response.getHeaders().containsKey(ETags.ETAG_HEADER));
+    }
+
+    @Test
+    public void answersNotFoundForAMissingItem() {
+        final APIGatewayProxyResponseEvent response = handler.handleRequest(Requests.withId("p2"), null);
+
+        assertEquals(404, (int) response.getStatusCode());
+        assertEquals(Responses.NOT_FOUND, response.getBody());
+    }
+
+    @Test
+    public void refreshesTheStageWithTheItemJustWritten() {
+        // Eventually consistent reads lag behind the write, as they may right after it.
+        final InMemoryDynamoDbClient lagging = new InMemoryDynamoDbClient() {
+            @Override
+            public GetItemResponse getItem(GetItemRequest request) {
+                if (Requests.TABLE_NAME.equals(request.tableName()) && !Boolean.TRUE.equals(request.consistentRead())) {
+                    return GetItemResponse.builder().item(Requests.item("p1", "name", "Mug")).build();
+                }
+                return super.getItem(request);
+            }
+        }.createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY).createTable("generations", "tableName");
+        final GetItemHandler cached = new GetItemHandler(lagging, Requests.table("ITEM_CACHE_SIZE", "10",
+                "ITEM_CACHE_TTL_SECONDS", "60", "ITEM_CACHE_CHECK_SECONDS", "60", "ITEM_CACHE_GENERATIONS_TABLE", "generations"),
+                Requests.table("TABLE_NAME", ""));
+        assertEquals("Mug", Requests.json(cached.handleRequest(Requests.withId("p1"), null).getBody()).get("name").textValue());
+        lagging.putItem(PutItemRequest.builder().tableName(Requests.TABLE_NAME).item(Requests.item("p1", "name", "Cup")).build());
+
+        final APIGatewayProxyResponseEvent refresh = cached.handleRequest(Requests.withId("p1")
+                .withHeaders(Collections.singletonMap(ApiCache.REFRESH_HEADER, "true")), null);
+
+        assertEquals("Cup", Requests.json(refresh.getBody()).get("name").textValue());
+        assertEquals("BYPASS", refresh.getHeaders().get(GetItemHandler.CACHE_HEADER));
+        final APIGatewayProxyResponseEvent next = cached.handleRequest(Requests.withId("p1"), null);
+        assertEquals("Cup", Requests.json(next.getBody()).get("name").textValue());
+        assertEquals("HIT", next.getHeaders().get(GetItemHandler.CACHE_HEADER));
+    }
+
+    @Test
+    public void dropsOnlyTheCachedItemsAWriteMayHaveChanged() {
+        dynamoDb.createTable("generations", "tableName").putItem(PutItemRequest.builder()
+                .tableName(Requests.TABLE_NAME)
+                .item(Requests.item("p2", "name", "Bowl"))
+                .build());
+        final GetItemHandler cached = new GetItemHandler(dynamoDb, Requests.table("ITEM_CACHE_SIZE", "10",
+                "ITEM_CACHE_TTL_SECONDS", "60", "ITEM_CACHE_GENERATIONS_TABLE", "generations"), Requests.table("TABLE_NAME", ""));
+        cached.handleRequest(Requests.withId("p1"), null);
+        cached.handleRequest(Requests.withId("p2"), null);
+
+        // What the stream consumer records for a write to p2.
+        final Map<String, AttributeValue> generations = new HashMap<>();
+        generations.put("tableName", AttributeValue.builder().s(Requests.TABLE_NAME).build());
+        generations.put(ItemCache.generationAttribute("p2"), AttributeValue.builder().n("1").build());
+        dynamoDb.putItem(PutItemRequest.builder().tableName("generations").item(generations).build());
+
+        assertEquals("HIT", cached.handleRequest(Requests.withId("p1"), null).getHeaders().get(GetItemHandler.CACHE_HEADER));
+        assertEquals("MISS", cached.handleRequest(Requests.withId("p2"), null).getHeaders().get(GetItemHandler.CACHE_HEADER));
+    }
+
+    @Test
+    public void requiresAnId() {
+        assertEquals(400, (int) handler.handleRequest(Requests.request(), null).getStatusCode());
+    }
+
+    @Test
+    public void answersNotModifiedForTheCurrentETag() {
+        final String etag = handler.handleRequest(Requests.withId("p1"), null).getHeaders().get(ETags.ETAG_HEADER);
+
+        final APIGatewayProxyResponseEvent response = handler.handleRequest(Requests.withId("p1")
+                .withHeaders(Collections.singletonMap(ETags.IF_NONE_MATCH_HEADER, etag)), null);
+
+        assertEquals(304, (int) response.getStatusCode());
+        assertEquals("", response.getBody());
+    }
+
+    @Test
+    public void selectsTheRequestedFieldsAndTheKey() {
+        final APIGatewayProxyResponseEvent response = handler.handleRequest(Requests.withId("p1")
+                .withQueryStringParameters(Requests.query("fields", "name")), null);
+
+        assertEquals(200, (int) response.getStatusCode());
+        final JsonNode body = Requests.json(response.getBody());
+        assertEquals("p1", body.get(Requests.PRIMARY_KEY).textValue());
+        assertEquals("Mug", body.get("name").textValue());
+        assertFalse(body.has("description"));
+    }
+
+    @Test
+    public void rejectsUnknownFields() {
+        final APIGatewayProxyResponseEvent response = handler.handleRequest(Requests.withId("p1")
+                .withQueryStringParameters(Requests.query("fields", "price")), null);
+
+        assertEquals(400, (int) response.getStatusCode());
+    }
+}
@@ -0,0 +1,96 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+public class GetItemsHandlerTest {
+
+    private static final int ITEMS = 25;
+
+    private InMemoryDynamoDbClient dynamoDb;
+
+    @Before
+    public void createTable() {
+        dynamoDb = new InMemoryDynamoDbClient().createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY)
+                .createIndex(Requests.TABLE_NAME, "byCategory", "category", null);
+        for (int i = 0; i < ITEMS; i++) {
+            dynamoDb.putItem(PutItemRequest.builder()
+                    .tableName(Requests.TABLE_NAME)
+                    .item(Requests.item(String.format("p%02d", i), "category", i % 5 == 0 ? "mugs" : "plates"))
+                    .build());
+        }
+    }
+
+    @Test
+    public void pagesThroughTheTableWithCursors() {
+        final GetItemsHandler handler = new GetItemsHandler(dynamoDb, Requests.table());
+
+        assertEquals(ITEMS, readAll(handler, Requests.query("limit", "10")).size());
+    }
+
+    @Test
+    public void pagesThroughEverySegmentOfAParallelScan() {
+        final GetItemsHandler handler = new GetItemsHandler(dynamoDb, Requests.table("SCAN_SEGMENTS", "4"));
+
+        assertEquals(ITEMS, readAll(handler, Requests.query("limit", "8", "parallel", "true")).size());
+    }
+
+    @Test
+    public void queriesTheIndexOfANamedPartitionKey() {
+        final GetItemsHandler handler = new GetItemsHandler(dynamoDb, Requests.table("QUERY_INDEXES", "category=byCategory"));
+
+        final Set<String> ids = readAll(handler, Requests.query("limit", "2", "category", "mugs"));
+        assertEquals(5, ids.size());
+        ids.forEach(id -> assertEquals(0, Integer.parseInt(id.substring(1)) % 5));
+    }
+
+    @Test
+    public void rejectsAnInvalidLimitOrCursor() {
+        final GetItemsHandler handler = new GetItemsHandler(dynamoDb, Requests.table());
+
+        assertEquals(400, status(handler, Requests.query("limit", "0")));
+        assertEquals(400, status(handler, Requests.query("limit", "1001")));
+        assertEquals(400, status(handler, Requests.query("limit", "ten")));
+        assertEquals(400, status(handler, Requests.query("cursor", "not a cursor")));
+    }
+
+    private static int status(GetItemsHandler handler, Map<String, String> query) {
+        return handler.handleRequest(Requests.request().withQueryStringParameters(query), null).getStatusCode();
+    }
+
+    /**
+     * @return the ids of every item read following the cursors, failing on any read twice
+     */
+    private static Set<String> readAll(GetItemsHandler handler, Map<String, String> query) {
+        final Set<String> ids = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            if (cursor != null) {
+                query.put("cursor", cursor);
+            }
+            final APIGatewayProxyResponseEvent response = handler.handleRequest(Requests.request()
+                    .withQueryStringParameters(query), null);
+            assertEquals(200, (int) response.getStatusCode());
+            for (JsonNode item : Requests.json(response.getBody())) {
+                assertNotNull(item.get(Requests.PRIMARY_KEY));
+                assertEquals(true, ids.add(item.get(Requests.PRIMARY_KEY).textValue()));
+            }
+            cursor = response.getHeaders().get(GetItemsHandler.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null && pages < ITEMS);
+        assertNull(cursor);
+        return ids;
+    }
+}
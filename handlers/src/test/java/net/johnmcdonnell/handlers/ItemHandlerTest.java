@@ -0,0 +1,63 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertEquals;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import org.junit.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+public class ItemHandlerTest {
+
+    @Test
+    public void answersAClientFailureWithTheHandlersError() {
+        final InMemoryDynamoDbClient timingOut = new InMemoryDynamoDbClient() {
+            @Override
+            public GetItemResponse getItem(GetItemRequest request) {
+                throw SdkClientException.create("Unable to execute HTTP request: Read timed out");
+            }
+        };
+
+        final APIGatewayProxyResponseEvent response = new GetItemHandler(timingOut, Requests.table(),
+                Requests.table("TABLE_NAME", "")).handleRequest(Requests.withId("p1"), null);
+
+        assertEquals(500, (int) response.getStatusCode());
+        assertEquals(Responses.DYNAMODB_EXECUTION_ERROR, response.getBody());
+    }
+
+    @Test
+    public void answersAServiceFailureWithTheHandlersError() {
+        final InMemoryDynamoDbClient failing = new InMemoryDynamoDbClient() {
+            @Override
+            public GetItemResponse getItem(GetItemRequest request) {
+                throw DynamoDbException.builder().message("Attribute name is a reserved keyword; reserved keyword: name").build();
+            }
+        };
+
+        final APIGatewayProxyResponseEvent response = new GetItemHandler(failing, Requests.table(),
+                Requests.table("TABLE_NAME", "")).handleRequest(Requests.withId("p1"), null);
+
+        assertEquals(500, (int) response.getStatusCode());
+        assertEquals(Responses.RESERVED_RESPONSE, response.getBody());
+    }
+
+    @Test
+    public void answersAFailedSegmentOfAParallelScanWithTheHandlersError() {
+        final InMemoryDynamoDbClient timingOut = new InMemoryDynamoDbClient() {
+            @Override
+            public ScanResponse scan(ScanRequest request) {
+                throw SdkClientException.create("Unable to execute HTTP request: Timeout waiting for connection from pool");
+            }
+        };
+
+        final APIGatewayProxyResponseEvent response = new GetItemsHandler(timingOut, Requests.table("SCAN_SEGMENTS", "4"))
+                .handleRequest(Requests.request().withQueryStringParameters(Requests.query("parallel", "true")), null);
+
+        assertEquals(500, (int) response.getStatusCode());
+    }
+}
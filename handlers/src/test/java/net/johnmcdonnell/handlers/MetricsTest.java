@@ -0,0 +1,29 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+public class MetricsTest {
+
+    @Test
+    public void carriesTheInvocationToAnotherThread() {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Metrics.Invocation invocation = Metrics.start("getItems");
+            try {
+                assertSame(invocation, CompletableFuture.supplyAsync(Metrics.carryingInvocation(Metrics::current), executor).join());
+                // The worker is left as it was, so a pooled thread never reports into a finished invocation.
+                assertNull(CompletableFuture.supplyAsync(Metrics::current, executor).join());
+            } finally {
+                invocation.finish(null);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
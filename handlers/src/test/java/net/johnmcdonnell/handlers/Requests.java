@@ -0,0 +1,68 @@
+package net.johnmcdonnell.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Requests and tables for the handler tests, which run against an
+ * {@link net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient}.
+ *
+ * @author John McDonnell
+ */
+final class Requests {
+
+    static final String TABLE_NAME = "products";
+    static final String PRIMARY_KEY = "productId";
+
+    private Requests() {
+    }
+
+    static TableConfig table(String... environment) {
+        final Map<String, String> variables = new HashMap<>();
+        variables.put("TABLE_NAME", TABLE_NAME);
+        variables.put("PRIMARY_KEY", PRIMARY_KEY);
+        for (int i = 0; i < environment.length; i += 2) {
+            variables.put(environment[i], environment[i + 1]);
+        }
+        return TableConfig.fromMap(variables);
+    }
+
+    static APIGatewayProxyRequestEvent request() {
+        return new APIGatewayProxyRequestEvent();
+    }
+
+    static APIGatewayProxyRequestEvent withId(String id) {
+        return request().withPathParameters(Collections.singletonMap("id", id));
+    }
+
+    static Map<String, String> query(String... parameters) {
+        final Map<String, String> query = new HashMap<>();
+        for (int i = 0; i < parameters.length; i += 2) {
+            query.put(parameters[i], parameters[i + 1]);
+        }
+        return query;
+    }
+
+    static Map<String, AttributeValue> item(String id, String... attributes) {
+        final Map<String, AttributeValue> item = new HashMap<>();
+        item.put(PRIMARY_KEY, AttributeValue.builder().s(id).build());
+        for (int i = 0; i < attributes.length; i += 2) {
+            item.put(attributes[i], AttributeValue.builder().s(attributes[i + 1]).build());
+        }
+        return item;
+    }
+
+    static JsonNode json(String body) {
+        try {
+            return Items.parse(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertEquals;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+public class UpdateInventoryHandlerTest {
+
+    private InMemoryDynamoDbClient dynamoDb;
+
+    @Before
+    public void createTable() {
+        dynamoDb = new InMemoryDynamoDbClient().createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY);
+    }
+
+    @Test
+    public void addsAndRemovesStock() {
+        final TableConfig table = Requests.table();
+        final UpdateInventoryHandler handler = new UpdateInventoryHandler(dynamoDb, table);
+
+        assertEquals(204, adjust(handler, "add", 5));
+        assertEquals(204, adjust(handler, "remove", 3));
+        assertEquals(2, stock(table));
+    }
+
+    @Test
+    public void refusesToTakeStockBelowZero() {
+        final TableConfig table = Requests.table();
+        final UpdateInventoryHandler handler = new UpdateInventoryHandler(dynamoDb, table);
+        adjust(handler, "add", 2);
+
+        assertEquals(409, adjust(handler, "remove", 3));
+        assertEquals(2, stock(table));
+    }
+
+    @Test
+    public void drawsARemovalAcrossShards() {
+        final TableConfig table = Requests.table("COUNTER_SHARDS", "4");
+        final UpdateInventoryHandler handler = new UpdateInventoryHandler(dynamoDb, table);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(204, adjust(handler, "add", 1));
+        }
+
+        assertEquals(204, adjust(handler, "remove", 7));
+        assertEquals(3, stock(table));
+        assertEquals(409, adjust(handler, "remove", 4));
+        assertEquals(3, stock(table));
+    }
+
+    @Test
+    public void takesARemovalOneShardCoversFromThatShardAlone() {
+        final TableConfig table = Requests.table("COUNTER_SHARDS", "4");
+        for (int shard = 0; shard < 4; shard++) {
+            putCounter(dynamoDb, InventoryCounters.shardKey("p1", shard), 5);
+        }
+        final List<Map<String, AttributeValue>> counters = InventoryCounters.readShards(dynamoDb, table, "p1", true);
+
+        assertEquals(1, InventoryCounters.planDraws(table, counters, 5).size());
+        assertEquals(2, InventoryCounters.planDraws(table, counters, 6).size());
+    }
+
+    @Test
+    public void drawsStockLeftOnTheUnshardedCounter() {
+        final TableConfig table = Requests.table("COUNTER_SHARDS", "4");
+        putCounter(dynamoDb, "p1", 3);
+        final UpdateInventoryHandler handler = new UpdateInventoryHandler(dynamoDb, table);
+        assertEquals(204, adjust(handler, "add", 1));
+
+        assertEquals(4, stock(table));
+        assertEquals(204, adjust(handler, "remove", 4));
+        assertEquals(0, stock(table));
+    }
+
+    @Test
+    public void answersRetryableWhenShardsKeepChanging() {
+        final TableConfig table = Requests.table("COUNTER_SHARDS", "4");
+        final InMemoryDynamoDbClient contended = new InMemoryDynamoDbClient() {
+            @Override
+            public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+                throw TransactionCanceledException.builder().message("Transaction cancelled").build();
+            }
+        }.createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY);
+        final UpdateInventoryHandler handler = new UpdateInventoryHandler(contended, table);
+        assertEquals(204, adjust(handler, "add", 5));
+
+        final APIGatewayProxyResponseEvent response = handler.handleRequest(Requests.withId("p1")
+                .withBody("{\"action\": \"remove\", \"quantity\": 1}"), null);
+        assertEquals(503, (int) response.getStatusCode());
+        assertEquals("1", response.getHeaders().get("Retry-After"));
+        assertEquals(409, adjust(handler, "remove", 6));
+    }
+
+    @Test
+    public void retriesCountersLeftUnprocessed() {
+        final TableConfig table = Requests.table("COUNTER_SHARDS", "4");
+        final InMemoryDynamoDbClient throttled = new InMemoryDynamoDbClient() {
+            @Override
+            public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+                // Leaves the last key of every multi-key read unprocessed.
+                final KeysAndAttributes read = request.requestItems().get(Requests.TABLE_NAME);
+                if (read.keys().size() < 2) {
+                    return super.batchGetItem(request);
+                }
+                final List<Map<String, AttributeValue>> keys = read.keys();
+                final BatchGetItemResponse response = super.batchGetItem(request.toBuilder()
+                        .requestItems(Collections.singletonMap(Requests.TABLE_NAME,
+                                read.toBuilder().keys(keys.subList(0, keys.size() - 1)).build()))
+                        .build());
+                return response.toBuilder()
+                        .unprocessedKeys(Collections.singletonMap(Requests.TABLE_NAME,
+                                read.toBuilder().keys(keys.subList(keys.size() - 1, keys.size())).build()))
+                        .build();
+            }
+        }.createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY);
+        final UpdateInventoryHandler handler = new UpdateInventoryHandler(throttled, table);
+        for (int shard = 0; shard < 4; shard++) {
+            putCounter(throttled, InventoryCounters.shardKey("p1", shard), 2);
+        }
+
+        assertEquals(8, InventoryCounters.stockOf(InventoryCounters.readCounters(throttled, table,
+                Collections.singleton("p1"), true).get("p1")));
+        assertEquals(204, adjust(handler, "remove", 8));
+    }
+
+    @Test
+    public void rejectsAnInvalidAdjustment() {
+        final UpdateInventoryHandler handler = new UpdateInventoryHandler(dynamoDb, Requests.table());
+
+        for (String body : Arrays.asList("{\"action\": \"take\", \"quantity\": 1}", "{\"action\": \"add\", \"quantity\": 0}",
+                "{\"action\": \"add\", \"quantity\": 1.5}", "{\"action\": \"add\"}")) {
+            assertEquals(400, (int) handler.handleRequest(Requests.withId("p1").withBody(body), null).getStatusCode());
+        }
+    }
+
+    private static int adjust(UpdateInventoryHandler handler, String action, long quantity) {
+        return handler.handleRequest(Requests.withId("p1")
+                .withBody("{\"action\": \"" + action + "\", \"quantity\": " + quantity + "}"), null).getStatusCode();
+    }
+
+    private static void putCounter(InMemoryDynamoDbClient client, String key, long stock) {
+        final Map<String, AttributeValue> counter = new HashMap<>();
+        counter.put(Requests.PRIMARY_KEY, AttributeValue.builder().s(key).build());
+        counter.put(InventoryCounters.STOCK, AttributeValue.builder().n(Long.toString(stock)).build());
+        client.putItem(PutItemRequest.builder().tableName(Requests.TABLE_NAME).item(counter).build());
+    }
+
+    private long stock(TableConfig table) {
+        return InventoryCounters.stockOf(InventoryCounters.readCounters(dynamoDb, table,
+                Collections.singleton("p1"), true).get("p1"));
+    }
+}
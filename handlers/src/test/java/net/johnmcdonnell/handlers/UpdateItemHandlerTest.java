@@ -0,0 +1,64 @@
+package net.johnmcdonnell.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.util.Map;
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+public class UpdateItemHandlerTest {
+
+    private InMemoryDynamoDbClient dynamoDb;
+    private UpdateItemHandler handler;
+
+    @Before
+    public void createTable() {
+        dynamoDb = new InMemoryDynamoDbClient().createTable(Requests.TABLE_NAME, Requests.PRIMARY_KEY);
+        dynamoDb.putItem(PutItemRequest.builder()
+                .tableName(Requests.TABLE_NAME)
+                .item(Requests.item("p1", "name", "Mug", "colour", "red", "updatedAt", "2020-01-01 00:00:00 +00:00"))
+                .build());
+        handler = new UpdateItemHandler(dynamoDb, Requests.table());
+    }
+
+    @Test
+    public void setsEveryAttributeInTheBodyIncludingReservedWords() {
+        final APIGatewayProxyResponseEvent response = handler.handleRequest(Requests.withId("p1")
+                .withBody("{\"name\": \"Cup\", \"size\": 3}"), null);
+
+        assertEquals(204, (int) response.getStatusCode());
+        final Map<String, AttributeValue> item = read("p1");
+        assertEquals("Cup", item.get("name").s());
+        assertEquals("3", item.get("size").n());
+        assertEquals("red", item.get("colour").s());
+        assertNotEquals("2020-01-01 00:00:00 +00:00", item.get("updatedAt").s());
+    }
+
+    @Test
+    public void neverChangesTheKey() {
+        handler.handleRequest(Requests.withId("p1").withBody("{\"productId\": \"p2\", \"name\": \"Cup\"}"), null);
+
+        assertEquals("Cup", read("p1").get("name").s());
+        assertEquals(0, read("p2").size());
+    }
+
+    @Test
+    public void rejectsAnEmptyUpdate() {
+        assertEquals(400, (int) handler.handleRequest(Requests.withId("p1").withBody("{}"), null).getStatusCode());
+        assertEquals(400, (int) handler.handleRequest(Requests.withId("p1"), null).getStatusCode());
+        assertEquals(400, (int) handler.handleRequest(Requests.request().withBody("{\"name\": \"Cup\"}"), null).getStatusCode());
+    }
+
+    private Map<String, AttributeValue> read(String id) {
+        return dynamoDb.getItem(GetItemRequest.builder()
+                .tableName(Requests.TABLE_NAME)
+                .key(Requests.item(id))
+                .build()).item();
+    }
+}
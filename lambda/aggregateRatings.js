@@ -0,0 +1,125 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const PRODUCTS_TABLE_NAME = process.env.PRODUCTS_TABLE_NAME || '';
+const PRODUCTS_PRIMARY_KEY = process.env.PRODUCTS_PRIMARY_KEY || '';
+const EVENTS_TABLE_NAME = process.env.EVENTS_TABLE_NAME || '';
+const EVENTS_PRIMARY_KEY = process.env.EVENTS_PRIMARY_KEY || '';
+
+// Markers only have to outlive the stream's 24 hour retention.
+const MARKER_TTL_SECONDS = 2 * 24 * 60 * 60;
+
+// What one review image contributes to its product's aggregates, if it names a product and carries a rating.
+const contributionOf = (image) => {
+    const review = image ? AWS.DynamoDB.Converter.unmarshall(image) : {};
+    return review.productId && typeof review.rating === 'number' ? {productId: review.productId, rating: review.rating} : undefined;
+};
+
+// An insert adds the new rating, a delete removes the old one and an edit does both,
+// which also covers a review moving to another product.
+const deltasOf = (record) => {
+    const deltas = {};
+    const apply = (contribution, sign) => {
+        if (contribution) {
+            const delta = deltas[contribution.productId] || (deltas[contribution.productId] = {count: 0, sum: 0});
+            delta.count += sign;
+            delta.sum += sign * contribution.rating;
+        }
+    };
+    apply(contributionOf(record.dynamodb.OldImage), -1);
+    apply(contributionOf(record.dynamodb.NewImage), 1);
+    Object.keys(deltas).filter(productId => deltas[productId].count === 0 && deltas[productId].sum === 0)
+            .forEach(productId => delete deltas[productId]);
+    return deltas;
+};
+
+const exists = async (tableName, key) => {
+    const response = await db.get({TableName: tableName, Key: key, ConsistentRead: true}).promise();
+    return response.Item !== undefined;
+};
+
+// The delta and a marker for the event are written together, so a replayed record finds its marker and is skipped.
+const applyDelta = async (eventId, productId, delta) => {
+    const marker = {[EVENTS_PRIMARY_KEY]: `${eventId}#${productId}`};
+    try {
+        await db.transactWrite({
+            TransactItems: [{
+                    Put: {
+                        TableName: EVENTS_TABLE_NAME,
+                        Item: Object.assign({expiresAt: Math.floor(Date.now() / 1000) + MARKER_TTL_SECONDS}, marker),
+                        ConditionExpression: 'attribute_not_exists(#pk)',
+                        ExpressionAttributeNames: {'#pk': EVENTS_PRIMARY_KEY}
+                    }
+                }, {
+                    Update: {
+                        TableName: PRODUCTS_TABLE_NAME,
+                        Key: {[PRODUCTS_PRIMARY_KEY]: productId},
+                        UpdateExpression: 'add #count :count, #sum :sum',
+                        ConditionExpression: 'attribute_exists(#pk)',
+                        ExpressionAttributeNames: {'#pk': PRODUCTS_PRIMARY_KEY, '#count': 'ratingCount', '#sum': 'ratingSum'},
+                        ExpressionAttributeValues: {':count': delta.count, ':sum': delta.sum}
+                    }
+                }]
+        }).promise();
+    } catch (dbError) {
+        if (dbError.code !== 'TransactionCanceledException') {
+            throw dbError;
+        }
+        // Already applied, or the product is gone and there is nothing to rate; otherwise let the batch retry.
+        if (!await exists(EVENTS_TABLE_NAME, marker) && await exists(PRODUCTS_TABLE_NAME, {[PRODUCTS_PRIMARY_KEY]: productId})) {
+            throw dbError;
+        }
+    }
+};
+
+// DynamoDB cannot divide, so the average is written from a consistent read of the totals and only
+// while they are unchanged; if another update got in first, its own refresh writes the average.
+const refreshAverage = async (productId) => {
+    const response = await db.get({
+        TableName: PRODUCTS_TABLE_NAME,
+        Key: {[PRODUCTS_PRIMARY_KEY]: productId},
+        ProjectionExpression: 'ratingCount, ratingSum',
+        ConsistentRead: true
+    }).promise();
+    if (!response.Item || response.Item.ratingCount === undefined) {
+        return;
+    }
+    const {ratingCount, ratingSum} = response.Item;
+    try {
+        await db.update({
+            TableName: PRODUCTS_TABLE_NAME,
+            Key: {[PRODUCTS_PRIMARY_KEY]: productId},
+            UpdateExpression: ratingCount > 0 ? 'set #avg = :avg' : 'remove #avg',
+            ConditionExpression: '#count = :count and #sum = :sum',
+            ExpressionAttributeNames: {'#avg': 'ratingAvg', '#count': 'ratingCount', '#sum': 'ratingSum'},
+            ExpressionAttributeValues: Object.assign({':count': ratingCount, ':sum': ratingSum},
+                    ratingCount > 0 ? {':avg': ratingSum / ratingCount} : {})
+        }).promise();
+    } catch (dbError) {
+        if (dbError.code !== 'ConditionalCheckFailedException') {
+            throw dbError;
+        }
+    }
+};
+
+exports.handler = metrics.instrument('aggregateRatings', async function (event) {
+
+    // Records are applied in order; averages are refreshed once per product, including for
+    // replayed records whose delta was applied by an earlier attempt.
+    const touched = new Set();
+    for (const record of event.Records) {
+        const deltas = deltasOf(record);
+        for (const productId of Object.keys(deltas)) {
+            await applyDelta(record.eventID, productId, deltas[productId]);
+            touched.add(productId);
+        }
+    }
+    for (const productId of touched) {
+        await refreshAverage(productId);
+    }
+});
@@ -0,0 +1,95 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const https = require('https');
+const API_ID = process.env.API_ID || '';
+const API_STAGE = process.env.API_STAGE || '';
+const REGION = process.env.AWS_REGION || '';
+const API_KEY_ID = process.env.API_KEY_ID || '';
+const STAGE_CACHED_ROUTES = (process.env.STAGE_CACHED_ROUTES || '').split(',').filter(route => route);
+// With an item cache, ?consistent=true is part of the stage's cache key, so its entry is refreshed too.
+const VARIANTS = parseInt(process.env.ITEM_CACHE_SIZE || '0', 10) > 0 ? ['', '?consistent=true'] : [''];
+
+const TIMEOUT_MS = 2000;
+
+// Marks a refresh, so getItem reads the item consistently and past its item cache rather than store a stale item
+// for the whole TTL. It is left out of the stage's cache key, so the refreshed entry is the one every reader gets,
+// and it grants nothing ?consistent=true does not.
+const REFRESH_HEADER = 'X-Cache-Refresh';
+
+let apiKey;
+
+// Once the API requires keys the refresh needs one too: the internal key, whose value is read once per container.
+const apiKeyValue = async () => {
+    if (!API_KEY_ID) {
+        return undefined;
+    }
+    if (!apiKey) {
+        apiKey = new AWS.APIGateway().getApiKey({apiKey: API_KEY_ID, includeValue: true}).promise()
+                .then(key => key.value, error => {
+                    apiKey = undefined;
+                    throw error;
+                });
+    }
+    return apiKey;
+};
+
+// Re-fetches GET /{id} with Cache-Control: max-age=0, which makes API Gateway replace the cached response, and
+// REFRESH_HEADER so the item is read fresh.
+// The request is signed, since only callers allowed execute-api:InvalidateCache may bypass the cache, and carries
+// the internal API key once the API requires keys.
+// The environment names the API only when its stage caches responses; otherwise this does nothing.
+// A failure is logged rather than failing the write; the entry then expires with its TTL.
+const refreshItem = async (id) => {
+    if (!API_ID) {
+        return;
+    }
+    await Promise.all(VARIANTS.map(query => refresh(id, query)));
+};
+
+const refresh = async (id, query) => {
+    try {
+        const endpoint = new AWS.Endpoint(`${API_ID}.execute-api.${REGION}.amazonaws.com`);
+        const request = new AWS.HttpRequest(endpoint, REGION);
+        request.method = 'GET';
+        request.path = `/${API_STAGE}/${encodeURIComponent(id)}${query}`;
+        request.headers['Host'] = endpoint.host;
+        request.headers['Cache-Control'] = 'max-age=0';
+        request.headers[REFRESH_HEADER] = 'true';
+        const key = await apiKeyValue();
+        if (key) {
+            request.headers['x-api-key'] = key;
+        }
+        await new Promise((resolve, reject) => AWS.config.getCredentials(error => error ? reject(error) : resolve()));
+        new AWS.Signers.V4(request, 'execute-api').addAuthorization(AWS.config.credentials, new Date());
+
+        const status = await new Promise((resolve, reject) => {
+            https.get({host: endpoint.host, path: request.path, headers: request.headers, timeout: TIMEOUT_MS}, response => {
+                response.resume();
+                response.on('end', () => resolve(response.statusCode));
+            }).on('timeout', function () {
+                this.abort();
+            }).on('error', reject);
+        });
+        // A deleted item refreshes to its not-found response, an empty 200 from getItem.js or GetItemHandler's 404.
+        if (status !== 200 && status !== 404) {
+            console.log(`Could not refresh cached item ${id}${query}: status ${status}`);
+        }
+    } catch (error) {
+        console.log(`Could not refresh cached item ${id}${query}: ${error}`);
+    }
+};
+
+// Whether the request is a refresh sent by refreshItem.
+const isRefresh = (event) => Object.entries(event.headers || {})
+        .some(([name, value]) => name.toLowerCase() === REFRESH_HEADER.toLowerCase() && value === 'true');
+
+// Whether the stage may cache the response to the request: it came through the caching REST API, on a route whose
+// responses are cached. Such a response must not depend on headers left out of the cache key, such as If-None-Match.
+const cachesResponse = (event) => Boolean(API_ID) && (event.requestContext || {}).apiId === API_ID
+        && STAGE_CACHED_ROUTES.includes(`${event.httpMethod} ${event.resource}`);
+
+module.exports = {refreshItem, isRefresh, cachesResponse};
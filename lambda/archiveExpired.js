@@ -0,0 +1,62 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const zlib = require('zlib');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const s3 = new AWS.S3();
+const batch = require('./batch');
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const ARCHIVE_TABLE_NAME = process.env.ARCHIVE_TABLE_NAME || '';
+const ARCHIVE_BUCKET = process.env.ARCHIVE_BUCKET || '';
+
+const BATCH_WRITE_LIMIT = 25;
+
+// Only deletes made by the TTL process are archived; an item a client deletes is meant to be gone.
+const isExpiry = (record) => record.eventName === 'REMOVE' && record.userIdentity
+        && record.userIdentity.type === 'Service' && record.userIdentity.principalId === 'dynamodb.amazonaws.com';
+
+const toArchiveTable = async (items) => {
+    await Promise.all(batch.chunk(items, BATCH_WRITE_LIMIT).map(async chunk => {
+        const unprocessed = await batch.untilProcessed(chunk.map(item => ({PutRequest: {Item: item}})), async requests => {
+            const response = await db.batchWrite({RequestItems: {[ARCHIVE_TABLE_NAME]: requests}}).promise();
+            return (response.UnprocessedItems || {})[ARCHIVE_TABLE_NAME] || [];
+        });
+        if (unprocessed.length > 0) {
+            throw new Error(`${unprocessed.length} expired items were not archived`);
+        }
+    }));
+};
+
+// One gzipped NDJSON object per batch, named after the day and the batch's sequence numbers, so a retried batch
+// overwrites its own object rather than archiving the items twice.
+const toArchiveBucket = async (items, records) => {
+    const sequenceNumbers = records.map(record => record.dynamodb.SequenceNumber);
+    const day = new Date(records[0].dynamodb.ApproximateCreationDateTime * 1000).toISOString().substring(0, 10);
+    await s3.putObject({
+        Bucket: ARCHIVE_BUCKET,
+        Key: `${TABLE_NAME}/${day}/${sequenceNumbers[0]}-${sequenceNumbers[sequenceNumbers.length - 1]}.ndjson.gz`,
+        Body: zlib.gzipSync(items.map(item => JSON.stringify(item)).join('\n') + '\n'),
+        ContentType: 'application/x-ndjson',
+        ContentEncoding: 'gzip'
+    }).promise();
+};
+
+// Copies the items that expired from the table to its archive, from the old images of the table's stream.
+// Writing an item again is harmless, so a retried batch needs no idempotency marker.
+exports.handler = metrics.instrument('archiveExpired', async function (event) {
+
+    const records = event.Records.filter(record => isExpiry(record) && record.dynamodb.OldImage);
+    if (records.length === 0) {
+        return;
+    }
+    const items = records.map(record => AWS.DynamoDB.Converter.unmarshall(record.dynamodb.OldImage));
+    if (ARCHIVE_TABLE_NAME) {
+        await toArchiveTable(items);
+    } else {
+        await toArchiveBucket(items, records);
+    }
+});
@@ -0,0 +1,34 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+// Helpers shared by the batch handlers, which split requests to DynamoDB's batch limits
+// and retry whatever DynamoDB hands back unprocessed.
+
+const MAX_ATTEMPTS = 6,
+        BASE_DELAY_MS = 50,
+        MAX_DELAY_MS = 1000;
+
+const chunk = (items, size) => Array.from({length: Math.ceil(items.length / size)},
+        (value, index) => items.slice(index * size, (index + 1) * size));
+
+// Exponential backoff with full jitter, so retries from concurrent chunks do not line up.
+const backoff = (attempt) => new Promise(resolve =>
+    setTimeout(resolve, Math.random() * Math.min(MAX_DELAY_MS, BASE_DELAY_MS * Math.pow(2, attempt))));
+
+// Calls `send` with the pending requests until none are returned unprocessed or the attempts run out,
+// and resolves to whatever is still unprocessed.
+const untilProcessed = async (requests, send) => {
+    let pending = requests;
+    for (let attempt = 0; pending.length > 0 && attempt < MAX_ATTEMPTS; attempt++) {
+        if (attempt > 0) {
+            await backoff(attempt);
+        }
+        pending = await send(pending);
+    }
+    return pending;
+};
+
+module.exports = {chunk, untilProcessed};
@@ -0,0 +1,56 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const batch = require('./batch');
+const requestSchema = require('./requestSchema');
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+
+const BATCH_GET_LIMIT = 100,
+        MAX_IDS = 500;
+
+const INVALID_REQUEST = `invalid request, ids must be a list of between 1 and ${MAX_IDS} ids`,
+        DYNAMODB_EXECUTION_ERROR = `Error: Execution update, caused a Dynamodb error, please take a look at your CloudWatch Logs.`;
+
+exports.handler = metrics.instrument('batchGetItems', async function (event) {
+
+    if (!event.body) {
+        return {statusCode: 400, body: 'invalid request, you are missing the parameter body'};
+    }
+    const request = typeof event.body == 'object' ? event.body : JSON.parse(event.body);
+    const invalidBody = requestSchema.check('batchGetItems', request);
+    if (invalidBody) {
+        return invalidBody;
+    }
+    if (!Array.isArray(request.ids) || request.ids.length === 0 || request.ids.length > MAX_IDS
+            || !request.ids.every(id => typeof id === 'string' && id.length > 0)) {
+        return {statusCode: 400, body: INVALID_REQUEST};
+    }
+
+    // DynamoDB rejects a batch that names a key twice.
+    const ids = [...new Set(request.ids)];
+    const found = {}, unprocessed = new Set();
+    try {
+        await Promise.all(batch.chunk(ids, BATCH_GET_LIMIT).map(async chunk => {
+            const remaining = await batch.untilProcessed(chunk.map(id => ({[PRIMARY_KEY]: id})), async keys => {
+                const response = await db.batchGet({RequestItems: {[TABLE_NAME]: {Keys: keys}}}).promise();
+                response.Responses[TABLE_NAME].forEach(item => found[item[PRIMARY_KEY]] = item);
+                const unprocessedKeys = response.UnprocessedKeys[TABLE_NAME];
+                return unprocessedKeys ? unprocessedKeys.Keys : [];
+            });
+            remaining.forEach(key => unprocessed.add(key[PRIMARY_KEY]));
+        }));
+    } catch (dbError) {
+        return {statusCode: 500, body: DYNAMODB_EXECUTION_ERROR};
+    }
+
+    // One result per requested id, in request order.
+    const items = request.ids.map(id => found[id] ? {id, status: 200, item: found[id]}
+            : {id, status: unprocessed.has(id) ? 503 : 404});
+    return {statusCode: 200, body: JSON.stringify({items})};
+});
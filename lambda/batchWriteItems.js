@@ -0,0 +1,78 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const uuidv4 = require('uuid/v4');
+const moment = require('moment');
+const batch = require('./batch');
+const requestSchema = require('./requestSchema');
+const ttl = require('./ttl');
+const apiCache = require('./apiCache');
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+
+const BATCH_WRITE_LIMIT = 25,
+        MAX_WRITES = 200;
+
+const INVALID_REQUEST = `invalid request, put must be a list of at most ${MAX_WRITES} items and delete a list of at most ${MAX_WRITES} ids`,
+        NO_WRITES = 'invalid request, no arguments provided',
+        RESERVED_RESPONSE = `Error: You're using AWS reserved keywords as attributes`,
+        DYNAMODB_EXECUTION_ERROR = `Error: Execution update, caused a Dynamodb error, please take a look at your CloudWatch Logs.`;
+
+const keyOf = (request) => request.PutRequest ? request.PutRequest.Item[PRIMARY_KEY] : request.DeleteRequest.Key[PRIMARY_KEY];
+
+exports.handler = metrics.instrument('batchWriteItems', async function (event) {
+
+    if (!event.body) {
+        return {statusCode: 400, body: 'invalid request, you are missing the parameter body'};
+    }
+    const request = typeof event.body == 'object' ? event.body : JSON.parse(event.body);
+    const invalidBody = requestSchema.check('batchWriteItems', request);
+    if (invalidBody) {
+        return invalidBody;
+    }
+    const puts = request.put || [], deletes = request.delete || [];
+    if (!Array.isArray(puts) || puts.length > MAX_WRITES || !puts.every(item => item && typeof item === 'object' && !Array.isArray(item))
+            || !Array.isArray(deletes) || deletes.length > MAX_WRITES || !deletes.every(id => typeof id === 'string' && id.length > 0)) {
+        return {statusCode: 400, body: INVALID_REQUEST};
+    }
+    if (puts.length === 0 && deletes.length === 0) {
+        return {statusCode: 400, body: NO_WRITES};
+    }
+
+    // Every put creates a new item, as POST / does; deletes are deduplicated since DynamoDB rejects repeated keys.
+    const now = moment().format('YYYY-MM-DD HH:mm:ss Z');
+    const items = puts.map(item => ttl.stamp(Object.assign({}, item, {[PRIMARY_KEY]: uuidv4(), createdAt: now, updatedAt: now})));
+    const requests = items.map(item => ({PutRequest: {Item: item}}))
+            .concat([...new Set(deletes)].map(id => ({DeleteRequest: {Key: {[PRIMARY_KEY]: id}}})));
+
+    const unprocessed = new Set();
+    try {
+        await Promise.all(batch.chunk(requests, BATCH_WRITE_LIMIT).map(async chunk => {
+            const remaining = await batch.untilProcessed(chunk, async writes => {
+                const response = await db.batchWrite({RequestItems: {[TABLE_NAME]: writes}}).promise();
+                return response.UnprocessedItems[TABLE_NAME] || [];
+            });
+            remaining.forEach(write => unprocessed.add(keyOf(write)));
+        }));
+    } catch (dbError) {
+        const errorResponse = dbError.code === 'ValidationException' && dbError.message.includes('reserved keyword') ?
+                RESERVED_RESPONSE : DYNAMODB_EXECUTION_ERROR;
+        return {statusCode: 500, body: errorResponse};
+    }
+    // Puts create new ids, so only deleted items can have a cached GET /{id} to refresh, as deleteItem.js does.
+    await Promise.all([...new Set(deletes)].filter(id => !unprocessed.has(id)).map(apiCache.refreshItem));
+
+    // One result per requested write, in request order.
+    return {
+        statusCode: 200,
+        body: JSON.stringify({
+            put: items.map(item => ({id: item[PRIMARY_KEY], status: unprocessed.has(item[PRIMARY_KEY]) ? 503 : 201})),
+            delete: deletes.map(id => ({id, status: unprocessed.has(id) ? 503 : 204}))
+        })
+    };
+});
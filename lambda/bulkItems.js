@@ -0,0 +1,76 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+// Starts bulk transfers of the whole table through its bucket, so full-table consumers do not page through the API.
+// POST /export starts a snapshot and answers with the URL it will be served from; POST /import answers with a URL
+// to upload NDJSON to, one item per line, which importItems.js then writes to the table at a bounded rate.
+const AWS = require('aws-sdk');
+const crypto = require('crypto');
+const metrics = require('./metrics');
+const s3 = new AWS.S3({signatureVersion: 'v4'});
+const lambda = new AWS.Lambda();
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const BULK_BUCKET = process.env.BULK_BUCKET || '';
+const EXPORT_FUNCTION_NAME = process.env.EXPORT_FUNCTION_NAME || '';
+const URL_TTL_SECONDS = parseInt(process.env.URL_TTL_SECONDS || '3600', 10);
+
+const transferId = () => `${new Date().toISOString().replace(/[-:.]/g, '')}-${crypto.randomBytes(4).toString('hex')}`;
+
+const expiresAt = () => new Date(Date.now() + URL_TTL_SECONDS * 1000).toISOString();
+
+const accepted = (statusCode, body) => ({
+    statusCode,
+    headers: {'Content-Type': 'application/json'},
+    body: JSON.stringify(body)
+});
+
+// The object does not exist until the export function has written it; its URL answers 404 until then.
+const startExport = async () => {
+    const exportId = transferId();
+    const key = `exports/${TABLE_NAME}/${exportId}.ndjson.gz`;
+    await lambda.invoke({
+        FunctionName: EXPORT_FUNCTION_NAME,
+        InvocationType: 'Event',
+        Payload: JSON.stringify({key})
+    }).promise();
+    return accepted(202, {
+        exportId,
+        url: s3.getSignedUrl('getObject', {Bucket: BULK_BUCKET, Key: key, Expires: URL_TTL_SECONDS}),
+        expiresAt: expiresAt()
+    });
+};
+
+// An upload may be gzipped if it is sent with Content-Encoding: gzip. The report URL answers 404 until the
+// import has finished.
+const startImport = async () => {
+    const importId = transferId();
+    return accepted(201, {
+        importId,
+        uploadUrl: s3.getSignedUrl('putObject', {
+            Bucket: BULK_BUCKET,
+            Key: `imports/${TABLE_NAME}/${importId}.ndjson`,
+            Expires: URL_TTL_SECONDS
+        }),
+        reportUrl: s3.getSignedUrl('getObject', {
+            Bucket: BULK_BUCKET,
+            Key: `reports/${TABLE_NAME}/${importId}.json`,
+            Expires: URL_TTL_SECONDS
+        }),
+        expiresAt: expiresAt()
+    });
+};
+
+exports.handler = metrics.instrument('bulkItems', async function (event) {
+
+    try {
+        if (event.resource === '/export') {
+            return await startExport();
+        }
+        return await startImport();
+    } catch (error) {
+        console.error(error);
+        return {statusCode: 500, body: 'Error: the bulk transfer could not be started, please take a look at your CloudWatch Logs.'};
+    }
+});
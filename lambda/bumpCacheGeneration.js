@@ -0,0 +1,30 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const itemCache = require('./itemCache');
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const ITEM_CACHE_GENERATIONS_TABLE = process.env.ITEM_CACHE_GENERATIONS_TABLE || '';
+
+// One bump per bucket the batch wrote to is enough for getItem containers to drop the cached items in it.
+// Bumping again when a batch is retried only costs them an extra refill, so no idempotency marker is needed.
+exports.handler = metrics.instrument('bumpCacheGeneration', async function (event) {
+
+    const attributes = [...new Set(event.Records.map(record =>
+            itemCache.generationAttribute(String(AWS.DynamoDB.Converter.unmarshall(record.dynamodb.Keys)[PRIMARY_KEY]))))];
+    if (attributes.length === 0) {
+        return;
+    }
+    await db.update({
+        TableName: ITEM_CACHE_GENERATIONS_TABLE,
+        Key: {tableName: TABLE_NAME},
+        UpdateExpression: 'add ' + attributes.map((attribute, i) => `#generation${i} :one`).join(', '),
+        ExpressionAttributeNames: Object.assign({}, ...attributes.map((attribute, i) => ({[`#generation${i}`]: attribute}))),
+        ExpressionAttributeValues: {':one': 1}
+    }).promise();
+});
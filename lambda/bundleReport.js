@@ -0,0 +1,92 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+// Reports what each function ships and how long its cold starts take.
+//
+//   npm run report                         bundle sizes against the whole lambda/ folder every function used to ship
+//   npm run report -- --init 2020-01-20T10:00:00Z [--until 2020-01-20T11:00:00Z]
+//                                          Init Duration per function from its REPORT log lines in that window
+//
+// Run the init report once for a window before deploying the bundles and once for a window after.
+const fs = require('fs');
+const path = require('path');
+const zlib = require('zlib');
+
+const DIST = path.join(__dirname, 'dist');
+
+const sizeOf = (target, skip = []) => fs.statSync(target).isDirectory()
+        ? fs.readdirSync(target)
+                .filter(entry => !skip.includes(entry))
+                .map(entry => sizeOf(path.join(target, entry)))
+                .reduce((total, size) => ({bytes: total.bytes + size.bytes, gzipped: total.gzipped + size.gzipped}), {bytes: 0, gzipped: 0})
+        : {bytes: fs.statSync(target).size, gzipped: zlib.gzipSync(fs.readFileSync(target)).length};
+
+const kb = bytes => (bytes / 1024).toFixed(1).padStart(9);
+
+const sizes = () => {
+    if (!fs.existsSync(DIST)) {
+        throw new Error('No bundles in dist/, run npm run build first');
+    }
+    const folder = sizeOf(__dirname, ['dist']);
+    console.log(`${'bundle'.padEnd(22)}${'KB'.padStart(9)}${'gzip KB'.padStart(9)}${'of folder'.padStart(11)}`);
+    console.log(`${'(whole lambda/)'.padEnd(22)}${kb(folder.bytes)}${kb(folder.gzipped)}${'100.0%'.padStart(11)}`);
+    fs.readdirSync(DIST).sort().forEach(name => {
+        const bundle = sizeOf(path.join(DIST, name));
+        console.log(`${name.padEnd(22)}${kb(bundle.bytes)}${kb(bundle.gzipped)}${`${(100 * bundle.bytes / folder.bytes).toFixed(1)}%`.padStart(11)}`);
+    });
+};
+
+const percentile = (sorted, p) => sorted[Math.min(sorted.length - 1, Math.ceil(p / 100 * sorted.length) - 1)];
+
+const initDurations = async (since, until) => {
+    const AWS = require('aws-sdk');
+    const logs = new AWS.CloudWatchLogs();
+    const groups = [];
+    let nextToken;
+    do {
+        const page = await logs.describeLogGroups({logGroupNamePrefix: '/aws/lambda/', nextToken}).promise();
+        groups.push(...page.logGroups.map(group => group.logGroupName));
+        nextToken = page.nextToken;
+    } while (nextToken);
+
+    console.log(`${'function'.padEnd(36)}${'cold'.padStart(6)}${'p50 ms'.padStart(9)}${'p99 ms'.padStart(9)}${'max ms'.padStart(9)}`);
+    for (const group of groups) {
+        const durations = [];
+        let eventsToken;
+        do {
+            const page = await logs.filterLogEvents({
+                logGroupName: group,
+                startTime: since.getTime(),
+                endTime: until.getTime(),
+                filterPattern: '"Init Duration"',
+                nextToken: eventsToken
+            }).promise();
+            page.events.forEach(event => {
+                const match = /Init Duration: ([\d.]+) ms/.exec(event.message);
+                if (match) {
+                    durations.push(Number(match[1]));
+                }
+            });
+            eventsToken = page.nextToken;
+        } while (eventsToken);
+        if (durations.length) {
+            durations.sort((a, b) => a - b);
+            console.log(`${group.substring('/aws/lambda/'.length).padEnd(36)}${String(durations.length).padStart(6)}`
+                    + `${percentile(durations, 50).toFixed(0).padStart(9)}${percentile(durations, 99).toFixed(0).padStart(9)}`
+                    + `${durations[durations.length - 1].toFixed(0).padStart(9)}`);
+        }
+    }
+};
+
+const args = process.argv.slice(2);
+const option = name => args.includes(name) ? args[args.indexOf(name) + 1] : undefined;
+
+(option('--init')
+        ? initDurations(new Date(option('--init')), option('--until') ? new Date(option('--until')) : new Date())
+        : Promise.resolve(sizes()))
+        .catch(err => {
+            console.error(err.message);
+            process.exitCode = 1;
+        });
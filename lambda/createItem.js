@@ -4,24 +4,32 @@
  * and open the template in the editor.
  */
 const AWS = require('aws-sdk');
-const db = new AWS.DynamoDB.DocumentClient();
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
 const uuidv4 = require('uuid/v4');
 const moment = require('moment');
+const requestSchema = require('./requestSchema');
+const ttl = require('./ttl');
 const TABLE_NAME = process.env.TABLE_NAME || '';
 const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
 
 const RESERVED_RESPONSE = `Error: You're using AWS reserved keywords as attributes`,
         DYNAMODB_EXECUTION_ERROR = `Error: Execution update, caused a Dynamodb error, please take a look at your CloudWatch Logs.`;
 
-exports.handler = async function (event) {
+exports.handler = metrics.instrument('createItem', async function (event) {
 
     if (!event.body) {
         return {statusCode: 400, body: 'invalid request, you are missing the parameter body'};
     }
     const item = typeof event.body == 'object' ? event.body : JSON.parse(event.body);
+    const invalidBody = requestSchema.check('createItem', item);
+    if (invalidBody) {
+        return invalidBody;
+    }
     item[PRIMARY_KEY] = uuidv4();
     item['createdAt'] = moment().format('YYYY-MM-DD HH:mm:ss Z');
     item['updatedAt'] = moment().format('YYYY-MM-DD HH:mm:ss Z');
+    ttl.stamp(item);
 
     const params = {
         TableName: TABLE_NAME,
@@ -36,4 +44,4 @@ exports.handler = async function (event) {
                 RESERVED_RESPONSE : DYNAMODB_EXECUTION_ERROR;
         return {statusCode: 500, body: errorResponse};
     }
-};
+});
@@ -0,0 +1,55 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const uuidv4 = require('uuid/v4');
+const moment = require('moment');
+const orders = require('./orders');
+const requestSchema = require('./requestSchema');
+const ttl = require('./ttl');
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+
+const INSUFFICIENT_STOCK = `Error: Insufficient stock`,
+        STOCK_CONTENDED = `Error: Stock is changing too quickly, please retry`,
+        RESERVED_RESPONSE = `Error: You're using AWS reserved keywords as attributes`,
+        DYNAMODB_EXECUTION_ERROR = `Error: Execution update, caused a Dynamodb error, please take a look at your CloudWatch Logs.`;
+
+exports.handler = metrics.instrument('createOrder', async function (event) {
+
+    if (!event.body) {
+        return {statusCode: 400, body: 'invalid request, you are missing the parameter body'};
+    }
+    const item = typeof event.body == 'object' ? event.body : JSON.parse(event.body);
+    const invalidBody = requestSchema.check('createItem', item);
+    if (invalidBody) {
+        return invalidBody;
+    }
+    const invalidReason = orders.invalidReason(item);
+    if (invalidReason) {
+        return {statusCode: 400, body: invalidReason};
+    }
+
+    item[PRIMARY_KEY] = uuidv4();
+    item['createdAt'] = moment().format('YYYY-MM-DD HH:mm:ss Z');
+    item['updatedAt'] = item['createdAt'];
+    ttl.stamp(item);
+
+    try {
+        const result = await orders.place(db, item);
+        if (result.short) {
+            return {statusCode: 409, body: JSON.stringify({message: INSUFFICIENT_STOCK, productIds: result.short})};
+        }
+        if (result.contended) {
+            return {statusCode: 503, headers: {'Retry-After': '1'}, body: STOCK_CONTENDED};
+        }
+        return {statusCode: 201, body: JSON.stringify({[PRIMARY_KEY]: item[PRIMARY_KEY]})};
+    } catch (dbError) {
+        const errorResponse = dbError.code === 'ValidationException' && dbError.message.includes('reserved keyword') ?
+                RESERVED_RESPONSE : DYNAMODB_EXECUTION_ERROR;
+        return {statusCode: 500, body: errorResponse};
+    }
+});
@@ -4,11 +4,13 @@
  * and open the template in the editor.
  */
 const AWS = require('aws-sdk');
-const db = new AWS.DynamoDB.DocumentClient();
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
 const TABLE_NAME = process.env.TABLE_NAME || '';
 const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const apiCache = require('./apiCache');
 
-exports.handler = async function (event) {
+exports.handler = metrics.instrument('deleteItem', async function (event) {
 
     const requestedItemId = event.pathParameters.id;
     if (!requestedItemId) {
@@ -24,8 +26,9 @@ exports.handler = async function (event) {
 
     try {
         await db.delete(params).promise();
+        await apiCache.refreshItem(requestedItemId);
         return {statusCode: 200, body: ''};
     } catch (dbError) {
         return {statusCode: 500, body: JSON.stringify(dbError)};
     }
-};
+});
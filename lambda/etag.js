@@ -0,0 +1,35 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const crypto = require('crypto');
+const apiCache = require('./apiCache');
+
+// Hashed from the body rather than taken from updatedAt, which only has one second of precision and is not
+// touched by the counters other functions keep on an item, such as its rating totals.
+const etagOf = (body) => `"${crypto.createHash('sha1').update(body).digest('base64').replace(/=+$/, '')}"`;
+
+const ifNoneMatch = (event) => {
+    const headers = event.headers || {};
+    const name = Object.keys(headers).find(candidate => candidate.toLowerCase() === 'if-none-match');
+    return name ? headers[name] : undefined;
+};
+
+const matches = (header, etag) => header.split(',')
+        .map(candidate => candidate.trim().replace(/^W\//, ''))
+        .some(candidate => candidate === '*' || candidate === etag);
+
+// A 200 carrying the body's ETag, or a 304 without the body when the client already holds it. A response the stage
+// may cache is always the 200, as the cache would replay a 304 to clients that do not hold the body.
+const ok = (event, headers, body) => {
+    const etag = etagOf(body);
+    const header = ifNoneMatch(event);
+    const responseHeaders = Object.assign({}, headers, {ETag: etag});
+    if (header && matches(header, etag) && !apiCache.cachesResponse(event)) {
+        return {statusCode: 304, headers: responseHeaders, body: ''};
+    }
+    return {statusCode: 200, headers: responseHeaders, body};
+};
+
+module.exports = {etagOf, ok};
@@ -0,0 +1,80 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const batch = require('./batch');
+const PRODUCTS_TABLE_NAME = process.env.PRODUCTS_TABLE_NAME || '';
+const PRODUCTS_PRIMARY_KEY = process.env.PRODUCTS_PRIMARY_KEY || '';
+const PRODUCTS_FIELDS = (process.env.PRODUCTS_FIELDS || '').split(',').filter(field => field);
+
+// Products are matched back to their lines by key, so a projection always includes it.
+const PRODUCT_PROJECTION = PRODUCTS_FIELDS.length && !PRODUCTS_FIELDS.includes(PRODUCTS_PRIMARY_KEY)
+        ? [PRODUCTS_PRIMARY_KEY].concat(PRODUCTS_FIELDS) : PRODUCTS_FIELDS;
+
+const BATCH_GET_LIMIT = 100;
+
+// What ?expand= may name: the products an order lists, when the function can read the products table.
+const EXPANSIONS = PRODUCTS_TABLE_NAME ? ['products'] : [];
+
+// The expansions asked for, undefined when none were, or {invalid} naming any this function cannot make.
+const parse = (query) => {
+    if (query.expand === undefined) {
+        return undefined;
+    }
+    const requested = [...new Set(query.expand.split(',').map(name => name.trim()).filter(name => name))];
+    const invalid = requested.filter(name => !EXPANSIONS.includes(name));
+    if (invalid.length || !requested.length) {
+        return {invalid};
+    }
+    return {names: requested};
+};
+
+const invalidResponse = (expansion) => ({
+    statusCode: 400,
+    body: JSON.stringify({
+        message: EXPANSIONS.length ? `Error: expand must be ${EXPANSIONS.join(', ')}` : 'Error: nothing can be expanded here',
+        expand: expansion.invalid
+    })
+});
+
+// Reads every product the order lists, each once, in one BatchGetItem per hundred products, projected to the
+// product fields that are readable. Resolves to one entry per line of productIds, null where the product is gone.
+const products = async (db, order) => {
+    const productIds = Array.isArray(order.productIds) ? order.productIds : [];
+    const found = {};
+    const projection = {};
+    PRODUCT_PROJECTION.forEach((field, position) => projection[`#p${position}`] = field);
+    await Promise.all(batch.chunk([...new Set(productIds)], BATCH_GET_LIMIT).map(async chunk => {
+        const remaining = await batch.untilProcessed(chunk.map(id => ({[PRODUCTS_PRIMARY_KEY]: id})), async keys => {
+            const response = await db.batchGet({
+                RequestItems: {
+                    [PRODUCTS_TABLE_NAME]: PRODUCT_PROJECTION.length
+                            ? {Keys: keys, ProjectionExpression: Object.keys(projection).join(', '), ExpressionAttributeNames: projection}
+                            : {Keys: keys}
+                }
+            }).promise();
+            response.Responses[PRODUCTS_TABLE_NAME].forEach(product => found[product[PRODUCTS_PRIMARY_KEY]] = product);
+            const unprocessedKeys = response.UnprocessedKeys[PRODUCTS_TABLE_NAME];
+            return unprocessedKeys ? unprocessedKeys.Keys : [];
+        });
+        if (remaining.length > 0) {
+            throw new Error(`${remaining.length} products were left unprocessed`);
+        }
+    }));
+    return productIds.map(id => found[id] || null);
+};
+
+// The item as read, with what the expansion asked for merged in.
+const apply = async (db, item, body, expansion) => {
+    if (!expansion) {
+        return body;
+    }
+    const expanded = Object.assign({}, body);
+    if (expansion.names.includes('products')) {
+        expanded.products = await products(db, item);
+    }
+    return expanded;
+};
+
+module.exports = {parse, invalidResponse, apply};
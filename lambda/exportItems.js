@@ -0,0 +1,82 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+// Writes a snapshot of the table to the bucket as gzipped NDJSON, one item per line, for the export bulkItems.js
+// started. The table's SCAN_SEGMENTS are scanned in parallel into one stream that is uploaded in parts as it is
+// compressed, so neither the items nor the object are ever held in memory whole.
+const AWS = require('aws-sdk');
+const zlib = require('zlib');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const s3 = new AWS.S3();
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const SCAN_SEGMENTS = parseInt(process.env.SCAN_SEGMENTS || '1', 10);
+const BULK_BUCKET = process.env.BULK_BUCKET || '';
+
+const PART_SIZE = 8 * 1024 * 1024;
+
+// Resolves once the stream has room for more, so a fast scan waits for the upload rather than buffering the table.
+const write = (stream, chunk) => new Promise((resolve, reject) => {
+    if (stream.write(chunk)) {
+        resolve();
+        return;
+    }
+    const drained = () => {
+        stream.removeListener('error', failed);
+        resolve();
+    };
+    const failed = (error) => {
+        stream.removeListener('drain', drained);
+        reject(error);
+    };
+    stream.once('drain', drained);
+    stream.once('error', failed);
+});
+
+const scanSegment = async (segment, gzip) => {
+    let count = 0;
+    let exclusiveStartKey;
+    do {
+        const page = await db.scan({
+            TableName: TABLE_NAME,
+            Segment: segment,
+            TotalSegments: SCAN_SEGMENTS,
+            ExclusiveStartKey: exclusiveStartKey
+        }).promise();
+        if (page.Items.length > 0) {
+            await write(gzip, page.Items.map(item => JSON.stringify(item)).join('\n') + '\n');
+        }
+        count += page.Items.length;
+        exclusiveStartKey = page.LastEvaluatedKey;
+    } while (exclusiveStartKey);
+    return count;
+};
+
+exports.handler = metrics.instrument('exportItems', async function (event) {
+
+    const gzip = zlib.createGzip();
+    const upload = s3.upload({
+        Bucket: BULK_BUCKET,
+        Key: event.key,
+        Body: gzip,
+        ContentType: 'application/x-ndjson',
+        ContentEncoding: 'gzip'
+    }, {partSize: PART_SIZE, queueSize: 4});
+    const uploaded = upload.promise();
+
+    let counts;
+    try {
+        counts = await Promise.all(Array.from({length: SCAN_SEGMENTS}, (value, segment) => scanSegment(segment, gzip)));
+    } catch (error) {
+        // Abandons the upload and its parts, so no partial snapshot is ever served.
+        upload.abort();
+        gzip.destroy();
+        await uploaded.catch(() => undefined);
+        throw error;
+    }
+    gzip.end();
+    await uploaded;
+    console.log(JSON.stringify({key: event.key, items: counts.reduce((total, count) => total + count, 0)}));
+});
@@ -0,0 +1,55 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const FIELDS = (process.env.FIELDS || '').split(',').filter(field => field);
+
+// The attributes named in ?fields=, always with the primary key so list entries can still be told apart.
+// Returns undefined when the request did not ask for a subset, and {invalid} naming any unknown attributes.
+const parse = (query) => {
+    if (query.fields === undefined) {
+        return undefined;
+    }
+    const requested = [...new Set(query.fields.split(',').map(field => field.trim()).filter(field => field))];
+    const invalid = requested.filter(field => !FIELDS.includes(field));
+    if (invalid.length || !requested.length) {
+        return {invalid};
+    }
+    return {names: requested.includes(PRIMARY_KEY) ? requested : [PRIMARY_KEY].concat(requested)};
+};
+
+const invalidResponse = (selection) => ({
+    statusCode: 400,
+    body: JSON.stringify({
+        message: `Error: fields must be a comma separated list of ${FIELDS.join(', ')}`,
+        fields: selection.invalid
+    })
+});
+
+// Adds a ProjectionExpression for the selected fields to DocumentClient params, merging attribute names
+// with any the params already use.
+const project = (params, selection) => {
+    if (!selection) {
+        return params;
+    }
+    const names = {};
+    selection.names.forEach((field, position) => names[`#f${position}`] = field);
+    return Object.assign(params, {
+        ProjectionExpression: Object.keys(names).join(', '),
+        ExpressionAttributeNames: Object.assign({}, params.ExpressionAttributeNames, names)
+    });
+};
+
+// The selected fields of an item already read in full.
+const pick = (item, selection) => {
+    if (!selection) {
+        return item;
+    }
+    const picked = {};
+    selection.names.filter(field => item[field] !== undefined).forEach(field => picked[field] = item[field]);
+    return picked;
+};
+
+module.exports = {parse, invalidResponse, project, pick};
@@ -0,0 +1,45 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const COUNTER_SHARDS = parseInt(process.env.COUNTER_SHARDS || '1', 10);
+const inventory = require('./inventory');
+
+// With sharded counters a product's stock is the sum of its shard items, read in one batch.
+const readSharded = async (productId) => {
+    const shards = (await inventory.readCounters(db, TABLE_NAME, PRIMARY_KEY, COUNTER_SHARDS, [productId], false))[productId];
+    if (shards.length === 0) {
+        return undefined;
+    }
+    return {
+        [PRIMARY_KEY]: productId,
+        stock: inventory.stockOf(shards),
+        updatedAt: shards.map(shard => shard.updatedAt).sort().pop()
+    };
+};
+
+exports.handler = metrics.instrument('getInventory', async function (event) {
+
+    const requestedItemId = event.pathParameters.id;
+    if (!requestedItemId) {
+        return {statusCode: 400, body: `Error: You are missing the path parameter id`};
+    }
+
+    try {
+        const item = COUNTER_SHARDS > 1
+                ? await readSharded(requestedItemId)
+                : (await db.get({TableName: TABLE_NAME, Key: {[PRIMARY_KEY]: requestedItemId}}).promise()).Item;
+        if (!item) {
+            return {statusCode: 404, body: `Error: Item not found`};
+        }
+        return {statusCode: 200, body: JSON.stringify(item)};
+    } catch (dbError) {
+        return {statusCode: 500, body: JSON.stringify(dbError)};
+    }
+});
@@ -4,28 +4,112 @@
  * and open the template in the editor.
  */
 const AWS = require('aws-sdk');
-const db = new AWS.DynamoDB.DocumentClient();
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const {ItemCache, generationAttribute} = require('./itemCache');
+const etag = require('./etag');
+const fields = require('./fields');
+const expand = require('./expand');
+const apiCache = require('./apiCache');
 const TABLE_NAME = process.env.TABLE_NAME || '';
 const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const ITEM_CACHE_SIZE = parseInt(process.env.ITEM_CACHE_SIZE || '0', 10);
+const ITEM_CACHE_TTL_SECONDS = parseInt(process.env.ITEM_CACHE_TTL_SECONDS || '0', 10);
+const ITEM_CACHE_CHECK_SECONDS = parseInt(process.env.ITEM_CACHE_CHECK_SECONDS || '0', 10);
+const ITEM_CACHE_GENERATIONS_TABLE = process.env.ITEM_CACHE_GENERATIONS_TABLE || '';
+const ARCHIVE_TABLE_NAME = process.env.ARCHIVE_TABLE_NAME || '';
 
-exports.handler = async function (event) {
+const cache = ITEM_CACHE_SIZE > 0 ? new ItemCache(ITEM_CACHE_SIZE, ITEM_CACHE_TTL_SECONDS * 1000) : undefined;
+let generations, checkedAt = 0;
+
+// Every write to the table bumps the generation of its key's bucket through the table's stream. Checking them at
+// most once per interval bounds how long a cached item can outlive a write without a read per request; only the
+// cached items in buckets that moved are dropped.
+const checkGenerations = async () => {
+    if (Date.now() - checkedAt < ITEM_CACHE_CHECK_SECONDS * 1000) {
+        return;
+    }
+    const response = await db.get({
+        TableName: ITEM_CACHE_GENERATIONS_TABLE,
+        Key: {tableName: TABLE_NAME}
+    }).promise();
+    const current = response.Item || {};
+    if (!generations) {
+        cache.clear();
+    } else {
+        const generationOf = (item, key) => item[generationAttribute(key)] || 0;
+        cache.evict(key => generationOf(current, key) !== generationOf(generations, key));
+    }
+    generations = current;
+    checkedAt = Date.now();
+};
+
+exports.handler = metrics.instrument('getItem', async function (event) {
 
     const requestedItemId = event.pathParameters.id;
     if (!requestedItemId) {
         return {statusCode: 400, body: `Error: You are missing the path parameter id`};
     }
 
-    const params = {
-        TableName: TABLE_NAME,
-        Key: {
-            [PRIMARY_KEY]: requestedItemId
-        }
-    };
+    const query = event.queryStringParameters || {};
+    // The stage keeps one entry per item, the one a write refreshes, so a read it may cache is never projected.
+    const selection = apiCache.cachesResponse(event) ? undefined : fields.parse(query);
+    if (selection && selection.invalid) {
+        return fields.invalidResponse(selection);
+    }
+    const expansion = expand.parse(query);
+    if (expansion && expansion.invalid) {
+        return expand.invalidResponse(expansion);
+    }
+    // An expansion reads attributes the selection may leave out, so the item is then read in full and picked.
+    const projected = expansion ? undefined : selection;
+
+    // A consistent read skips the cache, and refreshes it with what it reads. A refresh of the stage's entry reads so.
+    const consistentRead = query.consistent === 'true' || apiCache.isRefresh(event);
 
     try {
-        const response = await db.get(params).promise();
-        return {statusCode: 200, body: JSON.stringify(response.Item)};
+        let item, cacheStatus = 'BYPASS';
+        if (cache && !consistentRead) {
+            await checkGenerations();
+            item = cache.get(requestedItemId);
+            cacheStatus = item ? 'HIT' : 'MISS';
+        }
+        if (!item) {
+            // Items are cached whole, so only project the read when there is no cache to fill.
+            const params = {
+                TableName: TABLE_NAME,
+                Key: {
+                    [PRIMARY_KEY]: requestedItemId
+                },
+                ConsistentRead: consistentRead
+            };
+            const response = await db.get(cache ? params : fields.project(params, projected)).promise();
+            item = response.Item;
+            if (cache && item) {
+                cache.set(requestedItemId, item);
+            }
+        }
+        const headers = cache ? {'X-Item-Cache': cacheStatus} : {};
+        if (!item && ARCHIVE_TABLE_NAME) {
+            // Items that expired from the table are read through to its archive, which is never cached here.
+            const response = await db.get(fields.project({
+                TableName: ARCHIVE_TABLE_NAME,
+                Key: {
+                    [PRIMARY_KEY]: requestedItemId
+                }
+            }, projected)).promise();
+            item = response.Item;
+            if (item) {
+                headers['X-Archived'] = 'true';
+            }
+        }
+        if (!item) {
+            // A missing item answers 200 with no body, as it did before the item cache.
+            return {statusCode: 200, headers, body: JSON.stringify(item)};
+        }
+        const body = await expand.apply(db, item, fields.pick(item, selection), expansion);
+        return etag.ok(event, headers, JSON.stringify(body));
     } catch (dbError) {
         return {statusCode: 500, body: JSON.stringify(dbError)};
     }
-};
\ No newline at end of file
+});
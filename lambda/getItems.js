@@ -4,19 +4,135 @@
  * and open the template in the editor.
  */
 const AWS = require('aws-sdk');
-const db = new AWS.DynamoDB.DocumentClient();
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const etag = require('./etag');
+const fields = require('./fields');
 const TABLE_NAME = process.env.TABLE_NAME || '';
+const SCAN_SEGMENTS = parseInt(process.env.SCAN_SEGMENTS || '1', 10);
+const QUERY_INDEXES = (process.env.QUERY_INDEXES || '').split(',')
+        .filter(entry => entry)
+        .map(entry => entry.split('='))
+        .map(([partitionKey, indexName]) => ({partitionKey, indexName}));
 
-exports.handler = async function (event) {
+const DEFAULT_LIMIT = 100,
+        MAX_LIMIT = 1000;
 
+const INVALID_LIMIT = `Error: limit must be an integer between 1 and ${MAX_LIMIT}`,
+        INVALID_CURSOR = `Error: cursor is not valid`;
+
+const encodeCursor = (cursor) => Buffer.from(JSON.stringify(cursor)).toString('base64');
+const decodeCursor = (cursor) => JSON.parse(Buffer.from(cursor, 'base64').toString('utf8'));
+
+// A single page of a sequential scan, resuming from the key carried in the cursor.
+const scanPage = async function (limit, startKey, selection) {
+    const params = {
+        TableName: TABLE_NAME,
+        Limit: limit
+    };
+    if (startKey) {
+        params.ExclusiveStartKey = startKey;
+    }
+
+    const response = await db.scan(fields.project(params, selection)).promise();
+    return {
+        items: response.Items,
+        cursor: response.LastEvaluatedKey ? {k: response.LastEvaluatedKey} : null
+    };
+};
+
+// A single page of a Query against the secondary index keyed on the requested attribute.
+const queryPage = async function (index, value, limit, startKey, selection) {
     const params = {
-        TableName: TABLE_NAME
+        TableName: TABLE_NAME,
+        IndexName: index.indexName,
+        KeyConditionExpression: '#pk = :pk',
+        ExpressionAttributeNames: {'#pk': index.partitionKey},
+        ExpressionAttributeValues: {':pk': value},
+        Limit: limit
+    };
+    if (startKey) {
+        params.ExclusiveStartKey = startKey;
+    }
+
+    const response = await db.query(fields.project(params, selection)).promise();
+    return {
+        items: response.Items,
+        cursor: response.LastEvaluatedKey ? {i: index.indexName, k: response.LastEvaluatedKey} : null
+    };
+};
+
+// One page from each segment, fetched concurrently. A segment whose key is null has been fully read.
+const scanSegments = async function (limit, segmentKeys, selection) {
+    const segmentLimit = Math.ceil(limit / segmentKeys.length);
+    const responses = await Promise.all(segmentKeys.map((startKey, segment) => {
+        if (startKey === null) {
+            return {Items: []};
+        }
+        const params = {
+            TableName: TABLE_NAME,
+            Limit: segmentLimit,
+            Segment: segment,
+            TotalSegments: segmentKeys.length
+        };
+        if (startKey) {
+            params.ExclusiveStartKey = startKey;
+        }
+        return db.scan(fields.project(params, selection)).promise();
+    }));
+
+    const nextKeys = responses.map((response, segment) =>
+        segmentKeys[segment] === null ? null : (response.LastEvaluatedKey || null));
+    return {
+        items: [].concat(...responses.map(response => response.Items)),
+        cursor: nextKeys.some(key => key !== null) ? {s: nextKeys} : null
     };
+};
+
+exports.handler = metrics.instrument('getItems', async function (event) {
+
+    const query = event.queryStringParameters || {};
+
+    const limit = query.limit ? Number(query.limit) : DEFAULT_LIMIT;
+    if (!Number.isInteger(limit) || limit < 1 || limit > MAX_LIMIT) {
+        return {statusCode: 400, body: INVALID_LIMIT};
+    }
+
+    let cursor = null;
+    if (query.cursor) {
+        try {
+            cursor = decodeCursor(query.cursor);
+        } catch (parseError) {
+            return {statusCode: 400, body: INVALID_CURSOR};
+        }
+        if (!cursor || (!cursor.k && !Array.isArray(cursor.s))) {
+            return {statusCode: 400, body: INVALID_CURSOR};
+        }
+    }
+
+    const selection = fields.parse(query);
+    if (selection && selection.invalid) {
+        return fields.invalidResponse(selection);
+    }
+
+    const index = QUERY_INDEXES.find(candidate => query[candidate.partitionKey]);
+    if (cursor && (cursor.i || null) !== (index ? index.indexName : null)) {
+        return {statusCode: 400, body: INVALID_CURSOR};
+    }
+    const parallel = !index && (cursor ? Array.isArray(cursor.s) : (query.parallel === 'true' && SCAN_SEGMENTS > 1));
 
     try {
-        const response = await db.scan(params).promise();
-        return {statusCode: 200, body: JSON.stringify(response.Items)};
+        let page;
+        if (index) {
+            page = await queryPage(index, query[index.partitionKey], limit, cursor ? cursor.k : undefined, selection);
+        } else if (parallel) {
+            page = await scanSegments(limit, cursor ? cursor.s : new Array(SCAN_SEGMENTS).fill(undefined), selection);
+        } else {
+            page = await scanPage(limit, cursor ? cursor.k : undefined, selection);
+        }
+        const headers = page.cursor ? {'X-Next-Cursor': encodeCursor(page.cursor)} : {};
+        return etag.ok(event, headers, JSON.stringify(page.items));
     } catch (dbError) {
         return {statusCode: 500, body: JSON.stringify(dbError)};
     }
-};
+});
@@ -0,0 +1,165 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+// Writes an NDJSON object uploaded through bulkItems.js to the table, one item per line, streamed from the bucket
+// and gunzipped on the way if it was uploaded with Content-Encoding: gzip. Items are put in batches, no faster than
+// IMPORT_WRITES_PER_SECOND, so an import cannot take the capacity the API needs. An item's time to live is set when
+// it has none. Lines that are not an object with a string key are counted and skipped, and once the object is done
+// a report of what was written goes to reports/<table>/<import id>.json.
+const AWS = require('aws-sdk');
+const readline = require('readline');
+const zlib = require('zlib');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const s3 = new AWS.S3();
+const lambda = new AWS.Lambda();
+const batch = require('./batch');
+const ttl = require('./ttl');
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const SORT_KEY = process.env.SORT_KEY || '';
+const TTL_ATTRIBUTE = process.env.TTL_ATTRIBUTE || '';
+const BULK_BUCKET = process.env.BULK_BUCKET || '';
+const IMPORT_WRITES_PER_SECOND = parseInt(process.env.IMPORT_WRITES_PER_SECOND || '100', 10);
+
+const BATCH_WRITE_LIMIT = 25,
+        MAX_REPORTED_LINES = 100,
+        // Left to finish the batch in hand and hand the rest on before the function times out.
+        CONTINUE_BEFORE_MS = 60 * 1000;
+
+const sleep = (ms) => new Promise(resolve => setTimeout(resolve, ms));
+
+// A token bucket holding a second of writes. A batch larger than the bucket borrows from the next second, so the
+// rate holds on average for any batch size.
+const limiter = (perSecond) => {
+    let tokens = perSecond;
+    let refilled = Date.now();
+    return async (count) => {
+        const now = Date.now();
+        tokens = Math.min(perSecond, tokens + (now - refilled) / 1000 * perSecond);
+        refilled = now;
+        tokens -= count;
+        if (tokens < 0) {
+            await sleep(-tokens / perSecond * 1000);
+        }
+    };
+};
+
+const isValid = (item) => item !== null && typeof item === 'object' && !Array.isArray(item)
+        && typeof item[PRIMARY_KEY] === 'string' && item[PRIMARY_KEY] !== ''
+        && (!SORT_KEY || item[SORT_KEY] !== undefined);
+
+const keyOf = (item) => SORT_KEY ? JSON.stringify([item[PRIMARY_KEY], item[SORT_KEY]]) : item[PRIMARY_KEY];
+
+const reportKey = (key) => key.replace(/^imports\//, 'reports/').replace(/\.ndjson(\.gz)?$/, '') + '.json';
+
+const writeReport = (key, report) => s3.putObject({
+    Bucket: BULK_BUCKET,
+    Key: reportKey(key),
+    Body: JSON.stringify(Object.assign({key}, report)),
+    ContentType: 'application/json'
+}).promise();
+
+const continueWith = (context, payload) => lambda.invoke({
+    FunctionName: context.functionName,
+    InvocationType: 'Event',
+    Payload: JSON.stringify(payload)
+}).promise();
+
+const lines = async function* (key) {
+    const head = await s3.headObject({Bucket: BULK_BUCKET, Key: key}).promise();
+    const object = s3.getObject({Bucket: BULK_BUCKET, Key: key}).createReadStream();
+    const input = head.ContentEncoding === 'gzip' ? object.pipe(zlib.createGunzip()) : object;
+    object.on('error', error => input.destroy(error));
+    const reader = readline.createInterface({input, crlfDelay: Infinity});
+    try {
+        yield* reader;
+    } finally {
+        reader.close();
+        object.destroy();
+    }
+};
+
+// Writes the object from the line after `skip`, adding to the totals of the invocations before. Puts are
+// idempotent, so an invocation retried after a failure may write the same items again without harm.
+const importObject = async (context, key, skip, totals) => {
+    const throttle = limiter(IMPORT_WRITES_PER_SECOND);
+    const pending = new Map();
+
+    const flush = async () => {
+        if (pending.size === 0) {
+            return;
+        }
+        const requests = Array.from(pending.values(), item => ({PutRequest: {Item: item}}));
+        pending.clear();
+        await throttle(requests.length);
+        const unprocessed = await batch.untilProcessed(requests, async remaining => {
+            const response = await db.batchWrite({RequestItems: {[TABLE_NAME]: remaining}}).promise();
+            return (response.UnprocessedItems || {})[TABLE_NAME] || [];
+        });
+        if (unprocessed.length > 0) {
+            throw new Error(`${unprocessed.length} items were left unprocessed`);
+        }
+        totals.written += requests.length;
+    };
+
+    let lineNumber = 0;
+    for await (const line of lines(key)) {
+        lineNumber++;
+        if (lineNumber <= skip || line.trim() === '') {
+            continue;
+        }
+        let item;
+        try {
+            item = JSON.parse(line);
+        } catch (error) {
+            item = undefined;
+        }
+        if (!isValid(item)) {
+            totals.invalid++;
+            if (totals.invalidLines.length < MAX_REPORTED_LINES) {
+                totals.invalidLines.push(lineNumber);
+            }
+            continue;
+        }
+        if (TTL_ATTRIBUTE && item[TTL_ATTRIBUTE] === undefined) {
+            ttl.stamp(item);
+        }
+        // A batch may not put the same key twice.
+        if (pending.has(keyOf(item))) {
+            await flush();
+        }
+        pending.set(keyOf(item), item);
+        if (pending.size === BATCH_WRITE_LIMIT) {
+            await flush();
+            if (context.getRemainingTimeInMillis() < CONTINUE_BEFORE_MS) {
+                await continueWith(context, {key, skip: lineNumber, totals});
+                return;
+            }
+        }
+    }
+    await flush();
+    await writeReport(key, Object.assign({status: 'complete', lines: lineNumber}, totals));
+};
+
+exports.handler = metrics.instrument('importItems', async function (event, context) {
+
+    // An upload notification names its object URL-encoded; a continuation names it as it is.
+    const keys = event.Records
+            ? event.Records.map(record => decodeURIComponent(record.s3.object.key.replace(/\+/g, ' ')))
+            : [event.key];
+    if (keys.length > 1) {
+        await Promise.all(keys.map(key => continueWith(context, {key})));
+        return;
+    }
+    const key = keys[0];
+    const totals = event.totals || {written: 0, invalid: 0, invalidLines: []};
+    try {
+        await importObject(context, key, event.skip || 0, totals);
+    } catch (error) {
+        await writeReport(key, Object.assign({status: 'failed', error: error.message}, totals));
+        throw error;
+    }
+});
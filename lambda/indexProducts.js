@@ -0,0 +1,57 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const batch = require('./batch');
+const search = require('./search');
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const SEARCH_TABLE_NAME = process.env.SEARCH_TABLE_NAME || '';
+const SEARCH_PRIMARY_KEY = process.env.SEARCH_PRIMARY_KEY || '';
+const SEARCH_SORT_KEY = process.env.SEARCH_SORT_KEY || '';
+
+const BATCH_WRITE_LIMIT = 25;
+
+const weightsOf = (image) => image ? search.weights(AWS.DynamoDB.Converter.unmarshall(image)) : {};
+
+// The postings to delete and write for a product going from one set of weighted tokens to another;
+// tokens whose weight is unchanged, such as on a rating update, are left alone.
+const requestsFor = (productId, before, after) => {
+    const requests = Object.keys(before).filter(token => after[token] === undefined)
+            .map(token => ({DeleteRequest: {Key: {[SEARCH_PRIMARY_KEY]: token, [SEARCH_SORT_KEY]: productId}}}));
+    Object.keys(after).filter(token => after[token] !== before[token])
+            .forEach(token => requests.push({PutRequest: {
+                    Item: {[SEARCH_PRIMARY_KEY]: token, [SEARCH_SORT_KEY]: productId, weight: after[token]}
+                }}));
+    return requests;
+};
+
+// Keeps a posting per token of each product's name and description. Postings are written from the images
+// alone, so a replayed batch writes the same postings again and needs no idempotency marker.
+exports.handler = metrics.instrument('indexProducts', async function (event) {
+
+    // A product changed several times in the batch is reindexed once, from its image before the first
+    // change to its image after the last, which also keeps each posting to one request per batch write.
+    const before = {}, after = {};
+    for (const record of event.Records) {
+        const productId = AWS.DynamoDB.Converter.unmarshall(record.dynamodb.Keys)[PRIMARY_KEY];
+        if (!(productId in before)) {
+            before[productId] = weightsOf(record.dynamodb.OldImage);
+        }
+        after[productId] = weightsOf(record.dynamodb.NewImage);
+    }
+    const requests = [].concat(...Object.keys(after).map(productId => requestsFor(productId, before[productId], after[productId])));
+
+    await Promise.all(batch.chunk(requests, BATCH_WRITE_LIMIT).map(async chunk => {
+        const unprocessed = await batch.untilProcessed(chunk, async pending => {
+            const response = await db.batchWrite({RequestItems: {[SEARCH_TABLE_NAME]: pending}}).promise();
+            return (response.UnprocessedItems || {})[SEARCH_TABLE_NAME] || [];
+        });
+        if (unprocessed.length > 0) {
+            throw new Error(`${unprocessed.length} search postings were not written`);
+        }
+    }));
+});
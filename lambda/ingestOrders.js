@@ -0,0 +1,69 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const moment = require('moment');
+const orders = require('./orders');
+const ttl = require('./ttl');
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+
+// Drains orders that the API queued with the id it handed back to the client. Each order is placed with the same
+// stock-reserving transaction as a synchronous POST; an order that cannot be placed is still written, marked
+// rejected with the reason, so the client finds an outcome under its id. Messages that fail for any other reason,
+// including orders that kept losing races for their stock, are reported back to be retried, and end up on the
+// dead-letter queue once their receives run out.
+exports.handler = metrics.instrument('ingestOrders', async function (event) {
+
+    const failed = [], rejected = [];
+    await Promise.all(event.Records.map(async record => {
+        try {
+            const received = moment(Number(record.attributes.SentTimestamp)).format('YYYY-MM-DD HH:mm:ss Z');
+            // Placed or rejected, the order is settled here, so its retention runs from when it was taken.
+            const item = ttl.stamp(Object.assign(JSON.parse(record.body), {
+                [PRIMARY_KEY]: record.messageAttributes.itemId.stringValue,
+                createdAt: received,
+                updatedAt: received
+            }), Number(record.attributes.SentTimestamp));
+            const invalidReason = orders.invalidReason(item);
+            if (invalidReason) {
+                rejected.push({record, item: Object.assign(item, {status: 'rejected', reason: invalidReason})});
+                return;
+            }
+            const result = await orders.place(db, Object.assign(item, {status: 'placed'}));
+            if (result.contended) {
+                console.error(JSON.stringify({messageId: record.messageId, error: 'The stock kept changing, retrying'}));
+                failed.push(record);
+            } else if (result.short) {
+                rejected.push({record, item: Object.assign(item, {status: 'rejected', reason: 'Insufficient stock', shortProductIds: result.short})});
+            }
+        } catch (error) {
+            console.error(JSON.stringify({messageId: record.messageId, error: error.message}));
+            failed.push(record);
+        }
+    }));
+
+    // A rejection never replaces an order already written under its id, such as one a redelivery of the message
+    // placed, which would leave that order's stock reserved for an order shown as rejected.
+    await Promise.all(rejected.map(async rejection => {
+        try {
+            await db.put({
+                TableName: TABLE_NAME,
+                Item: rejection.item,
+                ConditionExpression: 'attribute_not_exists(#pk)',
+                ExpressionAttributeNames: {'#pk': PRIMARY_KEY}
+            }).promise();
+        } catch (dbError) {
+            if (dbError.code !== 'ConditionalCheckFailedException') {
+                console.error(JSON.stringify({messageId: rejection.record.messageId, error: dbError.message}));
+                failed.push(rejection.record);
+            }
+        }
+    }));
+
+    return {batchItemFailures: failed.map(record => ({itemIdentifier: record.messageId}))};
+});
@@ -0,0 +1,87 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+// Helpers shared by the handlers that move inventory stock. With sharded counters
+// a product's stock is the sum of the `stock` attribute on items keyed `productId#shard`,
+// plus any left on the unsharded item keyed `productId` from before the table was sharded.
+
+const batch = require('./batch');
+
+const BATCH_GET_LIMIT = 100;
+
+const counterKeys = (productId, counterShards) => counterShards > 1
+        ? Array.from({length: counterShards}, (value, shard) => `${productId}#${shard}`)
+        : [productId];
+
+// The keys a product's stock is read from: its counters, plus its unsharded counter when they are sharded.
+const readKeys = (productId, counterShards) => counterShards > 1
+        ? counterKeys(productId, counterShards).concat([productId])
+        : [productId];
+
+// The most counters one product's removal can draw from.
+const countersPerProduct = (counterShards) => counterShards > 1 ? counterShards + 1 : 1;
+
+// Reads the counter items for every product, returning them grouped by product id. Keys DynamoDB
+// leaves unprocessed are retried, and an error is thrown if any remain rather than undercount the stock.
+const readCounters = async (db, tableName, primaryKey, counterShards, productIds, consistentRead) => {
+    const counters = {}, productOfKey = {};
+    productIds.forEach(productId => {
+        counters[productId] = [];
+        readKeys(productId, counterShards).forEach(key => productOfKey[key] = productId);
+    });
+    const keys = Object.keys(productOfKey);
+    for (const chunk of batch.chunk(keys, BATCH_GET_LIMIT)) {
+        const remaining = await batch.untilProcessed(chunk.map(key => ({[primaryKey]: key})), async pending => {
+            const response = await db.batchGet({
+                RequestItems: {[tableName]: {Keys: pending, ConsistentRead: consistentRead}}
+            }).promise();
+            response.Responses[tableName].forEach(counter => counters[productOfKey[counter[primaryKey]]].push(counter));
+            const unprocessedKeys = response.UnprocessedKeys[tableName];
+            return unprocessedKeys ? unprocessedKeys.Keys : [];
+        });
+        if (remaining.length > 0) {
+            throw new Error(`${remaining.length} inventory counters were left unprocessed`);
+        }
+    }
+    return counters;
+};
+
+const stockOf = (counters) => counters.reduce((total, counter) => total + (counter.stock || 0), 0);
+
+// Plans a removal from a product's counters, or returns null when they hold too little. A random counter holding
+// the whole quantity takes it alone, so concurrent removals spread over the shards; only a quantity no single
+// counter covers is split, fullest first.
+const planDraws = (primaryKey, counters, quantity) => {
+    const covering = counters.filter(counter => (counter.stock || 0) >= quantity);
+    if (covering.length > 0) {
+        return [{key: covering[Math.floor(Math.random() * covering.length)][primaryKey], take: quantity}];
+    }
+
+    const draws = [];
+    let remaining = quantity;
+    for (const counter of [...counters].sort((a, b) => (b.stock || 0) - (a.stock || 0))) {
+        const take = Math.min(counter.stock || 0, remaining);
+        if (take > 0) {
+            draws.push({key: counter[primaryKey], take});
+            remaining -= take;
+        }
+    }
+    return remaining > 0 ? null : draws;
+};
+
+// A transactional update that removes `take` from one counter, only if it still holds that much.
+const drawUpdate = (tableName, primaryKey, draw, updatedAt) => ({
+    Update: {
+        TableName: tableName,
+        Key: {[primaryKey]: draw.key},
+        UpdateExpression: 'add #stock :delta set #updatedAt = :updatedAt',
+        ConditionExpression: '#stock >= :quantity',
+        ExpressionAttributeNames: {'#stock': 'stock', '#updatedAt': 'updatedAt'},
+        ExpressionAttributeValues: {':delta': -draw.take, ':quantity': draw.take, ':updatedAt': updatedAt}
+    }
+});
+
+module.exports = {counterKeys, countersPerProduct, readCounters, stockOf, planDraws, drawUpdate};
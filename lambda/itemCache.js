@@ -0,0 +1,77 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+const REPORT_EVERY = 100;
+
+// Writes are counted per bucket of keys in the table's generations item, so a write only drops the
+// cached items that share its bucket rather than the whole cache.
+const GENERATION_BUCKETS = 64;
+
+// The attribute of the generations item counting the writes to the key's bucket. The bucket is hashed the same
+// as Java's String.hashCode, so GetItemHandler puts a key in the same bucket.
+const generationAttribute = (key) => {
+    let hash = 0;
+    for (let i = 0; i < key.length; i++) {
+        hash = (Math.imul(31, hash) + key.charCodeAt(i)) | 0;
+    }
+    return `generation${((hash % GENERATION_BUCKETS) + GENERATION_BUCKETS) % GENERATION_BUCKETS}`;
+};
+
+// A bounded LRU cache with a TTL, kept for the life of the container. A Map iterates in insertion
+// order, so re-inserting on every hit keeps the least recently used entry first in line for eviction.
+class ItemCache {
+
+    constructor(maxItems, ttlMs) {
+        this.maxItems = maxItems;
+        this.ttlMs = ttlMs;
+        this.entries = new Map();
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    get(key) {
+        const entry = this.entries.get(key);
+        this.entries.delete(key);
+        if (entry && entry.expiresAt > Date.now()) {
+            this.entries.set(key, entry);
+            this.count(true);
+            return entry.value;
+        }
+        this.count(false);
+        return undefined;
+    }
+
+    set(key, value) {
+        this.entries.delete(key);
+        this.entries.set(key, {value, expiresAt: Date.now() + this.ttlMs});
+        if (this.entries.size > this.maxItems) {
+            this.entries.delete(this.entries.keys().next().value);
+        }
+    }
+
+    clear() {
+        this.entries.clear();
+    }
+
+    evict(test) {
+        for (const key of [...this.entries.keys()].filter(test)) {
+            this.entries.delete(key);
+        }
+    }
+
+    // Logs the hit rate since the container started every REPORT_EVERY lookups.
+    count(hit) {
+        hit ? this.hits++ : this.misses++;
+        const lookups = this.hits + this.misses;
+        if (lookups % REPORT_EVERY === 0) {
+            console.log(JSON.stringify({
+                itemCache: {hits: this.hits, misses: this.misses, hitRate: this.hits / lookups, size: this.entries.size}
+            }));
+        }
+    }
+}
+
+module.exports = {ItemCache, generationAttribute};
@@ -0,0 +1,122 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+// One CloudWatch embedded metric format record per invocation, written to the function's log, with the operation's
+// latency, the time its DynamoDB calls took between them, the capacity they consumed, the items they returned, the
+// response size and whether the container was cold. A container serves one invocation at a time.
+const NAMESPACE = process.env.METRICS_NAMESPACE || 'CdkExperiment';
+const SERVICE = process.env.TABLE_NAME || '';
+
+const CALLS = ['get', 'put', 'update', 'delete', 'query', 'scan', 'batchGet', 'batchWrite', 'transactGet', 'transactWrite'];
+
+const METRICS = [
+    {Name: 'Latency', Unit: 'Milliseconds'},
+    {Name: 'DynamoDbLatency', Unit: 'Milliseconds'},
+    {Name: 'DynamoDbCalls', Unit: 'Count'},
+    {Name: 'ConsumedCapacity', Unit: 'Count'},
+    {Name: 'ItemCount', Unit: 'Count'},
+    {Name: 'ResponseBytes', Unit: 'Bytes'},
+    {Name: 'ColdStart', Unit: 'Count'}
+];
+
+let coldStart = true;
+let current = null;
+
+const capacityOf = (consumed) => [].concat(consumed || [])
+        .reduce((total, entry) => total + (entry.CapacityUnits || 0), 0);
+
+const itemsOf = (response) => {
+    if (response.Items) {
+        return response.Items.length;
+    }
+    if (response.Responses) {
+        return Array.isArray(response.Responses)
+                ? response.Responses.filter(entry => entry.Item).length
+                : Object.values(response.Responses).reduce((total, items) => total + items.length, 0);
+    }
+    return response.Item ? 1 : 0;
+};
+
+const timed = async (promise) => {
+    const started = Date.now();
+    const invocation = current;
+    try {
+        const response = await promise;
+        if (invocation) {
+            invocation.consumedCapacity += capacityOf(response.ConsumedCapacity);
+            invocation.itemCount += itemsOf(response);
+        }
+        return response;
+    } finally {
+        if (invocation) {
+            invocation.dynamoDbLatency += Date.now() - started;
+            invocation.dynamoDbCalls++;
+        }
+    }
+};
+
+// A DocumentClient whose calls ask DynamoDB for the capacity they consume and are counted towards the invocation.
+exports.documentClient = (client) => CALLS.reduce((wrapped, call) => Object.assign(wrapped, {
+    [call]: (params) => {
+        const request = client[call](Object.assign({ReturnConsumedCapacity: 'TOTAL'}, params));
+        return {promise: () => timed(request.promise())};
+    }
+}), Object.create(client));
+
+const emit = (invocation, response) => {
+    const record = {
+        _aws: {
+            Timestamp: Date.now(),
+            CloudWatchMetrics: [{
+                Namespace: NAMESPACE,
+                Dimensions: [['Service', 'Operation']],
+                Metrics: METRICS.filter(metric => metric.Name !== 'ResponseBytes' || invocation.responseBytes !== undefined)
+            }]
+        },
+        Service: SERVICE,
+        Operation: invocation.operation,
+        FunctionName: process.env.AWS_LAMBDA_FUNCTION_NAME,
+        Latency: Date.now() - invocation.started,
+        DynamoDbLatency: invocation.dynamoDbLatency,
+        DynamoDbCalls: invocation.dynamoDbCalls,
+        ConsumedCapacity: invocation.consumedCapacity,
+        ItemCount: invocation.itemCount,
+        ColdStart: invocation.cold ? 1 : 0
+    };
+    if (invocation.responseBytes !== undefined) {
+        record.ResponseBytes = invocation.responseBytes;
+    }
+    if (response && response.statusCode) {
+        record.StatusCode = response.statusCode;
+    }
+    console.log(JSON.stringify(record));
+};
+
+// Wraps a handler so each invocation writes its record, including when it throws.
+exports.instrument = (operation, handler) => async function (event, context) {
+    const invocation = {
+        operation,
+        started: Date.now(),
+        cold: coldStart,
+        dynamoDbLatency: 0,
+        dynamoDbCalls: 0,
+        consumedCapacity: 0,
+        itemCount: 0,
+        responseBytes: undefined
+    };
+    coldStart = false;
+    current = invocation;
+    let response;
+    try {
+        response = await handler(event, context);
+        if (response && typeof response.body === 'string') {
+            invocation.responseBytes = Buffer.byteLength(response.body);
+        }
+        return response;
+    } finally {
+        current = null;
+        emit(invocation, response);
+    }
+};
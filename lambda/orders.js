@@ -0,0 +1,125 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+// Order placement shared by createOrder and the queue consumer ingestOrders: the order is written in the
+// same transaction that takes one unit of stock per entry in its productIds.
+
+const inventory = require('./inventory');
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const INVENTORY_TABLE_NAME = process.env.INVENTORY_TABLE_NAME || '';
+const INVENTORY_PRIMARY_KEY = process.env.INVENTORY_PRIMARY_KEY || '';
+const INVENTORY_COUNTER_SHARDS = parseInt(process.env.INVENTORY_COUNTER_SHARDS || '1', 10);
+
+// A transaction holds at most 100 writes, one of which is the order itself.
+const MAX_TRANSACTION_ITEMS = 100;
+const MAX_ATTEMPTS = 3;
+
+const INVALID_ORDER = `invalid request, productIds must be a non-empty list of product ids`,
+        TOO_MANY_PRODUCTS = `invalid request, an order can reserve at most ${MAX_TRANSACTION_ITEMS - 1} stock counters`;
+
+// A product listed more than once in an order reserves one unit per listing.
+const quantitiesOf = (productIds) => productIds.reduce((quantities, productId) => {
+    quantities[productId] = (quantities[productId] || 0) + 1;
+    return quantities;
+}, {});
+
+// Why the order cannot be placed whatever the stock, or undefined when it can be tried.
+const invalidReason = (item) => {
+    if (!Array.isArray(item.productIds) || item.productIds.length === 0
+            || !item.productIds.every(productId => typeof productId === 'string' && productId.length > 0)) {
+        return INVALID_ORDER;
+    }
+    if (Object.keys(quantitiesOf(item.productIds)).length * inventory.countersPerProduct(INVENTORY_COUNTER_SHARDS)
+            > MAX_TRANSACTION_ITEMS - 1) {
+        return TOO_MANY_PRODUCTS;
+    }
+    return undefined;
+};
+
+// Products whose stock, read consistently, no longer covers the quantity ordered.
+const shortProducts = async (db, quantities) => {
+    const counters = await inventory.readCounters(db, INVENTORY_TABLE_NAME, INVENTORY_PRIMARY_KEY,
+            INVENTORY_COUNTER_SHARDS, Object.keys(quantities), true);
+    return Object.keys(quantities).filter(productId => inventory.stockOf(counters[productId]) < quantities[productId]);
+};
+
+// Unsharded counters are decremented in place, each conditional on holding enough stock.
+const plainDraws = (quantities) => Object.keys(quantities).map(productId => ({key: productId, take: quantities[productId]}));
+
+// Sharded counters are read first so each product's quantity can be split across its shards.
+const shardedDraws = async (db, quantities) => {
+    const counters = await inventory.readCounters(db, INVENTORY_TABLE_NAME, INVENTORY_PRIMARY_KEY,
+            INVENTORY_COUNTER_SHARDS, Object.keys(quantities), true);
+    const draws = [], short = [];
+    Object.keys(quantities).forEach(productId => {
+        const productDraws = inventory.planDraws(INVENTORY_PRIMARY_KEY, counters[productId], quantities[productId]);
+        if (productDraws) {
+            draws.push(...productDraws);
+        } else {
+            short.push(productId);
+        }
+    });
+    return {draws, short};
+};
+
+const exists = async (db, item) => {
+    const response = await db.get({
+        TableName: TABLE_NAME,
+        Key: {[PRIMARY_KEY]: item[PRIMARY_KEY]},
+        ConsistentRead: true
+    }).promise();
+    return !!response.Item;
+};
+
+// Writes a valid order, keyed and stamped by the caller, and reserves its stock. Resolves to {placed: true}, to
+// {short} listing the products without enough stock, or to {contended: true} when the transaction lost a race for
+// the stock on every attempt, which is worth retrying. An order already written under the same key counts as
+// placed, so a redelivered order is not charged twice nor reported short.
+const place = async (db, item) => {
+    const quantities = quantitiesOf(item.productIds);
+    for (let attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+        let draws = plainDraws(quantities);
+        if (INVENTORY_COUNTER_SHARDS > 1) {
+            const plan = await shardedDraws(db, quantities);
+            if (plan.short.length > 0) {
+                return await exists(db, item) ? {placed: true} : {short: plan.short};
+            }
+            draws = plan.draws;
+        }
+
+        try {
+            await db.transactWrite({
+                TransactItems: [{
+                        Put: {
+                            TableName: TABLE_NAME,
+                            Item: item,
+                            ConditionExpression: 'attribute_not_exists(#pk)',
+                            ExpressionAttributeNames: {'#pk': PRIMARY_KEY}
+                        }
+                    }].concat(draws.map(draw => inventory.drawUpdate(INVENTORY_TABLE_NAME, INVENTORY_PRIMARY_KEY, draw, item['updatedAt'])))
+            }).promise();
+            return {placed: true};
+        } catch (dbError) {
+            if (dbError.code !== 'TransactionCanceledException') {
+                throw dbError;
+            }
+        }
+
+        // The cancellation does not say which condition failed, so the stock is read back to name the SKUs;
+        // if every product still covers its quantity the transaction lost a race and is retried.
+        if (await exists(db, item)) {
+            return {placed: true};
+        }
+        const short = await shortProducts(db, quantities);
+        if (short.length > 0) {
+            return {short};
+        }
+    }
+    return {contended: true};
+};
+
+module.exports = {invalidReason, place};
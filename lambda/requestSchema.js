@@ -0,0 +1,114 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+// Validates request bodies against the JSON schemas the stacks hand the functions in REQUEST_SCHEMAS, keyed by
+// operation, for APIs that do not validate bodies themselves. Each schema is compiled once per container into a
+// tree of checks; only the keywords the stacks' schemas use are supported, and any other keyword is ignored.
+
+const SCHEMAS = JSON.parse(process.env.REQUEST_SCHEMAS || '{}');
+
+const typeOf = (value) => {
+    if (value === null) {
+        return 'null';
+    }
+    if (Array.isArray(value)) {
+        return 'array';
+    }
+    return typeof value;
+};
+
+const TYPES = {
+    string: value => typeof value === 'string',
+    number: value => typeof value === 'number' && Number.isFinite(value),
+    integer: value => Number.isInteger(value),
+    boolean: value => typeof value === 'boolean',
+    object: value => typeOf(value) === 'object',
+    array: value => Array.isArray(value),
+    null: value => value === null
+};
+
+// Compiles a schema into a function that appends an error for each violation under the given path.
+const compile = (schema) => {
+    const types = schema.type === undefined ? undefined : [].concat(schema.type);
+    const checks = [];
+    if (schema.enum !== undefined) {
+        checks.push((value, path, errors) => schema.enum.includes(value)
+                || !errors.push(`${path} should be one of ${schema.enum.join(', ')}`));
+    }
+    if (schema.minimum !== undefined) {
+        checks.push((value, path, errors) => typeof value !== 'number' || value >= schema.minimum
+                || !errors.push(`${path} should be at least ${schema.minimum}`));
+    }
+    if (schema.maximum !== undefined) {
+        checks.push((value, path, errors) => typeof value !== 'number' || value <= schema.maximum
+                || !errors.push(`${path} should be at most ${schema.maximum}`));
+    }
+    if (schema.minLength !== undefined) {
+        checks.push((value, path, errors) => typeof value !== 'string' || value.length >= schema.minLength
+                || !errors.push(`${path} should have at least ${schema.minLength} characters`));
+    }
+    if (schema.maxLength !== undefined) {
+        checks.push((value, path, errors) => typeof value !== 'string' || value.length <= schema.maxLength
+                || !errors.push(`${path} should have at most ${schema.maxLength} characters`));
+    }
+    if (schema.minItems !== undefined) {
+        checks.push((value, path, errors) => !Array.isArray(value) || value.length >= schema.minItems
+                || !errors.push(`${path} should have at least ${schema.minItems} items`));
+    }
+    if (schema.maxItems !== undefined) {
+        checks.push((value, path, errors) => !Array.isArray(value) || value.length <= schema.maxItems
+                || !errors.push(`${path} should have at most ${schema.maxItems} items`));
+    }
+    if (schema.items !== undefined) {
+        const item = compile(schema.items);
+        checks.push((value, path, errors) => !Array.isArray(value)
+                || value.map((element, index) => item(element, `${path}[${index}]`, errors)).every(valid => valid));
+    }
+    if (schema.required !== undefined) {
+        checks.push((value, path, errors) => typeOf(value) !== 'object'
+                || schema.required.filter(name => value[name] === undefined)
+                        .map(name => errors.push(`${path}.${name} is required`)).length === 0);
+    }
+    if (schema.minProperties !== undefined) {
+        checks.push((value, path, errors) => typeOf(value) !== 'object' || Object.keys(value).length >= schema.minProperties
+                || !errors.push(`${path} should have at least ${schema.minProperties} properties`));
+    }
+    if (schema.properties !== undefined) {
+        const properties = Object.keys(schema.properties).map(name => ({name, check: compile(schema.properties[name])}));
+        checks.push((value, path, errors) => typeOf(value) !== 'object'
+                || properties.filter(property => value[property.name] !== undefined)
+                        .map(property => property.check(value[property.name], `${path}.${property.name}`, errors))
+                        .every(valid => valid));
+    }
+    // A value of the wrong type skips the other checks, which would only repeat the error.
+    return (value, path, errors) => {
+        if (types && !types.some(type => TYPES[type](value))) {
+            errors.push(`${path} should be ${types.join(' or ')}, not ${typeOf(value)}`);
+            return false;
+        }
+        return checks.map(check => check(value, path, errors)).every(valid => valid);
+    };
+};
+
+const validators = {};
+Object.keys(SCHEMAS).forEach(operation => validators[operation] = compile(SCHEMAS[operation]));
+
+// A 400 response listing what is wrong with the body, or undefined when the operation has no schema or the body
+// matches it.
+const check = (operation, body) => {
+    const validate = validators[operation];
+    if (!validate) {
+        return undefined;
+    }
+    const errors = [];
+    validate(body, '$', errors);
+    if (errors.length === 0) {
+        return undefined;
+    }
+    return {statusCode: 400, body: JSON.stringify({message: 'Invalid request body', errors})};
+};
+
+module.exports = {compile, check};
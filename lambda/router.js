@@ -0,0 +1,49 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+// Each entry is an operation, optionally served by another script: 'getItem' or 'getItem=getInventory'.
+const OPERATIONS = (process.env.OPERATIONS || 'getItem,getItems,createItem,updateItem,deleteItem').split(',')
+        .map(entry => entry.split('='))
+        .reduce((operations, [operation, script]) => Object.assign(operations, {[operation]: script || operation}), {});
+
+const ROUTES = {
+    'GET /': 'getItems',
+    'POST /': 'createItem',
+    'GET /{id}': 'getItem',
+    'PUT /{id}': 'updateItem',
+    'DELETE /{id}': 'deleteItem',
+    'POST /batch-get': 'batchGetItems',
+    'POST /batch-write': 'batchWriteItems',
+    'GET /search': 'searchItems'
+};
+
+// Every script an operation may be served by, required by literal name so the router's bundle contains them.
+const SCRIPTS = {
+    getItem: () => require('./getItem'),
+    getItems: () => require('./getItems'),
+    createItem: () => require('./createItem'),
+    updateItem: () => require('./updateItem'),
+    deleteItem: () => require('./deleteItem'),
+    batchGetItems: () => require('./batchGetItems'),
+    batchWriteItems: () => require('./batchWriteItems'),
+    searchItems: () => require('./searchItems'),
+    getInventory: () => require('./getInventory'),
+    updateInventory: () => require('./updateInventory'),
+    createOrder: () => require('./createOrder')
+};
+
+// Only the operations this service exposes are loaded, once per container.
+const handlers = Object.keys(ROUTES)
+        .filter(route => OPERATIONS[ROUTES[route]])
+        .reduce((loaded, route) => Object.assign(loaded, {[route]: SCRIPTS[OPERATIONS[ROUTES[route]]]().handler}), {});
+
+exports.handler = async function (event) {
+
+    const handler = handlers[`${event.httpMethod} ${event.resource}`];
+    if (!handler) {
+        return {statusCode: 405, body: `Error: Unsupported route`};
+    }
+    return handler(event);
+};
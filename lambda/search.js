@@ -0,0 +1,34 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+// How product text is broken into the tokens of the search index, shared by the indexer and the search
+// handler so both agree; SearchItemsHandler tokenizes queries the same way.
+
+const MIN_TOKEN_LENGTH = 2,
+        MAX_TOKEN_LENGTH = 40,
+        NAME_WEIGHT = 3,
+        DESCRIPTION_WEIGHT = 1;
+
+const STOP_WORDS = new Set(['an', 'and', 'are', 'as', 'at', 'be', 'by', 'for', 'from', 'in', 'is', 'it', 'of', 'on',
+    'or', 'the', 'to', 'with']);
+
+// Lower case runs of letters and digits with their accents stripped, so 'Café' and 'cafe' match.
+const tokens = (text) => typeof text !== 'string' ? [] : text.normalize('NFKD')
+        .replace(/[\u0300-\u036f]/g, '')
+        .toLowerCase()
+        .split(/[^a-z0-9]+/)
+        .filter(token => token.length >= MIN_TOKEN_LENGTH && token.length <= MAX_TOKEN_LENGTH && !STOP_WORDS.has(token));
+
+// Each token of a product with its weight: how often it occurs, counting the name more than the description.
+const weights = (product) => {
+    const weighted = {};
+    const add = (text, weight) => tokens(text).forEach(token => weighted[token] = (weighted[token] || 0) + weight);
+    add(product.name, NAME_WEIGHT);
+    add(product.description, DESCRIPTION_WEIGHT);
+    return weighted;
+};
+
+module.exports = {tokens, weights};
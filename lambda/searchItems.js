@@ -0,0 +1,136 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const batch = require('./batch');
+const etag = require('./etag');
+const fields = require('./fields');
+const search = require('./search');
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const SEARCH_TABLE_NAME = process.env.SEARCH_TABLE_NAME || '';
+const SEARCH_PRIMARY_KEY = process.env.SEARCH_PRIMARY_KEY || '';
+const SEARCH_SORT_KEY = process.env.SEARCH_SORT_KEY || '';
+
+const DEFAULT_LIMIT = 20,
+        MAX_LIMIT = 100,
+        MAX_QUERY_TOKENS = 8,
+        POSTINGS_PAGE = 200,
+        BATCH_GET_LIMIT = 100;
+
+const INVALID_QUERY = `Error: q must hold between 1 and ${MAX_QUERY_TOKENS} words to search for`,
+        INVALID_LIMIT = `Error: limit must be an integer between 1 and ${MAX_LIMIT}`;
+
+// Reads one token's postings in product order, a page at a time, skipping ahead to the product asked for
+// with a key condition rather than reading the postings in between.
+const postings = (token) => {
+    let page = [], exhausted = false;
+    const read = async (target, inclusive) => {
+        const params = {
+            TableName: SEARCH_TABLE_NAME,
+            KeyConditionExpression: '#token = :token',
+            ProjectionExpression: '#product, #weight',
+            ExpressionAttributeNames: {'#token': SEARCH_PRIMARY_KEY, '#product': SEARCH_SORT_KEY, '#weight': 'weight'},
+            ExpressionAttributeValues: {':token': token},
+            Limit: POSTINGS_PAGE
+        };
+        if (target !== undefined) {
+            params.KeyConditionExpression += ` and #product ${inclusive ? '>=' : '>'} :target`;
+            params.ExpressionAttributeValues[':target'] = target;
+        }
+        const response = await db.query(params).promise();
+        page = response.Items;
+        exhausted = !response.LastEvaluatedKey;
+    };
+    // Resolves to the first posting at or after the product, or just after it, or undefined when there is none;
+    // with no product, to the first posting.
+    return async (target, inclusive) => {
+        page = page.filter(posting => target === undefined
+                || (inclusive ? posting[SEARCH_SORT_KEY] >= target : posting[SEARCH_SORT_KEY] > target));
+        if (page.length === 0 && !exhausted) {
+            await read(target, inclusive);
+        }
+        return page[0];
+    };
+};
+
+// The products holding every token, with the sum of their weights. The lists are walked in step, each
+// seeking to the highest product any has reached, so the reads follow the products that match rather than
+// the length of the longest list.
+const intersect = async (tokens) => {
+    const lists = tokens.map(postings);
+    const matches = [];
+    let target, inclusive = true;
+    for (;;) {
+        let score = 0, agreed = true;
+        for (const seek of lists) {
+            const posting = await seek(target, inclusive);
+            if (!posting) {
+                return matches;
+            }
+            if (posting[SEARCH_SORT_KEY] !== target) {
+                target = posting[SEARCH_SORT_KEY];
+                inclusive = true;
+                agreed = false;
+                break;
+            }
+            score += posting.weight;
+        }
+        if (agreed) {
+            matches.push({id: target, score});
+            inclusive = false;
+        }
+    }
+};
+
+const readProducts = async (ids, selection) => {
+    const found = {};
+    await Promise.all(batch.chunk(ids, BATCH_GET_LIMIT).map(async chunk => {
+        const remaining = await batch.untilProcessed(chunk.map(id => ({[PRIMARY_KEY]: id})), async keys => {
+            const response = await db.batchGet({RequestItems: {[TABLE_NAME]: fields.project({Keys: keys}, selection)}}).promise();
+            response.Responses[TABLE_NAME].forEach(item => found[item[PRIMARY_KEY]] = item);
+            const unprocessedKeys = response.UnprocessedKeys[TABLE_NAME];
+            return unprocessedKeys ? unprocessedKeys.Keys : [];
+        });
+        if (remaining.length > 0) {
+            throw new Error(`${remaining.length} products were left unprocessed`);
+        }
+    }));
+    return found;
+};
+
+// GET /search?q=, ranked by the weight of the query's tokens in each product, then by product id.
+// A product deleted since it was indexed is left out.
+exports.handler = metrics.instrument('searchItems', async function (event) {
+
+    const query = event.queryStringParameters || {};
+
+    const tokens = [...new Set(search.tokens(query.q))];
+    if (tokens.length === 0 || tokens.length > MAX_QUERY_TOKENS) {
+        return {statusCode: 400, body: INVALID_QUERY};
+    }
+    const limit = query.limit ? Number(query.limit) : DEFAULT_LIMIT;
+    if (!Number.isInteger(limit) || limit < 1 || limit > MAX_LIMIT) {
+        return {statusCode: 400, body: INVALID_LIMIT};
+    }
+    const selection = fields.parse(query);
+    if (selection && selection.invalid) {
+        return fields.invalidResponse(selection);
+    }
+
+    try {
+        const ranked = (await intersect(tokens))
+                .sort((a, b) => b.score - a.score || (a.id < b.id ? -1 : a.id > b.id ? 1 : 0));
+        const top = ranked.slice(0, limit);
+        const products = await readProducts(top.map(match => match.id), selection);
+        const items = top.filter(match => products[match.id])
+                .map(match => ({id: match.id, score: match.score, item: products[match.id]}));
+        return etag.ok(event, {}, JSON.stringify({total: ranked.length, items}));
+    } catch (dbError) {
+        return {statusCode: 500, body: JSON.stringify(dbError)};
+    }
+});
@@ -0,0 +1,17 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+// Expiry of the items a handler writes, when its table has a time to live: DynamoDB deletes an item once the epoch
+// second in TTL_ATTRIBUTE has passed, and the table's stream hands it to the archive.
+const TTL_ATTRIBUTE = process.env.TTL_ATTRIBUTE || '';
+const TTL_SECONDS = parseInt(process.env.TTL_SECONDS || '0', 10);
+
+// Sets the item to expire its retention after the given time, now by default, replacing any expiry the client sent.
+exports.stamp = (item, from = Date.now()) => {
+    if (TTL_ATTRIBUTE && TTL_SECONDS > 0) {
+        item[TTL_ATTRIBUTE] = Math.floor(from / 1000) + TTL_SECONDS;
+    }
+    return item;
+};
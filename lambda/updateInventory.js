@@ -0,0 +1,103 @@
+/* 
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+const AWS = require('aws-sdk');
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
+const moment = require('moment');
+const inventory = require('./inventory');
+const requestSchema = require('./requestSchema');
+const TABLE_NAME = process.env.TABLE_NAME || '';
+const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const COUNTER_SHARDS = parseInt(process.env.COUNTER_SHARDS || '1', 10);
+
+const MAX_ATTEMPTS = 3;
+
+const INVALID_ADJUSTMENT = `invalid request, action must be 'add' or 'remove' with a positive integer quantity`,
+        INSUFFICIENT_STOCK = `Error: Insufficient stock`,
+        STOCK_CONTENDED = `Error: Stock is changing too quickly, please retry`,
+        DYNAMODB_EXECUTION_ERROR = `Error: Execution update, caused a Dynamodb error, please take a look at your CloudWatch Logs.`;
+
+// ADD is applied by DynamoDB itself, so concurrent adjustments to one counter never overwrite each other.
+const adjustCounter = (key, delta) => {
+    const params = {
+        TableName: TABLE_NAME,
+        Key: {
+            [PRIMARY_KEY]: key
+        },
+        UpdateExpression: 'add #stock :delta set #updatedAt = :updatedAt',
+        ExpressionAttributeNames: {'#stock': 'stock', '#updatedAt': 'updatedAt'},
+        ExpressionAttributeValues: {':delta': delta, ':updatedAt': moment().format('YYYY-MM-DD HH:mm:ss Z')}
+    };
+    if (delta < 0) {
+        params.ConditionExpression = '#stock >= :quantity';
+        params.ExpressionAttributeValues[':quantity'] = -delta;
+    }
+    return db.update(params).promise();
+};
+
+// Draws the quantity from a random shard holding enough, or else from the fullest shards, and applies every draw in one transaction,
+// each conditional on its shard still holding enough, so stock can never go negative overall.
+// Answers 409 when the shards hold too little, and a retryable 503 when they kept changing for MAX_ATTEMPTS.
+const removeFromShards = async (productId, quantity) => {
+    for (let attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+        const counters = await inventory.readCounters(db, TABLE_NAME, PRIMARY_KEY, COUNTER_SHARDS, [productId], true);
+        const draws = inventory.planDraws(PRIMARY_KEY, counters[productId], quantity);
+        if (!draws) {
+            return {statusCode: 409, body: INSUFFICIENT_STOCK};
+        }
+
+        const now = moment().format('YYYY-MM-DD HH:mm:ss Z');
+        try {
+            await db.transactWrite({
+                TransactItems: draws.map(draw => inventory.drawUpdate(TABLE_NAME, PRIMARY_KEY, draw, now))
+            }).promise();
+            return {statusCode: 204, body: ''};
+        } catch (dbError) {
+            if (dbError.code !== 'TransactionCanceledException') {
+                throw dbError;
+            }
+        }
+    }
+    return {statusCode: 503, headers: {'Retry-After': '1'}, body: STOCK_CONTENDED};
+};
+
+exports.handler = metrics.instrument('updateInventory', async function (event) {
+
+    if (!event.body) {
+        return {statusCode: 400, body: 'invalid request, you are missing the parameter body'};
+    }
+
+    const productId = event.pathParameters.id;
+    if (!productId) {
+        return {statusCode: 400, body: 'invalid request, you are missing the path parameter id'};
+    }
+
+    const adjustment = typeof event.body == 'object' ? event.body : JSON.parse(event.body);
+    const invalidBody = requestSchema.check('updateItem', adjustment);
+    if (invalidBody) {
+        return invalidBody;
+    }
+    if (!['add', 'remove'].includes(adjustment.action) || !Number.isInteger(adjustment.quantity) || adjustment.quantity < 1) {
+        return {statusCode: 400, body: INVALID_ADJUSTMENT};
+    }
+
+    try {
+        if (COUNTER_SHARDS <= 1) {
+            await adjustCounter(productId, adjustment.action === 'add' ? adjustment.quantity : -adjustment.quantity);
+        } else if (adjustment.action === 'add') {
+            const shards = inventory.counterKeys(productId, COUNTER_SHARDS);
+            await adjustCounter(shards[Math.floor(Math.random() * shards.length)], adjustment.quantity);
+        } else {
+            return await removeFromShards(productId, adjustment.quantity);
+        }
+        return {statusCode: 204, body: ''};
+    } catch (dbError) {
+        if (dbError.code === 'ConditionalCheckFailedException') {
+            return {statusCode: 409, body: INSUFFICIENT_STOCK};
+        }
+        return {statusCode: 500, body: DYNAMODB_EXECUTION_ERROR};
+    }
+});
@@ -4,15 +4,17 @@
  * and open the template in the editor.
  */
 const AWS = require('aws-sdk');
-const db = new AWS.DynamoDB.DocumentClient();
+const metrics = require('./metrics');
+const db = metrics.documentClient(new AWS.DynamoDB.DocumentClient());
 const moment = require('moment');
 const TABLE_NAME = process.env.TABLE_NAME || '';
 const PRIMARY_KEY = process.env.PRIMARY_KEY || '';
+const apiCache = require('./apiCache');
 
 const RESERVED_RESPONSE = `Error: You're using AWS reserved keywords as attributes`,
   DYNAMODB_EXECUTION_ERROR = `Error: Execution update, caused a Dynamodb error, please take a look at your CloudWatch Logs.`;
 
-exports.handler = async function(event) {
+exports.handler = metrics.instrument('updateItem', async function (event) {
     
   if (!event.body) {
     return { statusCode: 400, body: 'invalid request, you are missing the parameter body' };
@@ -23,36 +25,37 @@ exports.handler = async function(event) {
     return { statusCode: 400, body: 'invalid request, you are missing the path parameter id' };
   }
 
-  const editedItem: any = typeof event.body == 'object' ? event.body : JSON.parse(event.body);
-  const editedItemProperties = Object.keys(editedItem);
+  const editedItem = typeof event.body == 'object' ? event.body : JSON.parse(event.body);
+  const editedItemProperties = Object.keys(editedItem || {})
+      .filter(property => property !== PRIMARY_KEY && property !== 'updatedAt');
   if (!editedItem || editedItemProperties.length < 1) {
       return { statusCode: 400, body: 'invalid request, no arguments provided' };
   }
-   editedItemProperties['updatedAt'] =  = moment().format('YYYY-MM-DD HH:mm:ss Z');
-  
-  const firstProperty = editedItemProperties.splice(0,1);
-  const params: any = {
+
+  const params = {
       TableName: TABLE_NAME,
       Key: {
         [PRIMARY_KEY]: editedItemId
       },
-      UpdateExpression: `set ${firstProperty} = :${firstProperty}`,
-      ExpressionAttributeValues: {},
+      UpdateExpression: 'set #updatedAt = :updatedAt',
+      ExpressionAttributeNames: { '#updatedAt': 'updatedAt' },
+      ExpressionAttributeValues: { ':updatedAt': moment().format('YYYY-MM-DD HH:mm:ss Z') },
       ReturnValues: 'UPDATED_NEW'
-  }
-  params.ExpressionAttributeValues[`:${firstProperty}`] = editedItem[`${firstProperty}`];
+  };
 
-  editedItemProperties.forEach(property => {
-      params.UpdateExpression += `, ${property} = :${property}`;
-      params.ExpressionAttributeValues[`:${property}`] = editedItem[property];
+  editedItemProperties.forEach((property, index) => {
+      params.UpdateExpression += `, #a${index} = :a${index}`;
+      params.ExpressionAttributeNames[`#a${index}`] = property;
+      params.ExpressionAttributeValues[`:a${index}`] = editedItem[property];
   });
 
   try {
     await db.update(params).promise();
+    await apiCache.refreshItem(editedItemId);
     return { statusCode: 204, body: '' };
   } catch (dbError) {
     const errorResponse = dbError.code === 'ValidationException' && dbError.message.includes('reserved keyword') ?
     RESERVED_RESPONSE : DYNAMODB_EXECUTION_ERROR;
     return { statusCode: 500, body: errorResponse };
   }
-};
+});
@@ -0,0 +1,37 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+// One minified bundle per handler script, dist/<name>/<name>.js, holding only the modules it requires.
+// The Lambda runtime provides aws-sdk, so it stays out, and moment's locales are never loaded.
+const fs = require('fs');
+const path = require('path');
+const webpack = require('webpack');
+
+const HANDLERS = fs.readdirSync(__dirname)
+        .filter(file => file.endsWith('.js') && /exports\.handler\s*=/.test(fs.readFileSync(path.join(__dirname, file), 'utf8')))
+        .map(file => path.basename(file, '.js'));
+
+module.exports = {
+    mode: 'production',
+    target: 'node',
+    entry: HANDLERS.reduce((entries, name) => Object.assign(entries, {[name]: `./${name}.js`}), {}),
+    output: {
+        path: path.join(__dirname, 'dist'),
+        filename: '[name]/[name].js',
+        libraryTarget: 'commonjs2'
+    },
+    externals: {
+        'aws-sdk': 'commonjs aws-sdk'
+    },
+    plugins: [
+        new webpack.IgnorePlugin({resourceRegExp: /^\.\/locale$/, contextRegExp: /moment$/})
+    ],
+    optimization: {
+        minimize: true
+    },
+    performance: {
+        hints: false
+    }
+};
@@ -0,0 +1,173 @@
+package net.johnmcdonnell.loadtest;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.johnmcdonnell.handlers.Items;
+
+/**
+ * Drives a {@link Workload} against the {@link LocalServices} from as many
+ * threads as its concurrency and prints the throughput and p50/p95/p99
+ * latency of every operation, and of all of them together, as JSON. Only
+ * requests started after the warmup are counted. Latency is the handler's
+ * own, without Lambda or API Gateway, so it tracks changes to the handlers
+ * and their DynamoDB access between commits rather than what clients see.
+ * Run from the project root:
+ * {@code java -jar loadtest/target/loadtest.jar --preset checkout --concurrency 32 --label $(git rev-parse --short HEAD)}.
+ *
+ * @author John McDonnell
+ */
+public final class LoadTest {
+
+    private static final String USAGE = "Options: --preset catalog-browse|checkout|review-burst, "
+            + "--mix getProduct=80,createProduct=20, --zipf <exponent>, --concurrency <threads>, --payload <bytes>, "
+            + "--warmup <seconds>, --duration <seconds>, --products <count>, --orders <count>, "
+            + "--inventory-shards <count>, --endpoint <DynamoDB Local URL>, --label <text>, --out <file>";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<>();
+        for (int index = 0; index < args.length; index += 2) {
+            if (!args[index].startsWith("--") || index + 1 >= args.length) {
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+            options.put(args[index].substring(2), args[index + 1]);
+        }
+
+        final Preset preset = Preset.fromName(options.getOrDefault("preset", "catalog-browse"));
+        final Workload.Builder builder = preset.workload();
+        if (options.containsKey("mix")) {
+            final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+            for (String entry : options.get("mix").split(",")) {
+                final String[] weight = entry.split("=");
+                mix.put(Operation.fromName(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+            }
+            builder.mix(mix);
+        }
+        if (options.containsKey("zipf")) {
+            builder.zipfExponent(Double.parseDouble(options.get("zipf")));
+        }
+        if (options.containsKey("concurrency")) {
+            builder.concurrency(Integer.parseInt(options.get("concurrency")));
+        }
+        if (options.containsKey("payload")) {
+            builder.payloadBytes(Integer.parseInt(options.get("payload")));
+        }
+        if (options.containsKey("warmup")) {
+            builder.warmupSeconds(Integer.parseInt(options.get("warmup")));
+        }
+        if (options.containsKey("duration")) {
+            builder.durationSeconds(Integer.parseInt(options.get("duration")));
+        }
+        final Workload workload = builder.build();
+        final int products = Integer.parseInt(options.getOrDefault("products", "10000"));
+        final int orders = Integer.parseInt(options.getOrDefault("orders", "10000"));
+        final int inventoryShards = Integer.parseInt(options.getOrDefault("inventory-shards", "1"));
+        final String endpoint = options.get("endpoint");
+
+        System.err.println("Seeding " + products + " products and " + orders + " orders in "
+                + (endpoint == null ? "memory" : endpoint));
+        final LocalServices services = new LocalServices(endpoint, products, orders, inventoryShards, workload.getConcurrency() * 2);
+        final ZipfKeys productKeys = new ZipfKeys(services.getProductIds(), workload.getZipfExponent());
+
+        System.err.println("Running " + preset.getName() + " with " + workload.getConcurrency() + " threads for "
+                + workload.getWarmupSeconds() + "s warmup and " + workload.getDurationSeconds() + "s measured");
+        final Map<Operation, Samples> results = run(workload, services, productKeys);
+
+        final ObjectNode report = Items.MAPPER.createObjectNode();
+        if (options.containsKey("label")) {
+            report.put("label", options.get("label"));
+        }
+        report.put("preset", preset.getName())
+                .put("store", endpoint == null ? "in-memory" : endpoint);
+        final ObjectNode config = report.putObject("workload")
+                .put("zipfExponent", workload.getZipfExponent())
+                .put("concurrency", workload.getConcurrency())
+                .put("payloadBytes", workload.getPayloadBytes())
+                .put("warmupSeconds", workload.getWarmupSeconds())
+                .put("durationSeconds", workload.getDurationSeconds())
+                .put("products", products)
+                .put("orders", orders)
+                .put("inventoryShards", inventoryShards);
+        final ObjectNode mix = config.putObject("mix");
+        workload.getMix().forEach((operation, weight) -> mix.put(operation.getOperationName(), weight));
+
+        final Samples overall = new Samples();
+        int writes = 0;
+        final ObjectNode operations = report.putObject("operations");
+        for (Map.Entry<Operation, Samples> result : results.entrySet()) {
+            result.getValue().writeTo(operations.putObject(result.getKey().getOperationName()), workload.getDurationSeconds());
+            overall.addAll(result.getValue());
+            writes += result.getKey().isWrite() ? result.getValue().getCount() : 0;
+        }
+        overall.writeTo(report.putObject("overall"), workload.getDurationSeconds()).put("writes", writes);
+
+        final String json = Items.MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        if (options.containsKey("out")) {
+            Files.write(Paths.get(options.get("out")), json.getBytes(StandardCharsets.UTF_8));
+        } else {
+            System.out.println(json);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @return the samples of every operation that ran, merged across threads
+     */
+    private static Map<Operation, Samples> run(Workload workload, LocalServices services, ZipfKeys productKeys)
+            throws InterruptedException, IOException {
+        final long measureFrom = System.nanoTime() + workload.getWarmupSeconds() * 1_000_000_000L;
+        final long measureUntil = measureFrom + workload.getDurationSeconds() * 1_000_000_000L;
+        final ExecutorService workers = Executors.newFixedThreadPool(workload.getConcurrency());
+        final List<Future<Map<Operation, Samples>>> futures = new ArrayList<>();
+        for (int worker = 0; worker < workload.getConcurrency(); worker++) {
+            futures.add(workers.submit(() -> {
+                final Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+                long started;
+                while ((started = System.nanoTime()) < measureUntil) {
+                    final Operation operation = workload.nextOperation();
+                    final APIGatewayProxyRequestEvent request = operation.request(services, productKeys, workload.getPayloadBytes());
+                    int statusCode = 0;
+                    try {
+                        final APIGatewayProxyResponseEvent response = services.handler(operation.getOperationName())
+                                .handleRequest(request, null);
+                        statusCode = response.getStatusCode();
+                    } catch (RuntimeException e) {
+                        // Counted as an error below.
+                    }
+                    if (started >= measureFrom) {
+                        samples.computeIfAbsent(operation, key -> new Samples()).record(System.nanoTime() - started, statusCode);
+                    }
+                }
+                return samples;
+            }));
+        }
+        workers.shutdown();
+
+        final Map<Operation, Samples> merged = new EnumMap<>(Operation.class);
+        for (Future<Map<Operation, Samples>> future : futures) {
+            try {
+                future.get().forEach((operation, samples) -> merged.computeIfAbsent(operation, key -> new Samples()).addAll(samples));
+            } catch (ExecutionException e) {
+                throw new IOException("A worker failed", e.getCause());
+            }
+        }
+        return merged;
+    }
+}
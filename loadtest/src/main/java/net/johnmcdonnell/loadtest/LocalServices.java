@@ -0,0 +1,263 @@
+package net.johnmcdonnell.loadtest;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import net.johnmcdonnell.DatabaseStack;
+import net.johnmcdonnell.DatabaseTables;
+import net.johnmcdonnell.TableIndex;
+import net.johnmcdonnell.handlers.CreateItemHandler;
+import net.johnmcdonnell.handlers.CreateOrderHandler;
+import net.johnmcdonnell.handlers.GetInventoryHandler;
+import net.johnmcdonnell.handlers.GetItemHandler;
+import net.johnmcdonnell.handlers.GetItemsHandler;
+import net.johnmcdonnell.handlers.Items;
+import net.johnmcdonnell.handlers.TableConfig;
+import net.johnmcdonnell.handlers.UpdateInventoryHandler;
+import net.johnmcdonnell.handlers.UpdateItemHandler;
+import net.johnmcdonnell.handlers.local.InMemoryDynamoDbClient;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * The Java handlers of the product, review, order and inventory services,
+ * configured from the same {@link DatabaseStack#getDynamoEnvironmentParams}
+ * their functions get, against a local DynamoDB: the in-process
+ * {@link InMemoryDynamoDbClient}, or DynamoDB Local at an endpoint, whose
+ * tables are recreated on every run. The tables are seeded with a catalog of
+ * stocked products, their reviews and past orders for the workloads to read.
+ *
+ * @author John McDonnell
+ */
+final class LocalServices {
+
+    private static final int BATCH_WRITE_LIMIT = 25;
+    private static final int USERS = 1000;
+    private static final int REVIEWS_PER_PRODUCT = 5;
+    private static final long INITIAL_STOCK = 1_000_000_000L;
+
+    private final DynamoDbClient dynamoDb;
+    private final Map<String, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> handlers = new HashMap<>();
+    private final String[] productIds;
+    private final String[] orderIds;
+    private final String[] userIds;
+
+    /**
+     * @param endpoint DynamoDB Local's endpoint, or null to keep the tables in memory
+     */
+    LocalServices(String endpoint, int products, int orders, int inventoryShards, int connections) {
+        dynamoDb = endpoint == null
+                ? new InMemoryDynamoDbClient()
+                : DynamoDbClient.builder()
+                        .endpointOverride(URI.create(endpoint))
+                        .region(Region.US_EAST_1)
+                        .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")))
+                        .httpClientBuilder(ApacheHttpClient.builder().maxConnections(connections))
+                        .build();
+        for (DatabaseTables databaseTable : new DatabaseTables[]{DatabaseTables.PRODUCTS, DatabaseTables.REVIEWS,
+            DatabaseTables.ORDERS, DatabaseTables.ORDERS_ARCHIVE, DatabaseTables.INVENTORY, DatabaseTables.CACHE_GENERATIONS}) {
+            createTable(databaseTable);
+        }
+
+        final TableConfig productTable = tableConfig(DatabaseTables.PRODUCTS, Collections.emptyMap());
+        final TableConfig reviewTable = tableConfig(DatabaseTables.REVIEWS, Collections.emptyMap());
+        final TableConfig orderTable = tableConfig(DatabaseTables.ORDERS, Collections.emptyMap());
+        final TableConfig inventoryTable = tableConfig(DatabaseTables.INVENTORY,
+                Collections.singletonMap("COUNTER_SHARDS", String.valueOf(inventoryShards)));
+        handlers.put("getProduct", new GetItemHandler(dynamoDb, productTable));
+        handlers.put("listProducts", new GetItemsHandler(dynamoDb, productTable));
+        handlers.put("createProduct", new CreateItemHandler(dynamoDb, productTable));
+        handlers.put("updateProduct", new UpdateItemHandler(dynamoDb, productTable));
+        handlers.put("createReview", new CreateItemHandler(dynamoDb, reviewTable));
+        handlers.put("listReviews", new GetItemsHandler(dynamoDb, reviewTable));
+        handlers.put("placeOrder", new CreateOrderHandler(dynamoDb, orderTable, inventoryTable));
+        final Map<String, String> productEnvironment = new HashMap<>(
+                DatabaseStack.getDynamoEnvironmentParams(DatabaseTables.PRODUCTS, "PRODUCTS_"));
+        productEnvironment.put("PRODUCTS_FIELDS", "id,name,description,ratingAvg");
+        final GetItemHandler getOrder = new GetItemHandler(dynamoDb, orderTable, TableConfig.fromMap(productEnvironment, "PRODUCTS_"));
+        handlers.put("getOrder", getOrder);
+        handlers.put("getOrderWithProducts", getOrder);
+        handlers.put("listUserOrders", new GetItemsHandler(dynamoDb, orderTable));
+        handlers.put("getInventory", new GetInventoryHandler(dynamoDb, inventoryTable));
+        handlers.put("restock", new UpdateInventoryHandler(dynamoDb, inventoryTable));
+
+        productIds = ids("product", products);
+        orderIds = ids("order", orders);
+        userIds = ids("user", USERS);
+        seed(productTable, reviewTable, orderTable, inventoryTable, inventoryShards);
+    }
+
+    RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler(String name) {
+        return handlers.get(name);
+    }
+
+    /**
+     * @return the seeded product ids, the first the hottest under skew
+     */
+    String[] getProductIds() {
+        return productIds;
+    }
+
+    String randomOrderId() {
+        return orderIds[ThreadLocalRandom.current().nextInt(orderIds.length)];
+    }
+
+    String randomUserId() {
+        return userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+    }
+
+    private static String[] ids(String prefix, int count) {
+        final String[] ids = new String[count];
+        for (int index = 0; index < count; index++) {
+            ids[index] = String.format("%s-%06d", prefix, index);
+        }
+        return ids;
+    }
+
+    private static TableConfig tableConfig(DatabaseTables databaseTable, Map<String, String> extra) {
+        final Map<String, String> environment = new HashMap<>(DatabaseStack.getDynamoEnvironmentParams(databaseTable));
+        environment.putAll(extra);
+        return TableConfig.fromMap(environment);
+    }
+
+    private void createTable(DatabaseTables databaseTable) {
+        if (dynamoDb instanceof InMemoryDynamoDbClient) {
+            final InMemoryDynamoDbClient memory = (InMemoryDynamoDbClient) dynamoDb;
+            memory.createTable(databaseTable.getTableName(), databaseTable.getPrimaryKey());
+            for (TableIndex index : databaseTable.getIndexes()) {
+                memory.createIndex(databaseTable.getTableName(), index.getIndexName(),
+                        index.getPartitionKey(), index.getSortKey().orElse(null));
+            }
+            return;
+        }
+
+        try {
+            dynamoDb.deleteTable(DeleteTableRequest.builder().tableName(databaseTable.getTableName()).build());
+        } catch (ResourceNotFoundException e) {
+            // Nothing left from an earlier run.
+        }
+        final List<AttributeDefinition> attributes = new ArrayList<>();
+        attributes.add(stringAttribute(databaseTable.getPrimaryKey()));
+        final List<GlobalSecondaryIndex> indexes = new ArrayList<>();
+        for (TableIndex index : databaseTable.getIndexes()) {
+            final List<KeySchemaElement> keySchema = new ArrayList<>();
+            keySchema.add(KeySchemaElement.builder().attributeName(index.getPartitionKey()).keyType(KeyType.HASH).build());
+            attributes.add(stringAttribute(index.getPartitionKey()));
+            index.getSortKey().ifPresent(sortKey -> {
+                keySchema.add(KeySchemaElement.builder().attributeName(sortKey).keyType(KeyType.RANGE).build());
+                attributes.add(stringAttribute(sortKey));
+            });
+            indexes.add(GlobalSecondaryIndex.builder()
+                    .indexName(index.getIndexName())
+                    .keySchema(keySchema)
+                    .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                    .build());
+        }
+        dynamoDb.createTable(CreateTableRequest.builder()
+                .tableName(databaseTable.getTableName())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .keySchema(KeySchemaElement.builder().attributeName(databaseTable.getPrimaryKey()).keyType(KeyType.HASH).build())
+                .attributeDefinitions(attributes)
+                .globalSecondaryIndexes(indexes.isEmpty() ? null : indexes)
+                .build());
+    }
+
+    private static AttributeDefinition stringAttribute(String name) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(ScalarAttributeType.S).build();
+    }
+
+    private void seed(TableConfig productTable, TableConfig reviewTable, TableConfig orderTable, TableConfig inventoryTable,
+            int inventoryShards) {
+        final String now = Items.timestamp();
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final List<Map<String, AttributeValue>> products = new ArrayList<>();
+        final List<Map<String, AttributeValue>> reviews = new ArrayList<>();
+        final List<Map<String, AttributeValue>> counters = new ArrayList<>();
+        for (String productId : productIds) {
+            final Map<String, AttributeValue> product = item(productTable, productId, now);
+            product.put("name", string("Product " + productId));
+            product.put("description", string(Payloads.text(200)));
+            products.add(product);
+            for (int review = 0; review < REVIEWS_PER_PRODUCT; review++) {
+                final Map<String, AttributeValue> item = item(reviewTable, productId + "-review-" + review, now);
+                item.put("productId", string(productId));
+                item.put("userId", string(randomUserId()));
+                item.put("rating", AttributeValue.builder().n(String.valueOf(1 + random.nextInt(10))).build());
+                item.put("review", string(Payloads.text(200)));
+                reviews.add(item);
+            }
+            // The handlers' counter layout: one item per product, or one per shard keyed productId#shard.
+            for (int shard = 0; shard < Math.max(inventoryShards, 1); shard++) {
+                final Map<String, AttributeValue> counter = item(inventoryTable,
+                        inventoryShards <= 1 ? productId : productId + "#" + shard, now);
+                counter.put("stock", AttributeValue.builder().n(String.valueOf(INITIAL_STOCK)).build());
+                counters.add(counter);
+            }
+        }
+        final List<Map<String, AttributeValue>> orders = new ArrayList<>();
+        for (String orderId : orderIds) {
+            final Map<String, AttributeValue> order = item(orderTable, orderId, now);
+            order.put("userId", string(randomUserId()));
+            order.put("productIds", AttributeValue.builder()
+                    .l(string(productIds[random.nextInt(productIds.length)]))
+                    .build());
+            order.put("price", AttributeValue.builder().n(String.valueOf(1 + random.nextInt(500))).build());
+            order.put("status", string("placed"));
+            orders.add(order);
+        }
+        write(productTable, products);
+        write(reviewTable, reviews);
+        write(inventoryTable, counters);
+        write(orderTable, orders);
+    }
+
+    private static Map<String, AttributeValue> item(TableConfig table, String id, String now) {
+        final Map<String, AttributeValue> item = new HashMap<>();
+        item.put(table.getPrimaryKey(), string(id));
+        item.put("createdAt", string(now));
+        item.put("updatedAt", string(now));
+        return item;
+    }
+
+    private static AttributeValue string(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private void write(TableConfig table, List<Map<String, AttributeValue>> items) {
+        for (int start = 0; start < items.size(); start += BATCH_WRITE_LIMIT) {
+            final List<WriteRequest> writes = new ArrayList<>();
+            for (Map<String, AttributeValue> item : items.subList(start, Math.min(start + BATCH_WRITE_LIMIT, items.size()))) {
+                writes.add(WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build());
+            }
+            Map<String, List<WriteRequest>> pending = Collections.singletonMap(table.getTableName(), writes);
+            while (!pending.isEmpty()) {
+                pending = dynamoDb.batchWriteItem(BatchWriteItemRequest.builder().requestItems(pending).build()).unprocessedItems();
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package net.johnmcdonnell.loadtest;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import net.johnmcdonnell.handlers.Items;
+
+/**
+ * The requests a workload mixes, each the API request one of the services'
+ * handlers would get. Products are picked with the workload's skew; the
+ * payload size is the length of the free text a write carries.
+ *
+ * @author John McDonnell
+ */
+enum Operation {
+    GET_PRODUCT("getProduct", false) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            return withId(products.next());
+        }
+    },
+    LIST_PRODUCTS("listProducts", false) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            return withQuery(Collections.singletonMap("limit", "20"));
+        }
+    },
+    CREATE_PRODUCT("createProduct", true) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            final ObjectNode body = Items.MAPPER.createObjectNode()
+                    .put("name", "Product " + ThreadLocalRandom.current().nextInt(1_000_000))
+                    .put("description", Payloads.text(payloadBytes));
+            return new APIGatewayProxyRequestEvent().withBody(Items.write(body));
+        }
+    },
+    UPDATE_PRODUCT("updateProduct", true) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            return withId(products.next()).withBody(Items.write(Items.MAPPER.createObjectNode()
+                    .put("description", Payloads.text(payloadBytes))));
+        }
+    },
+    GET_INVENTORY("getInventory", false) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            return withId(products.next());
+        }
+    },
+    RESTOCK("restock", true) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            return withId(products.next()).withBody("{\"action\":\"add\",\"quantity\":10}");
+        }
+    },
+    PLACE_ORDER("placeOrder", true) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final ObjectNode body = Items.MAPPER.createObjectNode()
+                    .put("userId", services.randomUserId())
+                    .put("price", 1 + random.nextInt(500))
+                    .put("note", Payloads.text(payloadBytes));
+            final int lines = 1 + random.nextInt(3);
+            for (int line = 0; line < lines; line++) {
+                body.withArray("productIds").add(products.next());
+            }
+            return new APIGatewayProxyRequestEvent().withBody(Items.write(body));
+        }
+    },
+    GET_ORDER("getOrder", false) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            return withId(services.randomOrderId());
+        }
+    },
+    GET_ORDER_WITH_PRODUCTS("getOrderWithProducts", false) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            return withId(services.randomOrderId())
+                    .withQueryStringParameters(Collections.singletonMap("expand", "products"));
+        }
+    },
+    LIST_USER_ORDERS("listUserOrders", false) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            final Map<String, String> query = new HashMap<>();
+            query.put("userId", services.randomUserId());
+            query.put("limit", "20");
+            return withQuery(query);
+        }
+    },
+    CREATE_REVIEW("createReview", true) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            final ObjectNode body = Items.MAPPER.createObjectNode()
+                    .put("userId", services.randomUserId())
+                    .put("productId", products.next())
+                    .put("rating", 1 + ThreadLocalRandom.current().nextInt(10))
+                    .put("review", Payloads.text(payloadBytes));
+            return new APIGatewayProxyRequestEvent().withBody(Items.write(body));
+        }
+    },
+    LIST_REVIEWS("listReviews", false) {
+        @Override
+        APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes) {
+            final Map<String, String> query = new HashMap<>();
+            query.put("productId", products.next());
+            query.put("limit", "20");
+            return withQuery(query);
+        }
+    };
+
+    private final String operationName;
+    private final boolean write;
+
+    Operation(String operationName, boolean write) {
+        this.operationName = operationName;
+        this.write = write;
+    }
+
+    abstract APIGatewayProxyRequestEvent request(LocalServices services, ZipfKeys products, int payloadBytes);
+
+    /**
+     * @return the name the operation is given on the command line and in reports, e.g. {@code getProduct}
+     */
+    String getOperationName() {
+        return operationName;
+    }
+
+    boolean isWrite() {
+        return write;
+    }
+
+    static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.operationName.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + name);
+    }
+
+    private static APIGatewayProxyRequestEvent withId(String id) {
+        return new APIGatewayProxyRequestEvent().withPathParameters(Collections.singletonMap("id", id));
+    }
+
+    private static APIGatewayProxyRequestEvent withQuery(Map<String, String> query) {
+        return new APIGatewayProxyRequestEvent().withQueryStringParameters(query);
+    }
+}
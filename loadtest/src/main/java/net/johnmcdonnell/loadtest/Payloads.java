@@ -0,0 +1,29 @@
+package net.johnmcdonnell.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filler text for the attributes that carry a workload's payload size.
+ *
+ * @author John McDonnell
+ */
+final class Payloads {
+
+    private static final String WORDS = "lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod tempor ";
+
+    private Payloads() {
+    }
+
+    /**
+     * @return ASCII text of exactly the given length, starting at a random word
+     */
+    static String text(int length) {
+        final StringBuilder text = new StringBuilder(length + WORDS.length());
+        text.append(WORDS, ThreadLocalRandom.current().nextInt(WORDS.length()), WORDS.length());
+        while (text.length() < length) {
+            text.append(WORDS);
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package net.johnmcdonnell.loadtest;
+
+/**
+ * Workloads shaped like the traffic the services see, as starting points that
+ * the command line can override.
+ *
+ * @author John McDonnell
+ */
+enum Preset {
+    /**
+     * Shoppers browsing: product pages, listings, stock and reviews, nearly
+     * all reads, with the usual long tail of popular products.
+     */
+    CATALOG_BROWSE {
+        @Override
+        Workload.Builder workload() {
+            return Workload.builder()
+                    .operation(Operation.GET_PRODUCT, 55)
+                    .operation(Operation.LIST_PRODUCTS, 10)
+                    .operation(Operation.GET_INVENTORY, 15)
+                    .operation(Operation.LIST_REVIEWS, 18)
+                    .operation(Operation.UPDATE_PRODUCT, 2)
+                    .zipfExponent(1.0)
+                    .concurrency(32)
+                    .payloadBytes(256);
+        }
+    },
+    /**
+     * Shoppers buying: orders placed against stock, with the reads around
+     * them and the occasional restock.
+     */
+    CHECKOUT {
+        @Override
+        Workload.Builder workload() {
+            return Workload.builder()
+                    .operation(Operation.GET_PRODUCT, 25)
+                    .operation(Operation.GET_INVENTORY, 25)
+                    .operation(Operation.PLACE_ORDER, 30)
+                    .operation(Operation.GET_ORDER, 6)
+                    .operation(Operation.GET_ORDER_WITH_PRODUCTS, 4)
+                    .operation(Operation.LIST_USER_ORDERS, 8)
+                    .operation(Operation.RESTOCK, 2)
+                    .zipfExponent(0.8)
+                    .concurrency(16)
+                    .payloadBytes(128);
+        }
+    },
+    /**
+     * A product going viral: a burst of reviews and review reads piling onto
+     * a few products.
+     */
+    REVIEW_BURST {
+        @Override
+        Workload.Builder workload() {
+            return Workload.builder()
+                    .operation(Operation.CREATE_REVIEW, 50)
+                    .operation(Operation.LIST_REVIEWS, 35)
+                    .operation(Operation.GET_PRODUCT, 15)
+                    .zipfExponent(1.4)
+                    .concurrency(64)
+                    .payloadBytes(1024);
+        }
+    };
+
+    abstract Workload.Builder workload();
+
+    /**
+     * @return the preset named on the command line, e.g. {@code catalog-browse}
+     */
+    static Preset fromName(String name) {
+        return valueOf(name.toUpperCase().replace('-', '_'));
+    }
+
+    String getName() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
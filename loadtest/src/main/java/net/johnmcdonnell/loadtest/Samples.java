@@ -0,0 +1,89 @@
+package net.johnmcdonnell.loadtest;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The latencies and outcomes of one operation's requests, kept whole so the
+ * percentiles are exact. Each worker thread records into its own samples,
+ * which are merged once the run is over.
+ *
+ * @author John McDonnell
+ */
+final class Samples {
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private int errors;
+    private final Map<Integer, Integer> statusCodes = new TreeMap<>();
+
+    /**
+     * @param statusCode the response's status, or 0 when the handler threw
+     */
+    void record(long latencyNanos, int statusCode) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+        statusCodes.merge(statusCode, 1, Integer::sum);
+        if (statusCode == 0 || statusCode >= 500) {
+            errors++;
+        }
+    }
+
+    void addAll(Samples other) {
+        if (count + other.count > nanos.length) {
+            nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, count + other.count));
+        }
+        System.arraycopy(other.nanos, 0, nanos, count, other.count);
+        count += other.count;
+        errors += other.errors;
+        other.statusCodes.forEach((statusCode, responses) -> statusCodes.merge(statusCode, responses, Integer::sum));
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the request and error counts, throughput, status codes and
+     * latency percentiles in milliseconds into the node.
+     */
+    ObjectNode writeTo(ObjectNode node, double seconds) {
+        node.put("requests", count)
+                .put("errors", errors)
+                .put("throughputPerSecond", round(count / seconds));
+        final ObjectNode codes = node.putObject("statusCodes");
+        statusCodes.forEach((statusCode, responses) -> codes.put(String.valueOf(statusCode), responses));
+
+        final long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        final ObjectNode latency = node.putObject("latencyMillis");
+        if (count > 0) {
+            latency.put("p50", millis(percentile(sorted, 50)))
+                    .put("p95", millis(percentile(sorted, 95)))
+                    .put("p99", millis(percentile(sorted, 99)))
+                    .put("max", millis(sorted[count - 1]))
+                    .put("mean", millis(Arrays.stream(sorted).average().orElse(0)));
+        }
+        return node;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted samples.
+     */
+    private static long percentile(long[] sorted, int percentile) {
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double millis(double nanos) {
+        return round(nanos / 1_000_000);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
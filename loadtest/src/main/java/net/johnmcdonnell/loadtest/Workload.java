@@ -0,0 +1,144 @@
+package net.johnmcdonnell.loadtest;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * What a load test drives: the mix of operations by weight, the Zipf skew of
+ * the products they touch, how many requests are in flight at once, the size
+ * of the text writes carry, and how long to warm up and to measure.
+ *
+ * @author John McDonnell
+ */
+final class Workload {
+
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final double zipfExponent;
+    private final int concurrency;
+    private final int payloadBytes;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+
+    private Workload(Builder builder) {
+        this.mix = Collections.unmodifiableMap(new EnumMap<>(builder.mix));
+        this.totalWeight = builder.mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.zipfExponent = builder.zipfExponent;
+        this.concurrency = builder.concurrency;
+        this.payloadBytes = builder.payloadBytes;
+        this.warmupSeconds = builder.warmupSeconds;
+        this.durationSeconds = builder.durationSeconds;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return an operation drawn from the mix by weight
+     */
+    Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public static final class Builder {
+
+        private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        private double zipfExponent = 1.0;
+        private int concurrency = 16;
+        private int payloadBytes = 256;
+        private int warmupSeconds = 5;
+        private int durationSeconds = 30;
+
+        private Builder() {
+        }
+
+        public Builder operation(final Operation operation, final int weight) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight of " + operation.getOperationName() + " must not be negative");
+            }
+            this.mix.put(operation, weight);
+            return this;
+        }
+
+        /**
+         * Replaces the whole mix.
+         */
+        public Builder mix(final Map<Operation, Integer> mix) {
+            this.mix.clear();
+            mix.forEach(this::operation);
+            return this;
+        }
+
+        /**
+         * @param zipfExponent 0 for uniform product keys; around 1 for a typical catalog, higher for a few very hot products
+         */
+        public Builder zipfExponent(final double zipfExponent) {
+            this.zipfExponent = zipfExponent;
+            return this;
+        }
+
+        public Builder concurrency(final int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Builder payloadBytes(final int payloadBytes) {
+            this.payloadBytes = payloadBytes;
+            return this;
+        }
+
+        public Builder warmupSeconds(final int warmupSeconds) {
+            this.warmupSeconds = warmupSeconds;
+            return this;
+        }
+
+        public Builder durationSeconds(final int durationSeconds) {
+            this.durationSeconds = durationSeconds;
+            return this;
+        }
+
+        public Workload build() {
+            if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+                throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+            }
+            if (concurrency < 1 || durationSeconds < 1 || warmupSeconds < 0 || payloadBytes < 0 || zipfExponent < 0) {
+                throw new IllegalArgumentException("concurrency and duration must be positive, and warmup, payload and skew not negative");
+            }
+            return new Workload(this);
+        }
+    }
+}
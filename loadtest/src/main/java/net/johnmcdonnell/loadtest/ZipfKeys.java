@@ -0,0 +1,42 @@
+package net.johnmcdonnell.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks one of a fixed set of keys with Zipf skew: the key of rank {@code k}
+ * is drawn in proportion to {@code 1 / k^exponent}, so a handful of hot keys
+ * take most of the traffic. An exponent of 0 draws every key alike.
+ *
+ * @author John McDonnell
+ */
+final class ZipfKeys {
+
+    private final String[] keys;
+    private final double[] cumulative;
+
+    /**
+     * @param keys the keys, hottest first
+     */
+    ZipfKeys(String[] keys, double exponent) {
+        this.keys = keys.clone();
+        this.cumulative = new double[keys.length];
+        double total = 0;
+        for (int rank = 1; rank <= keys.length; rank++) {
+            total += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = total;
+        }
+        for (int index = 0; index < cumulative.length; index++) {
+            cumulative[index] /= total;
+        }
+    }
+
+    String next() {
+        final int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        return keys[Math.min(index < 0 ? -index - 1 : index, keys.length - 1)];
+    }
+
+    int size() {
+        return keys.length;
+    }
+}